@@ -8,8 +8,10 @@ import java.io.Writer;
 import java.util.Arrays;
 import java.util.List;
 
+import net.sourceforge.pmd.PMDConfiguration;
 import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.lang.AbstractLanguageVersionHandler;
+import net.sourceforge.pmd.lang.LanguageSession;
 import net.sourceforge.pmd.lang.Parser;
 import net.sourceforge.pmd.lang.ParserOptions;
 import net.sourceforge.pmd.lang.VisitorStarter;
@@ -35,10 +37,22 @@ import net.sourceforge.pmd.lang.rule.RuleViolationFactory;
 public class ApexHandler extends AbstractLanguageVersionHandler {
 
     private final ApexMetricsProvider myMetricsProvider = new ApexMetricsProvider();
+    private final ApexSession session;
 
+    public ApexHandler() {
+        this(null);
+    }
+
+    /** Creates the handler used to process the files during the given session. */
+    ApexHandler(ApexSession session) {
+        this.session = session;
+    }
 
     @Override
     public VisitorStarter getMultifileFacade() {
+        if (session != null) {
+            return rootNode -> session.getMultifile().index((ApexNode<?>) rootNode);
+        }
         return rootNode -> new ApexMultifileVisitorFacade().initializeWith((ApexNode<?>) rootNode);
     }
 
@@ -54,7 +68,15 @@ public class ApexHandler extends AbstractLanguageVersionHandler {
 
     @Override
     public Parser getParser(ParserOptions parserOptions) {
-        return new ApexParser(parserOptions);
+        if (session == null) {
+            return new ApexParser(parserOptions);
+        }
+        return new ApexParser(parserOptions, session);
+    }
+
+    @Override
+    public LanguageSession openSession(PMDConfiguration configuration) {
+        return new ApexSession(configuration);
     }
 
     @Deprecated
@@ -12,9 +12,12 @@ import net.sourceforge.pmd.lang.AbstractParser;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.ParserOptions;
 import net.sourceforge.pmd.lang.TokenManager;
+import net.sourceforge.pmd.lang.apex.ast.ApexNode;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.ParseException;
 
+import apex.jorje.semantic.ast.compilation.Compilation;
+
 /**
  * Adapter for the Apex jorje parser
  *
@@ -24,12 +27,19 @@ import net.sourceforge.pmd.lang.ast.ParseException;
 @Deprecated
 public class ApexParser extends AbstractParser {
     private net.sourceforge.pmd.lang.apex.ast.ApexParser apexParser;
+    private ApexSession session;
 
     public ApexParser(ParserOptions parserOptions) {
         super(parserOptions);
         apexParser = new net.sourceforge.pmd.lang.apex.ast.ApexParser((ApexParserOptions) parserOptions);
     }
 
+    ApexParser(ParserOptions parserOptions, ApexSession session) {
+        super(parserOptions);
+        this.session = session;
+        apexParser = new net.sourceforge.pmd.lang.apex.ast.ApexParser((ApexParserOptions) parserOptions, session::takePrecompiled);
+    }
+
     @Override
     public TokenManager createTokenManager(Reader source) {
         return null;
@@ -42,7 +52,12 @@ public class ApexParser extends AbstractParser {
 
     @Override
     public Node parse(String fileName, Reader source) throws ParseException {
-        return apexParser.parse(source);
+        ApexNode<Compilation> root = apexParser.parse(fileName, source);
+        if (session != null) {
+            // the file may have been indexed by the prepass, from another tree
+            session.getMultifile().attachTo(root);
+        }
+        return root;
     }
 
     @Override
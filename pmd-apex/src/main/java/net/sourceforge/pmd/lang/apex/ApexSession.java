@@ -0,0 +1,145 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.apex;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.lang.LanguageSession;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.apex.ast.ApexBatchParser;
+import net.sourceforge.pmd.lang.apex.multifile.ApexMultifileSession;
+import net.sourceforge.pmd.util.datasource.DataSource;
+
+import apex.jorje.semantic.ast.compilation.Compilation;
+
+/**
+ * The state of one analysis of Apex files. If the configuration asks for
+ * it, the files are compiled in batches while the analysis proceeds: the
+ * first time a file that isn't compiled yet is parsed, it is compiled
+ * together with the next files, as many as the batch parser compiles at
+ * once. Each file is then parsed from its precompiled top level type, so
+ * that only a window of top level types is kept in memory. The multifile
+ * analysis phase indexes the files into the index of the session. The top
+ * level types not used yet and the index are dropped when the session is
+ * closed.
+ */
+final class ApexSession extends LanguageSession {
+
+    private static final Logger LOG = Logger.getLogger(ApexSession.class.getName());
+
+    private final PMDConfiguration configuration;
+    /** Files not compiled yet, by file name, in the order they were given. */
+    private final Map<String, DataSource> pending = new LinkedHashMap<>();
+    /** Top level types compiled ahead and not parsed yet, by file name. */
+    private final Map<String, Compilation> precompiled = new HashMap<>();
+    private final ApexMultifileSession multifile = new ApexMultifileSession();
+    private final ApexHandler handler = new ApexHandler(this);
+    private ApexBatchParser batchParser;
+
+    ApexSession(PMDConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public synchronized void prepare(List<DataSource> files) {
+        int batchSize = configuration.getParserBatchSize();
+        if (batchSize == 0) {
+            return;
+        }
+        batchParser = new ApexBatchParser(batchSize, configuration.getThreads());
+        for (DataSource file : files) {
+            pending.put(fileName(file), file);
+        }
+    }
+
+    private static String fileName(DataSource file) {
+        // the name the file is processed with
+        return new File(file.getNiceFileName(false, null)).getPath();
+    }
+
+    @Override
+    public LanguageVersionHandler getLanguageVersionHandler(LanguageVersionHandler handler) {
+        return this.handler;
+    }
+
+    /**
+     * Returns the precompiled top level type of the given file and forgets
+     * it, or returns null if the file must be compiled alone. If the file
+     * isn't compiled yet, it is compiled with the next pending files.
+     *
+     * @param fileName Name of the file being parsed
+     */
+    synchronized Compilation takePrecompiled(String fileName) {
+        Compilation topLevel = precompiled.remove(fileName);
+        if (topLevel == null && pending.containsKey(fileName)) {
+            compileWindow(fileName);
+            topLevel = precompiled.remove(fileName);
+        }
+        return topLevel;
+    }
+
+    private void compileWindow(String first) {
+        // files are mostly processed in the order they were given
+        int windowSize = batchParser.getBatchSize() * batchParser.getThreads();
+        Map<String, String> sources = new LinkedHashMap<>();
+        readSource(first, pending.remove(first), sources);
+        Iterator<Map.Entry<String, DataSource>> iterator = pending.entrySet().iterator();
+        for (int taken = 1; taken < windowSize && iterator.hasNext(); taken++) {
+            Map.Entry<String, DataSource> next = iterator.next();
+            iterator.remove();
+            readSource(next.getKey(), next.getValue(), sources);
+        }
+        precompiled.putAll(batchParser.compile(sources));
+    }
+
+    private void readSource(String fileName, DataSource file, Map<String, String> sources) {
+        try (InputStream stream = file.getInputStream()) {
+            sources.put(fileName, IOUtils.toString(stream, configuration.getSourceEncoding()));
+        } catch (IOException e) {
+            // the file is compiled alone, and the error reported, when it is processed
+            LOG.log(Level.FINE, "Could not read " + fileName, e);
+        }
+    }
+
+    /**
+     * Returns the number of files compiled ahead and not parsed yet.
+     */
+    synchronized int getPrecompiledCount() {
+        return precompiled.size();
+    }
+
+    /**
+     * Returns the number of files given to {@link #prepare(List)} and not compiled yet.
+     */
+    synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Returns the multifile index of this session.
+     */
+    ApexMultifileSession getMultifile() {
+        return multifile;
+    }
+
+    @Override
+    public synchronized void close() {
+        pending.clear();
+        precompiled.clear();
+        multifile.close();
+    }
+}
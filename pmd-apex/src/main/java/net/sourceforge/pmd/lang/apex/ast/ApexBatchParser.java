@@ -0,0 +1,155 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.apex.ast;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.apex.ApexJorjeLogging;
+
+import apex.jorje.data.Locations;
+import apex.jorje.semantic.ast.compilation.Compilation;
+import apex.jorje.services.exception.ParseException;
+
+/**
+ * Compiles Apex sources in batches, each batch in a single compiler
+ * context. Compiling the sources one by one repeats the compiler setup
+ * and the loading of the built-in types for every file, which dominates
+ * the analysis time of large projects.
+ *
+ * <p>When the analysis compiles the files in batches (see
+ * {@link net.sourceforge.pmd.PMDConfiguration#setParserBatchSize(int)}),
+ * the Apex session of the analysis compiles a window of files the first
+ * time one of them is parsed, and {@link ApexParser} builds the AST of
+ * each file from its precompiled top level type, instead of compiling the
+ * file again. The rules are still applied file by file.
+ *
+ * <p>If a batch contains an unparsable source, its sources are compiled
+ * one by one, and the unparsable source is left out. It is reported as
+ * usual when the file is parsed.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public class ApexBatchParser {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private final int batchSize;
+    private final int threads;
+
+    /**
+     * Creates a batch parser.
+     *
+     * @param batchSize Maximum number of sources compiled together
+     * @param threads   Number of batches compiled in parallel
+     */
+    public ApexBatchParser(int batchSize, int threads) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.threads = Math.max(1, threads);
+        ApexJorjeLogging.disableLogging();
+    }
+
+    public ApexBatchParser() {
+        this(DEFAULT_BATCH_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Compiles the given sources, and returns the top level type of
+     * each source that could be compiled. Sources are identified by a
+     * key, eg their file name, so that identical sources don't collide.
+     *
+     * @param sources Source code of the files, by key
+     * @param <K>     Type of the keys
+     *
+     * @return The top level types, by key, in the iteration order of the sources
+     */
+    public <K> Map<K, Compilation> compile(Map<K, String> sources) {
+        Locations.useIndexFactory();
+
+        List<List<Map.Entry<K, String>>> batches = new ArrayList<>();
+        List<Map.Entry<K, String>> batch = new ArrayList<>(batchSize);
+        for (Map.Entry<K, String> source : sources.entrySet()) {
+            batch.add(source);
+            if (batch.size() == batchSize) {
+                batches.add(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        Map<K, Compilation> result = new LinkedHashMap<>();
+        if (threads == 1 || batches.size() == 1) {
+            for (List<Map.Entry<K, String>> b : batches) {
+                result.putAll(compileBatch(b));
+            }
+            return result;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, batches.size()));
+        try {
+            List<Future<Map<K, Compilation>>> futures = new ArrayList<>(batches.size());
+            for (List<Map.Entry<K, String>> b : batches) {
+                futures.add(executor.submit(() -> compileBatch(b)));
+            }
+            for (Future<Map<K, Compilation>> future : futures) {
+                result.putAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private <K> Map<K, Compilation> compileBatch(List<Map.Entry<K, String>> batch) {
+        Map<K, Compilation> result = new LinkedHashMap<>();
+        try {
+            List<String> sources = new ArrayList<>(batch.size());
+            for (Map.Entry<K, String> source : batch) {
+                sources.add(source.getValue());
+            }
+            List<Compilation> topLevels = CompilerService.INSTANCE.compileBatch(sources);
+            for (int i = 0; i < batch.size(); i++) {
+                if (topLevels.get(i) != null) {
+                    result.put(batch.get(i).getKey(), topLevels.get(i));
+                }
+            }
+        } catch (ParseException e) {
+            if (batch.size() > 1) {
+                // find out which sources are unparsable
+                for (Map.Entry<K, String> source : batch) {
+                    result.putAll(compileBatch(Collections.singletonList(source)));
+                }
+            }
+            // otherwise it is reported when the file is parsed
+        }
+        return result;
+    }
+}
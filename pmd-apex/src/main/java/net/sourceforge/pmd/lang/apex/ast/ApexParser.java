@@ -7,6 +7,7 @@ package net.sourceforge.pmd.lang.apex.ast;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.apache.commons.io.IOUtils;
 
@@ -17,12 +18,6 @@ import net.sourceforge.pmd.lang.ast.ParseException;
 
 import apex.jorje.data.Locations;
 import apex.jorje.semantic.ast.compilation.Compilation;
-import apex.jorje.semantic.ast.compilation.UserClass;
-import apex.jorje.semantic.ast.compilation.UserEnum;
-import apex.jorje.semantic.ast.compilation.UserInterface;
-import apex.jorje.semantic.ast.compilation.UserTrigger;
-import apex.jorje.semantic.ast.visitor.AdditionalPassScope;
-import apex.jorje.semantic.ast.visitor.AstVisitor;
 
 /**
  * @deprecated Internal API
@@ -32,11 +27,26 @@ import apex.jorje.semantic.ast.visitor.AstVisitor;
 public class ApexParser {
     protected final ApexParserOptions parserOptions;
 
+    private final Function<String, Compilation> precompiled;
     private Map<Integer, String> suppressMap;
 
     public ApexParser(ApexParserOptions parserOptions) {
+        this(parserOptions, null);
+    }
+
+    /**
+     * Creates a parser which uses the top level types compiled ahead by
+     * an {@link ApexBatchParser}. The function is given the name of the
+     * parsed file, and returns its top level type, or null if the file
+     * must be compiled.
+     *
+     * @param parserOptions Parser options
+     * @param precompiled   Top level types by file name, or null
+     */
+    public ApexParser(ApexParserOptions parserOptions, Function<String, Compilation> precompiled) {
         ApexJorjeLogging.disableLogging();
         this.parserOptions = parserOptions;
+        this.precompiled = precompiled;
     }
 
     public Compilation parseApex(final String sourceCode) throws ParseException {
@@ -49,9 +59,22 @@ public class ApexParser {
     }
 
     public ApexNode<Compilation> parse(final Reader reader) {
+        return parse(null, reader);
+    }
+
+    /**
+     * Parses the given file, using its precompiled top level type if there is one.
+     *
+     * @param fileName Name of the file, or null if unknown
+     * @param reader   Source code of the file
+     */
+    public ApexNode<Compilation> parse(final String fileName, final Reader reader) {
         try {
             final String sourceCode = IOUtils.toString(reader);
-            final Compilation astRoot = parseApex(sourceCode);
+            Compilation astRoot = precompiled == null || fileName == null ? null : precompiled.apply(fileName);
+            if (astRoot == null) {
+                astRoot = parseApex(sourceCode);
+            }
             final ApexTreeBuilder treeBuilder = new ApexTreeBuilder(sourceCode, parserOptions);
             suppressMap = treeBuilder.getSuppressMap();
 
@@ -68,32 +91,4 @@ public class ApexParser {
     public Map<Integer, String> getSuppressMap() {
         return suppressMap;
     }
-
-    private class TopLevelVisitor extends AstVisitor<AdditionalPassScope> {
-        Compilation topLevel;
-
-        public Compilation getTopLevel() {
-            return topLevel;
-        }
-
-        @Override
-        public void visitEnd(UserClass node, AdditionalPassScope scope) {
-            topLevel = node;
-        }
-
-        @Override
-        public void visitEnd(UserEnum node, AdditionalPassScope scope) {
-            topLevel = node;
-        }
-
-        @Override
-        public void visitEnd(UserInterface node, AdditionalPassScope scope) {
-            topLevel = node;
-        }
-
-        @Override
-        public void visitEnd(UserTrigger node, AdditionalPassScope scope) {
-            topLevel = node;
-        }
-    }
 }
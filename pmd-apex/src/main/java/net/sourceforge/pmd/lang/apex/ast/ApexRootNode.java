@@ -4,7 +4,9 @@
 
 package net.sourceforge.pmd.lang.apex.ast;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.lang.apex.metrics.ApexSignatureMatcher;
 import net.sourceforge.pmd.lang.ast.RootNode;
 import net.sourceforge.pmd.lang.ast.SourceCodePositioner;
 
@@ -14,6 +16,9 @@ import apex.jorje.services.Version;
 @Deprecated
 @InternalApi
 public abstract class ApexRootNode<T extends AstNode> extends AbstractApexNode<T> implements RootNode {
+
+    private ApexSignatureMatcher multifileIndex;
+
     @Deprecated
     @InternalApi
     public ApexRootNode(T node) {
@@ -37,4 +42,21 @@ public abstract class ApexRootNode<T extends AstNode> extends AbstractApexNode<T
     public double getApexVersion() {
         return node.getDefiningType().getCodeUnitDetails().getVersion().getExternal();
     }
+
+    /**
+     * Returns the index of the classes of the analysis this file belongs
+     * to, which rules may use to look up other classes. Returns null if
+     * the file wasn't parsed during an analysis, nor indexed.
+     *
+     * @since 6.27.0
+     */
+    @Experimental
+    public ApexSignatureMatcher getMultifileIndex() {
+        return multifileIndex;
+    }
+
+    @InternalApi
+    public void setMultifileIndex(ApexSignatureMatcher multifileIndex) {
+        this.multifileIndex = multifileIndex;
+    }
 }
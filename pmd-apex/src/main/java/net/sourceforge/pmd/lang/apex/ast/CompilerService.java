@@ -6,13 +6,16 @@ package net.sourceforge.pmd.lang.apex.ast;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.reflect.FieldUtils;
 
 import net.sourceforge.pmd.annotation.InternalApi;
 
+import apex.jorje.semantic.ast.compilation.Compilation;
 import apex.jorje.semantic.ast.visitor.AdditionalPassScope;
 import apex.jorje.semantic.ast.visitor.AstVisitor;
 import apex.jorje.semantic.compiler.ApexCompiler;
@@ -90,6 +93,25 @@ public class CompilerService {
         return compile(compilationUnit, compilerStage);
     }
 
+    /**
+     * Compiles several sources in a single compiler context, and returns
+     * the top level type of each source, in the same order. This is much
+     * cheaper than compiling the sources one by one, as the compiler setup
+     * and the loading of the built-in types is done only once.
+     *
+     * @throws ParseException If one of the sources is unparsable
+     */
+    public List<Compilation> compileBatch(List<String> sources) {
+        List<SourceFile> sourceFiles = sources.stream().map(s -> SourceFile.builder().setBody(s).build())
+                .collect(Collectors.toList());
+        TopLevelVisitor visitor = new TopLevelVisitor();
+        ApexCompiler compiler = ApexCompiler.builder().setInput(createCompilationInput(sourceFiles, visitor)).build();
+        compiler.compile(CompilerStage.POST_TYPE_RESOLVE);
+        Map<SourceFile, Compilation> topLevels = callAdditionalPassVisitor(compiler, visitor);
+        throwParseErrorIfAny(compiler);
+        return sourceFiles.stream().map(topLevels::get).collect(Collectors.toList());
+    }
+
     private ApexCompiler compile(CompilationInput compilationInput, CompilerStage compilerStage) {
         ApexCompiler compiler = ApexCompiler.builder().setInput(compilationInput).build();
         compiler.compile(compilerStage);
@@ -150,4 +172,33 @@ public class CompilerService {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Same as {@link #callAdditionalPassVisitor(ApexCompiler)}, but records
+     * the top level type of each unit. The units are visited one by one,
+     * so the visitor holds the top level type of the last visited unit.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<SourceFile, Compilation> callAdditionalPassVisitor(ApexCompiler compiler, TopLevelVisitor visitor) {
+        Map<SourceFile, Compilation> topLevels = new IdentityHashMap<>();
+        try {
+            List<CodeUnit> allUnits = (List<CodeUnit>) FieldUtils.readDeclaredField(compiler, "allUnits", true);
+            CompilerContext compilerContext = (CompilerContext) FieldUtils.readDeclaredField(compiler,
+                    "compilerContext", true);
+
+            Method getOperation = CompilerStage.ADDITIONAL_VALIDATE.getDeclaringClass()
+                    .getDeclaredMethod("getOperation");
+            getOperation.setAccessible(true);
+            CompilerOperation operation = (CompilerOperation) getOperation
+                    .invoke(CompilerStage.ADDITIONAL_VALIDATE);
+            for (CodeUnit unit : allUnits) {
+                visitor.reset();
+                operation.invoke(compilerContext, unit);
+                topLevels.put(unit.getSourceFile(), visitor.getTopLevel());
+            }
+        } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+        return topLevels;
+    }
 }
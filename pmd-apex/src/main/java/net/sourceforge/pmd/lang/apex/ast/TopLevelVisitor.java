@@ -0,0 +1,48 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.apex.ast;
+
+import apex.jorje.semantic.ast.compilation.Compilation;
+import apex.jorje.semantic.ast.compilation.UserClass;
+import apex.jorje.semantic.ast.compilation.UserEnum;
+import apex.jorje.semantic.ast.compilation.UserInterface;
+import apex.jorje.semantic.ast.compilation.UserTrigger;
+import apex.jorje.semantic.ast.visitor.AdditionalPassScope;
+import apex.jorje.semantic.ast.visitor.AstVisitor;
+
+/**
+ * Records the last top level type visited by the compiler.
+ */
+class TopLevelVisitor extends AstVisitor<AdditionalPassScope> {
+    private Compilation topLevel;
+
+    public Compilation getTopLevel() {
+        return topLevel;
+    }
+
+    void reset() {
+        topLevel = null;
+    }
+
+    @Override
+    public void visitEnd(UserClass node, AdditionalPassScope scope) {
+        topLevel = node;
+    }
+
+    @Override
+    public void visitEnd(UserEnum node, AdditionalPassScope scope) {
+        topLevel = node;
+    }
+
+    @Override
+    public void visitEnd(UserInterface node, AdditionalPassScope scope) {
+        topLevel = node;
+    }
+
+    @Override
+    public void visitEnd(UserTrigger node, AdditionalPassScope scope) {
+        topLevel = node;
+    }
+}
@@ -4,11 +4,10 @@
 
 package net.sourceforge.pmd.lang.apex.multifile;
 
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.sourceforge.pmd.lang.apex.metrics.signature.ApexOperationSigMask;
 import net.sourceforge.pmd.lang.apex.metrics.signature.ApexOperationSignature;
@@ -20,14 +19,11 @@ import net.sourceforge.pmd.lang.apex.metrics.signature.ApexOperationSignature;
  */
 class ApexClassStats {
 
-    private Map<ApexOperationSignature, Set<String>> operations = new HashMap<>();
+    private final Map<ApexOperationSignature, Set<String>> operations = new ConcurrentHashMap<>();
 
 
     void addOperation(String name, ApexOperationSignature sig) {
-        if (!operations.containsKey(sig)) {
-            operations.put(sig, new HashSet<>());
-        }
-        operations.get(sig).add(name);
+        operations.computeIfAbsent(sig, k -> ConcurrentHashMap.newKeySet()).add(name);
     }
 
 
@@ -0,0 +1,95 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.apex.multifile;
+
+import java.util.Collection;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.apex.ast.ApexNode;
+import net.sourceforge.pmd.lang.apex.ast.ApexRootNode;
+import net.sourceforge.pmd.lang.apex.metrics.ApexSignatureMatcher;
+
+/**
+ * Scopes the multifile index of Apex classes to one analysis. During an
+ * analysis, the multifile analysis phase indexes the analysed files into
+ * the index of the analysis' session, which is discarded when the session
+ * is {@linkplain #close() closed}. Rules find the index of the analysis
+ * with {@link ApexRootNode#getMultifileIndex()}. Outside of an analysis,
+ * each file is indexed alone.
+ *
+ * <p>All the files can be {@linkplain #index(Collection) indexed} before
+ * rules are applied, so that rules looking up other classes don't depend
+ * on the order in which the files are processed. The analysis does this
+ * with {@link net.sourceforge.pmd.PMDConfiguration#setMultifilePrepass(boolean)},
+ * which parses and indexes the files in parallel, one file at a time.
+ *
+ * <pre>{@code
+ * try (ApexMultifileSession session = new ApexMultifileSession()) {
+ *     session.index(roots);
+ *     // apply the rules
+ * }
+ * }</pre>
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public final class ApexMultifileSession implements AutoCloseable {
+
+    private final ApexProjectMirror mirror = new ApexProjectMirror();
+
+    /**
+     * Indexes the given file, and makes this index available from its
+     * root. Files may be indexed concurrently, and several times.
+     *
+     * @param root Root node of the file
+     */
+    public void index(ApexNode<?> root) {
+        root.jjtAccept(new ApexMultifileVisitor(mirror), null);
+        attachTo(root);
+    }
+
+    /**
+     * Makes this index available from the given root, without indexing it.
+     *
+     * @param root Root node of a file of this session
+     */
+    public void attachTo(ApexNode<?> root) {
+        if (root instanceof ApexRootNode) {
+            ((ApexRootNode<?>) root).setMultifileIndex(mirror);
+        }
+    }
+
+    /**
+     * Indexes the given files, in parallel. Files may be indexed several
+     * times.
+     *
+     * @param roots Root nodes of the files
+     */
+    public void index(Collection<? extends ApexNode<?>> roots) {
+        roots.parallelStream().forEach(this::index);
+    }
+
+    /**
+     * Returns the number of classes indexed so far.
+     */
+    public int getIndexedClassCount() {
+        return mirror.size();
+    }
+
+    /**
+     * Returns a signature matcher looking up the classes of this session.
+     */
+    public ApexSignatureMatcher getSignatureMatcher() {
+        return mirror;
+    }
+
+    /**
+     * Ends this session, and drops its index.
+     */
+    @Override
+    public void close() {
+        mirror.reset();
+    }
+}
@@ -8,13 +8,15 @@ import net.sourceforge.pmd.lang.apex.ast.ApexNode;
 import net.sourceforge.pmd.lang.apex.ast.ApexParserVisitorAdapter;
 
 /**
+ * Indexes a file outside of an analysis. The file is indexed alone, into
+ * an index available from its root, see {@link ApexMultifileSession}.
+ *
  * @author Clément Fournier
  */
 public class ApexMultifileVisitorFacade extends ApexParserVisitorAdapter {
 
     public void initializeWith(ApexNode<?> rootNode) {
-        ApexMultifileVisitor visitor = new ApexMultifileVisitor(ApexProjectMirror.INSTANCE);
-        rootNode.jjtAccept(visitor, null);
+        new ApexMultifileSession().index(rootNode);
     }
 
 }
@@ -4,25 +4,24 @@
 
 package net.sourceforge.pmd.lang.apex.multifile;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.sourceforge.pmd.lang.apex.ast.ApexQualifiedName;
 import net.sourceforge.pmd.lang.apex.metrics.ApexSignatureMatcher;
 import net.sourceforge.pmd.lang.apex.metrics.signature.ApexOperationSigMask;
 
 /**
- * Equivalent to PackageStats in the java framework.
+ * Equivalent to PackageStats in the java framework. Files may be
+ * indexed concurrently.
  *
  * @author Clément Fournier
  */
 final class ApexProjectMirror implements ApexSignatureMatcher {
 
-    static final ApexProjectMirror INSTANCE = new ApexProjectMirror();
+    private final Map<ApexQualifiedName, ApexClassStats> classes = new ConcurrentHashMap<>();
 
-    private final Map<ApexQualifiedName, ApexClassStats> classes = new HashMap<>();
-
-    private ApexProjectMirror() {
+    ApexProjectMirror() {
     }
 
 
@@ -31,10 +30,15 @@ final class ApexProjectMirror implements ApexSignatureMatcher {
     }
 
 
+    int size() {
+        return classes.size();
+    }
+
+
     ApexClassStats getClassStats(ApexQualifiedName qname, boolean createIfNotFound) {
         ApexQualifiedName className = qname.getClassName();
-        if (createIfNotFound && !classes.containsKey(className)) {
-            classes.put(className, new ApexClassStats());
+        if (createIfNotFound) {
+            return classes.computeIfAbsent(className, k -> new ApexClassStats());
         }
         return classes.get(className);
     }
@@ -0,0 +1,127 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.apex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.lang.apex.ast.ApexRootNode;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.util.datasource.DataSource;
+import net.sourceforge.pmd.util.datasource.FileDataSource;
+
+public class ApexSessionTest {
+
+    private static final String FOO = "public class Foo { public void bar() { } }";
+    private static final String BAZ = "public interface Baz { void qux(); }";
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File write(String name, String source) throws IOException {
+        File file = new File(tempFolder.getRoot(), name);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        return file.getCanonicalFile();
+    }
+
+    private static Node parse(ApexSession session, File file, String source) {
+        LanguageVersionHandler handler = session.getLanguageVersionHandler(new ApexHandler());
+        return handler.getParser(handler.getDefaultParserOptions()).parse(file.getPath(), new StringReader(source));
+    }
+
+    @Test
+    public void testFilesAreCompiledInWindowsAsTheyAreParsed() throws IOException {
+        List<DataSource> files = new ArrayList<>();
+        List<File> paths = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            File file = write("Foo" + i + ".cls", FOO);
+            paths.add(file);
+            files.add(new FileDataSource(file));
+        }
+
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setParserBatchSize(2);
+        configuration.setThreads(1);
+        ApexSession session = (ApexSession) new ApexHandler().openSession(configuration);
+        session.prepare(files);
+        // nothing is compiled up front
+        assertEquals(0, session.getPrecompiledCount());
+        assertEquals(5, session.getPendingCount());
+
+        assertEquals("Foo", parse(session, paths.get(0), FOO).getImage());
+        // compiled with the next file
+        assertEquals(1, session.getPrecompiledCount());
+        assertEquals(3, session.getPendingCount());
+
+        parse(session, paths.get(1), FOO);
+        assertEquals(0, session.getPrecompiledCount());
+        assertEquals(3, session.getPendingCount());
+
+        session.close();
+        assertEquals(0, session.getPendingCount());
+    }
+
+    @Test
+    public void testIdenticalFilesAreKeyedByName() throws IOException {
+        File first = write("a/Foo.cls", FOO);
+        File second = write("b/Foo.cls", FOO);
+        List<DataSource> files = new ArrayList<>();
+        files.add(new FileDataSource(first));
+        files.add(new FileDataSource(second));
+
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setParserBatchSize(10);
+        ApexSession session = (ApexSession) new ApexHandler().openSession(configuration);
+        session.prepare(files);
+
+        parse(session, first, FOO);
+        assertEquals(1, session.getPrecompiledCount());
+        parse(session, second, FOO);
+        assertEquals(0, session.getPrecompiledCount());
+        session.close();
+    }
+
+    @Test
+    public void testFilesAreNotPrecompiledByDefault() throws IOException {
+        File file = write("Baz.cls", BAZ);
+        List<DataSource> files = new ArrayList<>();
+        files.add(new FileDataSource(file));
+
+        ApexSession session = (ApexSession) new ApexHandler().openSession(new PMDConfiguration());
+        session.prepare(files);
+        assertEquals(0, session.getPendingCount());
+        assertEquals("Baz", parse(session, file, BAZ).getImage());
+        session.close();
+    }
+
+    @Test
+    public void testMultifileIndexIsScopedToTheSession() {
+        ApexSession session = (ApexSession) new ApexHandler().openSession(new PMDConfiguration());
+        LanguageVersionHandler handler = session.getLanguageVersionHandler(new ApexHandler());
+        Node root = handler.getParser(handler.getDefaultParserOptions()).parse("Foo.cls", new StringReader(FOO));
+        // available to the rules even if the prepass indexed another tree
+        assertSame(session.getMultifile().getSignatureMatcher(), ((ApexRootNode<?>) root).getMultifileIndex());
+        handler.getMultifileFacade().start(root);
+        assertEquals(1, session.getMultifile().getIndexedClassCount());
+
+        session.close();
+        assertEquals(0, session.getMultifile().getIndexedClassCount());
+    }
+}
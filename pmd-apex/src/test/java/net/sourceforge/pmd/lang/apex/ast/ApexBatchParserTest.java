@@ -0,0 +1,77 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.apex.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.lang.apex.ApexParserOptions;
+
+import apex.jorje.semantic.ast.compilation.Compilation;
+
+public class ApexBatchParserTest {
+
+    private static final String FOO = "public class Foo { public void bar() { } }";
+    private static final String BAZ = "public interface Baz { void qux(); }";
+    private static final String TRIGGER = "trigger T on Account (before insert) { }";
+    private static final String BROKEN = "public class Broken { private String myField = \"a\"; }";
+
+    private static Map<String, String> sources(String... namesAndSources) {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndSources.length; i += 2) {
+            sources.put(namesAndSources[i], namesAndSources[i + 1]);
+        }
+        return sources;
+    }
+
+    @Test
+    public void testCompileInParallelBatches() {
+        Map<String, String> sources = sources("Foo.cls", FOO, "Baz.cls", BAZ, "T.trigger", TRIGGER);
+        Map<String, Compilation> compiled = new ApexBatchParser(2, 2).compile(sources);
+
+        assertEquals(3, compiled.size());
+        assertEquals(Arrays.asList("Foo.cls", "Baz.cls", "T.trigger"), Arrays.asList(compiled.keySet().toArray()));
+    }
+
+    @Test
+    public void testIdenticalSourcesDontCollide() {
+        Map<String, Compilation> compiled = new ApexBatchParser(10, 1).compile(sources("a/Foo.cls", FOO, "b/Foo.cls", FOO));
+
+        assertEquals(2, compiled.size());
+        assertNotSame(compiled.get("a/Foo.cls"), compiled.get("b/Foo.cls"));
+    }
+
+    @Test
+    public void testUnparsableSourceIsLeftOut() {
+        Map<String, Compilation> compiled = new ApexBatchParser(10, 1)
+            .compile(sources("Foo.cls", FOO, "Broken.cls", BROKEN, "Baz.cls", BAZ));
+
+        assertEquals(2, compiled.size());
+        assertFalse(compiled.containsKey("Broken.cls"));
+    }
+
+    @Test
+    public void testParserUsesPrecompiledSources() {
+        Map<String, Compilation> precompiled = new HashMap<>(new ApexBatchParser().compile(sources("Foo.cls", FOO, "Baz.cls", BAZ)));
+
+        ApexNode<Compilation> root = new ApexParser(new ApexParserOptions(), precompiled::remove)
+            .parse("Foo.cls", new StringReader(FOO));
+        assertTrue(root instanceof ASTUserClass);
+        assertEquals("Foo", root.getImage());
+        assertFalse(precompiled.containsKey("Foo.cls"));
+        // still there, as it wasn't parsed
+        assertTrue(precompiled.containsKey("Baz.cls"));
+    }
+}
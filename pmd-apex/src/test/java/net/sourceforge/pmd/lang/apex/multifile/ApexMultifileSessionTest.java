@@ -0,0 +1,54 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.apex.multifile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.lang.apex.ast.ASTMethod;
+import net.sourceforge.pmd.lang.apex.ast.ApexNode;
+import net.sourceforge.pmd.lang.apex.ast.ApexParserTestBase;
+import net.sourceforge.pmd.lang.apex.ast.ApexRootNode;
+import net.sourceforge.pmd.lang.apex.metrics.signature.ApexOperationSigMask;
+
+public class ApexMultifileSessionTest extends ApexParserTestBase {
+
+    @Test
+    public void testParallelIndexing() {
+        List<ApexNode<?>> roots = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            roots.add(parse("public class Foo" + i + " { public void bar" + i + "() { } }"));
+        }
+
+        try (ApexMultifileSession session = new ApexMultifileSession()) {
+            session.index(roots);
+            session.index(roots);
+            assertEquals(20, session.getIndexedClassCount());
+
+            ApexOperationSigMask mask = new ApexOperationSigMask();
+            for (ApexNode<?> root : roots) {
+                ASTMethod method = root.getFirstDescendantOfType(ASTMethod.class);
+                assertTrue(session.getSignatureMatcher().hasMatchingSig(method.getQualifiedName(), mask));
+                assertSame(session.getSignatureMatcher(), ((ApexRootNode<?>) root).getMultifileIndex());
+            }
+        }
+    }
+
+    @Test
+    public void testClosedSessionIsDropped() {
+        ApexMultifileSession session = new ApexMultifileSession();
+        session.index(Collections.singletonList(parse("public class Foo { }")));
+        session.close();
+
+        assertEquals(0, session.getIndexedClassCount());
+    }
+}
@@ -15,6 +15,7 @@ import net.sourceforge.pmd.lang.apex.ast.ASTMethod;
 import net.sourceforge.pmd.lang.apex.ast.ApexNode;
 import net.sourceforge.pmd.lang.apex.ast.ApexParserTestBase;
 import net.sourceforge.pmd.lang.apex.ast.ApexParserVisitorAdapter;
+import net.sourceforge.pmd.lang.apex.ast.ApexRootNode;
 import net.sourceforge.pmd.lang.apex.metrics.ApexSignatureMatcher;
 import net.sourceforge.pmd.lang.apex.metrics.signature.ApexOperationSigMask;
 
@@ -26,8 +27,9 @@ import apex.jorje.semantic.ast.compilation.Compilation;
 public class ApexMultifileVisitorTest extends ApexParserTestBase {
 
     @Test
-    public void testProjectMirrorNotNull() {
-        assertNotNull(ApexProjectMirror.INSTANCE);
+    public void testIndexIsAttachedToTheRoot() throws IOException {
+        ApexNode<Compilation> acu = parseResource("MetadataDeployController.cls");
+        assertNotNull(((ApexRootNode<?>) acu).getMultifileIndex());
     }
 
 
@@ -35,7 +37,7 @@ public class ApexMultifileVisitorTest extends ApexParserTestBase {
     public void testOperationsAreThere() throws IOException {
         ApexNode<Compilation> acu = parseResource("MetadataDeployController.cls");
 
-        final ApexSignatureMatcher toplevel = ApexProjectMirror.INSTANCE;
+        final ApexSignatureMatcher toplevel = ((ApexRootNode<?>) acu).getMultifileIndex();
 
         final ApexOperationSigMask opMask = new ApexOperationSigMask();
 
@@ -0,0 +1,175 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import net.sourceforge.pmd.util.filter.RegexStringFilter;
+
+/**
+ * The include and exclude patterns of a {@link RuleSet}, compiled to be
+ * matched against many paths. A file is checked if an include pattern
+ * matches its path, or if no exclude pattern does, like the filter built by
+ * {@link net.sourceforge.pmd.util.filter.Filters#buildRegexFilterIncludeOverExclude(List, List)}.
+ *
+ * <p>The patterns that only test the end of the path are tested with
+ * {@link String#endsWith(String)}, the other ones are joined into one
+ * alternation, so that a path is matched once against the includes and
+ * once against the excludes. The result for the last path is remembered
+ * per thread, since the rulesets are asked about the same file several
+ * times during its analysis.
+ */
+final class FilePatternMatcher {
+
+    // these can't be nested into an alternation without changing their meaning
+    private static final Pattern NOT_COMBINABLE = Pattern.compile("\\\\[1-9]|\\\\k<|\\\\Q|\\(\\?<[a-zA-Z]|#");
+
+    private final PatternSet includes;
+    private final PatternSet excludes;
+    private final List<Pattern> directoryExclusions;
+    private final ThreadLocal<LastMatch> lastMatch = new ThreadLocal<>();
+
+    FilePatternMatcher(List<Pattern> includePatterns, List<Pattern> excludePatterns) {
+        includes = new PatternSet(includePatterns);
+        excludes = new PatternSet(excludePatterns);
+        directoryExclusions = includePatterns.isEmpty()
+            ? directoryExclusions(excludePatterns)
+            : Collections.<Pattern>emptyList();
+    }
+
+    /**
+     * Returns true if the file should be checked.
+     */
+    boolean applies(File file) {
+        if (excludes.isEmpty()) {
+            return true;
+        }
+        String path = file.getPath().replace('\\', '/');
+        LastMatch last = lastMatch.get();
+        if (last != null && last.path.equals(path)) {
+            return last.applies;
+        }
+        boolean applies = includes.matches(path) || !excludes.matches(path);
+        lastMatch.set(new LastMatch(path, applies));
+        return applies;
+    }
+
+    /**
+     * Returns true if some exclude pattern may match all the files of a directory.
+     */
+    boolean canExcludeDirectories() {
+        return !directoryExclusions.isEmpty();
+    }
+
+    /**
+     * Returns true if no file below the directory is checked.
+     *
+     * @param directoryPath Path of the directory, with {@code /} separators
+     *                      and a trailing {@code /}
+     */
+    boolean excludesDirectory(String directoryPath) {
+        for (Pattern exclusion : directoryExclusions) {
+            if (exclusion.matcher(directoryPath).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An exclude pattern {@code prefix.*} matches every path starting with
+     * a directory path matched by the prefix, so the directory can be
+     * skipped. Only done for the plain patterns, where the trailing
+     * {@code .*} applies to the whole prefix.
+     */
+    private static List<Pattern> directoryExclusions(List<Pattern> excludePatterns) {
+        List<Pattern> exclusions = new ArrayList<>();
+        for (Pattern pattern : excludePatterns) {
+            String regex = pattern.pattern();
+            if (!regex.endsWith(".*") || regex.endsWith("\\.*")) {
+                continue;
+            }
+            String prefix = regex.substring(0, regex.length() - 2);
+            if (prefix.indexOf('|') < 0 && !NOT_COMBINABLE.matcher(prefix).find()) {
+                Pattern compiled = compile(prefix);
+                if (compiled != null) {
+                    exclusions.add(compiled);
+                }
+            }
+        }
+        return exclusions;
+    }
+
+    private static Pattern compile(String regex) {
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException ignored) {
+            // an invalid pattern matches nothing
+            return null;
+        }
+    }
+
+    private static final class PatternSet {
+
+        private final List<String> suffixes = new ArrayList<>();
+        private final List<Pattern> patterns = new ArrayList<>();
+
+        @SuppressWarnings("deprecation")
+        PatternSet(List<Pattern> source) {
+            StringBuilder alternation = new StringBuilder();
+            for (Pattern pattern : source) {
+                // same optimization as the filters
+                RegexStringFilter filter = new RegexStringFilter(pattern.pattern());
+                String regex = pattern.pattern();
+                if (filter.getEndsWith() != null) {
+                    suffixes.add(filter.getEndsWith());
+                } else if (compile(regex) != null) {
+                    if (NOT_COMBINABLE.matcher(regex).find()) {
+                        patterns.add(Pattern.compile(regex));
+                    } else {
+                        alternation.append(alternation.length() == 0 ? "" : "|").append("(?:").append(regex).append(')');
+                    }
+                }
+            }
+            if (alternation.length() > 0) {
+                patterns.add(Pattern.compile(alternation.toString()));
+            }
+        }
+
+        boolean isEmpty() {
+            return suffixes.isEmpty() && patterns.isEmpty();
+        }
+
+        boolean matches(String path) {
+            for (String suffix : suffixes) {
+                if (path.endsWith(suffix)) {
+                    return true;
+                }
+            }
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(path).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class LastMatch {
+
+        private final String path;
+        private final boolean applies;
+
+        LastMatch(String path, boolean applies) {
+            this.path = path;
+            this.applies = applies;
+        }
+    }
+}
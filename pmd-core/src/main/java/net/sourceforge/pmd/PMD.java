@@ -5,8 +5,11 @@
 package net.sourceforge.pmd;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.Writer;
 import java.net.URISyntaxException;
 import java.sql.SQLException;
@@ -30,6 +33,7 @@ import net.sourceforge.pmd.benchmark.TimingReportRenderer;
 import net.sourceforge.pmd.cache.NoopAnalysisCache;
 import net.sourceforge.pmd.cli.PMDCommandLineInterface;
 import net.sourceforge.pmd.cli.PMDParameters;
+import net.sourceforge.pmd.daemon.PmdDaemon;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageFilenameFilter;
 import net.sourceforge.pmd.lang.LanguageVersion;
@@ -47,6 +51,7 @@ import net.sourceforge.pmd.util.FileUtil;
 import net.sourceforge.pmd.util.IOUtil;
 import net.sourceforge.pmd.util.ResourceLoader;
 import net.sourceforge.pmd.util.database.DBMSMetadata;
+import net.sourceforge.pmd.util.database.DBMSSourceStream;
 import net.sourceforge.pmd.util.database.DBURI;
 import net.sourceforge.pmd.util.database.SourceObject;
 import net.sourceforge.pmd.util.datasource.DataSource;
@@ -152,6 +157,29 @@ public class PMD {
         return dataSources;
     }
 
+    /**
+     * Starts retrieving the source code specified by the DBURI in the
+     * background, over a few connections.
+     */
+    private static DBMSSourceStream openURIDataSources(String uriString, int threads) throws PMDException {
+        try {
+            DBURI dbUri = new DBURI(uriString);
+            int connections = Math.max(1, Math.min(DBMSSourceStream.DEFAULT_CONNECTIONS, threads));
+            return DBMSSourceStream.open(dbUri, connections, DBMSSourceStream.DEFAULT_BATCH_SIZE);
+        } catch (URISyntaxException e) {
+            throw new PMDException("Cannot get DataSources from DBURI - \"" + uriString + "\"", e);
+        } catch (SQLException e) {
+            throw new PMDException(
+                    "Cannot get DataSources from DBURI, couldn't access the database - \"" + uriString + "\"", e);
+        } catch (ClassNotFoundException e) {
+            throw new PMDException(
+                    "Cannot get DataSources from DBURI, probably missing database jdbc driver - \"" + uriString + "\"",
+                    e);
+        } catch (Exception e) {
+            throw new PMDException("Encountered unexpected problem with URI \"" + uriString + "\"", e);
+        }
+    }
+
     /**
      * Helper method to get a configured parser for the requested language. The
      * parser is configured based on the given {@link PMDConfiguration}.
@@ -209,7 +237,9 @@ public class PMD {
             return PMDCommandLineInterface.NO_ERRORS_STATUS;
         }
 
-        final List<DataSource> files = getApplicableFiles(configuration, getApplicableLanguages(configuration, ruleSets));
+        // the sources of a DBURI are streamed during the analysis
+        final List<DataSource> files = getApplicableFiles(configuration,
+                getApplicableLanguages(configuration, ruleSets), false, excludedDirectoryFilter(ruleSets));
 
         try {
             Renderer renderer;
@@ -236,7 +266,14 @@ public class PMD {
             });
 
             try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.FILE_PROCESSING)) {
-                processFiles(configuration, ruleSetFactory, files, ctx, renderers);
+                if (configuration.getInputUri() == null) {
+                    processFiles(configuration, ruleSetFactory, files, ctx, renderers);
+                } else {
+                    try (DBMSSourceStream dbSources = openURIDataSources(configuration.getInputUri(),
+                            configuration.getThreads())) {
+                        processFiles(configuration, ruleSetFactory, files, dbSources, ctx, renderers);
+                    }
+                }
             }
 
             try (TimedOperation rto = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
@@ -310,6 +347,39 @@ public class PMD {
         configuration.getAnalysisCache().persist();
     }
 
+    /**
+     * Run PMD on a list of files, then on the streamed files as soon as
+     * they are available, using multiple threads - if more than one is
+     * available. Only the listed files are sorted.
+     *
+     * @param configuration
+     *            Configuration
+     * @param ruleSetFactory
+     *            RuleSetFactory
+     * @param files
+     *            List of {@link DataSource}s
+     * @param streamedFiles
+     *            {@link DataSource}s analysed as they are returned
+     * @param ctx
+     *            RuleContext
+     * @param renderers
+     *            List of {@link Renderer}s
+     *
+     * @since 6.27.0
+     */
+    public static void processFiles(final PMDConfiguration configuration, final RuleSetFactory ruleSetFactory,
+            final List<DataSource> files, final Iterable<DataSource> streamedFiles, final RuleContext ctx,
+            final List<Renderer> renderers) {
+        encourageToUseIncrementalAnalysis(configuration);
+        sortFiles(configuration, files);
+        // Make sure the cache is listening for analysis results
+        ctx.getReport().addListener(configuration.getAnalysisCache());
+
+        final RuleSetFactory silentFactory = new RuleSetFactory(ruleSetFactory, false);
+        newFileProcessor(configuration).processFiles(silentFactory, files, streamedFiles, ctx, renderers);
+        configuration.getAnalysisCache().persist();
+    }
+
     private static void sortFiles(final PMDConfiguration configuration, final List<DataSource> files) {
         if (configuration.isStressTest()) {
             // randomize processing order
@@ -359,21 +429,38 @@ public class PMD {
      * @return List of {@link DataSource} of files
      */
     public static List<DataSource> getApplicableFiles(PMDConfiguration configuration, Set<Language> languages) {
+        return getApplicableFiles(configuration, languages, true, null);
+    }
+
+    private static List<DataSource> getApplicableFiles(PMDConfiguration configuration, Set<Language> languages,
+            boolean includeUri, FileFilter directoryFilter) {
         try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.COLLECT_FILES)) {
-            return internalGetApplicableFiles(configuration, languages);
+            return internalGetApplicableFiles(configuration, languages, includeUri, directoryFilter);
         }
     }
 
+    /**
+     * Skips the directories whose files are all excluded by the rulesets.
+     */
+    private static FileFilter excludedDirectoryFilter(final RuleSets ruleSets) {
+        return new FileFilter() {
+            @Override
+            public boolean accept(File dir) {
+                return !ruleSets.excludesDirectory(dir);
+            }
+        };
+    }
+
     private static List<DataSource> internalGetApplicableFiles(PMDConfiguration configuration,
-            Set<Language> languages) {
+            Set<Language> languages, boolean includeUri, FileFilter directoryFilter) {
         LanguageFilenameFilter fileSelector = new LanguageFilenameFilter(languages);
         List<DataSource> files = new ArrayList<>();
 
         if (null != configuration.getInputPaths()) {
-            files.addAll(FileUtil.collectFiles(configuration.getInputPaths(), fileSelector));
+            files.addAll(FileUtil.collectFiles(configuration.getInputPaths(), fileSelector, directoryFilter));
         }
 
-        if (null != configuration.getInputUri()) {
+        if (includeUri && null != configuration.getInputUri()) {
             String uriString = configuration.getInputUri();
             try {
                 List<DataSource> dataSources = getURIDataSources(uriString);
@@ -394,7 +481,7 @@ public class PMD {
                     throw new RuntimeException("Problem with Input File Path: " + inputFilePath);
                 } else {
                     String filePaths = FileUtil.readFilelist(new File(inputFilePath));
-                    files.addAll(FileUtil.collectFiles(filePaths, fileSelector));
+                    files.addAll(FileUtil.collectFiles(filePaths, fileSelector, directoryFilter));
                 }
             } catch (IOException ex) {
                 LOG.log(Level.SEVERE, "Problem with Input File", ex);
@@ -441,6 +528,18 @@ public class PMD {
         return languages;
     }
 
+    private static void runDaemon(PMDConfiguration configuration) throws IOException {
+        try (PmdDaemon daemon = new PmdDaemon(configuration)) {
+            daemon.startWatching();
+            // Don't close these, we don't want to close stdin/stdout
+            @SuppressWarnings("PMD.CloseResource")
+            final Reader in = new InputStreamReader(System.in);
+            @SuppressWarnings("PMD.CloseResource")
+            final Writer out = new OutputStreamWriter(System.out);
+            daemon.serve(in, out);
+        }
+    }
+
     /**
      * Entry to invoke PMD as command line tool
      *
@@ -478,6 +577,10 @@ public class PMD {
         LOG.setLevel(logLevel);
 
         try {
+            if (params.isDaemon()) {
+                runDaemon(configuration);
+                return PMDCommandLineInterface.NO_ERRORS_STATUS;
+            }
             int violations = PMD.doPMD(configuration);
             if (violations > 0 && configuration.isFailOnViolation()) {
                 status = PMDCommandLineInterface.VIOLATIONS_FOUND;
@@ -10,9 +10,11 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.cache.AnalysisCache;
 import net.sourceforge.pmd.cache.FileAnalysisCache;
 import net.sourceforge.pmd.cache.NoopAnalysisCache;
+import net.sourceforge.pmd.cpd.TokenStreamCollector;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.LanguageVersionDiscoverer;
@@ -92,6 +94,8 @@ public class PMDConfiguration extends AbstractConfiguration {
     private String inputUri;
     private String inputFilePath;
     private String ignoreFilePath;
+    private String changedFilesPath;
+    private String changedFilesBaseDir;
     private boolean ruleSetFactoryCompatibilityEnabled = true;
 
     // Reporting options
@@ -104,6 +108,11 @@ public class PMDConfiguration extends AbstractConfiguration {
 
     private boolean stressTest;
     private boolean benchmark;
+    private boolean compactAst;
+    private boolean indexNodeTypes;
+    private boolean multifilePrepass;
+    private int parserBatchSize;
+    private TokenStreamCollector cpdTokenCollector;
     private AnalysisCache analysisCache = new NoopAnalysisCache();
     private boolean ignoreIncrementalAnalysis;
 
@@ -341,6 +350,58 @@ public class PMDConfiguration extends AbstractConfiguration {
         this.ignoreFilePath = ignoreFilePath;
     }
 
+    /**
+     * Returns the path to the file listing the changed files, or null
+     * if all files are analysed.
+     *
+     * @see #setChangedFilesPath(String)
+     */
+    public String getChangedFilesPath() {
+        return changedFilesPath;
+    }
+
+    /**
+     * Sets the path to a file listing the files that changed, for instance
+     * the output of {@code git diff --name-only} or {@code git diff}. Relative
+     * paths in the list are resolved against the {@linkplain #setChangedFilesBaseDir(String) base directory}.
+     * The changed files, and the files that refer to the types they declare,
+     * are analysed. The violations of the other files are taken from the
+     * {@linkplain #getAnalysisCache() analysis cache}, if their checksum
+     * didn't change, so this is only useful together with incremental analysis.
+     *
+     * @param changedFilesPath path to the file, or null to analyse all files
+     *
+     * @since 6.27.0
+     */
+    public void setChangedFilesPath(String changedFilesPath) {
+        this.changedFilesPath = changedFilesPath;
+    }
+
+    /**
+     * Returns the directory against which the relative paths of the list
+     * of changed files are resolved, or null for the default.
+     *
+     * @see #setChangedFilesBaseDir(String)
+     */
+    public String getChangedFilesBaseDir() {
+        return changedFilesBaseDir;
+    }
+
+    /**
+     * Sets the directory against which the relative paths of the
+     * {@linkplain #setChangedFilesPath(String) list of changed files} are
+     * resolved. By default, this is the root of the git working tree
+     * containing the current directory, as git prints paths relative to
+     * that root, or the current directory outside of a working tree.
+     *
+     * @param changedFilesBaseDir path to the directory, or null for the default
+     *
+     * @since 6.27.0
+     */
+    public void setChangedFilesBaseDir(String changedFilesBaseDir) {
+        this.changedFilesBaseDir = changedFilesBaseDir;
+    }
+
     /**
      * Get the input URI to process for source code objects.
      *
@@ -535,6 +596,142 @@ public class PMDConfiguration extends AbstractConfiguration {
         this.benchmark = benchmark;
     }
 
+    /**
+     * Returns whether the ASTs are compacted after parsing.
+     *
+     * @see #setCompactAst(boolean)
+     */
+    public boolean isCompactAst() {
+        return compactAst;
+    }
+
+    /**
+     * Sets whether the ASTs are compacted after parsing. Compacted ASTs
+     * don't retain the token objects of the parser, which reduces the
+     * memory used while they're analysed, but the tokens of the nodes
+     * don't have comments (special tokens) anymore. This is only supported
+     * by the languages with a JavaCC parser. When benchmarking, the number
+     * of nodes and the estimated size of the tokens before and after are
+     * reported.
+     *
+     * @param compactAst true to compact the ASTs
+     *
+     * @since 6.27.0
+     */
+    public void setCompactAst(boolean compactAst) {
+        this.compactAst = compactAst;
+    }
+
+    /**
+     * Returns whether the nodes of the ASTs are indexed by type after parsing.
+     *
+     * @see #setIndexNodeTypes(boolean)
+     */
+    public boolean isIndexNodeTypes() {
+        return indexNodeTypes;
+    }
+
+    /**
+     * Sets whether the nodes of the ASTs are indexed by type after parsing.
+     * The index answers the descendant queries of the rules, such as
+     * {@link net.sourceforge.pmd.lang.ast.Node#findDescendantsOfType(Class)},
+     * without walking the tree. Building it costs a walk of the tree
+     * and some memory per node, which only pays off if the rules query
+     * the descendants of large nodes often. When benchmarking, the time
+     * spent building the index is reported apart from the parser.
+     *
+     * @param indexNodeTypes true to index the nodes by type
+     *
+     * @since 6.27.0
+     */
+    public void setIndexNodeTypes(boolean indexNodeTypes) {
+        this.indexNodeTypes = indexNodeTypes;
+    }
+
+    /**
+     * Returns whether the project-wide data of multifile rules is gathered
+     * in a first pass over all the files, before the rules are applied.
+     *
+     * @see #setMultifilePrepass(boolean)
+     */
+    public boolean isMultifilePrepass() {
+        return multifilePrepass;
+    }
+
+    /**
+     * Sets whether the project-wide data of multifile rules is gathered
+     * in a first pass over all the files. The first pass parses each file
+     * and only keeps its summary (e.g. the signatures of the members of
+     * its classes), the second pass parses the files again and applies
+     * the rules. The trees are not retained between files, so the memory
+     * used for the trees depends on the number of threads, not on the
+     * number of files, and the rules see the data of all the files, not
+     * only of the files processed before. This has no effect if no rule
+     * is a multifile rule.
+     *
+     * @param multifilePrepass true to gather the multifile data first
+     *
+     * @since 6.27.0
+     */
+    public void setMultifilePrepass(boolean multifilePrepass) {
+        this.multifilePrepass = multifilePrepass;
+    }
+
+    /**
+     * Returns the number of files the parser of a language may compile
+     * together, or 0 if the files are compiled one by one.
+     *
+     * @see #setParserBatchSize(int)
+     */
+    public int getParserBatchSize() {
+        return parserBatchSize;
+    }
+
+    /**
+     * Sets the number of files the parser of a language may compile
+     * together. Languages whose compiler has a high setup cost (e.g. Apex)
+     * then compile the analysed files in batches as the analysis proceeds,
+     * up to {@link #getThreads()} batches at once, and keep the results
+     * until the files are processed or the analysis ends. The other
+     * languages ignore this setting.
+     *
+     * @param parserBatchSize The number of files in a batch, 0 to compile the files one by one
+     *
+     * @throws IllegalArgumentException If the size is negative
+     * @since 6.27.0
+     */
+    public void setParserBatchSize(int parserBatchSize) {
+        if (parserBatchSize < 0) {
+            throw new IllegalArgumentException("The parser batch size must not be negative: " + parserBatchSize);
+        }
+        this.parserBatchSize = parserBatchSize;
+    }
+
+    /**
+     * Returns the collector of the CPD tokens of the parsed files, or null.
+     *
+     * @see #setCpdTokenCollector(TokenStreamCollector)
+     */
+    @Experimental
+    public TokenStreamCollector getCpdTokenCollector() {
+        return cpdTokenCollector;
+    }
+
+    /**
+     * Sets a collector that receives the CPD tokens of the files parsed
+     * by PMD, so that a CPD run on the same files after this run doesn't
+     * lex them again. The tokens are collected before the ASTs are
+     * compacted. Null by default.
+     *
+     * @param cpdTokenCollector The collector, or null
+     *
+     * @since 6.27.0
+     */
+    @Experimental
+    public void setCpdTokenCollector(TokenStreamCollector cpdTokenCollector) {
+        this.cpdTokenCollector = cpdTokenCollector;
+    }
+
     /**
      * Whether PMD should exit with status 4 (the default behavior, true) if
      * violations are found or just with 0 (to not break the build, e.g.).
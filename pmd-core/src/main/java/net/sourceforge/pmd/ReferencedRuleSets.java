@@ -0,0 +1,186 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The rulesets referenced while loading a ruleset, e.g. the categories
+ * referenced rule by rule. Each ruleset file is parsed once, instead of
+ * once per referenced rule, and the factories using them get copies of
+ * the rules, as references may override their properties.
+ *
+ * <p>The rulesets can be loaded in the background, see {@link #prefetch(Collection, RuleSetFactory)}.
+ * Only a thread that isn't itself loading a referenced ruleset waits for
+ * a ruleset loaded by another thread, so that rulesets referencing each
+ * other can't deadlock.
+ */
+final class ReferencedRuleSets {
+
+    private static final int MAX_THREADS = 4;
+
+    /** Number of referenced rulesets being loaded by the current thread. */
+    private static final ThreadLocal<AtomicInteger> LOADING = new ThreadLocal<AtomicInteger>() {
+        @Override
+        protected AtomicInteger initialValue() {
+            return new AtomicInteger();
+        }
+    };
+
+    private final ConcurrentMap<String, Entry> ruleSets = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the complete ruleset of the given file, loading it in the
+     * current thread if it's not loaded nor being loaded. Returns null if
+     * the ruleset is being loaded, and the current thread is loading a
+     * referenced ruleset too.
+     *
+     * @param ruleSetFileName              File name of the ruleset
+     * @param factory                      Factory loading the ruleset
+     * @param withDeprecatedRuleReferences Whether the deprecated references to rules of the same ruleset are included
+     */
+    RuleSet get(String ruleSetFileName, RuleSetFactory factory, boolean withDeprecatedRuleReferences)
+            throws RuleSetNotFoundException {
+        Entry entry = entry(ruleSetFileName, factory, withDeprecatedRuleReferences);
+        if (!entry.tryLoad() && !entry.task.isDone() && LOADING.get().get() > 0) {
+            return null;
+        }
+        try {
+            return entry.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading " + ruleSetFileName, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuleSetNotFoundException) {
+                throw (RuleSetNotFoundException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Starts loading the given rulesets in parallel. Failures are only
+     * reported when the rulesets are requested with {@link #get(String, RuleSetFactory, boolean)}.
+     *
+     * @param references Rulesets to load
+     * @param factory    Factory loading the rulesets
+     */
+    void prefetch(Collection<PrefetchedReference> references, RuleSetFactory factory) {
+        if (references.size() < 2) {
+            // no need for threads
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_THREADS, references.size()),
+                                                                new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "PmdRuleSetLoader " + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        for (PrefetchedReference reference : references) {
+            final Entry entry = entry(reference.ruleSetFileName, factory, reference.withDeprecatedRuleReferences);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    entry.tryLoad();
+                }
+            });
+        }
+        // the threads stop once the queued rulesets are loaded
+        executor.shutdown();
+    }
+
+    private Entry entry(final String ruleSetFileName, final RuleSetFactory factory,
+                        final boolean withDeprecatedRuleReferences) {
+        String key = ruleSetFileName + '\u0000' + withDeprecatedRuleReferences;
+        Entry entry = ruleSets.get(key);
+        if (entry == null) {
+            Entry newEntry = new Entry(new FutureTask<>(new Callable<RuleSet>() {
+                @Override
+                public RuleSet call() throws RuleSetNotFoundException {
+                    return factory.createCompleteRuleSet(ruleSetFileName, withDeprecatedRuleReferences);
+                }
+            }));
+            entry = ruleSets.putIfAbsent(key, newEntry);
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+        return entry;
+    }
+
+    private static final class Entry {
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final FutureTask<RuleSet> task;
+
+        Entry(FutureTask<RuleSet> task) {
+            this.task = task;
+        }
+
+        /**
+         * Loads the ruleset in the current thread, unless it's already
+         * loaded or being loaded. Returns true if it was loaded.
+         */
+        boolean tryLoad() {
+            if (!started.compareAndSet(false, true)) {
+                return false;
+            }
+            LOADING.get().incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                LOADING.get().decrementAndGet();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A ruleset to load in advance.
+     */
+    static final class PrefetchedReference {
+        private final String ruleSetFileName;
+        private final boolean withDeprecatedRuleReferences;
+
+        PrefetchedReference(String ruleSetFileName, boolean withDeprecatedRuleReferences) {
+            this.ruleSetFileName = ruleSetFileName;
+            this.withDeprecatedRuleReferences = withDeprecatedRuleReferences;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof PrefetchedReference)) {
+                return false;
+            }
+            PrefetchedReference other = (PrefetchedReference) obj;
+            return ruleSetFileName.equals(other.ruleSetFileName)
+                && withDeprecatedRuleReferences == other.withDeprecatedRuleReferences;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * ruleSetFileName.hashCode() + (withDeprecatedRuleReferences ? 1 : 0);
+        }
+    }
+}
@@ -20,16 +20,17 @@ import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
 import net.sourceforge.pmd.cache.ChecksumAware;
+import net.sourceforge.pmd.lang.AnalysisPhase;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.rule.RuleReference;
-import net.sourceforge.pmd.util.filter.Filter;
-import net.sourceforge.pmd.util.filter.Filters;
+import net.sourceforge.pmd.lang.rule.ThreadSafeRule;
 
 /**
  * This class represents a collection of rules along with some optional filter
@@ -58,7 +59,7 @@ public class RuleSet implements ChecksumAware {
     private final List<Pattern> excludePatterns;
     private final List<Pattern> includePatterns;
 
-    private final Filter<File> filter;
+    private final FilePatternMatcher fileMatcher;
 
     /**
      * Creates a new RuleSet with the given checksum.
@@ -76,12 +77,7 @@ public class RuleSet implements ChecksumAware {
         excludePatterns = Collections.unmodifiableList(new ArrayList<>(builder.excludePatterns));
         includePatterns = Collections.unmodifiableList(new ArrayList<>(builder.includePatterns));
 
-        // Remapping back to string is not great but the only way to keep the Filter API
-        // compatible in PMD 6. The Filter API can be replaced
-        // entirely with standard JDK Predicates in PMD 7, so we can forget about this until 7.0.0.
-
-        final Filter<String> regexFilter = Filters.buildRegexFilterIncludeOverExclude(getIncludePatterns(), getExcludePatterns());
-        filter = Filters.toNormalizedFileFilter(regexFilter);
+        fileMatcher = new FilePatternMatcher(includePatterns, excludePatterns);
     }
 
     public RuleSet(final RuleSet rs) {
@@ -92,12 +88,12 @@ public class RuleSet implements ChecksumAware {
 
         rules = new ArrayList<>(rs.rules.size());
         for (final Rule rule : rs.rules) {
-            rules.add(rule.deepCopy());
+            rules.add(isThreadSafe(rule) ? rule : rule.deepCopy());
         }
 
         excludePatterns = rs.excludePatterns; // we can share immutable lists of immutable elements
         includePatterns = rs.includePatterns;
-        filter = rs.filter; // filters are immutable, can be shared
+        fileMatcher = rs.fileMatcher; // the matcher is thread-safe, can be shared
     }
 
     /* package */ static class RuleSetBuilder {
@@ -490,6 +486,18 @@ public class RuleSet implements ChecksumAware {
         return excludes;
     }
 
+    /**
+     * Thread-safe rules, and the references to them, are shared by the
+     * copies of the ruleset. The references don't change after loading.
+     */
+    private static boolean isThreadSafe(Rule rule) {
+        Rule target = rule;
+        while (target instanceof RuleReference) {
+            target = ((RuleReference) target).getRule();
+        }
+        return target instanceof ThreadSafeRule;
+    }
+
     /**
      * Returns the number of rules in this ruleset
      *
@@ -542,7 +550,28 @@ public class RuleSet implements ChecksumAware {
      *         <code>false</code> otherwise
      */
     public boolean applies(File file) {
-        return file == null || filter.filter(file);
+        return file == null || fileMatcher.applies(file);
+    }
+
+    /**
+     * Returns true if some exclude pattern may exclude whole directories,
+     * see {@link #excludesDirectory(String)}.
+     */
+    boolean canExcludeDirectories() {
+        return fileMatcher.canExcludeDirectories();
+    }
+
+    /**
+     * Returns true if no file below the directory is checked by this
+     * ruleset, because an exclude pattern matches the paths of all of
+     * them, and there is no include pattern. False means that some file
+     * may be checked.
+     *
+     * @param directoryPath Path of the directory, with {@code /} separators
+     *                      and a trailing {@code /}
+     */
+    boolean excludesDirectory(String directoryPath) {
+        return fileMatcher.excludesDirectory(directoryPath);
     }
 
     /**
@@ -749,6 +778,28 @@ public class RuleSet implements ChecksumAware {
         return false;
     }
 
+    /**
+     * Collects the analysis phases the rules for the given language depend
+     * on. Dependencies of the phases are not included.
+     *
+     * @param language The language
+     * @param phases   Collector for the phases
+     *
+     * @see AnalysisPhase#isRequiredBy(Rule)
+     */
+    @Experimental
+    public void collectAnalysisPhases(Language language, Set<AnalysisPhase> phases) {
+        for (Rule r : rules) {
+            if (r.getLanguage().equals(language)) {
+                for (AnalysisPhase phase : AnalysisPhase.values()) {
+                    if (phase.isRequiredBy(r)) {
+                        phases.add(phase);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Remove and collect any misconfigured rules.
      *
@@ -63,6 +63,10 @@ public class RuleSetFactory {
     private final RuleSetFactoryCompatibility compatibilityFilter;
 
     private final Map<RuleSetReferenceId, RuleSet> parsedRulesets = new HashMap<>();
+    /** Shared with the factories loading the referenced rulesets. */
+    private final ReferencedRuleSets referencedRuleSets;
+    /** Whether this factory loads a referenced ruleset. */
+    private final boolean nested;
 
     /**
      * @deprecated Use {@link RulesetsFactoryUtils#defaultFactory()}
@@ -89,7 +93,15 @@ public class RuleSetFactory {
     @Deprecated // to be hidden with PMD 7.0.0.
     public RuleSetFactory(final ResourceLoader resourceLoader, final RulePriority minimumPriority,
                           final boolean warnDeprecated, final boolean enableCompatibility) {
+        this(resourceLoader, minimumPriority, warnDeprecated, enableCompatibility, new ReferencedRuleSets(), false);
+    }
+
+    private RuleSetFactory(final ResourceLoader resourceLoader, final RulePriority minimumPriority,
+                           final boolean warnDeprecated, final boolean enableCompatibility,
+                           final ReferencedRuleSets referencedRuleSets, final boolean nested) {
         this.resourceLoader = resourceLoader;
+        this.referencedRuleSets = referencedRuleSets;
+        this.nested = nested;
         this.minimumPriority = minimumPriority;
         this.warnDeprecated = warnDeprecated;
 
@@ -113,6 +125,28 @@ public class RuleSetFactory {
         this(factory.resourceLoader, factory.minimumPriority, warnDeprecated, factory.compatibilityFilter != null);
     }
 
+    /**
+     * Returns a factory loading the referenced rulesets. It loads them
+     * with minimum priority low, so that we get all rules, to be able to
+     * exclude any rule. The minimum priority is applied again, before
+     * constructing the final ruleset.
+     */
+    private RuleSetFactory createNestedFactory() {
+        return new RuleSetFactory(resourceLoader, RulePriority.LOW, false, this.compatibilityFilter != null,
+                                  referencedRuleSets, true);
+    }
+
+    /**
+     * Loads all the rules of a referenced ruleset.
+     *
+     * @param ruleSetFileName              File name of the ruleset
+     * @param withDeprecatedRuleReferences Whether the deprecated references to rules of the same ruleset are included
+     */
+    RuleSet createCompleteRuleSet(String ruleSetFileName, boolean withDeprecatedRuleReferences)
+            throws RuleSetNotFoundException {
+        return createRuleSet(new RuleSetReferenceId(ruleSetFileName), withDeprecatedRuleReferences);
+    }
+
     /**
      * Gets the compatibility filter in order to adjust it, e.g. add additional
      * filters.
@@ -396,6 +430,9 @@ public class RuleSetFactory {
             Set<String> rulesetReferences = new HashSet<>();
 
             NodeList nodeList = ruleSetElement.getChildNodes();
+            if (!nested) {
+                prefetchReferencedRuleSets(ruleSetReferenceId, nodeList);
+            }
             for (int i = 0; i < nodeList.getLength(); i++) {
                 Node node = nodeList.item(i);
                 if (node.getNodeType() == Node.ELEMENT_NODE) {
@@ -441,6 +478,33 @@ public class RuleSetFactory {
         }
     }
 
+    /**
+     * Starts loading the rulesets referenced by the rule elements in
+     * parallel, they're usually the same few categories.
+     */
+    private void prefetchReferencedRuleSets(RuleSetReferenceId ruleSetReferenceId, NodeList nodeList) {
+        Set<ReferencedRuleSets.PrefetchedReference> references = new HashSet<>();
+        for (int i = 0; i < nodeList.getLength(); i++) {
+            Node node = nodeList.item(i);
+            if (!isElementNode(node, "rule")) {
+                continue;
+            }
+            String ref = ((Element) node).getAttribute("ref");
+            if (StringUtils.isBlank(ref)) {
+                continue;
+            }
+            RuleSetReferenceId referenceId = RuleSetReferenceId.parse(ref).get(0);
+            if (!referenceId.isExternal()
+                || referenceId.getRuleSetFileName().equals(ruleSetReferenceId.getRuleSetFileName())) {
+                continue;
+            }
+            // see parseRuleSetReferenceNode and parseRuleReferenceNode
+            references.add(new ReferencedRuleSets.PrefetchedReference(referenceId.getRuleSetFileName(),
+                                                                      !ref.endsWith("xml")));
+        }
+        referencedRuleSets.prefetch(references, createNestedFactory());
+    }
+
     private Pattern parseRegex(String text) {
         final Pattern pattern;
         try {
@@ -549,13 +613,18 @@ public class RuleSetFactory {
         }
         final RuleSetReference ruleSetReference = new RuleSetReference(ref, true, excludedRulesCheck);
 
-        // load the ruleset with minimum priority low, so that we get all rules, to be able to exclude any rule
-        // minimum priority will be applied again, before constructing the final ruleset
-        RuleSetFactory ruleSetFactory = new RuleSetFactory(resourceLoader, RulePriority.LOW, false, this.compatibilityFilter != null);
-        RuleSet otherRuleSet = ruleSetFactory.createRuleSet(RuleSetReferenceId.parse(ref).get(0));
+        RuleSetFactory ruleSetFactory = createNestedFactory();
+        RuleSetReferenceId otherRuleSetReferenceId = RuleSetReferenceId.parse(ref).get(0);
+        RuleSet otherRuleSet = referencedRuleSets.get(otherRuleSetReferenceId.getRuleSetFileName(), ruleSetFactory, false);
+        // the rules of a shared ruleset are copied, as the references may override their priority
+        boolean shared = otherRuleSet != null;
+        if (!shared) {
+            otherRuleSet = ruleSetFactory.createRuleSet(otherRuleSetReferenceId);
+        }
         List<RuleReference> potentialRules = new ArrayList<>();
         int countDeprecated = 0;
-        for (Rule rule : otherRuleSet.getRules()) {
+        for (Rule otherRule : otherRuleSet.getRules()) {
+            Rule rule = shared ? otherRule.deepCopy() : otherRule;
             excludedRulesCheck.remove(rule.getName());
             if (!ruleSetReference.getExcludes().contains(rule.getName())) {
                 RuleReference ruleReference = new RuleReference(rule, ruleSetReference);
@@ -664,9 +733,7 @@ public class RuleSetFactory {
             return;
         }
 
-        // load the ruleset with minimum priority low, so that we get all rules, to be able to exclude any rule
-        // minimum priority will be applied again, before constructing the final ruleset
-        RuleSetFactory ruleSetFactory = new RuleSetFactory(resourceLoader, RulePriority.LOW, false, this.compatibilityFilter != null);
+        RuleSetFactory ruleSetFactory = createNestedFactory();
 
         boolean isSameRuleSet = false;
         RuleSetReferenceId otherRuleSetReferenceId = RuleSetReferenceId.parse(ref).get(0);
@@ -680,7 +747,18 @@ public class RuleSetFactory {
             isSameRuleSet = true;
         }
         // do not ignore deprecated rule references
-        Rule referencedRule = ruleSetFactory.createRule(otherRuleSetReferenceId, true);
+        Rule referencedRule;
+        RuleSet referencedRuleSet = null;
+        if (!isSameRuleSet && otherRuleSetReferenceId.isExternal()) {
+            referencedRuleSet = referencedRuleSets.get(otherRuleSetReferenceId.getRuleSetFileName(), ruleSetFactory, true);
+        }
+        if (referencedRuleSet != null) {
+            // the rule of the shared ruleset is copied, as the reference may override its properties
+            Rule sharedRule = referencedRuleSet.getRuleByName(otherRuleSetReferenceId.getRuleName());
+            referencedRule = sharedRule == null ? null : sharedRule.deepCopy();
+        } else {
+            referencedRule = ruleSetFactory.createRule(otherRuleSetReferenceId, true);
+        }
 
         if (referencedRule == null) {
             throw new IllegalArgumentException("Unable to find referenced rule " + otherRuleSetReferenceId.getRuleName()
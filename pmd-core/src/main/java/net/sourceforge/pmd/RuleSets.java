@@ -5,14 +5,21 @@
 package net.sourceforge.pmd;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.lang.AnalysisPhase;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.ast.Node;
 
@@ -36,6 +43,11 @@ public class RuleSets {
      */
     private RuleChain ruleChain = new RuleChain();
 
+    /**
+     * Analysis phases needed per language, computed on first use.
+     */
+    private final Map<Language, Set<AnalysisPhase>> analysisPhases = new ConcurrentHashMap<>();
+
     /**
      * Public constructor.
      */
@@ -44,7 +56,9 @@ public class RuleSets {
     }
 
     /**
-     * Copy constructor. Deep copies RuleSets.
+     * Copy constructor. Deep copies RuleSets, except for the rules
+     * implementing {@link net.sourceforge.pmd.lang.rule.ThreadSafeRule},
+     * which are shared.
      * @param ruleSets The RuleSets to copy.
      */
     public RuleSets(final RuleSets ruleSets) {
@@ -74,6 +88,7 @@ public class RuleSets {
     public void addRuleSet(RuleSet ruleSet) {
         ruleSets.add(ruleSet);
         ruleChain.add(ruleSet);
+        analysisPhases.clear();
     }
 
     /**
@@ -119,6 +134,38 @@ public class RuleSets {
         return false;
     }
 
+    /**
+     * Returns true if no file below the directory is checked by these
+     * rulesets, according to their exclude patterns, so the directory
+     * doesn't need to be walked. False means that some file may be checked.
+     *
+     * @param directory The directory
+     */
+    boolean excludesDirectory(File directory) {
+        if (ruleSets.isEmpty()) {
+            return false;
+        }
+        for (RuleSet ruleSet : ruleSets) {
+            if (!ruleSet.canExcludeDirectories()) {
+                return false;
+            }
+        }
+        // the files are matched with their canonical path, see FileDataSource
+        String path;
+        try {
+            path = directory.getCanonicalFile().getAbsolutePath();
+        } catch (IOException e) {
+            path = directory.getAbsolutePath();
+        }
+        path = path.replace('\\', '/') + '/';
+        for (RuleSet ruleSet : ruleSets) {
+            if (!ruleSet.excludesDirectory(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Notify all rules of the start of processing.
      */
@@ -248,6 +295,31 @@ public class RuleSets {
         return false;
     }
 
+    /**
+     * Returns the analysis phases that must run on the files of the given
+     * language before the rules are applied, that is, the phases the rules
+     * of the language depend on, and their dependencies.
+     *
+     * @param language The language
+     *
+     * @return An unmodifiable set, iterating in execution order
+     *
+     * @see AnalysisPhase#isRequiredBy(Rule)
+     */
+    @Experimental
+    public Set<AnalysisPhase> getAnalysisPhases(Language language) {
+        Set<AnalysisPhase> plan = analysisPhases.get(language);
+        if (plan == null) {
+            Set<AnalysisPhase> phases = EnumSet.noneOf(AnalysisPhase.class);
+            for (RuleSet ruleSet : ruleSets) {
+                ruleSet.collectAnalysisPhases(language, phases);
+            }
+            plan = Collections.unmodifiableSet(AnalysisPhase.closure(phases));
+            analysisPhases.put(language, plan);
+        }
+        return plan;
+    }
+
 
     /**
      * Remove and collect any rules that report problems.
@@ -258,6 +330,7 @@ public class RuleSets {
         for (RuleSet ruleSet : ruleSets) {
             ruleSet.removeDysfunctionalRules(collector);
         }
+        analysisPhases.clear();
     }
 
     /**
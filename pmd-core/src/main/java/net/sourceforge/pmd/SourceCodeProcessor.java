@@ -9,26 +9,57 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.cache.FileDependencies;
+import net.sourceforge.pmd.cpd.TokenStreamCollector;
+import net.sourceforge.pmd.lang.AbstractLanguageVersionHandler;
+import net.sourceforge.pmd.lang.AnalysisPhase;
 import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageSession;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.Parser;
-import net.sourceforge.pmd.lang.VisitorStarter;
+import net.sourceforge.pmd.lang.ParserOptions;
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.NodeTypeIndex;
 import net.sourceforge.pmd.lang.ast.ParseException;
+import net.sourceforge.pmd.lang.ast.impl.javacc.AstCompactionStats;
+import net.sourceforge.pmd.lang.ast.impl.javacc.TokenTable;
+import net.sourceforge.pmd.lang.symboltable.LazySymbolTable;
 import net.sourceforge.pmd.lang.xpath.Initializer;
 
 public class SourceCodeProcessor {
 
     private final PMDConfiguration configuration;
+    private final Map<Language, LanguageSession> sessions;
+    /** Set once files were indexed by {@link #indexSourceCode(Reader, RuleSets, RuleContext)}. */
+    private volatile boolean multifileIndexed;
 
     public SourceCodeProcessor(PMDConfiguration configuration) {
+        this(configuration, Collections.<Language, LanguageSession>emptyMap());
+    }
+
+    /**
+     * Creates a processor for one analysis, which processes the files of
+     * the languages of the given sessions with the handlers of the sessions.
+     *
+     * @param configuration The configuration of the analysis
+     * @param sessions      The open sessions, by language
+     *
+     * @since 6.27.0
+     */
+    @Experimental
+    public SourceCodeProcessor(PMDConfiguration configuration, Map<Language, LanguageSession> sessions) {
         this.configuration = configuration;
+        this.sessions = sessions;
     }
 
     /**
@@ -91,6 +122,46 @@ public class SourceCodeProcessor {
         }
     }
 
+    /**
+     * Gathers the project-wide data the multifile rules use from the
+     * file, without applying the rules. The file is parsed, the multifile
+     * analysis phase runs with the phases it depends on, and the tree is
+     * dropped. Once files are indexed, this processor doesn't run the
+     * multifile phase anymore when processing files, all the files should
+     * have been indexed.
+     *
+     * @param sourceCode The Reader to analyze
+     * @param ruleSets   The rules that will be applied to the file
+     * @param ctx        The context in which PMD is operating
+     *
+     * @return True if the file was indexed, false if no multifile rule applies to it
+     *
+     * @throws PMDException If the file could not be parsed
+     * @see PMDConfiguration#setMultifilePrepass(boolean)
+     * @since 6.27.0
+     */
+    @Experimental
+    public boolean indexSourceCode(Reader sourceCode, RuleSets ruleSets, RuleContext ctx) throws PMDException {
+        determineLanguage(ctx);
+        LanguageVersion languageVersion = ctx.getLanguageVersion();
+        if (!ruleSets.applies(ctx.getSourceCodeFile())
+            || !ruleSets.getAnalysisPhases(languageVersion.getLanguage()).contains(AnalysisPhase.MULTIFILE)) {
+            return false;
+        }
+        multifileIndexed = true;
+
+        try {
+            LanguageVersionHandler handler = getLanguageVersionHandler(languageVersion);
+            Node rootNode = parse(ctx, sourceCode, parserFor(handler));
+            runAnalysisPhases(rootNode, handler, AnalysisPhase.closure(EnumSet.of(AnalysisPhase.MULTIFILE)));
+            return true;
+        } catch (ParseException pe) {
+            throw new PMDException("Error while parsing " + ctx.getSourceCodeFile(), pe);
+        } catch (Exception e) {
+            throw new PMDException("Error while indexing " + ctx.getSourceCodeFile(), e);
+        }
+    }
+
     private boolean isCacheUpToDate(final RuleContext ctx) {
         return configuration.getAnalysisCache().isUpToDate(ctx.getSourceCodeFile());
     }
@@ -124,16 +195,22 @@ public class SourceCodeProcessor {
         }
     }
 
-    private void symbolFacade(Node rootNode, LanguageVersionHandler languageVersionHandler) {
-        try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.SYMBOL_TABLE)) {
-            languageVersionHandler.getSymbolFacade(configuration.getClassLoader()).start(rootNode);
+    private void indexNodeTypes(Node rootNode) {
+        try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.NODE_TYPE_INDEX)) {
+            // answers the descendant queries of the rules without walking the tree
+            NodeTypeIndex.build(rootNode);
         }
     }
 
-    private void resolveQualifiedNames(Node rootNode, LanguageVersionHandler handler) {
-        try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.QUALIFIED_NAME_RESOLUTION)) {
-            handler.getQualifiedNameResolutionFacade(configuration.getClassLoader()).start(rootNode);
+    private void compact(Node rootNode) {
+        AstCompactionStats stats;
+        try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.AST_COMPACTION)) {
+            stats = TokenTable.compact(rootNode);
         }
+        // summed over the files, the bytes per node are the ratio of the totals
+        TimeTracker.count(TimedOperationCategory.AST_COMPACTION, "Nodes", stats.getNodeCount());
+        TimeTracker.count(TimedOperationCategory.AST_COMPACTION, "Token bytes before", stats.getTokenBytesBefore());
+        TimeTracker.count(TimedOperationCategory.AST_COMPACTION, "Token bytes after", stats.getTokenBytesAfter());
     }
 
     // private ParserOptions getParserOptions(final LanguageVersionHandler
@@ -145,53 +222,86 @@ public class SourceCodeProcessor {
     // return parserOptions;
     // }
 
-    private void usesDFA(LanguageVersion languageVersion, Node rootNode, RuleSets ruleSets, Language language) {
-        if (ruleSets.usesDFA(language)) {
-            try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.DFA)) {
-                VisitorStarter dataFlowFacade = languageVersion.getLanguageVersionHandler().getDataFlowFacade();
-                dataFlowFacade.start(rootNode);
-            }
+    /**
+     * Runs the analysis phases the rules of the language depend on, in
+     * dependency order.
+     */
+    private void runAnalysisPhases(Node rootNode, LanguageVersionHandler handler, Set<AnalysisPhase> phases) {
+        boolean lazySymbolTable = handler instanceof AbstractLanguageVersionHandler
+            && ((AbstractLanguageVersionHandler) handler).supportsLazySymbolTable();
+        if (lazySymbolTable) {
+            // built the first time a scope is requested, which may be never
+            LazySymbolTable.defer(rootNode, handler.getSymbolFacade(configuration.getClassLoader()));
         }
-    }
 
-    private void usesTypeResolution(LanguageVersion languageVersion, Node rootNode, RuleSets ruleSets,
-            Language language) {
-
-        if (ruleSets.usesTypeResolution(language)) {
-            try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.TYPE_RESOLUTION)) {
-                languageVersion.getLanguageVersionHandler().getTypeResolutionFacade(configuration.getClassLoader())
-                        .start(rootNode);
+        for (AnalysisPhase phase : phases) {
+            if (phase == AnalysisPhase.SYMBOL_TABLE && lazySymbolTable) {
+                continue;
+            }
+            if (phase.getDependencies().contains(AnalysisPhase.SYMBOL_TABLE)) {
+                // keep the order of the eager phases
+                LazySymbolTable.ensureBuilt(rootNode);
             }
+            runAnalysisPhase(rootNode, handler, phase);
         }
     }
 
-
-    private void usesMultifile(Node rootNode, LanguageVersionHandler languageVersionHandler, RuleSets ruleSets,
-                               Language language) {
-
-        if (ruleSets.usesMultifile(language)) {
-            try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.MULTIFILE_ANALYSIS)) {
-                languageVersionHandler.getMultifileFacade().start(rootNode);
-            }
+    private void runAnalysisPhase(Node rootNode, LanguageVersionHandler handler, AnalysisPhase phase) {
+        if (phase.getTimedOperationCategory() == null) {
+            phase.run(handler, configuration.getClassLoader(), rootNode);
+            return;
+        }
+        try (TimedOperation to = TimeTracker.startOperation(phase.getTimedOperationCategory())) {
+            phase.run(handler, configuration.getClassLoader(), rootNode);
         }
     }
 
-
     private void processSource(Reader sourceCode, RuleSets ruleSets, RuleContext ctx) {
         LanguageVersion languageVersion = ctx.getLanguageVersion();
-        LanguageVersionHandler languageVersionHandler = languageVersion.getLanguageVersionHandler();
-        Parser parser = PMD.parserFor(languageVersion, configuration);
+        LanguageVersionHandler languageVersionHandler = getLanguageVersionHandler(languageVersion);
+        Parser parser = parserFor(languageVersionHandler);
+        Language language = languageVersion.getLanguage();
 
         Node rootNode = parse(ctx, sourceCode, parser);
-        resolveQualifiedNames(rootNode, languageVersionHandler);
-        symbolFacade(rootNode, languageVersionHandler);
-        Language language = languageVersion.getLanguage();
-        usesDFA(languageVersion, rootNode, ruleSets, language);
-        usesTypeResolution(languageVersion, rootNode, ruleSets, language);
-        usesMultifile(rootNode, languageVersionHandler, ruleSets, language);
+        TokenStreamCollector cpdTokenCollector = configuration.getCpdTokenCollector();
+        if (cpdTokenCollector != null) {
+            // while the tree has its tokens
+            cpdTokenCollector.collect(String.valueOf(ctx.getSourceCodeFile()), language.getTerseName(), rootNode);
+        }
+        if (configuration.isCompactAst()) {
+            compact(rootNode);
+        }
+        if (configuration.isIndexNodeTypes()) {
+            indexNodeTypes(rootNode);
+        }
+        Set<AnalysisPhase> phases = ruleSets.getAnalysisPhases(language);
+        if (multifileIndexed && phases.contains(AnalysisPhase.MULTIFILE)) {
+            // the files were indexed in a first pass
+            phases = EnumSet.copyOf(phases);
+            phases.remove(AnalysisPhase.MULTIFILE);
+        }
+        runAnalysisPhases(rootNode, languageVersionHandler, phases);
 
         List<Node> acus = Collections.singletonList(rootNode);
         ruleSets.apply(acus, ctx, language);
+
+        FileDependencies dependencies = FileDependencies.get(rootNode);
+        if (dependencies != null) {
+            configuration.getAnalysisCache().recordDependencies(ctx.getSourceCodeFile(), dependencies);
+        }
+    }
+
+    private LanguageVersionHandler getLanguageVersionHandler(LanguageVersion languageVersion) {
+        LanguageSession session = sessions.get(languageVersion.getLanguage());
+        LanguageVersionHandler handler = languageVersion.getLanguageVersionHandler();
+        return session == null ? handler : session.getLanguageVersionHandler(handler);
+    }
+
+    /** Same as {@link PMD#parserFor(LanguageVersion, PMDConfiguration)}, with the handler of the session. */
+    private Parser parserFor(LanguageVersionHandler handler) {
+        ParserOptions options = handler.getDefaultParserOptions();
+        options.setSuppressMarker(configuration.getSuppressMarker());
+        return handler.getParser(options);
     }
 
     private void determineLanguage(RuleContext ctx) {
@@ -54,6 +54,7 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
         }
 
         writer.write(PMD.EOL);
+        renderCounters(report, writer);
         renderHeader("Total", writer);
 
         writer.write(StringUtils.rightPad("Wall Clock Time", LABEL_COLUMN_WIDTH));
@@ -87,6 +88,30 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
         writer.write(PMD.EOL);
     }
 
+    private void renderCounters(final TimingReport report, final Writer writer) throws IOException {
+        boolean hasCounters = false;
+        for (final TimedOperationCategory category : TimedOperationCategory.values()) {
+            final Map<String, Long> counters = report.getCounters(category);
+            if (counters.isEmpty()) {
+                continue;
+            }
+            if (!hasCounters) {
+                renderHeader("Counters", writer);
+                hasCounters = true;
+            }
+            for (final Map.Entry<String, Long> entry : counters.entrySet()) {
+                writer.write(StringUtils.rightPad(category.displayName() + " - " + entry.getKey(), LABEL_COLUMN_WIDTH));
+                final String counter = MessageFormat.format(CUSTOM_COUNTER_FORMAT, entry.getValue());
+                writer.write(StringUtils.leftPad(counter, COLUMNS - LABEL_COLUMN_WIDTH));
+                writer.write(PMD.EOL);
+            }
+        }
+
+        if (hasCounters) {
+            writer.write(PMD.EOL);
+        }
+    }
+
     private void renderCategoryMeasurements(final TimedOperationCategory category,
             final Map<String, TimedResult> labeledMeasurements, final Writer writer) throws IOException {
         renderHeader(category.displayName(), writer);
@@ -13,6 +13,8 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+import net.sourceforge.pmd.annotation.Experimental;
+
 /**
  * A time tracker class to measure time spent on different sections of PMD analysis.
  * The class is thread-aware, allowing to differentiate CPU and wall clock time.
@@ -25,6 +27,7 @@ public final class TimeTracker {
     private static long wallClockStartMillis = -1;
     private static final ThreadLocal<Queue<TimerEntry>> TIMER_ENTRIES;
     private static final ConcurrentMap<TimedOperationKey, TimedResult> ACCUMULATED_RESULTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<TimedOperationKey, AtomicLong> COUNTERS = new ConcurrentHashMap<>();
     private static final TimedOperation NOOP_TIMED_OPERATION = new TimedOperation() {
 
         @Override
@@ -59,6 +62,7 @@ public final class TimeTracker {
         wallClockStartMillis = System.currentTimeMillis();
         trackTime = true;
         ACCUMULATED_RESULTS.clear(); // just in case
+        COUNTERS.clear();
         initThread(); // init main thread
     }
 
@@ -80,7 +84,7 @@ public final class TimeTracker {
         unaccountedResult.totalTimeNanos.set(unaccountedResult.selfTimeNanos.get());
         unaccountedResult.callCount.set(0);
 
-        return new TimingReport(System.currentTimeMillis() - wallClockStartMillis, ACCUMULATED_RESULTS);
+        return new TimingReport(System.currentTimeMillis() - wallClockStartMillis, ACCUMULATED_RESULTS, COUNTERS);
     }
 
     /**
@@ -134,6 +138,31 @@ public final class TimeTracker {
         return new TimedOperationImpl();
     }
 
+    /**
+     * Adds a value to a counter. Counters are reported apart from the
+     * timed operations, for quantities that aren't tied to the duration
+     * of an operation (ie: bytes of memory saved). They are summed over
+     * all threads.
+     * @param category The category the counter belongs to.
+     * @param label The name of the counter within the category.
+     * @param value The value to add.
+     * @since 6.27.0
+     */
+    @Experimental
+    public static void count(final TimedOperationCategory category, final String label, final long value) {
+        if (!trackTime) {
+            return;
+        }
+
+        final TimedOperationKey key = new TimedOperationKey(category, label);
+        AtomicLong counter = COUNTERS.get(key);
+        if (counter == null) {
+            COUNTERS.putIfAbsent(key, new AtomicLong());
+            counter = COUNTERS.get(key);
+        }
+        counter.getAndAdd(value);
+    }
+
     /**
      * Finishes tracking an operation.
      * @param extraDataCounter An optional additional data counter to track along the measurements.
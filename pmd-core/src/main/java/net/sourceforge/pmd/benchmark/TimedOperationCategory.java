@@ -17,6 +17,8 @@ public enum TimedOperationCategory {
     COLLECT_FILES,
     LOAD_RULES,
     PARSER,
+    AST_COMPACTION,
+    NODE_TYPE_INDEX,
     QUALIFIED_NAME_RESOLUTION,
     SYMBOL_TABLE,
     DFA,
@@ -6,7 +6,10 @@ package net.sourceforge.pmd.benchmark;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.benchmark.TimeTracker.TimedOperationKey;
 import net.sourceforge.pmd.benchmark.TimeTracker.TimedResult;
 
@@ -18,10 +21,13 @@ public class TimingReport {
 
     private final long wallClockMillis;
     private final Map<TimedOperationKey, TimedResult> results;
+    private final Map<TimedOperationKey, AtomicLong> counters;
 
-    /* package */ TimingReport(final long wallClockMillis, final Map<TimedOperationKey, TimedResult> accumulatedResults) {
+    /* package */ TimingReport(final long wallClockMillis, final Map<TimedOperationKey, TimedResult> accumulatedResults,
+                               final Map<TimedOperationKey, AtomicLong> counters) {
         this.wallClockMillis = wallClockMillis;
         results = accumulatedResults;
+        this.counters = counters;
     }
 
     public Map<String, TimedResult> getLabeledMeasurements(final TimedOperationCategory category) {
@@ -48,6 +54,24 @@ public class TimingReport {
         return null;
     }
 
+    /**
+     * Returns the counters of the category, by label, sorted by label.
+     * @see TimeTracker#count(TimedOperationCategory, String, long)
+     * @since 6.27.0
+     */
+    @Experimental
+    public Map<String, Long> getCounters(final TimedOperationCategory category) {
+        final Map<String, Long> ret = new TreeMap<>();
+
+        for (final Map.Entry<TimedOperationKey, AtomicLong> entry : counters.entrySet()) {
+            if (entry.getKey().category == category) {
+                ret.put(entry.getKey().label, entry.getValue().get());
+            }
+        }
+
+        return ret;
+    }
+
     public long getWallClockMillis() {
         return wallClockMillis;
     }
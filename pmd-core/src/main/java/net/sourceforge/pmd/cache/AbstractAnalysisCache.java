@@ -18,13 +18,20 @@ import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.Adler32;
 import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
@@ -50,10 +57,17 @@ public abstract class AbstractAnalysisCache implements AnalysisCache {
     protected final ConcurrentMap<String, AnalysisResult> fileResultsCache;
     protected final ConcurrentMap<String, AnalysisResult> updatedResultsCache;
     protected final CachedRuleMapper ruleMapper = new CachedRuleMapper();
+    private final ConcurrentMap<String, Map<String, Long>> archiveEntryChecksums = new ConcurrentHashMap<>();
     protected long rulesetChecksum;
     protected long auxClassPathChecksum;
     protected long executionClassPathChecksum;
 
+    /**
+     * Paths of the files that must be analysed again when only changed
+     * files are analysed, null otherwise.
+     */
+    private Set<String> outdatedFiles;
+
     /**
      * Creates a new empty cache
      */
@@ -65,17 +79,27 @@ public abstract class AbstractAnalysisCache implements AnalysisCache {
 
     @Override
     public boolean isUpToDate(final File sourceFile) {
+        final AnalysisResult analysisResult = fileResultsCache.get(sourceFile.getPath());
+        final boolean outdated = outdatedFiles != null && outdatedFiles.contains(sourceFile.getPath());
+
         // There is a new file being analyzed, prepare entry in updated cache
-        final AnalysisResult updatedResult = new AnalysisResult(sourceFile);
+        final Long entryChecksum = getArchiveEntryChecksum(sourceFile);
+        final AnalysisResult updatedResult = entryChecksum == null
+                ? new AnalysisResult(sourceFile)
+                : new AnalysisResult(entryChecksum, new ArrayList<RuleViolation>());
         updatedResultsCache.put(sourceFile.getPath(), updatedResult);
 
-        // Now check the old cache
-        final AnalysisResult analysisResult = fileResultsCache.get(sourceFile.getPath());
-
-        // is this a known file? has it changed?
-        final boolean result = analysisResult != null
+        // is this a known file? has it changed? do the files it depends on?
+        final boolean result = analysisResult != null && !outdated
                 && analysisResult.getFileChecksum() == updatedResult.getFileChecksum();
 
+        if (result) {
+            updatedResult.setDependencies(analysisResult.getDependencies());
+        } else if (outdatedFiles != null && analysisResult != null && !outdated) {
+            // the checksum is still checked, in case the list of changed files is incomplete
+            LOG.warning("File changed but not listed as changed: " + sourceFile.getPath());
+        }
+
         if (LOG.isLoggable(Level.FINE)) {
             if (result) {
                 LOG.fine("Incremental Analysis cache HIT");
@@ -88,6 +112,48 @@ public abstract class AbstractAnalysisCache implements AnalysisCache {
         return result;
     }
 
+    /**
+     * Returns the checksum of a file within a zip or jar archive, named
+     * {@code archive!/path} by {@link net.sourceforge.pmd.util.datasource.ZipDataSource},
+     * or null if the file isn't in an archive. The CRC the archive records
+     * for the entry is used, so the entry isn't decompressed. The CRCs of
+     * all the entries of an archive are read at once.
+     */
+    private Long getArchiveEntryChecksum(final File sourceFile) {
+        final String path = sourceFile.getPath();
+        final int separator = path.indexOf("!" + File.separator);
+        if (separator < 0 || sourceFile.exists()) {
+            return null;
+        }
+        final String archive = path.substring(0, separator);
+        Map<String, Long> checksums = archiveEntryChecksums.get(archive);
+        if (checksums == null) {
+            checksums = readEntryChecksums(archive);
+            final Map<String, Long> previous = archiveEntryChecksums.putIfAbsent(archive, checksums);
+            if (previous != null) {
+                checksums = previous;
+            }
+        }
+        return checksums.get(path.substring(separator + 2).replace(File.separatorChar, '/'));
+    }
+
+    private static Map<String, Long> readEntryChecksums(final String archive) {
+        final Map<String, Long> checksums = new HashMap<>();
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                if (entry.getCrc() != -1) {
+                    checksums.put(entry.getName(), entry.getCrc());
+                }
+            }
+        } catch (final IOException e) {
+            // the entries are not cached, the analysis will report the error
+            LOG.log(Level.FINE, "Could not read the archive " + archive, e);
+        }
+        return checksums;
+    }
+
     @Override
     public List<RuleViolation> getCachedViolations(final File sourceFile) {
         final AnalysisResult analysisResult = fileResultsCache.get(sourceFile.getPath());
@@ -105,6 +171,42 @@ public abstract class AbstractAnalysisCache implements AnalysisCache {
         updatedResultsCache.remove(sourceFile.getPath());
     }
 
+    @Override
+    public void recordDependencies(final File sourceFile, final FileDependencies dependencies) {
+        final AnalysisResult updatedResult = updatedResultsCache.get(sourceFile.getPath());
+        if (updatedResult != null) {
+            updatedResult.setDependencies(dependencies);
+        }
+    }
+
+    @Override
+    public void setChangedFiles(final Set<File> changedFiles) {
+        final Set<String> outdated = new HashSet<>();
+        final Set<String> changedTypes = new HashSet<>();
+        for (final File file : changedFiles) {
+            outdated.add(file.getPath());
+            final AnalysisResult previous = fileResultsCache.get(file.getPath());
+            if (previous != null && previous.getDependencies() != null) {
+                changedTypes.addAll(previous.getDependencies().getDeclaredTypes());
+            }
+        }
+
+        if (!changedTypes.isEmpty()) {
+            for (final Map.Entry<String, AnalysisResult> entry : fileResultsCache.entrySet()) {
+                final FileDependencies dependencies = entry.getValue().getDependencies();
+                if (dependencies != null && dependencies.refersToAny(changedTypes)) {
+                    outdated.add(entry.getKey());
+                }
+            }
+        }
+
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.fine("Analysing " + changedFiles.size() + " changed files and "
+                         + (outdated.size() - changedFiles.size()) + " dependent files");
+        }
+        outdatedFiles = outdated;
+    }
+
 
     /**
      * Returns true if the cache exists. If so, normal cache validity checks
@@ -6,6 +6,7 @@ package net.sourceforge.pmd.cache;
 
 import java.io.File;
 import java.util.List;
+import java.util.Set;
 
 import net.sourceforge.pmd.RuleSets;
 import net.sourceforge.pmd.RuleViolation;
@@ -62,4 +63,25 @@ public interface AnalysisCache extends ThreadSafeReportListener {
      * @param auxclassPathClassLoader The class loader for auxclasspath configured for this analysis.
      */
     void checkValidity(RuleSets ruleSets, ClassLoader auxclassPathClassLoader);
+
+    /**
+     * Records the dependencies of a file analysed in this run, so that
+     * its dependents can be found by {@link #setChangedFiles(Set)} in a
+     * later run.
+     *
+     * @param sourceFile   The analysed file
+     * @param dependencies Its dependencies
+     */
+    void recordDependencies(File sourceFile, FileDependencies dependencies);
+
+    /**
+     * Marks the given changed files, and the files that refer to the types
+     * they declared in the previous run, as not up to date, even if their
+     * checksum didn't change. The checksums of the other files are still
+     * checked, so that a file missing from the list is analysed anyway.
+     * This needs to be called after {@link #checkValidity(RuleSets, ClassLoader)}.
+     *
+     * @param changedFiles Changed files, with canonical paths
+     */
+    void setChangedFiles(Set<File> changedFiles);
 }
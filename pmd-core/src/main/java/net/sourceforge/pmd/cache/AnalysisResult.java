@@ -29,6 +29,7 @@ public class AnalysisResult {
 
     private final long fileChecksum;
     private final List<RuleViolation> violations;
+    private FileDependencies dependencies;
 
     public AnalysisResult(final long fileChecksum, final List<RuleViolation> violations) {
         this.fileChecksum = fileChecksum;
@@ -74,4 +75,15 @@ public class AnalysisResult {
     public void addViolation(final RuleViolation ruleViolation) {
         this.violations.add(ruleViolation);
     }
+
+    /**
+     * Returns the dependencies of the file, or null if they are unknown.
+     */
+    public FileDependencies getDependencies() {
+        return dependencies;
+    }
+
+    public void setDependencies(final FileDependencies dependencies) {
+        this.dependencies = dependencies;
+    }
 }
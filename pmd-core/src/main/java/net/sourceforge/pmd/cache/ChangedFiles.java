@@ -0,0 +1,142 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cache;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import net.sourceforge.pmd.annotation.InternalApi;
+
+/**
+ * Reads the list of changed files given with
+ * {@link net.sourceforge.pmd.PMDConfiguration#setChangedFilesPath(String)}.
+ * The list may be the output of either:
+ * <ul>
+ *     <li>{@code git diff --name-only} (one path per line);
+ *     <li>{@code git diff --name-status} (status, then one or two paths, separated by tabs);
+ *     <li>{@code git diff} (a unified diff, the paths are taken from the
+ *     {@code ---} and {@code +++} lines).
+ * </ul>
+ * Both the old and new paths of renamed files are returned. Relative paths
+ * are resolved against the given base directory, usually the root of
+ * the working tree, see {@link #findWorkingTreeRoot(File)}.
+ *
+ * @since 6.27.0
+ */
+@InternalApi
+public final class ChangedFiles {
+
+    private static final String DIFF_HEADER = "diff ";
+    private static final String OLD_FILE = "--- ";
+    private static final String NEW_FILE = "+++ ";
+    private static final String NO_FILE = "/dev/null";
+
+    private ChangedFiles() {
+        // utility class
+    }
+
+    /**
+     * Reads the changed files listed in the given file.
+     *
+     * @param listFile File containing the list
+     * @param baseDir  Directory against which relative paths are resolved
+     *
+     * @return The changed files, with canonical paths
+     *
+     * @throws IOException If the list can't be read
+     */
+    public static Set<File> read(File listFile, File baseDir) throws IOException {
+        try (Reader reader = Files.newBufferedReader(listFile.toPath(), Charset.defaultCharset())) {
+            return read(reader, baseDir);
+        }
+    }
+
+    /**
+     * Reads the changed files from the given reader.
+     *
+     * @param list    List of changed files
+     * @param baseDir Directory against which relative paths are resolved
+     *
+     * @return The changed files, with canonical paths
+     *
+     * @throws IOException If the list can't be read
+     */
+    public static Set<File> read(Reader list, File baseDir) throws IOException {
+        Set<File> files = new LinkedHashSet<>();
+        BufferedReader reader = new BufferedReader(list);
+        boolean unifiedDiff = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(DIFF_HEADER)) {
+                unifiedDiff = true;
+            } else if (line.startsWith(OLD_FILE) || line.startsWith(NEW_FILE)) {
+                unifiedDiff = true;
+                addDiffPath(files, baseDir, line.substring(OLD_FILE.length()));
+            } else if (!unifiedDiff && !line.trim().isEmpty()) {
+                addListedPaths(files, baseDir, line);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Returns the root of the git working tree containing the given
+     * directory, ie the closest directory containing a {@code .git}
+     * directory or file, or the given directory if there's none.
+     *
+     * @param dir An absolute directory
+     */
+    public static File findWorkingTreeRoot(File dir) {
+        for (File current = dir; current != null; current = current.getParentFile()) {
+            if (new File(current, ".git").exists()) {
+                return current;
+            }
+        }
+        return dir;
+    }
+
+    private static void addDiffPath(Set<File> files, File baseDir, String path) {
+        // "+++ b/path\tdate" in some diff flavours
+        int tab = path.indexOf('\t');
+        String trimmed = (tab < 0 ? path : path.substring(0, tab)).trim();
+        if (NO_FILE.equals(trimmed)) {
+            return;
+        }
+        if (trimmed.startsWith("a/") || trimmed.startsWith("b/")) {
+            trimmed = trimmed.substring(2);
+        }
+        files.add(resolve(baseDir, trimmed));
+    }
+
+    private static void addListedPaths(Set<File> files, File baseDir, String line) {
+        String[] fields = line.split("\t");
+        if (fields.length == 1) {
+            files.add(resolve(baseDir, fields[0].trim()));
+        } else {
+            // --name-status: the first field is the status
+            for (int i = 1; i < fields.length; i++) {
+                files.add(resolve(baseDir, fields[i].trim()));
+            }
+        }
+    }
+
+    private static File resolve(File baseDir, String path) {
+        File file = new File(path);
+        if (!file.isAbsolute()) {
+            file = new File(baseDir, path);
+        }
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -73,7 +74,11 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
                             violations.add(CachedRuleViolation.loadFromStream(inputStream, fileName, ruleMapper));
                         }
 
-                        fileResultsCache.put(fileName, new AnalysisResult(checksum, violations));
+                        final AnalysisResult result = new AnalysisResult(checksum, violations);
+                        if (inputStream.readBoolean()) {
+                            result.setDependencies(new FileDependencies(readNames(inputStream), readNames(inputStream)));
+                        }
+                        fileResultsCache.put(fileName, result);
                     }
 
                     LOG.info("Analysis cache loaded");
@@ -128,6 +133,13 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
                 for (final RuleViolation rv : violations) {
                     CachedRuleViolation.storeToStream(outputStream, rv);
                 }
+
+                final FileDependencies dependencies = resultEntry.getValue().getDependencies();
+                outputStream.writeBoolean(dependencies != null);
+                if (dependencies != null) {
+                    writeNames(outputStream, dependencies.getDeclaredTypes());
+                    writeNames(outputStream, dependencies.getReferencedTypes());
+                }
             }
             if (cacheFileShouldBeCreated) {
                 LOG.info("Analysis cache created");
@@ -139,6 +151,21 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
         }
     }
 
+    private static List<String> readNames(final DataInputStream inputStream) throws IOException {
+        final int count = inputStream.readInt();
+        final List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(inputStream.readUTF());
+        }
+        return names;
+    }
+
+    private static void writeNames(final DataOutputStream outputStream, final Collection<String> names) throws IOException {
+        outputStream.writeInt(names.size());
+        for (final String name : names) {
+            outputStream.writeUTF(name);
+        }
+    }
 
     @Override
     protected boolean cacheExists() {
@@ -0,0 +1,94 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+/**
+ * The types declared by a file, and the types it refers to. Language
+ * modules may attach this to the root node of a file, see {@link #set(Node, FileDependencies)},
+ * in which case the analysis cache records it. This is used to find the
+ * files that depend on changed files when analysing only the
+ * {@linkplain net.sourceforge.pmd.PMDConfiguration#getChangedFilesPath() changed files}.
+ *
+ * <p>Names are fully qualified, with {@code .} as separator for nested
+ * types. A referenced name ending with {@code .*} refers to all the types
+ * of a package.
+ *
+ * @since 6.27.0
+ */
+@InternalApi
+public final class FileDependencies {
+
+    private static final SimpleDataKey<FileDependencies> KEY = DataMap.simpleDataKey("pmd.fileDependencies");
+
+    private final Set<String> declaredTypes;
+    private final Set<String> referencedTypes;
+
+    public FileDependencies(Collection<String> declaredTypes, Collection<String> referencedTypes) {
+        this.declaredTypes = Collections.unmodifiableSet(new LinkedHashSet<>(declaredTypes));
+        this.referencedTypes = Collections.unmodifiableSet(new LinkedHashSet<>(referencedTypes));
+    }
+
+    /** Returns the names of the types declared in the file. */
+    public Set<String> getDeclaredTypes() {
+        return declaredTypes;
+    }
+
+    /** Returns the names of the types and packages the file refers to. */
+    public Set<String> getReferencedTypes() {
+        return referencedTypes;
+    }
+
+    /**
+     * Returns true if the file refers to one of the given types, or to
+     * one of their nested types, or to their package as a whole.
+     *
+     * @param types Names of types declared by other files
+     */
+    public boolean refersToAny(Set<String> types) {
+        for (String type : types) {
+            int lastDot = type.lastIndexOf('.');
+            if (lastDot > 0 && referencedTypes.contains(type.substring(0, lastDot) + ".*")) {
+                return true;
+            }
+        }
+        for (String ref : referencedTypes) {
+            if (types.contains(ref)) {
+                return true;
+            }
+            // a nested type, eg Outer.Inner
+            for (int dot = ref.lastIndexOf('.'); dot > 0; dot = ref.lastIndexOf('.', dot - 1)) {
+                if (types.contains(ref.substring(0, dot))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the dependencies attached to the root node of a file, or
+     * null if the language module didn't compute them.
+     */
+    public static FileDependencies get(Node rootNode) {
+        return rootNode.getUserMap().get(KEY);
+    }
+
+    /**
+     * Attaches the dependencies of a file to its root node.
+     */
+    public static void set(Node rootNode, FileDependencies dependencies) {
+        rootNode.getUserMap().set(KEY, dependencies);
+    }
+}
@@ -7,6 +7,7 @@ package net.sourceforge.pmd.cache;
 import java.io.File;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import net.sourceforge.pmd.RuleSets;
 import net.sourceforge.pmd.RuleViolation;
@@ -56,4 +57,14 @@ public class NoopAnalysisCache implements AnalysisCache {
     public List<RuleViolation> getCachedViolations(File sourceFile) {
         return Collections.emptyList();
     }
+
+    @Override
+    public void recordDependencies(File sourceFile, FileDependencies dependencies) {
+        // noop
+    }
+
+    @Override
+    public void setChangedFiles(Set<File> changedFiles) {
+        // noop
+    }
 }
@@ -117,6 +117,44 @@ public class PMDParameters {
     @Parameter(names = "-no-cache", description = "Explicitly disable incremental analysis. The '-cache' option is ignored if this switch is present in the command line.")
     private boolean noCache = false;
 
+    @Parameter(names = "-changedfiles",
+            description = "Path to a file listing the changed files, eg the output of 'git diff --name-only' or 'git diff'. "
+                    + "Only these files and the files depending on them are analysed, the violations of the other files "
+                    + "are taken from the analysis cache (-cache).")
+    private String changedFilesPath;
+
+    @Parameter(names = "-changedfiles-basedir",
+            description = "Directory against which the relative paths listed in -changedfiles are resolved. "
+                    + "Defaults to the root of the git working tree containing the current directory.")
+    private String changedFilesBaseDir;
+
+    @Parameter(names = "-daemon",
+            description = "Keep running, watch the source directories for changes and answer the commands read "
+                    + "from the standard input ('check', 'check <files>', 'reload', 'quit').")
+    private boolean daemon = false;
+
+    @Parameter(names = "-compactast",
+            description = "Compact the ASTs after parsing, so that they don't retain the tokens of the parser. "
+                    + "This reduces the memory used, the benchmark report (-benchmark) shows the savings.")
+    private boolean compactAst = false;
+
+    @Parameter(names = "-index-node-types",
+            description = "Index the nodes of the ASTs by type after parsing, so that the descendant queries "
+                    + "of the rules don't walk the trees.")
+    private boolean indexNodeTypes = false;
+
+    @Parameter(names = "-multifile-prepass",
+            description = "Gather the project-wide data used by multifile rules in a first pass over the files, "
+                    + "then parse the files again to apply the rules. The trees are not kept between files.")
+    private boolean multifilePrepass = false;
+
+    @Parameter(names = "-parser-batch-size",
+            description = "Compile the files in batches of this size as the analysis proceeds, "
+                    + "for the languages whose compiler is expensive to set up (Apex). "
+                    + "0 compiles the files one by one.",
+            validateWith = PositiveInteger.class)
+    private int parserBatchSize = 0;
+
     // this has to be a public static class, so that JCommander can use it!
     public static class PropertyConverter implements IStringConverter<Properties> {
 
@@ -185,9 +223,15 @@ public class PMDParameters {
         configuration.setInputPaths(this.getSourceDir());
         configuration.setInputFilePath(this.getFileListPath());
         configuration.setIgnoreFilePath(this.getIgnoreListPath());
+        configuration.setChangedFilesPath(this.getChangedFilesPath());
+        configuration.setChangedFilesBaseDir(this.getChangedFilesBaseDir());
         configuration.setInputUri(this.getUri());
         configuration.setReportFormat(this.getFormat());
         configuration.setBenchmark(this.isBenchmark());
+        configuration.setCompactAst(this.isCompactAst());
+        configuration.setIndexNodeTypes(this.isIndexNodeTypes());
+        configuration.setMultifilePrepass(this.isMultifilePrepass());
+        configuration.setParserBatchSize(this.getParserBatchSize());
         configuration.setDebug(this.isDebug());
         configuration.setMinimumPriority(this.getMinimumPriority());
         configuration.setReportFile(this.getReportfile());
@@ -252,6 +296,34 @@ public class PMDParameters {
         return benchmark;
     }
 
+    public String getChangedFilesPath() {
+        return changedFilesPath;
+    }
+
+    public String getChangedFilesBaseDir() {
+        return changedFilesBaseDir;
+    }
+
+    public boolean isDaemon() {
+        return daemon;
+    }
+
+    public boolean isCompactAst() {
+        return compactAst;
+    }
+
+    public boolean isIndexNodeTypes() {
+        return indexNodeTypes;
+    }
+
+    public boolean isMultifilePrepass() {
+        return multifilePrepass;
+    }
+
+    public int getParserBatchSize() {
+        return parserBatchSize;
+    }
+
     public boolean isStress() {
         return stress;
     }
@@ -4,8 +4,11 @@
 
 package net.sourceforge.pmd.cpd;
 
+import java.nio.CharBuffer;
+
 import org.antlr.v4.runtime.CharStream;
-import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CodePointBuffer;
+import org.antlr.v4.runtime.CodePointCharStream;
 
 import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.cpd.token.AntlrToken;
@@ -52,8 +55,17 @@ public abstract class AntlrTokenizer implements Tokenizer {
     }
 
     public static CharStream getCharStreamFromSourceCode(final SourceCode sourceCode) {
-        StringBuilder buffer = sourceCode.getCodeBuffer();
-        return CharStreams.fromString(buffer.toString());
+        CharBuffer chars = sourceCode.getCodeChars();
+        for (int i = chars.position(); i < chars.limit(); i++) {
+            if (Character.isSurrogate(chars.get(i))) {
+                // supplementary characters need a buffer of code points
+                CodePointBuffer.Builder codePoints = CodePointBuffer.builder(chars.remaining());
+                codePoints.append(chars);
+                return CodePointCharStream.fromBuffer(codePoints.build());
+            }
+        }
+        // otherwise each char is a code point, and the code doesn't need to be copied
+        return CodePointCharStream.fromBuffer(CodePointBuffer.withChars(chars));
     }
 
     private void processToken(final Tokens tokenEntries, final String fileName, final AntlrToken token) {
@@ -5,7 +5,6 @@
 package net.sourceforge.pmd.cpd;
 
 import java.io.BufferedReader;
-import java.io.CharArrayReader;
 import java.io.IOException;
 import java.util.StringTokenizer;
 
@@ -19,8 +18,7 @@ public class AnyTokenizer implements Tokenizer {
 
     @Override
     public void tokenize(SourceCode sourceCode, Tokens tokenEntries) {
-        StringBuilder sb = sourceCode.getCodeBuffer();
-        try (BufferedReader reader = new BufferedReader(new CharArrayReader(sb.toString().toCharArray()))) {
+        try (BufferedReader reader = new BufferedReader(sourceCode.getCodeReader())) {
             int lineNumber = 1;
             int colNumber = 1;
             String line = reader.readLine();
@@ -8,6 +8,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -19,6 +20,7 @@ import java.util.logging.Logger;
 
 import org.apache.commons.io.FilenameUtils;
 
+import net.sourceforge.pmd.PMDVersion;
 import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.lang.ast.TokenMgrError;
 import net.sourceforge.pmd.util.FileFinder;
@@ -35,13 +37,37 @@ public class CPD {
     private CPDListener listener = new CPDNullListener();
     private Tokens tokens = new Tokens();
     private MatchAlgorithm matchAlgorithm;
+    /** The exact matches followed by the near matches, if near duplicates are searched. */
+    private List<Match> nearMatches;
     private Set<String> current = new HashSet<>();
 
+    private FingerprintStore fingerprintStore;
+    /** Files that changed since the last run, they're always tokenized. */
+    private final List<TokenizedFile> changedFiles = new ArrayList<>();
+    /** Files that didn't change, only tokenized if they may be part of a duplication. */
+    private final List<SourceCode> unchangedFiles = new ArrayList<>();
+
     public CPD(CPDConfiguration theConfiguration) {
         configuration = theConfiguration;
         // before we start any tokenizing (add(File...)), we need to reset the
         // static TokenEntry status
         TokenEntry.clearImages();
+
+        if (configuration.getCacheLocation() != null) {
+            fingerprintStore = new FingerprintStore(new File(configuration.getCacheLocation()),
+                                                    getTokenizerSignature(), configuration.getMinimumTileSize());
+        }
+    }
+
+    /**
+     * The fingerprints depend on the tokenizer and its options.
+     */
+    private String getTokenizerSignature() {
+        return PMDVersion.VERSION + ':' + configuration.getLanguage().getTerseName()
+            + ':' + configuration.getSourceEncoding().name()
+            + ':' + configuration.isIgnoreLiterals() + ':' + configuration.isIgnoreIdentifiers()
+            + ':' + configuration.isIgnoreAnnotations() + ':' + configuration.isIgnoreUsings()
+            + ':' + configuration.isNoSkipBlocks() + ':' + configuration.getSkipBlocksPattern();
     }
 
     public void setCpdListener(CPDListener cpdListener) {
@@ -49,11 +75,98 @@ public class CPD {
     }
 
     public void go() {
+        if (fingerprintStore != null) {
+            addDuplicatedUnchangedFiles();
+        }
         matchAlgorithm = new MatchAlgorithm(source, tokens, configuration.getMinimumTileSize(), listener);
         matchAlgorithm.findMatches();
+        if (configuration.getNearDuplicateSimilarity() > 0) {
+            List<Match> exactMatches = new ArrayList<>();
+            for (Iterator<Match> it = matchAlgorithm.matches(); it.hasNext();) {
+                exactMatches.add(it.next());
+            }
+            nearMatches = findNearMatches(exactMatches);
+            nearMatches.addAll(0, exactMatches);
+        }
+    }
+
+    /**
+     * Returns the near duplicates that are not part of an exact duplicate.
+     */
+    private List<Match> findNearMatches(List<Match> exactMatches) {
+        List<Match> result = new ArrayList<>();
+        for (Match match : new NearMatchAlgorithm(source, tokens, configuration.getMinimumTileSize(),
+                                                  configuration.getNearDuplicateSimilarity(),
+                                                  Runtime.getRuntime().availableProcessors(), listener).findMatches()) {
+            if (!isPartOfAny(match, exactMatches)) {
+                result.add(match);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isPartOfAny(Match nearMatch, List<Match> exactMatches) {
+        for (Match exactMatch : exactMatches) {
+            if (isPartOf(nearMatch.getFirstMark(), exactMatch) && isPartOf(nearMatch.getSecondMark(), exactMatch)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPartOf(Mark mark, Match match) {
+        for (Mark other : match) {
+            if (other.getFilename().equals(mark.getFilename())
+                && other.getBeginLine() <= mark.getBeginLine() && mark.getEndLine() <= other.getEndLine()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the duplications, and passes each one to the listener as soon
+     * as it's found, instead of keeping them until the end. The matches
+     * are not sorted, and {@link #getMatches()} returns none. The near
+     * duplicates, if they're searched, are only passed once all the exact
+     * duplicates were.
+     *
+     * @param matchListener Receives the matches, e.g. a {@link net.sourceforge.pmd.cpd.renderer.CPDStreamingRenderer}
+     *
+     * @throws IOException If the listener fails
+     * @since 6.27.0
+     */
+    @Experimental
+    public void go(final CPDMatchListener matchListener) throws IOException {
+        if (fingerprintStore != null) {
+            addDuplicatedUnchangedFiles();
+        }
+        matchAlgorithm = new MatchAlgorithm(source, tokens, configuration.getMinimumTileSize(), listener);
+        if (configuration.getNearDuplicateSimilarity() <= 0) {
+            matchAlgorithm.findMatches(matchListener);
+            return;
+        }
+
+        // the exact duplicates are needed to leave them out of the near duplicates
+        final List<Match> exactMatches = new ArrayList<>();
+        matchAlgorithm.findMatches(new CPDMatchListener() {
+            @Override
+            public void matchFound(Match match) throws IOException {
+                exactMatches.add(match);
+                matchListener.matchFound(match);
+            }
+        });
+        // the pairs of similar regions are only known at the end
+        for (Match match : findNearMatches(exactMatches)) {
+            matchListener.matchFound(match);
+        }
+        nearMatches = Collections.emptyList();
     }
 
     public Iterator<Match> getMatches() {
+        if (nearMatches != null) {
+            return nearMatches.iterator();
+        }
         return matchAlgorithm.matches();
     }
 
@@ -133,23 +246,87 @@ public class CPD {
 
     @Experimental
     public void add(SourceCode sourceCode) throws IOException {
+        add(sourceCode, configuration.tokenizer());
+    }
+
+    /**
+     * Adds the source code, tokenized by the given tokenizer instead of
+     * the tokenizer of the language.
+     */
+    void add(SourceCode sourceCode, Tokenizer tokenizer) throws IOException {
+        if (fingerprintStore == null) {
+            addTokenized(sourceCode, tokenizer, true);
+            return;
+        }
+
+        long checksum = sourceCode.computeChecksum();
+        if (fingerprintStore.isUnchanged(sourceCode.getFileName(), checksum)) {
+            unchangedFiles.add(sourceCode);
+            listener.addedFile(1, new File(sourceCode.getFileName()));
+            source.put(sourceCode.getFileName(), sourceCode);
+            return;
+        }
+        int start = tokens.size();
+        addTokenized(sourceCode, tokenizer, true);
+        if (tokens.size() > start) {
+            changedFiles.add(new TokenizedFile(sourceCode.getFileName(), checksum, start, tokens.size()));
+        }
+    }
+
+    /**
+     * Fingerprints the changed files, and tokenizes the unchanged files
+     * that share fingerprints with other files.
+     */
+    private void addDuplicatedUnchangedFiles() {
+        int[] imageHashCodes = TokenEntry.getImageHashCodes();
+        for (TokenizedFile file : changedFiles) {
+            // without the EOF token
+            fingerprintStore.update(file.fileName, file.checksum,
+                                    tokens.getTokens().subList(file.start, file.end - 1), imageHashCodes);
+        }
+        changedFiles.clear();
+
+        // near duplicates don't necessarily share fingerprints, so every file is needed
+        boolean allFiles = configuration.getNearDuplicateSimilarity() > 0;
+        Set<String> duplicatedFiles = fingerprintStore.findDuplicatedFiles();
+        int skipped = 0;
+        for (SourceCode sourceCode : unchangedFiles) {
+            if (allFiles || duplicatedFiles.contains(sourceCode.getFileName())) {
+                try {
+                    // the listener was notified when the file was added
+                    addTokenized(sourceCode, configuration.tokenizer(), false);
+                } catch (IOException e) {
+                    throw new RuntimeException("Problem while tokenizing " + sourceCode.getFileName(), e);
+                }
+            } else {
+                skipped++;
+            }
+        }
+        LOGGER.log(Level.FINE, "Skipped {0} unchanged files without duplicated fingerprints", skipped);
+        unchangedFiles.clear();
+        fingerprintStore.persist();
+    }
+
+    private void addTokenized(SourceCode sourceCode, Tokenizer tokenizer, boolean notifyListener) throws IOException {
         if (configuration.isSkipLexicalErrors()) {
-            addAndSkipLexicalErrors(sourceCode);
+            addAndSkipLexicalErrors(sourceCode, tokenizer, notifyListener);
         } else {
-            addAndThrowLexicalError(sourceCode);
+            addAndThrowLexicalError(sourceCode, tokenizer, notifyListener);
         }
     }
 
-    private void addAndThrowLexicalError(SourceCode sourceCode) throws IOException {
-        configuration.tokenizer().tokenize(sourceCode, tokens);
-        listener.addedFile(1, new File(sourceCode.getFileName()));
+    private void addAndThrowLexicalError(SourceCode sourceCode, Tokenizer tokenizer, boolean notifyListener) throws IOException {
+        tokenizer.tokenize(sourceCode, tokens);
+        if (notifyListener) {
+            listener.addedFile(1, new File(sourceCode.getFileName()));
+        }
         source.put(sourceCode.getFileName(), sourceCode);
     }
 
-    private void addAndSkipLexicalErrors(SourceCode sourceCode) throws IOException {
+    private void addAndSkipLexicalErrors(SourceCode sourceCode, Tokenizer tokenizer, boolean notifyListener) throws IOException {
         TokenEntry.State savedTokenEntry = new TokenEntry.State(tokens.getTokens());
         try {
-            addAndThrowLexicalError(sourceCode);
+            addAndThrowLexicalError(sourceCode, tokenizer, notifyListener);
         } catch (TokenMgrError e) {
             System.err.println("Skipping " + sourceCode.getFileName() + ". Reason: " + e.getMessage());
             tokens.getTokens().clear();
@@ -178,4 +355,21 @@ public class CPD {
     public static void main(String[] args) {
         CPDCommandLineInterface.main(args);
     }
+
+    /**
+     * A changed file, and the range of its tokens.
+     */
+    private static final class TokenizedFile {
+        private final String fileName;
+        private final long checksum;
+        private final int start;
+        private final int end;
+
+        TokenizedFile(String fileName, long checksum, int start, int end) {
+            this.fileName = fileName;
+            this.checksum = checksum;
+            this.start = start;
+            this.end = end;
+        }
+    }
 }
@@ -11,6 +11,7 @@ import java.io.FilenameFilter;
 import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -22,11 +23,12 @@ import java.util.Set;
 
 import net.sourceforge.pmd.AbstractConfiguration;
 import net.sourceforge.pmd.cpd.renderer.CPDRenderer;
-import net.sourceforge.pmd.util.FileFinder;
 import net.sourceforge.pmd.util.FileUtil;
 
 import com.beust.jcommander.IStringConverter;
+import com.beust.jcommander.IValueValidator;
 import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
 import com.beust.jcommander.converters.FileConverter;
 
 /**
@@ -125,6 +127,19 @@ public class CPDConfiguration extends AbstractConfiguration {
     @Parameter(names = "--uri", description = "URI to process", required = false)
     private String uri;
 
+    @Parameter(names = "--cache",
+            description = "Path to a file where the fingerprints of the files are kept between runs. "
+                    + "Files that didn't change and can't be part of a duplication are then not tokenized again.",
+            required = false)
+    private String cacheLocation;
+
+    @Parameter(names = "--near-duplicates",
+            description = "Also report blocks of code which are similar but not identical, e.g. copied and then "
+                    + "modified code, in addition to the exact duplicates. The value is the minimum similarity of "
+                    + "the blocks, between 0 and 1, e.g. 0.8. With --cache, all the files are then tokenized.",
+            required = false, validateValueWith = SimilarityValidator.class)
+    private double nearDuplicateSimilarity;
+
     @Parameter(names = { "--help", "-h" }, description = "Print help text", required = false, help = true)
     private boolean help;
 
@@ -144,6 +159,17 @@ public class CPDConfiguration extends AbstractConfiguration {
         }
     }
 
+    // this has to be a public static class, so that JCommander can use it!
+    public static class SimilarityValidator implements IValueValidator<Double> {
+
+        @Override
+        public void validate(String name, Double value) throws ParameterException {
+            if (value < 0 || value > 1) {
+                throw new ParameterException("The similarity must be between 0 and 1, " + value + " is not valid");
+            }
+        }
+    }
+
     @Parameter(names = "--encoding", description = "Character encoding to use when processing files", required = false)
     public void setEncoding(String encoding) {
         this.encoding = encoding;
@@ -336,17 +362,16 @@ public class CPDConfiguration extends AbstractConfiguration {
 
         final FilenameFilter languageFilter = language.getFileFilter();
         final Set<String> exclusions = new HashSet<>();
+        final List<String> excludedDirectories = new ArrayList<>();
 
+        // the filter is also applied to the directories while walking, so
+        // the excluded directories are skipped instead of being listed upfront
         if (excludes != null) {
-            FileFinder finder = new FileFinder();
             for (File excludedFile : excludes) {
+                String path = FileUtil.normalizeFilename(excludedFile.getAbsolutePath());
+                exclusions.add(path);
                 if (excludedFile.isDirectory()) {
-                    List<File> files = finder.findFilesFrom(excludedFile, languageFilter, true);
-                    for (File f : files) {
-                        exclusions.add(FileUtil.normalizeFilename(f.getAbsolutePath()));
-                    }
-                } else {
-                    exclusions.add(FileUtil.normalizeFilename(excludedFile.getAbsolutePath()));
+                    excludedDirectories.add(path + File.separator);
                 }
             }
         }
@@ -354,16 +379,28 @@ public class CPDConfiguration extends AbstractConfiguration {
         return new FilenameFilter() {
             @Override
             public boolean accept(File dir, String name) {
-                File f = new File(dir, name);
-                if (exclusions.contains(FileUtil.normalizeFilename(f.getAbsolutePath()))) {
-                    System.err.println("Excluding " + f.getAbsolutePath());
-                    return false;
+                if (!exclusions.isEmpty()) {
+                    File f = new File(dir, name);
+                    String path = FileUtil.normalizeFilename(f.getAbsolutePath());
+                    if (exclusions.contains(path) || isInDirectory(path, excludedDirectories)) {
+                        System.err.println("Excluding " + f.getAbsolutePath());
+                        return false;
+                    }
                 }
                 return languageFilter.accept(dir, name);
             }
         };
     }
 
+    private static boolean isInDirectory(String path, List<String> directories) {
+        for (String directory : directories) {
+            if (path.startsWith(directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @deprecated Use {@link #setCPDRenderer(CPDRenderer)} instead
      * @param renderer
@@ -459,6 +496,57 @@ public class CPDConfiguration extends AbstractConfiguration {
         this.nonRecursive = nonRecursive;
     }
 
+    /**
+     * Returns the location of the fingerprint store, or null if every
+     * file is tokenized.
+     *
+     * @since 6.27.0
+     */
+    public String getCacheLocation() {
+        return cacheLocation;
+    }
+
+    /**
+     * Sets the location of the fingerprint store. With a store, the files
+     * that didn't change since the last run are only tokenized if they
+     * may be part of a duplication. All the files are tokenized if near
+     * duplicates are searched, since these don't share fingerprints.
+     *
+     * @param cacheLocation The path of the store, or null to tokenize every file
+     *
+     * @since 6.27.0
+     */
+    public void setCacheLocation(String cacheLocation) {
+        this.cacheLocation = cacheLocation;
+    }
+
+    /**
+     * Returns the minimum similarity of the near duplicates reported in
+     * addition to the exact duplicates, or 0 if only exact duplicates are
+     * reported.
+     *
+     * @since 6.27.0
+     */
+    public double getNearDuplicateSimilarity() {
+        return nearDuplicateSimilarity;
+    }
+
+    /**
+     * Sets the minimum similarity of two blocks of code to report them as
+     * near duplicates, in addition to the exact duplicates. The similarity is the proportion of the sequences of
+     * tokens the blocks have in common.
+     *
+     * @param nearDuplicateSimilarity A value between 0 (exclusive) and 1, or 0 to only report exact duplicates
+     *
+     * @since 6.27.0
+     */
+    public void setNearDuplicateSimilarity(double nearDuplicateSimilarity) {
+        if (nearDuplicateSimilarity < 0 || nearDuplicateSimilarity > 1) {
+            throw new IllegalArgumentException("The similarity must be between 0 and 1: " + nearDuplicateSimilarity);
+        }
+        this.nearDuplicateSimilarity = nearDuplicateSimilarity;
+    }
+
     public boolean isHelp() {
         return help;
     }
@@ -0,0 +1,29 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import java.io.IOException;
+
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * Receives the matches as soon as they're found, see {@link CPD#go(CPDMatchListener)}.
+ * The matches are complete, their marks have their source code, but they
+ * don't come in any particular order.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public interface CPDMatchListener {
+
+    /**
+     * Called once for each match. The match is not kept after this call.
+     *
+     * @param match The match
+     *
+     * @throws IOException If the match couldn't be written, this stops the search
+     */
+    void matchFound(Match match) throws IOException;
+}
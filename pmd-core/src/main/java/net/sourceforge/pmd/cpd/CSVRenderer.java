@@ -13,11 +13,14 @@ import org.apache.commons.lang3.StringEscapeUtils;
 
 import net.sourceforge.pmd.PMD;
 import net.sourceforge.pmd.cpd.renderer.CPDRenderer;
+import net.sourceforge.pmd.cpd.renderer.CPDStreamingRenderer;
 
-public class CSVRenderer implements Renderer, CPDRenderer {
+public class CSVRenderer implements Renderer, CPDRenderer, CPDStreamingRenderer {
 
     private final char separator;
     private final boolean lineCountPerFile;
+    /** The writer of the streamed report, between {@link #start(Writer)} and {@link #end()}. */
+    private Writer streamWriter;
 
     public static final char DEFAULT_SEPARATOR = ',';
     public static final boolean DEFAULT_LINECOUNTPERFILE = false;
@@ -52,33 +55,55 @@ public class CSVRenderer implements Renderer, CPDRenderer {
 
     @Override
     public void render(Iterator<Match> matches, Writer writer) throws IOException {
+        writeHeader(writer);
+        while (matches.hasNext()) {
+            writeMatch(matches.next(), writer);
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void start(Writer writer) throws IOException {
+        this.streamWriter = writer;
+        writeHeader(writer);
+    }
+
+    @Override
+    public void matchFound(Match match) throws IOException {
+        writeMatch(match, streamWriter);
+    }
+
+    @Override
+    public void end() throws IOException {
+        streamWriter.flush();
+        streamWriter = null;
+    }
+
+    private void writeHeader(Writer writer) throws IOException {
         if (!lineCountPerFile) {
             writer.append("lines").append(separator);
         }
         writer.append("tokens").append(separator).append("occurrences").append(PMD.EOL);
+    }
 
-        while (matches.hasNext()) {
-            Match match = matches.next();
-
-            if (!lineCountPerFile) {
-                writer.append(String.valueOf(match.getLineCount())).append(separator);
+    private void writeMatch(Match match, Writer writer) throws IOException {
+        if (!lineCountPerFile) {
+            writer.append(String.valueOf(match.getLineCount())).append(separator);
+        }
+        writer.append(String.valueOf(match.getTokenCount())).append(separator)
+            .append(String.valueOf(match.getMarkCount())).append(separator);
+        for (Iterator<Mark> marks = match.iterator(); marks.hasNext();) {
+            Mark mark = marks.next();
+
+            writer.append(String.valueOf(mark.getBeginLine())).append(separator);
+            if (lineCountPerFile) {
+                writer.append(String.valueOf(mark.getLineCount())).append(separator);
             }
-            writer.append(String.valueOf(match.getTokenCount())).append(separator)
-                .append(String.valueOf(match.getMarkCount())).append(separator);
-            for (Iterator<Mark> marks = match.iterator(); marks.hasNext();) {
-                Mark mark = marks.next();
-
-                writer.append(String.valueOf(mark.getBeginLine())).append(separator);
-                if (lineCountPerFile) {
-                    writer.append(String.valueOf(mark.getLineCount())).append(separator);
-                }
-                writer.append(StringEscapeUtils.escapeCsv(mark.getFilename()));
-                if (marks.hasNext()) {
-                    writer.append(separator);
-                }
+            writer.append(StringEscapeUtils.escapeCsv(mark.getFilename()));
+            if (marks.hasNext()) {
+                writer.append(separator);
             }
-            writer.append(PMD.EOL);
         }
-        writer.flush();
+        writer.append(PMD.EOL);
     }
 }
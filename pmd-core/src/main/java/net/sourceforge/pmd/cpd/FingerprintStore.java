@@ -0,0 +1,231 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Stores, per file, the checksum of its content and the fingerprints of
+ * its windows of tokens of the minimum tile size. A file that didn't
+ * change since the last run and whose fingerprints are unique can't be
+ * part of a duplication, so it doesn't need to be tokenized again.
+ *
+ * <p>Unlike the hashes computed by the {@link MatchAlgorithm}, the
+ * fingerprints only depend on the images of the tokens, so they're
+ * stable across runs.
+ */
+final class FingerprintStore {
+
+    private static final Logger LOG = Logger.getLogger(FingerprintStore.class.getName());
+
+    private static final int MOD = 37;
+
+    private final File storeFile;
+    private final String signature;
+    private final int minimumTileSize;
+
+    private final Map<String, Entry> previous = new HashMap<>();
+    private final Map<String, Entry> current = new LinkedHashMap<>();
+
+    /**
+     * Creates a store backed by the given file, and loads the entries
+     * from it, if they were computed with the same configuration.
+     *
+     * @param storeFile       The file backing the store
+     * @param signature       The configuration of the tokenizer
+     * @param minimumTileSize The number of tokens of the fingerprinted windows
+     */
+    FingerprintStore(File storeFile, String signature, int minimumTileSize) {
+        this.storeFile = storeFile;
+        this.signature = signature;
+        this.minimumTileSize = minimumTileSize;
+        load();
+    }
+
+    private void load() {
+        if (!storeFile.isFile() || storeFile.length() == 0) {
+            return;
+        }
+        try (DataInputStream inputStream = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(storeFile.toPath())))) {
+            if (!signature.equals(inputStream.readUTF()) || inputStream.readInt() != minimumTileSize) {
+                LOG.info("CPD fingerprints invalidated, the configuration changed.");
+                return;
+            }
+            int fileCount = inputStream.readInt();
+            for (int i = 0; i < fileCount; i++) {
+                String fileName = inputStream.readUTF();
+                long checksum = inputStream.readLong();
+                boolean selfDuplicated = inputStream.readBoolean();
+                int[] fingerprints = new int[inputStream.readInt()];
+                for (int j = 0; j < fingerprints.length; j++) {
+                    fingerprints[j] = inputStream.readInt();
+                }
+                previous.put(fileName, new Entry(checksum, fingerprints, selfDuplicated));
+            }
+        } catch (EOFException e) {
+            LOG.warning("CPD fingerprint store " + storeFile.getPath() + " is malformed, it will not be used");
+            previous.clear();
+        } catch (IOException e) {
+            LOG.severe("Could not load the CPD fingerprints. " + e.getMessage());
+            previous.clear();
+        }
+    }
+
+    /**
+     * Returns true if the file didn't change since the last run. Its
+     * fingerprints are then kept.
+     */
+    boolean isUnchanged(String fileName, long checksum) {
+        Entry entry = previous.get(fileName);
+        if (entry != null && entry.checksum == checksum) {
+            current.put(fileName, entry);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Computes the fingerprints of a changed file.
+     *
+     * @param fileName    Name of the file
+     * @param checksum    Checksum of its content
+     * @param tokens      Its tokens
+     * @param imageHashes Hash codes of the images of the tokens, indexed by identifier
+     */
+    void update(String fileName, long checksum, List<TokenEntry> tokens, int[] imageHashes) {
+        int windowCount = tokens.size() - minimumTileSize + 1;
+        if (windowCount <= 0) {
+            current.put(fileName, new Entry(checksum, new int[0], false));
+            return;
+        }
+
+        int[] fingerprints = new int[windowCount];
+        int lastMod = 1;
+        for (int i = 0; i < minimumTileSize; i++) {
+            lastMod *= MOD;
+        }
+        int hash = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            hash = MOD * hash + imageHashes[tokens.get(i).getIdentifier()];
+            if (i >= minimumTileSize) {
+                hash -= lastMod * imageHashes[tokens.get(i - minimumTileSize).getIdentifier()];
+            }
+            if (i >= minimumTileSize - 1) {
+                fingerprints[i - minimumTileSize + 1] = hash;
+            }
+        }
+
+        Arrays.sort(fingerprints);
+        int distinct = 0;
+        for (int i = 0; i < fingerprints.length; i++) {
+            if (i == 0 || fingerprints[i] != fingerprints[i - 1]) {
+                fingerprints[distinct++] = fingerprints[i];
+            }
+        }
+        current.put(fileName, new Entry(checksum, Arrays.copyOf(fingerprints, distinct), distinct < windowCount));
+    }
+
+    /**
+     * Returns the names of the files having a fingerprint that's also
+     * a fingerprint of another file, or that appears twice in the file.
+     */
+    Set<String> findDuplicatedFiles() {
+        String[] fileNames = current.keySet().toArray(new String[0]);
+        int count = 0;
+        for (Entry entry : current.values()) {
+            count += entry.fingerprints.length;
+        }
+
+        // sorting the fingerprints along with the index of their file
+        // groups the files sharing a fingerprint
+        long[] fingerprints = new long[count];
+        int i = 0;
+        int fileIndex = 0;
+        for (Entry entry : current.values()) {
+            for (int fingerprint : entry.fingerprints) {
+                fingerprints[i++] = (long) fingerprint << 32 | fileIndex;
+            }
+            fileIndex++;
+        }
+        Arrays.sort(fingerprints);
+
+        Set<String> duplicated = new HashSet<>();
+        for (Map.Entry<String, Entry> entry : current.entrySet()) {
+            if (entry.getValue().selfDuplicated) {
+                duplicated.add(entry.getKey());
+            }
+        }
+        for (int start = 0; start < count;) {
+            int end = start + 1;
+            while (end < count && fingerprints[end] >>> 32 == fingerprints[start] >>> 32) {
+                end++;
+            }
+            if (end - start > 1) {
+                for (int j = start; j < end; j++) {
+                    duplicated.add(fileNames[(int) fingerprints[j]]);
+                }
+            }
+            start = end;
+        }
+        return duplicated;
+    }
+
+    /**
+     * Writes the entries of the files of this run.
+     */
+    void persist() {
+        File parentFile = storeFile.getAbsoluteFile().getParentFile();
+        if (parentFile != null && !parentFile.exists()) {
+            parentFile.mkdirs();
+        }
+        try (DataOutputStream outputStream = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(storeFile.toPath())))) {
+            outputStream.writeUTF(signature);
+            outputStream.writeInt(minimumTileSize);
+            outputStream.writeInt(current.size());
+            for (Map.Entry<String, Entry> entry : current.entrySet()) {
+                outputStream.writeUTF(entry.getKey());
+                outputStream.writeLong(entry.getValue().checksum);
+                outputStream.writeBoolean(entry.getValue().selfDuplicated);
+                outputStream.writeInt(entry.getValue().fingerprints.length);
+                for (int fingerprint : entry.getValue().fingerprints) {
+                    outputStream.writeInt(fingerprint);
+                }
+            }
+        } catch (IOException e) {
+            LOG.severe("Could not persist the CPD fingerprints. " + e.getMessage());
+        }
+    }
+
+    private static final class Entry {
+        private final long checksum;
+        /** Sorted, distinct fingerprints. */
+        private final int[] fingerprints;
+        /** Whether a fingerprint appears twice in the file. */
+        private final boolean selfDuplicated;
+
+        Entry(long checksum, int[] fingerprints, boolean selfDuplicated) {
+            this.checksum = checksum;
+            this.fingerprints = fingerprints;
+            this.selfDuplicated = selfDuplicated;
+        }
+    }
+}
@@ -4,6 +4,7 @@
 
 package net.sourceforge.pmd.cpd;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -75,20 +76,57 @@ public class MatchAlgorithm {
         matches = matchCollector.getMatches();
 
         for (Match match : matches) {
-            for (Mark mark : match) {
-                TokenEntry token = mark.getToken();
-                int lineCount = tokens.getLineCount(token, match);
-                TokenEntry endToken = tokens.getEndToken(token, match);
-
-                mark.setLineCount(lineCount);
-                mark.setEndToken(endToken);
-                SourceCode sourceCode = source.get(token.getTokenSrcID());
-                mark.setSourceCode(sourceCode);
+            completeMarks(match);
+        }
+        cpdListener.phaseUpdate(CPDListener.DONE);
+    }
+
+    /**
+     * Finds the matches like {@link #findMatches()}, but passes each one
+     * to the listener as soon as it's complete instead of keeping them.
+     * The matches are not sorted, and {@link #matches()} returns no match.
+     *
+     * @param matchListener Receives the matches
+     *
+     * @throws IOException If the listener fails
+     */
+    public void findMatches(CPDMatchListener matchListener) throws IOException {
+        cpdListener.phaseUpdate(CPDListener.HASH);
+        Map<TokenEntry, Object> markGroups = hash();
+
+        cpdListener.phaseUpdate(CPDListener.MATCH);
+        matches = Collections.emptyList();
+        MatchCollector matchCollector = new MatchCollector(this);
+        for (Iterator<Object> i = markGroups.values().iterator(); i.hasNext();) {
+            Object o = i.next();
+            i.remove();
+            if (o instanceof List) {
+                @SuppressWarnings("unchecked")
+                List<TokenEntry> l = (List<TokenEntry>) o;
+                Collections.reverse(l);
+                matchCollector.collect(l);
+                for (Match match : matchCollector.takeNewMatches()) {
+                    completeMarks(match);
+                    matchListener.matchFound(match);
+                }
             }
         }
         cpdListener.phaseUpdate(CPDListener.DONE);
     }
 
+    private void completeMarks(Match match) {
+        for (Mark mark : match) {
+            TokenEntry token = mark.getToken();
+            int lineCount = tokens.getLineCount(token, match);
+            TokenEntry endToken = tokens.getEndToken(token, match);
+
+            mark.setLineCount(lineCount);
+            mark.setEndToken(endToken);
+            SourceCode sourceCode = source.get(token.getTokenSrcID());
+            mark.setSourceCode(sourceCode);
+        }
+    }
+
     @SuppressWarnings("PMD.JumbledIncrementer")
     private Map<TokenEntry, Object> hash() {
         Map<TokenEntry, Object> markGroups = new HashMap<>(tokens.size());
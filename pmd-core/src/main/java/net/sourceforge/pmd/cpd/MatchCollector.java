@@ -82,6 +82,29 @@ public class MatchCollector {
         return matchList;
     }
 
+    /**
+     * Removes the matches found since the last call, and returns them.
+     * All the marks of a match come from the same list of marks given to
+     * {@link #collect(List)}, so the matches are complete once it returns.
+     */
+    List<Match> takeNewMatches() {
+        if (matchList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Match> newMatches = matchList;
+        matchList = new ArrayList<>();
+        for (Match match : newMatches) {
+            Map<Integer, Match> matches = matchTree.get(match.getTokenCount());
+            for (Mark mark : match) {
+                matches.remove(mark.getToken().getIndex());
+            }
+            if (matches.isEmpty()) {
+                matchTree.remove(match.getTokenCount());
+            }
+        }
+        return newMatches;
+    }
+
     private boolean hasPreviousDupe(TokenEntry mark1, TokenEntry mark2) {
         if (mark1.getIndex() == 0) {
             return false;
@@ -0,0 +1,462 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Finds pairs of similar regions of code, e.g. code that was copied and
+ * then slightly modified, which {@link MatchAlgorithm} misses.
+ *
+ * <p>The regions are the blocks delimited by braces, along with the
+ * tokens preceding the opening brace up to the previous statement or
+ * block (e.g. the signature of a method). Files without braces are split
+ * into overlapping windows of twice the minimum tile size. Only regions
+ * of at least the minimum tile size are compared.
+ *
+ * <p>The similarity of two regions is the Jaccard index of their sets of
+ * shingles (sequences of {@value #SHINGLE_SIZE} tokens). Candidate pairs
+ * are found with locality sensitive hashing of the MinHash signatures of
+ * the regions, then their actual similarity is computed. Both steps run
+ * in parallel.
+ *
+ * <p>A pair is not reported if the regions overlap, or if they're
+ * nested in the regions of another reported pair.
+ */
+final class NearMatchAlgorithm {
+
+    static final int SHINGLE_SIZE = 4;
+    private static final int SIGNATURE_SIZE = 64;
+    /** Minimum probability that a pair with the threshold similarity is a candidate. */
+    private static final double RECALL = 0.95;
+
+    private static final int[] SEEDS_A = new int[SIGNATURE_SIZE];
+    private static final int[] SEEDS_B = new int[SIGNATURE_SIZE];
+
+    static {
+        Random random = new Random(SIGNATURE_SIZE);
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            SEEDS_A[i] = random.nextInt() | 1;
+            SEEDS_B[i] = random.nextInt();
+        }
+    }
+
+    private final Map<String, SourceCode> source;
+    private final List<TokenEntry> code;
+    private final int min;
+    private final double threshold;
+    private final int threads;
+    private final CPDListener cpdListener;
+
+    private final List<Region> regions = new ArrayList<>();
+
+    /**
+     * @param source      The source code of the files
+     * @param tokens      The tokens of the files
+     * @param min         Minimum number of tokens of a region
+     * @param threshold   Minimum similarity of reported regions, between 0 and 1
+     * @param threads     Number of threads comparing the regions
+     * @param cpdListener Notified of the phases
+     */
+    NearMatchAlgorithm(Map<String, SourceCode> source, Tokens tokens, int min, double threshold, int threads,
+                       CPDListener cpdListener) {
+        this.source = source;
+        this.code = tokens.getTokens();
+        this.min = Math.max(min, SHINGLE_SIZE);
+        this.threshold = threshold;
+        this.threads = Math.max(1, threads);
+        this.cpdListener = cpdListener;
+    }
+
+    /**
+     * Returns the matches of two similar regions, sorted like the
+     * matches of {@link MatchAlgorithm}. The token count of a match is
+     * the size of its smaller region.
+     */
+    List<Match> findMatches() {
+        cpdListener.phaseUpdate(CPDListener.HASH);
+        findRegions();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            computeSignatures(executor);
+            cpdListener.phaseUpdate(CPDListener.MATCH);
+            List<Long> similarPairs = compare(executor, findCandidates());
+            cpdListener.phaseUpdate(CPDListener.GROUPING);
+            List<Match> matches = toMatches(similarPairs);
+            cpdListener.phaseUpdate(CPDListener.DONE);
+            return matches;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void findRegions() {
+        int open = TokenEntry.getIdentifier("{");
+        int close = TokenEntry.getIdentifier("}");
+        int semicolon = TokenEntry.getIdentifier(";");
+
+        int fileStart = 0;
+        for (int i = 0; i < code.size(); i++) {
+            if (code.get(i) == TokenEntry.EOF) {
+                int fileRegions = regions.size();
+                findBlocks(fileStart, i, open, close, semicolon);
+                if (regions.size() == fileRegions) {
+                    findWindows(fileStart, i);
+                }
+                fileStart = i + 1;
+            }
+        }
+    }
+
+    private void findBlocks(int start, int end, int open, int close, int semicolon) {
+        List<Integer> openBlocks = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            int identifier = code.get(i).getIdentifier();
+            if (identifier == open) {
+                openBlocks.add(i);
+            } else if (identifier == close && !openBlocks.isEmpty()) {
+                int blockStart = openBlocks.remove(openBlocks.size() - 1);
+                while (blockStart > start) {
+                    int previous = code.get(blockStart - 1).getIdentifier();
+                    if (previous == open || previous == close || previous == semicolon) {
+                        break;
+                    }
+                    blockStart--;
+                }
+                addRegion(blockStart, i + 1);
+            }
+        }
+    }
+
+    private void findWindows(int start, int end) {
+        int size = 2 * min;
+        for (int i = start; i < end; i += min) {
+            addRegion(i, Math.min(end, i + size));
+            if (i + size >= end) {
+                break;
+            }
+        }
+    }
+
+    private void addRegion(int start, int end) {
+        if (end - start >= min) {
+            regions.add(new Region(start, end));
+        }
+    }
+
+    private void computeSignatures(ExecutorService executor) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        int chunk = Math.max(1, regions.size() / (threads * 4));
+        for (int i = 0; i < regions.size(); i += chunk) {
+            final List<Region> part = regions.subList(i, Math.min(regions.size(), i + chunk));
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (Region region : part) {
+                        region.computeShingles(code);
+                        region.computeSignature();
+                    }
+                    return null;
+                }
+            });
+        }
+        invokeAll(executor, tasks);
+    }
+
+    /**
+     * Returns the pairs of regions whose signatures are equal on at least
+     * one band, as pairs of indexes {@code first << 32 | second}.
+     */
+    private long[] findCandidates() {
+        int rows = rowsPerBand();
+        Set<Long> candidates = new HashSet<>();
+        for (int band = 0; band < SIGNATURE_SIZE / rows; band++) {
+            Map<BandKey, List<Integer>> buckets = new HashMap<>();
+            for (int i = 0; i < regions.size(); i++) {
+                BandKey key = new BandKey(regions.get(i).signature, band * rows, rows);
+                List<Integer> bucket = buckets.get(key);
+                if (bucket == null) {
+                    bucket = new ArrayList<>(2);
+                    buckets.put(key, bucket);
+                }
+                bucket.add(i);
+            }
+            for (List<Integer> bucket : buckets.values()) {
+                for (int i = 0; i < bucket.size() - 1; i++) {
+                    for (int j = i + 1; j < bucket.size(); j++) {
+                        candidates.add((long) bucket.get(i) << 32 | bucket.get(j));
+                    }
+                }
+            }
+        }
+        long[] result = new long[candidates.size()];
+        int i = 0;
+        for (Long candidate : candidates) {
+            result[i++] = candidate;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the largest number of rows per band for which a pair with
+     * the threshold similarity is likely to be a candidate. More rows
+     * mean fewer dissimilar candidates.
+     */
+    private int rowsPerBand() {
+        int best = 1;
+        for (int rows = 2; rows <= SIGNATURE_SIZE; rows *= 2) {
+            double missed = Math.pow(1 - Math.pow(threshold, rows), SIGNATURE_SIZE / rows);
+            if (1 - missed >= RECALL) {
+                best = rows;
+            }
+        }
+        return best;
+    }
+
+    private List<Long> compare(ExecutorService executor, final long[] candidates) {
+        List<Callable<List<Long>>> tasks = new ArrayList<>();
+        int chunk = Math.max(1, candidates.length / (threads * 4));
+        for (int i = 0; i < candidates.length; i += chunk) {
+            final int from = i;
+            final int to = Math.min(candidates.length, i + chunk);
+            tasks.add(new Callable<List<Long>>() {
+                @Override
+                public List<Long> call() {
+                    List<Long> similar = new ArrayList<>();
+                    for (int k = from; k < to; k++) {
+                        Region first = regions.get((int) (candidates[k] >>> 32));
+                        Region second = regions.get((int) candidates[k]);
+                        // the similarity can't exceed the ratio of the numbers of shingles
+                        int smaller = Math.min(first.shingles.length, second.shingles.length);
+                        int larger = Math.max(first.shingles.length, second.shingles.length);
+                        if (smaller >= threshold * larger && !first.overlaps(second)
+                            && first.similarity(second) >= threshold) {
+                            similar.add(candidates[k]);
+                        }
+                    }
+                    return similar;
+                }
+            });
+        }
+        List<Long> result = new ArrayList<>();
+        for (List<Long> similar : invokeAll(executor, tasks)) {
+            result.addAll(similar);
+        }
+        return result;
+    }
+
+    private List<Match> toMatches(List<Long> similarPairs) {
+        // the largest pairs first, so that the nested pairs can be skipped
+        List<Region[]> pairs = new ArrayList<>(similarPairs.size());
+        for (long pair : similarPairs) {
+            pairs.add(new Region[] {regions.get((int) (pair >>> 32)), regions.get((int) pair)});
+        }
+        Collections.sort(pairs, new Comparator<Region[]>() {
+            @Override
+            public int compare(Region[] a, Region[] b) {
+                return Integer.compare(b[0].size() + b[1].size(), a[0].size() + a[1].size());
+            }
+        });
+
+        List<Region[]> reported = new ArrayList<>();
+        List<Match> matches = new ArrayList<>();
+        for (Region[] pair : pairs) {
+            if (isNested(pair, reported)) {
+                continue;
+            }
+            reported.add(pair);
+            Match match = new Match(Math.min(pair[0].size(), pair[1].size()), mark(pair[0]), mark(pair[1]));
+            matches.add(match);
+        }
+        Collections.sort(matches);
+        return matches;
+    }
+
+    private static boolean isNested(Region[] pair, List<Region[]> reported) {
+        for (Region[] other : reported) {
+            if (other[0].contains(pair[0]) && other[1].contains(pair[1])
+                || other[0].contains(pair[1]) && other[1].contains(pair[0])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Mark mark(Region region) {
+        TokenEntry token = code.get(region.start);
+        TokenEntry endToken = code.get(region.end - 1);
+        Mark mark = new Mark(token);
+        mark.setEndToken(endToken);
+        mark.setLineCount(endToken.getBeginLine() - token.getBeginLine() + 1);
+        mark.setSourceCode(source.get(token.getTokenSrcID()));
+        return mark;
+    }
+
+    private static <T> List<T> invokeAll(ExecutorService executor, List<? extends Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while comparing the regions", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * The hash of a shingle, or one of the hash functions of MinHash.
+     */
+    private static int mix(int h) {
+        // finalizer of MurmurHash3
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * A range of tokens of a single file, from start (inclusive) to end
+     * (exclusive).
+     */
+    private static final class Region {
+        private final int start;
+        private final int end;
+        /** Sorted, distinct hashes of the shingles. */
+        private int[] shingles;
+        private int[] signature;
+
+        Region(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        int size() {
+            return end - start;
+        }
+
+        boolean contains(Region other) {
+            return start <= other.start && other.end <= end;
+        }
+
+        boolean overlaps(Region other) {
+            return start < other.end && other.start < end;
+        }
+
+        void computeShingles(List<TokenEntry> code) {
+            int[] hashes = new int[size() - SHINGLE_SIZE + 1];
+            for (int i = 0; i < hashes.length; i++) {
+                int hash = 0;
+                for (int j = 0; j < SHINGLE_SIZE; j++) {
+                    hash = 31 * hash + code.get(start + i + j).getIdentifier();
+                }
+                hashes[i] = mix(hash);
+            }
+            Arrays.sort(hashes);
+            int distinct = 0;
+            for (int i = 0; i < hashes.length; i++) {
+                if (i == 0 || hashes[i] != hashes[i - 1]) {
+                    hashes[distinct++] = hashes[i];
+                }
+            }
+            shingles = Arrays.copyOf(hashes, distinct);
+        }
+
+        void computeSignature() {
+            signature = new int[SIGNATURE_SIZE];
+            Arrays.fill(signature, Integer.MAX_VALUE);
+            for (int shingle : shingles) {
+                for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                    int hash = mix(SEEDS_A[i] * shingle + SEEDS_B[i]);
+                    if (hash < signature[i]) {
+                        signature[i] = hash;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the Jaccard index of the shingles of both regions.
+         */
+        double similarity(Region other) {
+            int[] a = shingles;
+            int[] b = other.shingles;
+            if (a.length == 0 || b.length == 0) {
+                return 0;
+            }
+            int common = 0;
+            for (int i = 0, j = 0; i < a.length && j < b.length;) {
+                if (a[i] == b[j]) {
+                    common++;
+                    i++;
+                    j++;
+                } else if (a[i] < b[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return (double) common / (a.length + b.length - common);
+        }
+    }
+
+    /**
+     * The values of a band of a signature.
+     */
+    private static final class BandKey {
+        private final int[] signature;
+        private final int from;
+        private final int length;
+
+        BandKey(int[] signature, int from, int length) {
+            this.signature = signature;
+            this.from = from;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof BandKey)) {
+                return false;
+            }
+            BandKey other = (BandKey) obj;
+            for (int i = 0; i < length; i++) {
+                if (signature[from + i] != other.signature[other.from + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + signature[from + i];
+            }
+            return hash;
+        }
+    }
+}
@@ -5,14 +5,20 @@
 package net.sourceforge.pmd.cpd;
 
 import java.io.BufferedReader;
+import java.io.CharArrayReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.lang.ref.SoftReference;
+import java.nio.CharBuffer;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.zip.Adler32;
+import java.util.zip.CheckedInputStream;
 
 import org.apache.commons.io.ByteOrderMark;
 import org.apache.commons.io.input.BOMInputStream;
@@ -20,18 +26,31 @@ import org.apache.commons.io.input.BOMInputStream;
 public class SourceCode {
 
     public abstract static class CodeLoader {
-        private SoftReference<List<String>> code;
+        private SoftReference<CodeText> code;
 
+        /**
+         * Returns the lines of the code.
+         */
         public List<String> getCode() {
-            List<String> c = null;
+            CodeText text = getText();
+            return text.getLines(1, text.getLineCount());
+        }
+
+        /**
+         * Returns the code, decoded once and kept as long as there's
+         * enough memory.
+         */
+        CodeText getText() {
+            CodeText c = null;
             if (code != null) {
                 c = code.get();
             }
             if (c != null) {
                 return c;
             }
-            this.code = new SoftReference<>(load());
-            return code.get();
+            c = loadText();
+            this.code = new SoftReference<>(c);
+            return c;
         }
 
         /**
@@ -41,12 +60,12 @@ public class SourceCode {
          * @param endLine   End line (inclusive, 1-based)
          */
         public List<String> getCodeSlice(int startLine, int endLine) {
-            List<String> c = null;
+            CodeText c = null;
             if (code != null) {
                 c = code.get();
             }
             if (c != null) {
-                return c.subList(startLine - 1, endLine);
+                return c.getLines(startLine, endLine);
             }
             return load(startLine, endLine);
         }
@@ -69,6 +88,30 @@ public class SourceCode {
             }
         }
 
+        /**
+         * Computes a checksum of the code, to find out whether it changed.
+         */
+        long computeChecksum() throws IOException {
+            CodeText text = getText();
+            Adler32 checksum = new Adler32();
+            byte[] bytes = new byte[2 * text.length()];
+            for (int i = 0; i < text.length(); i++) {
+                bytes[2 * i] = (byte) (text.chars[i] >> 8);
+                bytes[2 * i + 1] = (byte) text.chars[i];
+            }
+            checksum.update(bytes, 0, bytes.length);
+            return checksum.getValue();
+        }
+
+        private CodeText loadText() {
+            try (Reader reader = getReader()) {
+                return CodeText.read(reader);
+            } catch (Exception e) {
+                e.printStackTrace();
+                throw new RuntimeException("Problem while reading " + getFileName() + ":" + e.getMessage());
+            }
+        }
+
         /**
          * Loads a range of lines.
          *
@@ -125,6 +168,19 @@ public class SourceCode {
             return encoding;
         }
 
+        @Override
+        long computeChecksum() throws IOException {
+            // the bytes are enough, the encoding is part of the configuration
+            Adler32 checksum = new Adler32();
+            try (CheckedInputStream inputStream = new CheckedInputStream(Files.newInputStream(file.toPath()), checksum)) {
+                byte[] buffer = new byte[8192];
+                while (inputStream.read(buffer) >= 0) {
+                    // just read it, the CheckedInputStream updates the checksum
+                }
+            }
+            return checksum.getValue();
+        }
+
         @Override
         public String getFileName() {
             return file.getAbsolutePath();
@@ -197,14 +253,29 @@ public class SourceCode {
 
     /** Newlines are normalized to \n. */
     public StringBuilder getCodeBuffer() {
-        StringBuilder sb = new StringBuilder();
-        List<String> lines = cl.getCode();
-        for (String line : lines) {
-            sb.append(line).append('\n');
-        }
+        CodeText text = cl.getText();
+        StringBuilder sb = new StringBuilder(text.length());
+        sb.append(text.chars, 0, text.length());
         return sb;
     }
 
+    /**
+     * Returns a reader over the code, without copying it. Newlines are
+     * normalized to \n, like in {@link #getCodeBuffer()}.
+     */
+    public Reader getCodeReader() {
+        CodeText text = cl.getText();
+        return new CharArrayReader(text.chars, 0, text.length());
+    }
+
+    /**
+     * Returns the code, without copying it. The buffer must not be modified.
+     */
+    CharBuffer getCodeChars() {
+        CodeText text = cl.getText();
+        return CharBuffer.wrap(text.chars, 0, text.length());
+    }
+
     /**
      * Loads a range of lines. Newlines are normalized to \n
      *
@@ -227,4 +298,105 @@ public class SourceCode {
     public String getFileName() {
         return cl.getFileName();
     }
+
+    /**
+     * Computes a checksum of the code, without keeping it in memory.
+     */
+    long computeChecksum() throws IOException {
+        return cl.computeChecksum();
+    }
+
+    /**
+     * The decoded code, with newlines normalized to \n and a newline
+     * after the last line, and the offsets of the lines. Lines are only
+     * copied out of it when they're needed.
+     */
+    static final class CodeText {
+        private final char[] chars;
+        private final int length;
+        /** Offsets of the start of the lines, followed by the length. */
+        private final int[] lineOffsets;
+        private final int lineCount;
+
+        private CodeText(char[] chars, int length, int[] lineOffsets, int lineCount) {
+            this.chars = chars;
+            this.length = length;
+            this.lineOffsets = lineOffsets;
+            this.lineCount = lineCount;
+        }
+
+        /**
+         * Reads the code, with the same line terminators as
+         * {@link BufferedReader#readLine()}.
+         */
+        static CodeText read(Reader reader) throws IOException {
+            char[] buffer = new char[8192];
+            char[] chars = new char[8192];
+            int length = 0;
+            int[] lineOffsets = new int[64];
+            int lineCount = 0;
+            boolean lineStart = true;
+            boolean afterCr = false;
+            int read;
+            while ((read = reader.read(buffer)) >= 0) {
+                if (length + read + 1 > chars.length) {
+                    chars = Arrays.copyOf(chars, Math.max(2 * chars.length, length + read + 1));
+                }
+                for (int i = 0; i < read; i++) {
+                    char c = buffer[i];
+                    if (c == '\n' && afterCr) {
+                        // second half of \r\n
+                        afterCr = false;
+                        continue;
+                    }
+                    afterCr = c == '\r';
+                    if (lineStart) {
+                        if (lineCount + 1 >= lineOffsets.length) {
+                            lineOffsets = Arrays.copyOf(lineOffsets, 2 * lineOffsets.length);
+                        }
+                        lineOffsets[lineCount++] = length;
+                        lineStart = false;
+                    }
+                    if (c == '\r' || c == '\n') {
+                        chars[length++] = '\n';
+                        lineStart = true;
+                    } else {
+                        chars[length++] = c;
+                    }
+                }
+            }
+            if (!lineStart) {
+                chars[length++] = '\n';
+            }
+            lineOffsets[lineCount] = length;
+            return new CodeText(chars, length, lineOffsets, lineCount);
+        }
+
+        int length() {
+            return length;
+        }
+
+        int getLineCount() {
+            return lineCount;
+        }
+
+        /**
+         * Returns a range of lines, without their terminator.
+         *
+         * @param startLine Start line (inclusive, 1-based)
+         * @param endLine   End line (inclusive, 1-based)
+         */
+        List<String> getLines(int startLine, int endLine) {
+            int last = Math.min(endLine, lineCount);
+            if (startLine < 1 || startLine > last + 1) {
+                throw new IndexOutOfBoundsException("Lines " + startLine + " to " + endLine + " of " + lineCount);
+            }
+            List<String> lines = new ArrayList<>(last - startLine + 1);
+            for (int line = startLine; line <= last; line++) {
+                int begin = lineOffsets[line - 1];
+                lines.add(new String(chars, begin, lineOffsets[line] - begin - 1));
+            }
+            return lines;
+        }
+    }
 }
@@ -89,6 +89,40 @@ public class TokenEntry implements Comparable<TokenEntry> {
         TOKEN_COUNT.remove();
     }
 
+    /**
+     * Returns the hash codes of the images of the tokens, indexed by
+     * their identifier.
+     */
+    static int[] getImageHashCodes() {
+        Map<String, Integer> images = TOKENS.get();
+        int[] hashCodes = new int[images.size() + 1];
+        for (Map.Entry<String, Integer> image : images.entrySet()) {
+            hashCodes[image.getValue()] = image.getKey().hashCode();
+        }
+        return hashCodes;
+    }
+
+    /**
+     * Returns the images of the tokens, indexed by their identifier.
+     */
+    static String[] getImages() {
+        Map<String, Integer> images = TOKENS.get();
+        String[] byIdentifier = new String[images.size() + 1];
+        for (Map.Entry<String, Integer> image : images.entrySet()) {
+            byIdentifier[image.getValue()] = image.getKey();
+        }
+        return byIdentifier;
+    }
+
+    /**
+     * Returns the identifier of the given image, or -1 if no token has
+     * this image.
+     */
+    static int getIdentifier(String image) {
+        Integer identifier = TOKENS.get().get(image);
+        return identifier == null ? -1 : identifier;
+    }
+
     /**
      * Helper class to preserve and restore the current state of the token
      * entries.
@@ -0,0 +1,187 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.cpd.internal.JavaCCTokenizer;
+import net.sourceforge.pmd.lang.ast.AbstractNode;
+import net.sourceforge.pmd.lang.ast.GenericToken;
+import net.sourceforge.pmd.lang.ast.Node;
+
+/**
+ * Collects the CPD tokens of the files PMD parses, so that a run of PMD
+ * followed by a run of CPD on the same files lexes each file once. Set
+ * it on the {@link net.sourceforge.pmd.PMDConfiguration} of the PMD run,
+ * then add the files to the {@link CPD} through {@link #addTo(CPD, SourceCode)}:
+ *
+ * <pre>
+ * TokenStreamCollector collector = new TokenStreamCollector(cpdConfiguration);
+ * pmdConfiguration.setCpdTokenCollector(collector);
+ * // run PMD
+ * CPD cpd = new CPD(cpdConfiguration);
+ * for (File file : files) {
+ *     collector.addTo(cpd, cpdConfiguration.sourceCodeFor(file));
+ * }
+ * cpd.go();
+ * </pre>
+ *
+ * <p>The tokens are taken from the token chain of the parser, filtered
+ * and normalized by the {@link JavaCCTokenizer} of the CPD language, so
+ * this only works for the languages whose CPD tokenizer uses the token
+ * manager of the PMD parser, like Java. The files of other languages,
+ * and the files PMD didn't parse (e.g. because their results were cached),
+ * are tokenized by CPD as usual.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public class TokenStreamCollector {
+
+    private final Language language;
+    private final ConcurrentMap<String, FileTokens> tokensByFile = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a collector for the tokens of the language of the configuration.
+     *
+     * @param configuration Configuration of the CPD run, with the language
+     *                      and the tokenizer options
+     */
+    public TokenStreamCollector(CPDConfiguration configuration) {
+        this.language = configuration.getLanguage();
+    }
+
+    /**
+     * Collects the tokens of a file PMD parsed. This must be called before
+     * the tree releases its tokens. Can be called from several threads.
+     *
+     * @param fileName     Name of the file
+     * @param languageName Terse name of the language of the file
+     * @param root         Root of the tree of the file
+     *
+     * @return Whether the tokens of the file were collected
+     */
+    @SuppressWarnings("deprecation")
+    public boolean collect(String fileName, String languageName, Node root) {
+        if (!(language.getTokenizer() instanceof JavaCCTokenizer)
+            || !language.getTerseName().equalsIgnoreCase(languageName)
+            || !(root instanceof AbstractNode)) {
+            return false;
+        }
+        GenericToken firstToken = ((AbstractNode) root).jjtGetFirstToken();
+        if (firstToken == null) {
+            return false;
+        }
+        tokensByFile.put(key(fileName), tokenize(firstToken, fileName));
+        return true;
+    }
+
+    private FileTokens tokenize(GenericToken firstToken, String fileName) {
+        // the identifiers of the token entries are thread local: the
+        // entries are created in a clean state, and only the images
+        // are kept, the entries of the CPD run are created by the CPD thread
+        TokenEntry.State state = new TokenEntry.State(Collections.<TokenEntry>emptyList());
+        TokenEntry.clearImages();
+        try {
+            Tokens tokens = new Tokens();
+            JavaCCTokenizer tokenizer = (JavaCCTokenizer) language.getTokenizer();
+            // the tokenizers of the languages are shared, and keep state while tokenizing
+            synchronized (tokenizer) {
+                tokenizer.tokenize(firstToken, fileName, tokens);
+            }
+            return new FileTokens(tokens.getTokens(), TokenEntry.getImages());
+        } finally {
+            TokenEntry.clearImages();
+            state.restore();
+        }
+    }
+
+    /**
+     * Returns true if the tokens of the file were collected.
+     *
+     * @param fileName Name of the file
+     */
+    public boolean isCollected(String fileName) {
+        return tokensByFile.containsKey(key(fileName));
+    }
+
+    /**
+     * Adds the source code to the CPD run, with the tokens collected for
+     * the file, or tokenized by CPD if there are none. The collected tokens
+     * are released.
+     *
+     * @param cpd        CPD run
+     * @param sourceCode Source code of the file
+     *
+     * @throws IOException If the file had to be read and couldn't be
+     */
+    public void addTo(CPD cpd, SourceCode sourceCode) throws IOException {
+        final FileTokens fileTokens = tokensByFile.remove(key(sourceCode.getFileName()));
+        if (fileTokens == null) {
+            cpd.add(sourceCode);
+            return;
+        }
+        cpd.add(sourceCode, new Tokenizer() {
+            @Override
+            public void tokenize(SourceCode sourceCode, Tokens tokenEntries) {
+                fileTokens.addTo(sourceCode.getFileName(), tokenEntries);
+            }
+        });
+    }
+
+    private static String key(String fileName) {
+        return new File(fileName).getAbsolutePath();
+    }
+
+    /**
+     * The tokens of a file, without the thread local identifiers.
+     */
+    private static final class FileTokens {
+
+        private final String[] images;
+        private final int[] imageIndices;
+        private final int[] beginLines;
+        private final int[] beginColumns;
+        private final int[] endColumns;
+
+        FileTokens(List<TokenEntry> entries, String[] images) {
+            this.images = images;
+            int size = 0;
+            for (TokenEntry entry : entries) {
+                if (entry != TokenEntry.EOF) {
+                    size++;
+                }
+            }
+            imageIndices = new int[size];
+            beginLines = new int[size];
+            beginColumns = new int[size];
+            endColumns = new int[size];
+            int i = 0;
+            for (TokenEntry entry : entries) {
+                if (entry != TokenEntry.EOF) {
+                    imageIndices[i] = entry.getIdentifier();
+                    beginLines[i] = entry.getBeginLine();
+                    beginColumns[i] = entry.getBeginColumn();
+                    endColumns[i] = entry.getEndColumn();
+                    i++;
+                }
+            }
+        }
+
+        void addTo(String fileName, Tokens tokenEntries) {
+            for (int i = 0; i < imageIndices.length; i++) {
+                tokenEntries.add(new TokenEntry(images[imageIndices[i]], fileName,
+                                                beginLines[i], beginColumns[i], endColumns[i]));
+            }
+            tokenEntries.add(TokenEntry.getEOF());
+        }
+    }
+}
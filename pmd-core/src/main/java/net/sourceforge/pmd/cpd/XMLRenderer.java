@@ -18,20 +18,32 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
+import org.apache.commons.lang3.StringEscapeUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import net.sourceforge.pmd.cpd.renderer.CPDRenderer;
+import net.sourceforge.pmd.cpd.renderer.CPDStreamingRenderer;
 import net.sourceforge.pmd.util.StringUtil;
 
 /**
+ * Renders the matches in XML. {@link #render(Iterator, Writer)} builds
+ * the whole document before writing it, while the streamed report (see
+ * {@link CPDStreamingRenderer}) is written match by match, with the same
+ * elements and attributes.
+ *
  * @author Philippe T'Seyen - original implementation
  * @author Romain Pelisse - javax.xml implementation
  *
  */
-public final class XMLRenderer implements Renderer, CPDRenderer {
+public final class XMLRenderer implements Renderer, CPDRenderer, CPDStreamingRenderer {
+
+    private static final String INDENT = "    ";
 
     private String encoding;
+    /** The writer of the streamed report, between {@link #start(Writer)} and {@link #end()}. */
+    private Writer streamWriter;
+    private boolean emptyReport;
 
     /**
      * Creates a XML Renderer with the default (platform dependent) encoding.
@@ -159,4 +171,67 @@ public final class XMLRenderer implements Renderer, CPDRenderer {
         duplication.setAttribute("tokens", String.valueOf(match.getTokenCount()));
         return duplication;
     }
+
+    @Override
+    public void start(Writer writer) throws IOException {
+        this.streamWriter = writer;
+        this.emptyReport = true;
+        writer.write("<?xml version=\"1.0\" encoding=\"" + encoding + "\" standalone=\"no\"?>");
+        writer.write(System.lineSeparator());
+    }
+
+    @Override
+    public void matchFound(Match match) throws IOException {
+        Writer writer = streamWriter;
+        if (emptyReport) {
+            writer.write("<pmd-cpd>");
+            writer.write(System.lineSeparator());
+            emptyReport = false;
+        }
+        writer.write(INDENT + "<duplication");
+        writeAttribute(writer, "lines", String.valueOf(match.getLineCount()));
+        writeAttribute(writer, "tokens", String.valueOf(match.getTokenCount()));
+        writer.write(">");
+        writer.write(System.lineSeparator());
+        for (Mark mark : match) {
+            // same attribute order as the DOM serialization
+            writer.write(INDENT + INDENT + "<file");
+            if (mark.getBeginColumn() != -1) {
+                writeAttribute(writer, "column", String.valueOf(mark.getBeginColumn()));
+            }
+            if (mark.getEndColumn() != -1) {
+                writeAttribute(writer, "endcolumn", String.valueOf(mark.getEndColumn()));
+            }
+            writeAttribute(writer, "endline", String.valueOf(mark.getEndLine()));
+            writeAttribute(writer, "line", String.valueOf(mark.getBeginLine()));
+            writeAttribute(writer, "path", mark.getFilename());
+            writer.write("/>");
+            writer.write(System.lineSeparator());
+        }
+        String codeSnippet = match.getSourceCodeSlice();
+        if (codeSnippet != null) {
+            String platformSpecific = codeSnippet.replace("\n", System.lineSeparator());
+            // the end marker of a CDATA section splits it in two sections
+            String cdata = StringUtil.removedInvalidXml10Characters(platformSpecific).replace("]]>", "]]]]><![CDATA[>");
+            writer.write(INDENT + INDENT + "<codefragment><![CDATA[");
+            writer.write(cdata);
+            writer.write("]]></codefragment>");
+            writer.write(System.lineSeparator());
+        }
+        writer.write(INDENT + "</duplication>");
+        writer.write(System.lineSeparator());
+    }
+
+    private static void writeAttribute(Writer writer, String name, String value) throws IOException {
+        // escapeXml10 also removes the invalid characters
+        writer.write(" " + name + "=\"" + StringEscapeUtils.escapeXml10(value) + "\"");
+    }
+
+    @Override
+    public void end() throws IOException {
+        streamWriter.write(emptyReport ? "<pmd-cpd/>" : "</pmd-cpd>");
+        streamWriter.write(System.lineSeparator());
+        streamWriter.flush();
+        streamWriter = null;
+    }
 }
@@ -6,6 +6,7 @@ package net.sourceforge.pmd.cpd.internal;
 
 import java.io.IOException;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.cpd.SourceCode;
 import net.sourceforge.pmd.cpd.TokenEntry;
 import net.sourceforge.pmd.cpd.Tokenizer;
@@ -32,18 +33,67 @@ public abstract class JavaCCTokenizer implements Tokenizer {
     public void tokenize(SourceCode sourceCode, Tokens tokenEntries) throws IOException {
         TokenManager tokenManager = getLexerForSource(sourceCode);
         tokenManager.setFileName(sourceCode.getFileName());
+        tokenize(tokenManager, sourceCode.getFileName(), tokenEntries);
+    }
+
+    /**
+     * Tokenizes the tokens the parser of the language already produced
+     * for a file, instead of lexing the file again. The chain must start
+     * with the first token of the file and end with the EOF token, and
+     * the tokens must keep their special tokens, which hold the CPD-OFF
+     * and CPD-ON comments.
+     *
+     * @param firstToken   First token of the file
+     * @param fileName     Name of the file
+     * @param tokenEntries Receives the token entries
+     *
+     * @since 6.27.0
+     */
+    @Experimental
+    public void tokenize(GenericToken firstToken, String fileName, Tokens tokenEntries) {
+        tokenize(new TokenChainManager(firstToken), fileName, tokenEntries);
+    }
+
+    protected void tokenize(TokenManager tokenManager, String fileName, Tokens tokenEntries) {
         try {
             final TokenFilter tokenFilter = getTokenFilter(tokenManager);
 
             GenericToken currentToken = tokenFilter.getNextToken();
             while (currentToken != null) {
-                tokenEntries.add(processToken(tokenEntries, currentToken, sourceCode.getFileName()));
+                tokenEntries.add(processToken(tokenEntries, currentToken, fileName));
                 currentToken = tokenFilter.getNextToken();
             }
         } catch (TokenMgrError e) {
-            throw e.withFileName(sourceCode.getFileName());
+            throw e.withFileName(fileName);
         } finally {
             tokenEntries.add(TokenEntry.getEOF());
         }
     }
+
+    /**
+     * Replays a chain of tokens that was already lexed.
+     */
+    private static final class TokenChainManager implements TokenManager {
+
+        private GenericToken next;
+
+        TokenChainManager(GenericToken firstToken) {
+            this.next = firstToken;
+        }
+
+        @Override
+        public Object getNextToken() {
+            GenericToken token = next;
+            if (token.getNext() != null) {
+                next = token.getNext();
+            }
+            // else the EOF token, which is returned again like a lexer would
+            return token;
+        }
+
+        @Override
+        public void setFileName(String fileName) {
+            // the tokens are already lexed
+        }
+    }
 }
@@ -0,0 +1,41 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd.renderer;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.cpd.CPDMatchListener;
+
+/**
+ * A renderer that writes each match as soon as it's found, so that the
+ * matches don't have to be kept until the end of the analysis. Usage:
+ * <pre>
+ * renderer.start(writer);
+ * cpd.go(renderer);
+ * renderer.end();
+ * </pre>
+ *
+ * <p>The matches are written in the order they're found, not sorted
+ * like with {@link CPDRenderer#render(java.util.Iterator, Writer)}.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public interface CPDStreamingRenderer extends CPDMatchListener {
+
+    /**
+     * Writes the start of the report.
+     *
+     * @param writer The writer the matches are written to, until {@link #end()}
+     */
+    void start(Writer writer) throws IOException;
+
+    /**
+     * Writes the end of the report, and flushes the writer.
+     */
+    void end() throws IOException;
+}
@@ -0,0 +1,440 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.daemon;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PMDException;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.RulesetsFactoryUtils;
+import net.sourceforge.pmd.SourceCodeProcessor;
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageFilenameFilter;
+import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.util.ClasspathClassLoader;
+import net.sourceforge.pmd.util.IOUtil;
+
+/**
+ * Long running PMD process. The rulesets, the compiled XPath queries and
+ * the auxclasspath (with the type resolution caches built on it) are
+ * loaded once and reused for every analysis, and the reports are kept in
+ * memory per file, so that only the files that changed need to be analysed
+ * again.
+ *
+ * <p>Files are taken from the {@linkplain PMDConfiguration#getInputPaths() input paths}
+ * of the configuration. Changes may be detected by {@linkplain #startWatching() watching}
+ * the input directories, or by comparing the modification time of the files
+ * when they are queried. The daemon answers queries on a simple line based
+ * protocol, see {@link #serve(Reader, Writer)}.
+ *
+ * <p>Reports are rendered with the report format of the configuration,
+ * which defaults to {@code text}. The incremental analysis cache of the
+ * configuration is not used, the daemon keeps its results in memory
+ * instead. Analyses are serialized, so the daemon may be queried from
+ * several threads.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public class PmdDaemon implements AutoCloseable {
+
+    /** Line ending every response of {@link #serve(Reader, Writer)}. */
+    public static final String END_OF_RESPONSE = ".";
+
+    private static final Logger LOG = Logger.getLogger(PmdDaemon.class.getName());
+
+    /** Delay during which watch events are collected before reanalysing. */
+    private static final long COALESCE_MILLIS = 50;
+
+    private final PMDConfiguration configuration;
+    private final SourceCodeProcessor processor;
+    private final Map<File, FileResult> results = new TreeMap<>();
+    private RuleSets ruleSets;
+    private FilenameFilter fileFilter;
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Creates a new daemon and loads the rulesets of the configuration.
+     * No file is analysed until the first query.
+     *
+     * @param configuration Configuration, which is owned by the daemon from now on
+     *
+     * @throws IllegalArgumentException If the rulesets can't be loaded
+     */
+    public PmdDaemon(PMDConfiguration configuration) {
+        this.configuration = configuration;
+        configuration.setIgnoreIncrementalAnalysis(true);
+        if (configuration.getReportFormat() == null) {
+            // same default as the command line
+            configuration.setReportFormat("text");
+        }
+        this.processor = new SourceCodeProcessor(configuration);
+        loadRuleSets();
+    }
+
+    private void loadRuleSets() {
+        ruleSets = RulesetsFactoryUtils.getRuleSetsWithBenchmark(configuration.getRuleSets(),
+                                                                 RulesetsFactoryUtils.createFactory(configuration));
+        Set<Language> languages = new HashSet<>();
+        for (Rule rule : ruleSets.getAllRules()) {
+            languages.add(rule.getLanguage());
+        }
+        fileFilter = new LanguageFilenameFilter(languages);
+    }
+
+    /**
+     * Reloads the rulesets, eg after they were edited, and forgets all
+     * previous results.
+     */
+    public synchronized void reload() {
+        loadRuleSets();
+        results.clear();
+    }
+
+    /**
+     * Returns the report for all the files of the input paths. Only the
+     * files that changed since the last analysis are analysed.
+     */
+    public synchronized Report analyzeAll() {
+        List<File> files = new ArrayList<>();
+        for (File root : getInputRoots()) {
+            collectFiles(root, files);
+        }
+        // forget about the deleted files
+        results.keySet().retainAll(files);
+        return analyze(files);
+    }
+
+    /**
+     * Returns the report for the given files. Only the files that changed
+     * since the last analysis are analysed.
+     *
+     * @param files Files to analyse
+     */
+    public synchronized Report analyze(Collection<File> files) {
+        Report report = new Report();
+        for (File file : files) {
+            FileResult result = refresh(file.getAbsoluteFile(), false);
+            if (result != null) {
+                report.merge(result.report);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Updates the result of a file, and returns it. Returns null if the
+     * file doesn't exist anymore.
+     */
+    private FileResult refresh(File file, boolean force) {
+        if (!file.isFile()) {
+            results.remove(file);
+            return null;
+        }
+        FileResult result = results.get(file);
+        if (force || result == null || !result.isUpToDate(file)) {
+            result = new FileResult(file, analyzeFile(file));
+            results.put(file, result);
+        }
+        return result;
+    }
+
+    private Report analyzeFile(File file) {
+        String fileName = file.getPath();
+        RuleContext ctx = PMD.newRuleContext(fileName, file);
+        try (InputStream stream = Files.newInputStream(file.toPath())) {
+            processor.processSourceCode(stream, ruleSets, ctx);
+        } catch (PMDException | IOException | RuntimeException e) {
+            LOG.log(Level.FINE, "Error while processing file: " + fileName, e);
+            ctx.getReport().addError(new Report.ProcessingError(e, fileName));
+        }
+        return ctx.getReport();
+    }
+
+    private List<File> getInputRoots() {
+        List<File> roots = new ArrayList<>();
+        if (configuration.getInputPaths() != null) {
+            for (String path : configuration.getInputPaths().split(",")) {
+                roots.add(new File(path.trim()).getAbsoluteFile());
+            }
+        }
+        return roots;
+    }
+
+    private void collectFiles(File file, List<File> files) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    collectFiles(child, files);
+                }
+            }
+        } else if (isAnalyzed(file)) {
+            files.add(file);
+        }
+    }
+
+    /**
+     * Returns true if the file exists and is checked by the rulesets,
+     * according to its language and to the exclude patterns.
+     */
+    private boolean isAnalyzed(File file) {
+        return file.isFile()
+            && fileFilter.accept(file.getParentFile(), file.getName())
+            && ruleSets.applies(file);
+    }
+
+    /**
+     * Starts watching the input directories in a background thread. Changed
+     * files are analysed again as soon as the change is noticed, so that
+     * later queries are answered from memory. Does nothing if the daemon
+     * is already watching.
+     *
+     * @throws IOException If the directories can't be registered
+     */
+    public synchronized void startWatching() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        final WatchService service = FileSystems.getDefault().newWatchService();
+        watchService = service;
+        for (File root : getInputRoots()) {
+            if (root.isDirectory()) {
+                register(service, root.toPath());
+            }
+        }
+        watcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch(service);
+            }
+        }, "PmdDaemon-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private static void register(final WatchService service, Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Set<File> changed = new LinkedHashSet<>();
+                boolean overflow = false;
+                do {
+                    overflow |= pollEvents(service, key, changed);
+                    // editors and VCS operations usually touch several files at once
+                    key = service.poll(COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+                } while (key != null);
+                filesChanged(changed, overflow);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the daemon is closed
+        }
+    }
+
+    /**
+     * Collects the changed files of the key, and returns true if events were lost.
+     */
+    private boolean pollEvents(WatchService service, WatchKey key, Set<File> changed) {
+        boolean overflow = false;
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            Path child = dir.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(child)) {
+                try {
+                    register(service, child);
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Cannot watch directory " + child, e);
+                }
+                List<File> files = new ArrayList<>();
+                collectFiles(child.toFile(), files);
+                changed.addAll(files);
+            } else {
+                changed.add(child.toFile().getAbsoluteFile());
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+
+    private synchronized void filesChanged(Set<File> changed, boolean overflow) {
+        if (overflow) {
+            // some changes were lost, fall back to the modification times,
+            // which also covers the changes that were noticed
+            analyzeAll();
+            return;
+        }
+        for (File file : changed) {
+            if (!file.exists()) {
+                results.remove(file);
+            } else if (isAnalyzed(file)) {
+                refresh(file, true);
+            }
+        }
+    }
+
+    /**
+     * Answers the commands read from the given reader until {@code quit}
+     * is read or the input ends. Commands are read one per line:
+     * <ul>
+     *     <li>{@code check}: reports on all the files of the input paths;
+     *     <li>{@code check <paths>}: reports on the given comma separated files,
+     *     files the rulesets don't apply to are ignored;
+     *     <li>{@code reload}: reloads the rulesets;
+     *     <li>{@code quit}: stops serving.
+     * </ul>
+     * Reports are rendered with the report format of the configuration.
+     * Each response ends with a line containing only {@value #END_OF_RESPONSE}.
+     *
+     * @param in  Commands
+     * @param out Responses, not closed by this method
+     *
+     * @throws IOException If reading or writing fails
+     */
+    public void serve(Reader in, Writer out) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String command = line.trim();
+            if (command.isEmpty()) {
+                continue;
+            }
+            if ("quit".equals(command)) {
+                return;
+            }
+
+            String response;
+            if ("check".equals(command)) {
+                response = render(analyzeAll());
+            } else if (command.startsWith("check ")) {
+                List<File> files = new ArrayList<>();
+                for (String path : command.substring("check ".length()).split(",")) {
+                    File file = new File(path.trim()).getAbsoluteFile();
+                    if (isAnalyzed(file)) {
+                        files.add(file);
+                    }
+                }
+                response = render(analyze(files));
+            } else if ("reload".equals(command)) {
+                reload();
+                response = "reloaded " + ruleSets.ruleCount() + " rules" + PMD.EOL;
+            } else {
+                response = "error: unknown command " + command + PMD.EOL;
+            }
+
+            out.write(response);
+            if (!response.isEmpty() && !response.endsWith("\n")) {
+                out.write(PMD.EOL);
+            }
+            out.write(END_OF_RESPONSE + PMD.EOL);
+            out.flush();
+        }
+    }
+
+    private String render(Report report) throws IOException {
+        // renderers close their writer
+        StringWriter writer = new StringWriter();
+        Renderer renderer = configuration.createRenderer();
+        renderer.setWriter(writer);
+        renderer.start();
+        renderer.renderFileReport(report);
+        renderer.end();
+        renderer.flush();
+        return writer.toString();
+    }
+
+    /**
+     * Stops watching the input directories, and releases the auxclasspath.
+     */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        synchronized (this) {
+            thread = watcher;
+            if (watchService != null) {
+                watchService.close();
+                watchService = null;
+                watcher = null;
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+        if (configuration.getClassLoader() instanceof ClasspathClassLoader) {
+            IOUtil.tryCloseClassLoader(configuration.getClassLoader());
+        }
+    }
+
+    private static final class FileResult {
+
+        private final long lastModified;
+        private final long length;
+        private final Report report;
+
+        FileResult(File file, Report report) {
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+            this.report = report;
+        }
+
+        boolean isUpToDate(File file) {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+    }
+}
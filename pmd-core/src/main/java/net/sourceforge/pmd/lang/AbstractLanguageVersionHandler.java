@@ -6,6 +6,8 @@ package net.sourceforge.pmd.lang;
 
 import java.io.Writer;
 
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.lang.dfa.DFAGraphRule;
 import net.sourceforge.pmd.lang.metrics.LanguageMetricsProvider;
 import net.sourceforge.pmd.util.designerbindings.DesignerBindings;
@@ -87,4 +89,35 @@ public abstract class AbstractLanguageVersionHandler implements LanguageVersionH
     public DesignerBindings getDesignerBindings() {
         return DesignerBindings.DefaultDesignerBindings.getInstance();
     }
+
+
+    /**
+     * Returns true if the symbol table of this language version may be
+     * built lazily, ie the first time a node asks for it, instead of
+     * before the rules are applied. The nodes of such languages must use
+     * {@link net.sourceforge.pmd.lang.symboltable.LazySymbolTable} to build
+     * the symbol table before giving access to any scope or declaration.
+     * Handlers that don't extend this class never build it lazily.
+     *
+     * @since 6.27.0
+     */
+    @Experimental
+    public boolean supportsLazySymbolTable() {
+        return false;
+    }
+
+    /**
+     * Opens the session of this language for one analysis, or returns
+     * null if the language doesn't keep any state between files. The
+     * session is closed by the caller once all the files were processed.
+     * Handlers that don't extend this class never open a session.
+     *
+     * @param configuration The configuration of the analysis
+     *
+     * @since 6.27.0
+     */
+    @Experimental
+    public LanguageSession openSession(PMDConfiguration configuration) {
+        return null;
+    }
 }
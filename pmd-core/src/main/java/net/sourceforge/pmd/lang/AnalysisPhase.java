@@ -0,0 +1,188 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.AbstractDelegateRule;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+
+/**
+ * An optional analysis performed on the AST of a file after parsing and
+ * before the rules are applied. Rules declare the phases whose products
+ * they use with {@link AbstractRule#declareDependencies(AnalysisPhase...)},
+ * and only the phases needed by the rules of a language are executed,
+ * see {@link #isRequiredBy(Rule)}.
+ *
+ * <p>Constants are declared in dependency order: a phase only depends on
+ * phases declared before it, so iterating over an {@link EnumSet} of
+ * phases yields a valid execution order.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public enum AnalysisPhase {
+
+    /** Qualified names of types and operations. */
+    QUALIFIED_NAMES(TimedOperationCategory.QUALIFIED_NAME_RESOLUTION) {
+        @Override
+        VisitorStarter getFacade(LanguageVersionHandler handler, ClassLoader classLoader) {
+            return handler.getQualifiedNameResolutionFacade(classLoader);
+        }
+    },
+
+    /** Scopes, declarations and name occurrences. */
+    SYMBOL_TABLE(TimedOperationCategory.SYMBOL_TABLE, QUALIFIED_NAMES) {
+        @Override
+        VisitorStarter getFacade(LanguageVersionHandler handler, ClassLoader classLoader) {
+            return handler.getSymbolFacade(classLoader);
+        }
+    },
+
+    /** Data flow nodes, see {@link net.sourceforge.pmd.lang.dfa.DataFlowNode}. */
+    DFA(TimedOperationCategory.DFA, SYMBOL_TABLE) {
+        @Override
+        VisitorStarter getFacade(LanguageVersionHandler handler, ClassLoader classLoader) {
+            return handler.getDataFlowFacade();
+        }
+    },
+
+    /** Types of expressions and declarations. */
+    TYPE_RESOLUTION(TimedOperationCategory.TYPE_RESOLUTION, SYMBOL_TABLE) {
+        @Override
+        VisitorStarter getFacade(LanguageVersionHandler handler, ClassLoader classLoader) {
+            return handler.getTypeResolutionFacade(classLoader);
+        }
+    },
+
+    /**
+     * Metrics. They are computed on demand, so this phase has no work of
+     * its own and only pulls in the phases metrics are computed from.
+     */
+    METRICS(null, QUALIFIED_NAMES, TYPE_RESOLUTION) {
+        @Override
+        VisitorStarter getFacade(LanguageVersionHandler handler, ClassLoader classLoader) {
+            return VisitorStarter.DUMMY;
+        }
+    },
+
+    /** Project-wide data gathering. */
+    MULTIFILE(TimedOperationCategory.MULTIFILE_ANALYSIS, QUALIFIED_NAMES) {
+        @Override
+        VisitorStarter getFacade(LanguageVersionHandler handler, ClassLoader classLoader) {
+            return handler.getMultifileFacade();
+        }
+    };
+
+    private final TimedOperationCategory category;
+    private final AnalysisPhase[] directDependencies;
+    private Set<AnalysisPhase> dependencies;
+
+    static {
+        // EnumSets can only be created once all constants are initialized
+        for (AnalysisPhase phase : values()) {
+            Set<AnalysisPhase> deps = EnumSet.noneOf(AnalysisPhase.class);
+            for (AnalysisPhase dep : phase.directDependencies) {
+                deps.add(dep);
+                deps.addAll(dep.dependencies);
+            }
+            phase.dependencies = Collections.unmodifiableSet(deps);
+        }
+    }
+
+    AnalysisPhase(TimedOperationCategory category, AnalysisPhase... dependencies) {
+        this.category = category;
+        this.directDependencies = dependencies;
+    }
+
+    /**
+     * Returns the phases that must run before this one, including
+     * transitive dependencies.
+     */
+    public Set<AnalysisPhase> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Returns the category under which the execution time of this phase
+     * is reported, or null if the phase does no work of its own.
+     */
+    public TimedOperationCategory getTimedOperationCategory() {
+        return category;
+    }
+
+    /**
+     * Returns true if this phase must run before the given rule is applied.
+     * Rules extending {@link AbstractRule} answer with
+     * {@link AbstractRule#dependsOn(AnalysisPhase)}. Other rules are assumed
+     * to depend on the qualified names and the symbol table, and on the
+     * phases they select with {@link Rule#isDfa()}, {@link Rule#isTypeResolution()}
+     * and {@link Rule#isMultifile()}.
+     *
+     * <p>Dependencies of the returned phases are not considered, use
+     * {@link #closure(Set)} to include them.
+     *
+     * @param rule Rule to test
+     */
+    public boolean isRequiredBy(Rule rule) {
+        if (rule instanceof AbstractDelegateRule) {
+            return isRequiredBy(((AbstractDelegateRule) rule).getRule());
+        } else if (rule instanceof AbstractRule) {
+            return ((AbstractRule) rule).dependsOn(this);
+        }
+
+        switch (this) {
+        case QUALIFIED_NAMES:
+        case SYMBOL_TABLE:
+            return true;
+        case DFA:
+            return rule.isDfa();
+        case TYPE_RESOLUTION:
+            return rule.isTypeResolution();
+        case MULTIFILE:
+            return rule.isMultifile();
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns the visitor that performs this phase for the given language.
+     */
+    abstract VisitorStarter getFacade(LanguageVersionHandler handler, ClassLoader classLoader);
+
+    /**
+     * Runs this phase on the given root node.
+     *
+     * @param handler     Handler of the language version of the file
+     * @param classLoader Auxclasspath class loader
+     * @param rootNode    Root of the file
+     */
+    public void run(LanguageVersionHandler handler, ClassLoader classLoader, Node rootNode) {
+        getFacade(handler, classLoader).start(rootNode);
+    }
+
+    /**
+     * Returns the given phases together with all their dependencies.
+     *
+     * @param phases Required phases
+     *
+     * @return A new set, iterating in execution order
+     */
+    public static Set<AnalysisPhase> closure(Set<AnalysisPhase> phases) {
+        Set<AnalysisPhase> result = EnumSet.noneOf(AnalysisPhase.class);
+        for (AnalysisPhase phase : phases) {
+            result.add(phase);
+            result.addAll(phase.dependencies);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang;
+
+import java.io.Closeable;
+import java.util.List;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.util.datasource.DataSource;
+
+/**
+ * The state a language keeps during one analysis, e.g. the sources it
+ * compiled ahead or the project-wide data of its multifile rules. A
+ * session is {@linkplain AbstractLanguageVersionHandler#openSession(PMDConfiguration) opened}
+ * when an analysis starts, and closed once all the files were processed,
+ * so that nothing is kept from one analysis to the next.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public abstract class LanguageSession implements Closeable {
+
+    /**
+     * Called once before the files are processed, with the files of the
+     * language known at that time. Files may still be processed that
+     * were not given here.
+     *
+     * @param files The files that will be processed
+     */
+    public void prepare(List<DataSource> files) {
+        // nothing to do by default
+    }
+
+    /**
+     * Returns the handler used to process the files during this session.
+     * It must behave like the given handler, but may e.g. use a parser
+     * or a multifile facade sharing the state of the session.
+     *
+     * @param handler The handler of the language version of a file
+     */
+    public LanguageVersionHandler getLanguageVersionHandler(LanguageVersionHandler handler) {
+        return handler;
+    }
+
+    /**
+     * Drops the state of this session. No file is processed afterwards.
+     */
+    @Override
+    public void close() {
+        // nothing to do by default
+    }
+}
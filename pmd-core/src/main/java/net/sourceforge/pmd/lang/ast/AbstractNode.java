@@ -15,19 +15,18 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.apache.commons.lang3.ArrayUtils;
-import org.jaxen.BaseXPath;
 import org.jaxen.JaxenException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import net.sourceforge.pmd.PMDVersion;
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.lang.ast.xpath.Attribute;
 import net.sourceforge.pmd.lang.ast.xpath.AttributeAxisIterator;
 import net.sourceforge.pmd.lang.ast.xpath.DocumentNavigator;
-import net.sourceforge.pmd.lang.ast.xpath.internal.ContextualizedNavigator;
-import net.sourceforge.pmd.lang.ast.xpath.internal.DeprecatedAttrLogger;
 import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.rule.xpath.XPathExpressionCache;
 import net.sourceforge.pmd.util.DataMap;
 import net.sourceforge.pmd.util.DataMap.DataKey;
 import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
@@ -49,7 +48,8 @@ public abstract class AbstractNode implements Node {
 
     private static final SimpleDataKey<Object> LEGACY_USER_DATA = DataMap.simpleDataKey("legacy user data");
 
-    private final DataMap<DataKey<?, ?>> userData = DataMap.newDataMap();
+    // created on first access, most nodes never use it
+    private DataMap<DataKey<?, ?>> userData;
 
     /**
      * @deprecated Use {@link #getParent()}
@@ -84,6 +84,10 @@ public abstract class AbstractNode implements Node {
     private DataFlowNode dataFlowNode;
     // @Deprecated?
     private String image;
+    // set by the NodeTypeIndex, -1 if the tree is not numbered
+    int preorderIndex = -1;
+    int postorderIndex = -1;
+    int subtreeEnd = -1;
 
     public AbstractNode(final int id) {
         this.id = id;
@@ -163,6 +167,13 @@ public abstract class AbstractNode implements Node {
     @Deprecated
     @InternalApi
     public void jjtAddChild(final Node child, final int index) {
+        if (preorderIndex >= 0) {
+            invalidateNumbering();
+            if (child instanceof AbstractNode) {
+                // it may be moved from another numbered tree
+                ((AbstractNode) child).invalidateNumbering();
+            }
+        }
         if (children == null) {
             children = new Node[index + 1];
         } else if (index >= children.length) {
@@ -362,17 +373,27 @@ public abstract class AbstractNode implements Node {
     @Override
     public <T> List<T> findDescendantsOfType(final Class<? extends T> targetType) {
         final List<T> list = new ArrayList<>();
-        findDescendantsOfType(this, targetType, list, false);
+        collectDescendantsOfType(targetType, list, false);
         return list;
     }
 
     @Override
     public <T> List<T> findDescendantsOfType(final Class<T> targetType, final boolean crossBoundaries) {
         final List<T> list = new ArrayList<>();
-        findDescendantsOfType(this, targetType, list, crossBoundaries);
+        collectDescendantsOfType(targetType, list, crossBoundaries);
         return list;
     }
 
+    private <T> void collectDescendantsOfType(final Class<? extends T> targetType, final List<T> results,
+                                              final boolean crossBoundaries) {
+        final NodeTypeIndex index = getTypeIndex();
+        if (index != null) {
+            index.findDescendantsOfType(this, targetType, results, crossBoundaries);
+        } else {
+            findDescendantsOfType(this, targetType, results, crossBoundaries);
+        }
+    }
+
     /**
     * @deprecated Use {@link #findDescendantsOfType(Class, boolean)} instead, which
     * returns a result list.
@@ -381,7 +402,88 @@ public abstract class AbstractNode implements Node {
     @Override
     public <T> void findDescendantsOfType(final Class<T> targetType, final List<T> results,
                                           final boolean crossBoundaries) {
-        findDescendantsOfType(this, targetType, results, crossBoundaries);
+        collectDescendantsOfType(targetType, results, crossBoundaries);
+    }
+
+    /**
+     * Returns the type index of the tree, if there's one and the subtree
+     * of this node is big enough for it to be worth looking it up.
+     */
+    private NodeTypeIndex getTypeIndex() {
+        if (preorderIndex < 0 || subtreeEnd - preorderIndex < NodeTypeIndex.MIN_INDEXED_SUBTREE) {
+            return null;
+        }
+        return NodeTypeIndex.get(this);
+    }
+
+    private void invalidateNumbering() {
+        if (preorderIndex >= 0) {
+            NodeTypeIndex.invalidate(this);
+        }
+    }
+
+    /**
+     * Returns the position of this node in a preorder traversal of its
+     * tree, ie in document order. The root is numbered 0. The trees are
+     * numbered by PMD after parsing, before the rules are applied. This
+     * returns -1 if the tree is not numbered, eg if it was modified.
+     *
+     * @return The preorder index, or -1
+     *
+     * @since 6.27.0
+     */
+    @Experimental
+    public int getPreorderIndex() {
+        return preorderIndex;
+    }
+
+    /**
+     * Returns the position of this node in a postorder traversal of its
+     * tree, where the children come before their parent. Returns -1 if
+     * the tree is not numbered.
+     *
+     * @return The postorder index, or -1
+     *
+     * @see #getPreorderIndex()
+     * @since 6.27.0
+     */
+    @Experimental
+    public int getPostorderIndex() {
+        return postorderIndex;
+    }
+
+    /**
+     * Returns true if this node is a strict ancestor of the given node.
+     * If both nodes are numbered, this compares their {@linkplain #getPreorderIndex() preorder}
+     * and {@linkplain #getPostorderIndex() postorder} indices, which is
+     * only meaningful for nodes of the same tree. Otherwise, this walks
+     * up the parents of the node.
+     *
+     * @param node A node of the same tree
+     *
+     * @since 6.27.0
+     */
+    @Experimental
+    public boolean isAncestorOf(final Node node) {
+        if (preorderIndex >= 0 && node instanceof AbstractNode && ((AbstractNode) node).preorderIndex >= 0) {
+            return preorderIndex < ((AbstractNode) node).preorderIndex
+                && ((AbstractNode) node).postorderIndex < postorderIndex;
+        }
+        for (Node ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            if (ancestor == this) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the {@linkplain #getPreorderIndex() preorder index} of the
+     * node, or -1 if it's not numbered or doesn't extend this class.
+     */
+    @InternalApi
+    public static int preorderIndexOf(Node node) {
+        return node instanceof AbstractNode ? ((AbstractNode) node).preorderIndex : -1;
     }
 
     private static <T> void findDescendantsOfType(final Node node, final Class<? extends T> targetType, final List<T> results,
@@ -451,6 +553,10 @@ public abstract class AbstractNode implements Node {
 
     @Override
     public <T> T getFirstDescendantOfType(final Class<T> descendantType) {
+        final NodeTypeIndex index = getTypeIndex();
+        if (index != null) {
+            return index.getFirstDescendantOfType(this, descendantType);
+        }
         return getFirstDescendantOfType(descendantType, this);
     }
 
@@ -524,8 +630,7 @@ public abstract class AbstractNode implements Node {
     @Override
     @SuppressWarnings("unchecked")
     public List<Node> findChildNodesWithXPath(final String xpathString) throws JaxenException {
-        return new BaseXPath(xpathString, new ContextualizedNavigator(DeprecatedAttrLogger.createAdHocLogger()))
-                .selectNodes(this);
+        return XPathExpressionCache.getInstance().getJaxenXPath(xpathString).selectNodes(this);
     }
 
     @Override
@@ -540,17 +645,20 @@ public abstract class AbstractNode implements Node {
     @Override
     @Deprecated
     public Object getUserData() {
-        return userData.get(LEGACY_USER_DATA);
+        return getUserMap().get(LEGACY_USER_DATA);
     }
 
     @Override
     @Deprecated
     public void setUserData(final Object userData) {
-        this.userData.set(LEGACY_USER_DATA, userData);
+        getUserMap().set(LEGACY_USER_DATA, userData);
     }
 
     @Override
     public DataMap<DataKey<?, ?>> getUserMap() {
+        if (userData == null) {
+            userData = DataMap.newDataMap();
+        }
         return userData;
     }
 
@@ -652,6 +760,7 @@ public abstract class AbstractNode implements Node {
     @Override
     public void removeChildAtIndex(final int childIndex) {
         if (0 <= childIndex && childIndex < getNumChildren()) {
+            invalidateNumbering();
             // Remove the child at the given index
             children = ArrayUtils.remove(children, childIndex);
             // Update the remaining & left-shifted children indexes
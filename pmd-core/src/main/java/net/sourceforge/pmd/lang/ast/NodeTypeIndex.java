@@ -0,0 +1,237 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+/**
+ * An index of the nodes of a tree by concrete class, in document order.
+ * Building it numbers the nodes: each node knows its {@linkplain AbstractNode#getPreorderIndex() preorder}
+ * and {@linkplain AbstractNode#getPostorderIndex() postorder} indices, and the end of its subtree
+ * in the preorder, so the descendants of a node are a range of the index. This
+ * makes {@link Node#findDescendantsOfType(Class)} and {@link Node#getFirstDescendantOfType(Class)}
+ * range lookups instead of walks of the whole subtree.
+ *
+ * <p>The index is optional: it's built after parsing if the configuration
+ * asks for it, see {@link net.sourceforge.pmd.PMDConfiguration#setIndexNodeTypes(boolean)}.
+ * It's stored on the root, and dropped, with the numbering, if the tree is
+ * modified. Without index, the queries walk the tree.
+ *
+ * @since 6.27.0
+ */
+@InternalApi
+public final class NodeTypeIndex {
+
+    /** Subtrees smaller than this are walked, finding the index costs more. */
+    static final int MIN_INDEXED_SUBTREE = 32;
+
+    private static final SimpleDataKey<NodeTypeIndex> KEY = DataMap.simpleDataKey("ast.nodeTypeIndex");
+
+    /** The nodes in preorder. */
+    private final AbstractNode[] nodes;
+    /** Preorder index of the nearest strict ancestor that is a find boundary, or -1. */
+    private final int[] boundaryAncestors;
+    /** Sorted preorder indices of the nodes of each concrete class. */
+    private final Map<Class<?>, int[]> indicesByClass;
+    /** Indices of the concrete classes that are subtypes of a type, by type. */
+    private final Map<Class<?>, int[][]> indicesByType = new HashMap<>();
+
+    private NodeTypeIndex(AbstractNode[] nodes, int[] boundaryAncestors, Map<Class<?>, int[]> indicesByClass) {
+        this.nodes = nodes;
+        this.boundaryAncestors = boundaryAncestors;
+        this.indicesByClass = indicesByClass;
+    }
+
+    /**
+     * Numbers the nodes of the tree in preorder and builds the index.
+     * Does nothing if some node doesn't extend {@link AbstractNode}.
+     *
+     * @param root Root of the tree
+     *
+     * @return The index, or null if it couldn't be built
+     */
+    public static NodeTypeIndex build(Node root) {
+        List<AbstractNode> preorder = new ArrayList<>();
+        if (!number(root, preorder, new int[1])) {
+            clearNumbering(root);
+            return null;
+        }
+
+        AbstractNode[] nodes = preorder.toArray(new AbstractNode[0]);
+        int[] boundaryAncestors = new int[nodes.length];
+        Map<Class<?>, Integer> counts = new HashMap<>();
+        for (int i = 0; i < nodes.length; i++) {
+            Node parent = nodes[i].getParent();
+            if (i == 0) {
+                boundaryAncestors[i] = -1;
+            } else {
+                AbstractNode abstractParent = (AbstractNode) parent;
+                boundaryAncestors[i] = abstractParent.isFindBoundary()
+                    ? abstractParent.preorderIndex
+                    : boundaryAncestors[abstractParent.preorderIndex];
+            }
+            Integer count = counts.get(nodes[i].getClass());
+            counts.put(nodes[i].getClass(), count == null ? 1 : count + 1);
+        }
+
+        Map<Class<?>, int[]> indicesByClass = new HashMap<>();
+        for (Map.Entry<Class<?>, Integer> entry : counts.entrySet()) {
+            indicesByClass.put(entry.getKey(), new int[entry.getValue()]);
+            entry.setValue(0);
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            Class<?> type = nodes[i].getClass();
+            int filled = counts.get(type);
+            indicesByClass.get(type)[filled] = i;
+            counts.put(type, filled + 1);
+        }
+
+        NodeTypeIndex index = new NodeTypeIndex(nodes, boundaryAncestors, indicesByClass);
+        root.getUserMap().set(KEY, index);
+        return index;
+    }
+
+    private static boolean number(Node node, List<AbstractNode> preorder, int[] postorder) {
+        if (!(node instanceof AbstractNode)) {
+            return false;
+        }
+        AbstractNode abstractNode = (AbstractNode) node;
+        abstractNode.preorderIndex = preorder.size();
+        preorder.add(abstractNode);
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            if (!number(node.getChild(i), preorder, postorder)) {
+                return false;
+            }
+        }
+        abstractNode.subtreeEnd = preorder.size();
+        abstractNode.postorderIndex = postorder[0]++;
+        return true;
+    }
+
+    private static void clearNumbering(Node node) {
+        if (node instanceof AbstractNode) {
+            AbstractNode abstractNode = (AbstractNode) node;
+            abstractNode.preorderIndex = -1;
+            abstractNode.postorderIndex = -1;
+            abstractNode.subtreeEnd = -1;
+        }
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            clearNumbering(node.getChild(i));
+        }
+    }
+
+    /**
+     * Returns the index of the tree of the node, or null if there's none,
+     * or if the node is not part of the indexed tree anymore.
+     */
+    static NodeTypeIndex get(AbstractNode node) {
+        NodeTypeIndex index = getRoot(node).getUserMap().get(KEY);
+        if (index == null || node.preorderIndex >= index.nodes.length || index.nodes[node.preorderIndex] != node) {
+            return null;
+        }
+        return index;
+    }
+
+    /** Drops the index and the numbering of the tree of the node, before it's modified. */
+    static void invalidate(AbstractNode node) {
+        Node root = getRoot(node);
+        if (root.getUserMap().get(KEY) != null) {
+            root.getUserMap().set(KEY, null);
+        }
+        clearNumbering(root);
+    }
+
+    private static Node getRoot(Node node) {
+        Node root = node;
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        return root;
+    }
+
+    /**
+     * Adds the descendants of the node that are instances of the type to
+     * the results, in document order.
+     */
+    <T> void findDescendantsOfType(AbstractNode node, Class<? extends T> type, List<T> results, boolean crossBoundaries) {
+        int start = node.preorderIndex;
+        int end = node.subtreeEnd;
+        int[][] classIndices = getIndices(type);
+        if (classIndices.length == 1) {
+            int[] indices = classIndices[0];
+            for (int i = lowerBound(indices, start + 1); i < indices.length && indices[i] < end; i++) {
+                if (crossBoundaries || boundaryAncestors[indices[i]] <= start) {
+                    results.add(type.cast(nodes[indices[i]]));
+                }
+            }
+            return;
+        }
+
+        int[] found = new int[16];
+        int size = 0;
+        for (int[] indices : classIndices) {
+            for (int i = lowerBound(indices, start + 1); i < indices.length && indices[i] < end; i++) {
+                if (crossBoundaries || boundaryAncestors[indices[i]] <= start) {
+                    if (size == found.length) {
+                        found = Arrays.copyOf(found, size * 2);
+                    }
+                    found[size++] = indices[i];
+                }
+            }
+        }
+        Arrays.sort(found, 0, size);
+        for (int i = 0; i < size; i++) {
+            results.add(type.cast(nodes[found[i]]));
+        }
+    }
+
+    /**
+     * Returns the first descendant of the node that is an instance of the
+     * type, without crossing find boundaries, or null.
+     */
+    <T> T getFirstDescendantOfType(AbstractNode node, Class<T> type) {
+        int start = node.preorderIndex;
+        int end = node.subtreeEnd;
+        int first = end;
+        for (int[] indices : getIndices(type)) {
+            for (int i = lowerBound(indices, start + 1); i < indices.length && indices[i] < first; i++) {
+                if (boundaryAncestors[indices[i]] <= start) {
+                    first = indices[i];
+                    break;
+                }
+            }
+        }
+        return first < end ? type.cast(nodes[first]) : null;
+    }
+
+    private int[][] getIndices(Class<?> type) {
+        int[][] indices = indicesByType.get(type);
+        if (indices == null) {
+            List<int[]> matching = new ArrayList<>();
+            for (Map.Entry<Class<?>, int[]> entry : indicesByClass.entrySet()) {
+                if (type.isAssignableFrom(entry.getKey())) {
+                    matching.add(entry.getValue());
+                }
+            }
+            indices = matching.toArray(new int[0][]);
+            indicesByType.put(type, indices);
+        }
+        return indices;
+    }
+
+    /** Returns the position of the first element greater or equal to the key. */
+    private static int lowerBound(int[] sorted, int key) {
+        int position = Arrays.binarySearch(sorted, key);
+        return position >= 0 ? position : -position - 1;
+    }
+}
@@ -5,7 +5,9 @@
 package net.sourceforge.pmd.lang.ast.impl.javacc;
 
 import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.lang.ast.AbstractNode;
+import net.sourceforge.pmd.lang.ast.GenericToken;
 import net.sourceforge.pmd.lang.ast.Node;
 
 /**
@@ -19,6 +21,10 @@ import net.sourceforge.pmd.lang.ast.Node;
 @Experimental
 public abstract class AbstractJjtreeNode<N extends Node> extends AbstractNode {
 
+    // indices in the TokenTable once the tree is compacted, -1 before
+    private int firstTokenIndex = -1;
+    private int lastTokenIndex = -1;
+
     public AbstractJjtreeNode(int id) {
         super(id);
     }
@@ -46,4 +52,46 @@ public abstract class AbstractJjtreeNode<N extends Node> extends AbstractNode {
     public Iterable<? extends N> children() {
         return (Iterable<N>) super.children();
     }
+
+    @Override
+    @Deprecated
+    public GenericToken jjtGetFirstToken() {
+        return firstTokenIndex < 0 ? super.jjtGetFirstToken() : TokenTable.get(this).getToken(firstTokenIndex);
+    }
+
+    @Override
+    @Deprecated
+    public GenericToken jjtGetLastToken() {
+        return lastTokenIndex < 0 ? super.jjtGetLastToken() : TokenTable.get(this).getToken(lastTokenIndex);
+    }
+
+    @Override
+    @Deprecated
+    public void jjtSetFirstToken(GenericToken token) {
+        super.jjtSetFirstToken(token);
+        firstTokenIndex = -1;
+    }
+
+    @Override
+    @Deprecated
+    public void jjtSetLastToken(GenericToken token) {
+        super.jjtSetLastToken(token);
+        lastTokenIndex = -1;
+    }
+
+    /**
+     * Replaces the token references of this node with indices into the
+     * {@link TokenTable} of the tree. Subclasses that keep other references
+     * to the parser state should release them here.
+     *
+     * @param firstTokenIndex Index of the first token
+     * @param lastTokenIndex  Index of the last token
+     */
+    @InternalApi
+    protected void compact(int firstTokenIndex, int lastTokenIndex) {
+        this.firstTokenIndex = firstTokenIndex;
+        this.lastTokenIndex = lastTokenIndex;
+        this.firstToken = null;
+        this.lastToken = null;
+    }
 }
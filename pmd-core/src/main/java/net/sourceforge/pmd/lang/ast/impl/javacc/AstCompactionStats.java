@@ -0,0 +1,78 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast.impl.javacc;
+
+import java.util.Locale;
+
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * Node count and estimated memory used by the tokens of a tree, before
+ * and after it was {@linkplain TokenTable#compact(net.sourceforge.pmd.lang.ast.Node) compacted}.
+ * The sizes are estimated from the shallow size of the token objects
+ * and of the table entries, they don't include the images of the tokens,
+ * which are kept in both cases.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public final class AstCompactionStats {
+
+    private final long nodeCount;
+    private final long tokenCount;
+    private final long releasedSpecialTokenCount;
+    private final long tokenBytesBefore;
+    private final long tokenBytesAfter;
+
+    AstCompactionStats(long nodeCount, long tokenCount, long releasedSpecialTokenCount,
+                       long tokenBytesBefore, long tokenBytesAfter) {
+        this.nodeCount = nodeCount;
+        this.tokenCount = tokenCount;
+        this.releasedSpecialTokenCount = releasedSpecialTokenCount;
+        this.tokenBytesBefore = tokenBytesBefore;
+        this.tokenBytesAfter = tokenBytesAfter;
+    }
+
+    /** Returns the number of nodes of the tree. */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /** Returns the number of tokens kept in the table. */
+    public long getTokenCount() {
+        return tokenCount;
+    }
+
+    /** Returns the number of special tokens (eg comments) that are not referenced anymore. */
+    public long getReleasedSpecialTokenCount() {
+        return releasedSpecialTokenCount;
+    }
+
+    /** Returns the estimated size of the tokens retained by the tree before compaction. */
+    public long getTokenBytesBefore() {
+        return tokenBytesBefore;
+    }
+
+    /** Returns the estimated size of the token table retained by the compacted tree. */
+    public long getTokenBytesAfter() {
+        return tokenBytesAfter;
+    }
+
+    /** Returns the estimated token bytes per node before compaction. */
+    public double getBytesPerNodeBefore() {
+        return nodeCount == 0 ? 0 : (double) tokenBytesBefore / nodeCount;
+    }
+
+    /** Returns the estimated token bytes per node after compaction. */
+    public double getBytesPerNodeAfter() {
+        return nodeCount == 0 ? 0 : (double) tokenBytesAfter / nodeCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d nodes, %d tokens, %d special tokens released, %.1f -> %.1f token bytes per node",
+                             nodeCount, tokenCount, releasedSpecialTokenCount, getBytesPerNodeBefore(), getBytesPerNodeAfter());
+    }
+}
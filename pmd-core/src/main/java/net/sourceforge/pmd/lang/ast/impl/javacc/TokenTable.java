@@ -0,0 +1,223 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast.impl.javacc;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.ast.GenericToken;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+/**
+ * The tokens of a file, stored in arrays instead of a linked list of
+ * token objects. When an AST is {@linkplain #compact(Node) compacted},
+ * its nodes keep the index of their first and last token in this table
+ * instead of a reference to the token objects. The token objects, and
+ * the special tokens (comments) linked to them, can then be garbage
+ * collected while the AST is still in use.
+ *
+ * <p>The tokens returned by {@link #getToken(int)} are views over the
+ * table, created once per index. They don't have
+ * {@linkplain GenericToken#getPreviousComment() special tokens}.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public final class TokenTable {
+
+    private static final SimpleDataKey<TokenTable> KEY = DataMap.simpleDataKey("jjtree.tokenTable");
+
+    // these are shallow sizes assuming compressed references
+
+    /** Size of a JavaCC token: 5 ints, 3 references and the header. */
+    private static final int TOKEN_BYTES = 48;
+    /** Size of an array header. */
+    private static final int ARRAY_BYTES = 16;
+    /** Size of the entries of a token in this table: 4 ints and 2 references. */
+    private static final int ENTRY_BYTES = 24;
+
+    private final String[] images;
+    private final int[] beginLines;
+    private final int[] beginColumns;
+    private final int[] endLines;
+    private final int[] endColumns;
+    /** Views created so far, by index. */
+    private final TableToken[] views;
+
+    private TokenTable(int size) {
+        views = new TableToken[size];
+        images = new String[size];
+        beginLines = new int[size];
+        beginColumns = new int[size];
+        endLines = new int[size];
+        endColumns = new int[size];
+    }
+
+    /**
+     * Replaces the token references of the nodes of the tree with indices
+     * into a table of the tokens of the file. The table is stored on the
+     * root node. Nodes that are not {@link AbstractJjtreeNode}s, or whose
+     * tokens are not in the token list of the root, are left as is.
+     *
+     * <p>This must be called after parsing, before the tree is shared
+     * between threads.
+     *
+     * @param root Root of the tree
+     *
+     * @return Statistics about the memory used by the tokens
+     */
+    public static AstCompactionStats compact(Node root) {
+        if (!(root instanceof AbstractJjtreeNode) || getTable(root) != null) {
+            return new AstCompactionStats(countNodes(root), 0, 0, 0, 0);
+        }
+        AbstractJjtreeNode<?> jjtreeRoot = (AbstractJjtreeNode<?>) root;
+        GenericToken first = jjtreeRoot.jjtGetFirstToken();
+        GenericToken last = jjtreeRoot.jjtGetLastToken();
+
+        Map<GenericToken, Integer> indices = new IdentityHashMap<>();
+        int specialTokens = 0;
+        for (GenericToken token = first; token != null; token = token == last ? null : token.getNext()) {
+            indices.put(token, indices.size());
+            for (GenericToken special = token.getPreviousComment(); special != null; special = special.getPreviousComment()) {
+                specialTokens++;
+            }
+        }
+
+        TokenTable table = new TokenTable(indices.size());
+        for (Map.Entry<GenericToken, Integer> entry : indices.entrySet()) {
+            table.set(entry.getValue(), entry.getKey());
+        }
+        root.getUserMap().set(KEY, table);
+
+        int nodes = compact(root, indices);
+        int tokens = indices.size();
+        long before = (long) (tokens + specialTokens) * TOKEN_BYTES;
+        long after = (long) tokens * ENTRY_BYTES + 6 * ARRAY_BYTES;
+        return new AstCompactionStats(nodes, tokens, specialTokens, before, after);
+    }
+
+    private static int compact(Node node, Map<GenericToken, Integer> indices) {
+        if (node instanceof AbstractJjtreeNode) {
+            AbstractJjtreeNode<?> jjtreeNode = (AbstractJjtreeNode<?>) node;
+            Integer firstIndex = indices.get(jjtreeNode.jjtGetFirstToken());
+            Integer lastIndex = indices.get(jjtreeNode.jjtGetLastToken());
+            if (firstIndex != null && lastIndex != null) {
+                jjtreeNode.compact(firstIndex, lastIndex);
+            }
+        }
+        int count = 1;
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            count += compact(node.getChild(i), indices);
+        }
+        return count;
+    }
+
+    private static int countNodes(Node node) {
+        int count = 1;
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            count += countNodes(node.getChild(i));
+        }
+        return count;
+    }
+
+    /**
+     * Returns the token table of the tree the node belongs to, or null
+     * if the tree was not compacted.
+     */
+    public static TokenTable get(Node node) {
+        Node root = node;
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        return getTable(root);
+    }
+
+    private static TokenTable getTable(Node root) {
+        return root.getUserMap().get(KEY);
+    }
+
+    private void set(int index, GenericToken token) {
+        images[index] = token.getImage();
+        beginLines[index] = token.getBeginLine();
+        beginColumns[index] = token.getBeginColumn();
+        endLines[index] = token.getEndLine();
+        endColumns[index] = token.getEndColumn();
+    }
+
+    /** Returns the number of tokens. */
+    public int size() {
+        return images.length;
+    }
+
+    /**
+     * Returns a view of the token at the given index.
+     *
+     * @throws IndexOutOfBoundsException If the index is not in the table
+     */
+    public GenericToken getToken(int index) {
+        if (index < 0 || index >= images.length) {
+            throw new IndexOutOfBoundsException("Token " + index + " of " + images.length);
+        }
+        TableToken view = views[index];
+        if (view == null) {
+            // the views are immutable, threads racing here create equivalent ones
+            view = new TableToken(index);
+            views[index] = view;
+        }
+        return view;
+    }
+
+    private final class TableToken implements GenericToken {
+
+        private final int index;
+
+        TableToken(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public GenericToken getNext() {
+            return index + 1 < size() ? getToken(index + 1) : null;
+        }
+
+        @Override
+        public GenericToken getPreviousComment() {
+            return null;
+        }
+
+        @Override
+        public String getImage() {
+            return images[index];
+        }
+
+        @Override
+        public int getBeginLine() {
+            return beginLines[index];
+        }
+
+        @Override
+        public int getEndLine() {
+            return endLines[index];
+        }
+
+        @Override
+        public int getBeginColumn() {
+            return beginColumns[index];
+        }
+
+        @Override
+        public int getEndColumn() {
+            return endColumns[index];
+        }
+
+        @Override
+        public String toString() {
+            return getImage();
+        }
+    }
+}
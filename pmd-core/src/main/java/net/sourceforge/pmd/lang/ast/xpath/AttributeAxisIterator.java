@@ -40,7 +40,7 @@ public class AttributeAxisIterator implements Iterator<Attribute> {
             = new HashSet<>(Arrays.<Class<?>>asList(Integer.TYPE, Boolean.TYPE, Double.TYPE, String.class,
                     Long.TYPE, Character.TYPE, Float.TYPE));
     private static final Set<String> FILTERED_OUT_NAMES
-            = new HashSet<>(Arrays.asList("toString", "getNumChildren", "getIndexInParent", "getParent", "getClass", "getXPathNodeName", "getTypeNameNode", "hashCode", "getImportedNameNode", "getScope"));
+            = new HashSet<>(Arrays.asList("toString", "getNumChildren", "getIndexInParent", "getPreorderIndex", "getPostorderIndex", "getParent", "getClass", "getXPathNodeName", "getTypeNameNode", "hashCode", "getImportedNameNode", "getScope"));
 
     /* Iteration variables */
     private Attribute currObj;
@@ -9,6 +9,7 @@ import java.util.Iterator;
 import java.util.Map;
 
 import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.lang.ast.AbstractNode;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.xpath.Attribute;
 import net.sourceforge.pmd.lang.rule.xpath.SaxonXPathRuleQuery;
@@ -155,6 +156,11 @@ public class ElementNode extends BaseNodeInfo {
         int result;
         if (this.isSameNodeInfo(other)) {
             result = 0;
+        } else if (other instanceof ElementNode && AbstractNode.preorderIndexOf(node) >= 0
+            && AbstractNode.preorderIndexOf(((ElementNode) other).node) >= 0) {
+            // the nodes of a document belong to the same tree
+            result = Integer.signum(AbstractNode.preorderIndexOf(node)
+                                        - AbstractNode.preorderIndexOf(((ElementNode) other).node));
         } else {
             result = Integer.signum(this.getLineNumber() - other.getLineNumber());
             if (result == 0) {
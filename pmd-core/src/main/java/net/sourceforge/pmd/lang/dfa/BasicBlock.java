@@ -0,0 +1,77 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * A maximal sequence of {@link DataFlowNode}s of a {@link ControlFlowGraph}
+ * which is only entered at its first node and only left at its last node.
+ * Basic blocks are the unit on which a {@link DataFlowSolver} iterates.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public final class BasicBlock {
+
+    private final int index;
+    private final List<DataFlowNode> nodes = new ArrayList<>();
+    private final List<BasicBlock> successors = new ArrayList<>();
+    private final List<BasicBlock> predecessors = new ArrayList<>();
+
+    BasicBlock(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Returns the index of this block in {@link ControlFlowGraph#getBlocks()}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the data flow nodes of this block, in execution order.
+     */
+    public List<DataFlowNode> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    public DataFlowNode getFirstNode() {
+        return nodes.get(0);
+    }
+
+    public DataFlowNode getLastNode() {
+        return nodes.get(nodes.size() - 1);
+    }
+
+    public List<BasicBlock> getSuccessors() {
+        return Collections.unmodifiableList(successors);
+    }
+
+    public List<BasicBlock> getPredecessors() {
+        return Collections.unmodifiableList(predecessors);
+    }
+
+    void addNode(DataFlowNode node) {
+        nodes.add(node);
+    }
+
+    void addSuccessor(BasicBlock successor) {
+        if (!successors.contains(successor)) {
+            successors.add(successor);
+            successor.predecessors.add(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BasicBlock " + index + ": lines " + getFirstNode().getLine() + "-" + getLastNode().getLine();
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+/**
+ * Control flow graph of a single method, made of {@linkplain BasicBlock basic blocks}.
+ * The graph is derived from the data flow nodes the language's
+ * {@link net.sourceforge.pmd.lang.DataFlowHandler} built, so it is available
+ * for every language that supports DFA (eg Java and PLSQL).
+ *
+ * <p>Building the graph is linear in the number of data flow nodes. Use
+ * {@link #of(Node)} to share a single graph between all the rules that
+ * analyse the same method.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public final class ControlFlowGraph {
+
+    private static final SimpleDataKey<ControlFlowGraph> CFG_KEY = DataMap.simpleDataKey("pmd.cfg");
+
+    private final List<BasicBlock> blocks;
+    private final Map<DataFlowNode, BasicBlock> blockByNode;
+    private final int nodeCount;
+
+    private ControlFlowGraph(List<BasicBlock> blocks, Map<DataFlowNode, BasicBlock> blockByNode) {
+        this.blocks = Collections.unmodifiableList(blocks);
+        this.blockByNode = blockByNode;
+        this.nodeCount = blockByNode.size();
+    }
+
+    /**
+     * Returns the blocks of this graph. The block containing the start
+     * node of the flow comes first, the other blocks follow in the order
+     * of the data flow.
+     */
+    public List<BasicBlock> getBlocks() {
+        return blocks;
+    }
+
+    public BasicBlock getEntry() {
+        return blocks.get(0);
+    }
+
+    /**
+     * Returns the block containing the given node, or null if the node
+     * is not part of this graph.
+     */
+    public BasicBlock getBlock(DataFlowNode node) {
+        return blockByNode.get(node);
+    }
+
+    /**
+     * Returns the number of data flow nodes in this graph.
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the control flow graph of the method whose data flow starts
+     * at the given node. The graph is computed on the first call and then
+     * cached on the AST node, so that all rules share the same instance.
+     *
+     * @param methodNode A method-like node, on which the data flow has been built
+     *
+     * @return The control flow graph, or null if there is no data flow for this node
+     */
+    public static ControlFlowGraph of(Node methodNode) {
+        ControlFlowGraph cfg = methodNode.getUserMap().get(CFG_KEY);
+        if (cfg == null) {
+            DataFlowNode dataFlowNode = methodNode.getDataFlowNode();
+            if (dataFlowNode == null || dataFlowNode.getFlow().isEmpty()) {
+                return null;
+            }
+            cfg = build(dataFlowNode.getFlow());
+            methodNode.getUserMap().set(CFG_KEY, cfg);
+        }
+        return cfg;
+    }
+
+    /**
+     * Builds the control flow graph of a data flow. The first node of the
+     * list is the start node of the flow.
+     *
+     * @param flow All nodes of the data flow, see {@link DataFlowNode#getFlow()}
+     *
+     * @return A new control flow graph
+     */
+    public static ControlFlowGraph build(List<DataFlowNode> flow) {
+        if (flow.isEmpty()) {
+            throw new IllegalArgumentException("Empty data flow");
+        }
+
+        Map<DataFlowNode, BasicBlock> blockByNode = new IdentityHashMap<>(flow.size() * 2);
+        List<BasicBlock> blocks = new ArrayList<>();
+
+        // leaders first, in flow order, so that the entry block has index 0
+        for (int i = 0; i < flow.size(); i++) {
+            DataFlowNode node = flow.get(i);
+            if (!blockByNode.containsKey(node) && (i == 0 || isLeader(node))) {
+                fillBlock(node, blocks, blockByNode);
+            }
+        }
+        // nodes which are only reachable through an unreachable cycle
+        for (DataFlowNode node : flow) {
+            if (!blockByNode.containsKey(node)) {
+                fillBlock(node, blocks, blockByNode);
+            }
+        }
+
+        for (BasicBlock block : blocks) {
+            for (DataFlowNode child : block.getLastNode().getChildren()) {
+                BasicBlock successor = blockByNode.get(child);
+                if (successor != null) {
+                    block.addSuccessor(successor);
+                }
+            }
+        }
+
+        return new ControlFlowGraph(blocks, blockByNode);
+    }
+
+    private static boolean isLeader(DataFlowNode node) {
+        List<DataFlowNode> parents = node.getParents();
+        return parents.size() != 1
+            || parents.get(0).getChildren().size() != 1
+            || parents.get(0) == node;
+    }
+
+    private static void fillBlock(DataFlowNode leader, List<BasicBlock> blocks, Map<DataFlowNode, BasicBlock> blockByNode) {
+        BasicBlock block = new BasicBlock(blocks.size());
+        blocks.add(block);
+
+        DataFlowNode current = leader;
+        while (true) {
+            block.addNode(current);
+            blockByNode.put(current, block);
+
+            List<DataFlowNode> children = current.getChildren();
+            if (children.size() != 1) {
+                break;
+            }
+            DataFlowNode next = children.get(0);
+            if (blockByNode.containsKey(next) || isLeader(next)) {
+                break;
+            }
+            current = next;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ControlFlowGraph: " + blocks.size() + " blocks, " + nodeCount + " nodes";
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa;
+
+import java.util.BitSet;
+
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * A bit-vector data flow problem, described by its direction, its meet
+ * operator and the gen/kill sets of each basic block. Facts are
+ * numbered from 0 to {@link #getUniverseSize()} (exclusive), and sets
+ * of facts are represented as {@link BitSet}s.
+ *
+ * <p>The transfer function of a block is {@code out = gen | (in & ~kill)}
+ * (with in and out swapped for backward problems). Instances are solved
+ * by {@link DataFlowSolver#solve(ControlFlowGraph, DataFlowProblem)}.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public abstract class DataFlowProblem {
+
+    /** Direction in which facts are propagated. */
+    public enum Direction {
+        FORWARD,
+        BACKWARD
+    }
+
+    private final Direction direction;
+    private final boolean may;
+
+    /**
+     * @param direction Direction of the analysis
+     * @param may       If true, the meet operator is the union (a fact holds if
+     *                  it holds on some path), otherwise it is the intersection
+     *                  (a fact holds if it holds on all paths)
+     */
+    protected DataFlowProblem(Direction direction, boolean may) {
+        this.direction = direction;
+        this.may = may;
+    }
+
+    public final Direction getDirection() {
+        return direction;
+    }
+
+    public final boolean isMayAnalysis() {
+        return may;
+    }
+
+    /** Returns the number of facts of this problem. */
+    public abstract int getUniverseSize();
+
+    /** Returns the facts generated by the block. Called once per block. */
+    public abstract BitSet gen(BasicBlock block);
+
+    /** Returns the facts killed by the block. Called once per block. */
+    public abstract BitSet kill(BasicBlock block);
+
+    /**
+     * Returns the facts that hold when entering the graph, ie the in-set
+     * of the entry block for forward problems, and the out-set of the exit
+     * blocks for backward problems. Empty by default.
+     */
+    public BitSet boundary() {
+        return new BitSet();
+    }
+}
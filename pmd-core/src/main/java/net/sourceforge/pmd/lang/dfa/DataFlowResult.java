@@ -0,0 +1,47 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa;
+
+import java.util.BitSet;
+
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * Fixed point of a {@link DataFlowProblem} on a {@link ControlFlowGraph}.
+ * The returned sets are shared and must not be modified.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public final class DataFlowResult {
+
+    private final BitSet[] in;
+    private final BitSet[] out;
+    private final int iterations;
+
+    DataFlowResult(BitSet[] in, BitSet[] out, int iterations) {
+        this.in = in;
+        this.out = out;
+        this.iterations = iterations;
+    }
+
+    /** Returns the facts holding at the start of the block. */
+    public BitSet getIn(BasicBlock block) {
+        return in[block.getIndex()];
+    }
+
+    /** Returns the facts holding at the end of the block. */
+    public BitSet getOut(BasicBlock block) {
+        return out[block.getIndex()];
+    }
+
+    /**
+     * Returns the number of blocks the solver evaluated before reaching
+     * the fixed point. Mostly useful for testing and benchmarking.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.dfa.DataFlowProblem.Direction;
+
+/**
+ * Worklist solver for {@link DataFlowProblem}s. Contrary to the
+ * {@link net.sourceforge.pmd.lang.dfa.pathfinder.DAAPathFinder}, which
+ * enumerates execution paths, the solver propagates sets of facts
+ * between basic blocks until a fixed point is reached. Its run time does
+ * not depend on the number of paths through the method, so it needs no
+ * cut-off on large methods.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public final class DataFlowSolver {
+
+    private DataFlowSolver() {
+        // utility class
+    }
+
+    /**
+     * Computes the fixed point of the problem on the given graph.
+     *
+     * @param cfg     Control flow graph
+     * @param problem Problem to solve
+     *
+     * @return The in and out sets of every block
+     */
+    public static DataFlowResult solve(ControlFlowGraph cfg, DataFlowProblem problem) {
+        List<BasicBlock> blocks = cfg.getBlocks();
+        int n = blocks.size();
+        boolean forward = problem.getDirection() == Direction.FORWARD;
+
+        BitSet[] gen = new BitSet[n];
+        BitSet[] kill = new BitSet[n];
+        // "before" is the in-set of forward problems, and the out-set of backward ones
+        BitSet[] before = new BitSet[n];
+        BitSet[] after = new BitSet[n];
+
+        BitSet top = new BitSet();
+        if (!problem.isMayAnalysis()) {
+            top.set(0, problem.getUniverseSize());
+        }
+        BitSet boundary = problem.boundary();
+
+        Deque<BasicBlock> worklist = new ArrayDeque<>(n);
+        boolean[] queued = new boolean[n];
+
+        for (int i = 0; i < n; i++) {
+            BasicBlock block = blocks.get(i);
+            gen[i] = problem.gen(block);
+            kill[i] = problem.kill(block);
+            before[i] = new BitSet();
+            after[i] = (BitSet) top.clone();
+        }
+
+        // forward problems converge faster when blocks are visited in flow order
+        for (int i = 0; i < n; i++) {
+            BasicBlock block = blocks.get(forward ? i : n - 1 - i);
+            worklist.add(block);
+            queued[block.getIndex()] = true;
+        }
+
+        int iterations = 0;
+        while (!worklist.isEmpty()) {
+            BasicBlock block = worklist.poll();
+            int i = block.getIndex();
+            queued[i] = false;
+            iterations++;
+
+            List<BasicBlock> sources = forward ? block.getPredecessors() : block.getSuccessors();
+            BitSet in = meet(problem, sources, after, isBoundary(cfg, block, forward) ? boundary : null);
+            before[i] = in;
+
+            BitSet out = (BitSet) in.clone();
+            out.andNot(kill[i]);
+            out.or(gen[i]);
+
+            if (!out.equals(after[i])) {
+                after[i] = out;
+                for (BasicBlock target : forward ? block.getSuccessors() : block.getPredecessors()) {
+                    if (!queued[target.getIndex()]) {
+                        queued[target.getIndex()] = true;
+                        worklist.add(target);
+                    }
+                }
+            }
+        }
+
+        return forward ? new DataFlowResult(before, after, iterations)
+                       : new DataFlowResult(after, before, iterations);
+    }
+
+    private static boolean isBoundary(ControlFlowGraph cfg, BasicBlock block, boolean forward) {
+        return forward ? block == cfg.getEntry() : block.getSuccessors().isEmpty();
+    }
+
+    /**
+     * Meets the sets of all sources, and the boundary set if not null.
+     * An empty meet yields the top element of the lattice.
+     */
+    private static BitSet meet(DataFlowProblem problem, List<BasicBlock> sources, BitSet[] after, BitSet boundary) {
+        BitSet result = null;
+        for (BasicBlock source : sources) {
+            result = meet(problem, result, after[source.getIndex()]);
+        }
+        if (boundary != null) {
+            result = meet(problem, result, boundary);
+        }
+        if (result == null) {
+            result = new BitSet();
+            if (!problem.isMayAnalysis()) {
+                result.set(0, problem.getUniverseSize());
+            }
+        }
+        return result;
+    }
+
+    private static BitSet meet(DataFlowProblem problem, BitSet acc, BitSet set) {
+        if (acc == null) {
+            return (BitSet) set.clone();
+        }
+        if (problem.isMayAnalysis()) {
+            acc.or(set);
+        } else {
+            acc.and(set);
+        }
+        return acc;
+    }
+}
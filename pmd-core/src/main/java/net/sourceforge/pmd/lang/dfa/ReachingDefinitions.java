@@ -0,0 +1,248 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * Reaching definitions analysis on a {@link ControlFlowGraph}. A definition
+ * of a variable reaches a point of the method if there is a path from the
+ * definition to that point on which the variable is neither redefined nor
+ * undefined.
+ *
+ * <p>With {@link #ofAllAccesses(ControlFlowGraph)}, every
+ * {@link VariableAccess} is tracked instead of only definitions. The
+ * analysis then computes, for each access, the possible previous accesses
+ * to the same variable, which is what data flow anomaly analysis needs
+ * (DD, DU and UR anomalies).
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public final class ReachingDefinitions {
+
+    private final ControlFlowGraph cfg;
+    private final boolean allAccesses;
+    private final List<Definition> definitions = new ArrayList<>();
+    private final Map<String, BitSet> definitionsByVar = new HashMap<>();
+    private final Map<VariableAccess, Integer> idByAccess = new IdentityHashMap<>();
+    private final DataFlowResult result;
+
+    private ReachingDefinitions(ControlFlowGraph cfg, boolean allAccesses) {
+        this.cfg = cfg;
+        this.allAccesses = allAccesses;
+
+        for (BasicBlock block : cfg.getBlocks()) {
+            for (DataFlowNode node : block.getNodes()) {
+                for (VariableAccess access : accessesOf(node)) {
+                    if (isTracked(access)) {
+                        Definition def = new Definition(definitions.size(), node, access);
+                        definitions.add(def);
+                        idByAccess.put(access, def.id);
+                        definitionsOf(access.getVariableName()).set(def.id);
+                    }
+                }
+            }
+        }
+
+        this.result = DataFlowSolver.solve(cfg, new Problem());
+    }
+
+    /**
+     * Computes the definitions reaching each point of the graph.
+     */
+    public static ReachingDefinitions of(ControlFlowGraph cfg) {
+        return new ReachingDefinitions(cfg, false);
+    }
+
+    /**
+     * Computes the accesses (definitions, references and undefinitions)
+     * reaching each point of the graph. An access is killed by any later
+     * access to the same variable.
+     */
+    public static ReachingDefinitions ofAllAccesses(ControlFlowGraph cfg) {
+        return new ReachingDefinitions(cfg, true);
+    }
+
+    public ControlFlowGraph getGraph() {
+        return cfg;
+    }
+
+    /**
+     * Returns the tracked definitions, indexed by their {@linkplain Definition#getId() id}.
+     */
+    public List<Definition> getDefinitions() {
+        return Collections.unmodifiableList(definitions);
+    }
+
+    /**
+     * Returns the ids of the definitions reaching the start of the block.
+     * The set is shared and must not be modified.
+     */
+    public BitSet getReachingIn(BasicBlock block) {
+        return result.getIn(block);
+    }
+
+    /**
+     * Visits every variable access of the graph once, in flow order within
+     * each block, together with the definitions reaching that access.
+     * This is linear in the size of the graph, and should be preferred to
+     * querying individual nodes.
+     *
+     * @param handler Callback
+     */
+    public void scan(AccessHandler handler) {
+        for (BasicBlock block : cfg.getBlocks()) {
+            BitSet current = (BitSet) result.getIn(block).clone();
+            for (DataFlowNode node : block.getNodes()) {
+                for (VariableAccess access : accessesOf(node)) {
+                    BitSet ofVar = definitionsOf(access.getVariableName());
+                    BitSet reaching = (BitSet) current.clone();
+                    reaching.and(ofVar);
+                    handler.handle(node, access, toList(reaching));
+
+                    transfer(current, access, ofVar);
+                }
+            }
+        }
+    }
+
+    private static List<VariableAccess> accessesOf(DataFlowNode node) {
+        List<VariableAccess> accesses = node.getVariableAccess();
+        return accesses == null ? Collections.<VariableAccess>emptyList() : accesses;
+    }
+
+    private List<Definition> toList(BitSet ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Definition> list = new ArrayList<>(ids.cardinality());
+        for (int i = ids.nextSetBit(0); i >= 0; i = ids.nextSetBit(i + 1)) {
+            list.add(definitions.get(i));
+        }
+        return list;
+    }
+
+    private void transfer(BitSet current, VariableAccess access, BitSet ofVar) {
+        if (isKilling(access)) {
+            current.andNot(ofVar);
+        }
+        if (isTracked(access)) {
+            current.set(idByAccess.get(access));
+        }
+    }
+
+    private boolean isTracked(VariableAccess access) {
+        return allAccesses || access.isDefinition();
+    }
+
+    private boolean isKilling(VariableAccess access) {
+        return allAccesses || !access.isReference();
+    }
+
+    private BitSet definitionsOf(String varName) {
+        BitSet set = definitionsByVar.get(varName);
+        if (set == null) {
+            set = new BitSet();
+            definitionsByVar.put(varName, set);
+        }
+        return set;
+    }
+
+    private final class Problem extends DataFlowProblem {
+
+        Problem() {
+            super(Direction.FORWARD, true);
+        }
+
+        @Override
+        public int getUniverseSize() {
+            return definitions.size();
+        }
+
+        @Override
+        public BitSet gen(BasicBlock block) {
+            BitSet gen = new BitSet();
+            for (DataFlowNode node : block.getNodes()) {
+                for (VariableAccess access : accessesOf(node)) {
+                    transfer(gen, access, definitionsOf(access.getVariableName()));
+                }
+            }
+            return gen;
+        }
+
+        @Override
+        public BitSet kill(BasicBlock block) {
+            BitSet kill = new BitSet();
+            for (DataFlowNode node : block.getNodes()) {
+                for (VariableAccess access : accessesOf(node)) {
+                    if (isKilling(access)) {
+                        kill.or(definitionsOf(access.getVariableName()));
+                    }
+                }
+            }
+            return kill;
+        }
+    }
+
+    /**
+     * Receives the accesses visited by {@link #scan(AccessHandler)}.
+     */
+    public interface AccessHandler {
+
+        /**
+         * @param node     Node of the access
+         * @param access   The access
+         * @param reaching The tracked definitions (or accesses) of the same
+         *                 variable reaching this access, in flow order
+         */
+        void handle(DataFlowNode node, VariableAccess access, List<Definition> reaching);
+    }
+
+    /**
+     * A tracked variable access.
+     */
+    public static final class Definition {
+
+        private final int id;
+        private final DataFlowNode node;
+        private final VariableAccess access;
+
+        Definition(int id, DataFlowNode node, VariableAccess access) {
+            this.id = id;
+            this.node = node;
+            this.access = access;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public DataFlowNode getNode() {
+            return node;
+        }
+
+        public VariableAccess getAccess() {
+            return access;
+        }
+
+        public String getVariableName() {
+            return access.getVariableName();
+        }
+
+        @Override
+        public String toString() {
+            return access + " at line " + node.getLine();
+        }
+    }
+}
@@ -5,11 +5,16 @@
 package net.sourceforge.pmd.lang.rule;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.AnalysisPhase;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.ParserOptions;
@@ -41,6 +46,7 @@ public abstract class AbstractRule extends AbstractPropertySource implements Rul
     private boolean usesDFA;
     private boolean usesTypeResolution;
     private boolean usesMultifile;
+    private Set<AnalysisPhase> dependencies;
     private List<String> ruleChainVisits = new ArrayList<>();
 
     public AbstractRule() {
@@ -76,6 +82,7 @@ public abstract class AbstractRule extends AbstractPropertySource implements Rul
         otherRule.usesDFA = usesDFA;
         otherRule.usesTypeResolution = usesTypeResolution;
         otherRule.usesMultifile = usesMultifile;
+        otherRule.dependencies = dependencies == null ? null : EnumSet.copyOf(dependencies);
         otherRule.ruleChainVisits = copyRuleChainVisits();
     }
 
@@ -300,6 +307,59 @@ public abstract class AbstractRule extends AbstractPropertySource implements Rul
         return usesMultifile;
     }
 
+    /**
+     * Declares the analysis phases this rule depends on. Once a rule
+     * has declared its dependencies, the legacy defaults described in
+     * {@link AnalysisPhase#isRequiredBy(Rule)} don't apply anymore, except
+     * for the phases selected explicitly with eg {@link #setDfa(boolean)}.
+     * Dependencies of the given phases needn't be declared.
+     *
+     * <p>This is meant to be called from the constructor of the rule.
+     *
+     * @param phases Phases whose products this rule uses, possibly none
+     */
+    @Experimental
+    protected void declareDependencies(AnalysisPhase... phases) {
+        dependencies = EnumSet.noneOf(AnalysisPhase.class);
+        Collections.addAll(dependencies, phases);
+    }
+
+    /**
+     * Returns true if the given phase must run before this rule is
+     * applied. The dependencies of the phase are not considered.
+     *
+     * @param phase Phase to test
+     *
+     * @see AnalysisPhase#isRequiredBy(Rule)
+     */
+    @Experimental
+    public boolean dependsOn(AnalysisPhase phase) {
+        switch (phase) {
+        case DFA:
+            if (isDfa()) {
+                return true;
+            }
+            break;
+        case TYPE_RESOLUTION:
+            if (isTypeResolution()) {
+                return true;
+            }
+            break;
+        case MULTIFILE:
+            if (isMultifile()) {
+                return true;
+            }
+            break;
+        default:
+            break;
+        }
+
+        if (dependencies == null) {
+            return phase == AnalysisPhase.QUALIFIED_NAMES || phase == AnalysisPhase.SYMBOL_TABLE;
+        }
+        return dependencies.contains(phase);
+    }
+
     @Override
     @Deprecated // To be removed in PMD 7.0.0
     public boolean usesRuleChain() {
@@ -464,6 +524,7 @@ public abstract class AbstractRule extends AbstractPropertySource implements Rul
             rule.addExample(example);
         }
         rule.setPriority(getPriority());
+        rule.setDeprecated(isDeprecated());
         for (final PropertyDescriptor<?> prop : getPropertyDescriptors()) {
             // define the descriptor only if it doesn't yet exist
             if (rule.getPropertyDescriptor(prop.name()) == null) {
@@ -5,7 +5,6 @@
 package net.sourceforge.pmd.lang.rule;
 
 import java.io.File;
-import java.util.regex.Pattern;
 
 import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleContext;
@@ -61,20 +60,7 @@ public class ParametricRuleViolation<T extends Node> implements RuleViolation {
     }
 
     private void setSuppression(Rule rule, T node) {
-
-        String regex = rule.getProperty(Rule.VIOLATION_SUPPRESS_REGEX_DESCRIPTOR); // Regex
-        if (regex != null && description != null) {
-            if (Pattern.matches(regex, description)) {
-                suppressed = true;
-            }
-        }
-
-        if (!suppressed) { // XPath
-            String xpath = rule.getProperty(Rule.VIOLATION_SUPPRESS_XPATH_DESCRIPTOR);
-            if (xpath != null) {
-                suppressed = node.hasDescendantMatchingXPath(xpath);
-            }
-        }
+        suppressed = ViolationSuppressions.isSuppressed(rule, node, description);
     }
 
     protected String expandVariables(String message) {
@@ -104,13 +90,13 @@ public class ParametricRuleViolation<T extends Node> implements RuleViolation {
 
     protected String getVariableValue(String name) {
         if ("variableName".equals(name)) {
-            return variableName;
+            return getVariableName();
         } else if ("methodName".equals(name)) {
-            return methodName;
+            return getMethodName();
         } else if ("className".equals(name)) {
-            return className;
+            return getClassName();
         } else if ("packageName".equals(name)) {
-            return packageName;
+            return getPackageName();
         } else {
             final PropertyDescriptor<?> propertyDescriptor = rule.getPropertyDescriptor(name);
             return String.valueOf(rule.getProperty(propertyDescriptor));
@@ -0,0 +1,24 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule;
+
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * This is a tag interface to indicate that a Rule implementation can be
+ * used by several threads at once. Such a rule keeps no state between the
+ * calls to {@link net.sourceforge.pmd.Rule#apply(java.util.List, net.sourceforge.pmd.RuleContext) apply},
+ * and its configuration doesn't change once the ruleset is loaded.
+ *
+ * <p>The copies of the rulesets used by the threads analysing the files
+ * (see {@link RuleSets#RuleSets(RuleSets)}) share the instances of these
+ * rules, and of the rule references to them, instead of copying them.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public interface ThreadSafeRule {
+}
@@ -0,0 +1,70 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import org.jaxen.JaxenException;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.xpath.XPathExpressionCache;
+
+/**
+ * Evaluates the {@linkplain Rule#VIOLATION_SUPPRESS_REGEX_DESCRIPTOR regex}
+ * and {@linkplain Rule#VIOLATION_SUPPRESS_XPATH_DESCRIPTOR XPath} suppressions
+ * of a rule. The expressions are compiled once per distinct value and shared
+ * by all the rules and threads, instead of being compiled per violation.
+ * The XPath expressions are kept in the {@link XPathExpressionCache}.
+ */
+final class ViolationSuppressions {
+
+    /** Beyond this number of distinct regexes, they're not cached anymore. */
+    private static final int MAX_CACHED = 256;
+
+    private static final ConcurrentMap<String, Pattern> REGEXES = new ConcurrentHashMap<>();
+
+    private ViolationSuppressions() {
+        // utility class
+    }
+
+    /**
+     * Returns true if the violation is suppressed by the suppression
+     * properties of the rule.
+     *
+     * @param rule        Rule which reported the violation
+     * @param node        Node of the violation
+     * @param description Message of the violation, may be null
+     */
+    static boolean isSuppressed(Rule rule, Node node, String description) {
+        String regex = rule.getProperty(Rule.VIOLATION_SUPPRESS_REGEX_DESCRIPTOR);
+        if (regex != null && description != null && getPattern(regex).matcher(description).matches()) {
+            return true;
+        }
+
+        String xpath = rule.getProperty(Rule.VIOLATION_SUPPRESS_XPATH_DESCRIPTOR);
+        if (xpath != null) {
+            try {
+                return !XPathExpressionCache.getInstance().getJaxenXPath(xpath).selectNodes(node).isEmpty();
+            } catch (JaxenException e) {
+                throw new RuntimeException("XPath expression " + xpath + " failed: " + e.getLocalizedMessage(), e);
+            }
+        }
+        return false;
+    }
+
+    static Pattern getPattern(String regex) {
+        Pattern pattern = REGEXES.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            if (REGEXES.size() < MAX_CACHED) {
+                REGEXES.putIfAbsent(regex, pattern);
+            }
+        }
+        return pattern;
+    }
+}
@@ -18,6 +18,8 @@ import org.apache.commons.lang3.StringUtils;
 
 import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.AnalysisPhase;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.xpath.internal.DeprecatedAttrLogger;
 import net.sourceforge.pmd.lang.rule.xpath.JaxenXPathRuleQuery;
@@ -25,6 +27,8 @@ import net.sourceforge.pmd.lang.rule.xpath.SaxonXPathRuleQuery;
 import net.sourceforge.pmd.lang.rule.xpath.XPathRuleQuery;
 import net.sourceforge.pmd.lang.rule.xpath.XPathVersion;
 import net.sourceforge.pmd.properties.EnumeratedProperty;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+import net.sourceforge.pmd.properties.PropertyFactory;
 import net.sourceforge.pmd.properties.StringProperty;
 
 /**
@@ -65,6 +69,20 @@ public class XPathRule extends AbstractRule {
             .uiOrder(2.0f)
             .build();
 
+    /**
+     * The analysis phases the XPath expression needs, see {@link #dependsOn(AnalysisPhase)}.
+     * In a ruleset, the phases are separated by {@code |}, eg
+     * {@code <property name="analysisPhases" value="SYMBOL_TABLE|TYPE_RESOLUTION"/>}.
+     *
+     * @since 6.27.0
+     */
+    @Experimental
+    public static final PropertyDescriptor<List<AnalysisPhase>> ANALYSIS_PHASES_DESCRIPTOR =
+        PropertyFactory.enumListProperty("analysisPhases", analysisPhaseMappings())
+                       .desc("Analysis phases the XPath expression depends on")
+                       .emptyDefaultValue()
+                       .build();
+
     /**
      * This is initialized only once when calling {@link #evaluate(Node, RuleContext)} or {@link #getRuleChainVisits()}.
      */
@@ -81,6 +99,7 @@ public class XPathRule extends AbstractRule {
     public XPathRule() {
         definePropertyDescriptor(XPATH_DESCRIPTOR);
         definePropertyDescriptor(VERSION_DESCRIPTOR);
+        definePropertyDescriptor(ANALYSIS_PHASES_DESCRIPTOR);
         // Enable Type Resolution on XPath Rules by default - see issue #2048
         super.setTypeResolution(true);
     }
@@ -112,6 +131,32 @@ public class XPathRule extends AbstractRule {
     }
 
 
+    private static Map<String, AnalysisPhase> analysisPhaseMappings() {
+        Map<String, AnalysisPhase> mappings = new HashMap<>();
+        for (AnalysisPhase phase : AnalysisPhase.values()) {
+            mappings.put(phase.name(), phase);
+        }
+        return mappings;
+    }
+
+
+    /**
+     * Returns true if the given phase must run before this rule is
+     * applied. If the property {@link #ANALYSIS_PHASES_DESCRIPTOR} is
+     * set, it replaces the legacy defaults, including the type resolution
+     * enabled by default on XPath rules.
+     */
+    @Override
+    @Experimental
+    public boolean dependsOn(AnalysisPhase phase) {
+        if (!isPropertyOverridden(ANALYSIS_PHASES_DESCRIPTOR)) {
+            return super.dependsOn(phase);
+        }
+        return getProperty(ANALYSIS_PHASES_DESCRIPTOR).contains(phase)
+            || phase == AnalysisPhase.DFA && isDfa()
+            || phase == AnalysisPhase.MULTIFILE && isMultifile();
+    }
+
     @Override
     public Rule deepCopy() {
         XPathRule rule = (XPathRule) super.deepCopy();
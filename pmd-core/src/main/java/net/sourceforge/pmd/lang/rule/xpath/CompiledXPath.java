@@ -0,0 +1,286 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule.xpath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.jaxen.BaseXPath;
+import org.jaxen.Context;
+import org.jaxen.ContextSupport;
+import org.jaxen.JaxenException;
+import org.jaxen.SimpleVariableContext;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.xpath.internal.ContextualizedNavigator;
+import net.sourceforge.pmd.lang.ast.xpath.internal.DeprecatedAttrLogger;
+import net.sourceforge.pmd.lang.ast.xpath.saxon.DocumentNode;
+import net.sourceforge.pmd.lang.ast.xpath.saxon.ElementNode;
+import net.sourceforge.pmd.lang.xpath.Initializer;
+
+import net.sf.saxon.om.Item;
+import net.sf.saxon.om.NamespaceConstant;
+import net.sf.saxon.om.SequenceIterator;
+import net.sf.saxon.sxpath.AbstractStaticContext;
+import net.sf.saxon.sxpath.IndependentContext;
+import net.sf.saxon.sxpath.XPathDynamicContext;
+import net.sf.saxon.sxpath.XPathEvaluator;
+import net.sf.saxon.sxpath.XPathExpression;
+import net.sf.saxon.sxpath.XPathStaticContext;
+import net.sf.saxon.sxpath.XPathVariable;
+import net.sf.saxon.trans.XPathException;
+
+/**
+ * An XPath expression compiled once, that can be evaluated on any node,
+ * from any thread. This is meant for rules written in Java that need to
+ * navigate the tree with an XPath expression: the expression should be
+ * compiled once, eg in a static field, instead of being parsed again by
+ * {@link Node#findChildNodesWithXPath(String)} for each node.
+ *
+ * <p>Values that change from one node to another, like names, should
+ * be passed as variables rather than concatenated into the expression,
+ * so that the same compiled expression can be reused:
+ * <pre>{@code
+ * private static final CompiledXPath NAMED_ARG =
+ *     CompiledXPath.compile("./Arguments//Name[@Image = $name]", XPathVersion.XPATH_1_0, "name");
+ *
+ * NAMED_ARG.matches(node, Collections.singletonMap("name", varName));
+ * }</pre>
+ *
+ * <p>XPath 1.0 expressions are evaluated by Jaxen, like {@link Node#findChildNodesWithXPath(String)},
+ * the other versions by Saxon, like the {@link XPathRule}s. Compiled expressions
+ * are shared through the {@link XPathExpressionCache}.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public abstract class CompiledXPath {
+
+    private final String expression;
+    private final XPathVersion version;
+
+    CompiledXPath(String expression, XPathVersion version) {
+        this.expression = expression;
+        this.version = version;
+    }
+
+    /**
+     * Compiles an XPath 1.0 expression without variables.
+     *
+     * @param expression The expression
+     *
+     * @throws IllegalArgumentException If the expression is invalid
+     */
+    public static CompiledXPath compile(String expression) {
+        return compile(expression, XPathVersion.XPATH_1_0);
+    }
+
+    /**
+     * Compiles an XPath expression, or returns the expression compiled
+     * previously with the same arguments.
+     *
+     * @param expression    The expression
+     * @param version       The XPath version of the expression
+     * @param variableNames Names of the variables the expression refers to
+     *
+     * @throws IllegalArgumentException If the expression is invalid
+     */
+    public static CompiledXPath compile(String expression, XPathVersion version, String... variableNames) {
+        return XPathExpressionCache.getInstance().get(expression, version, variableNames);
+    }
+
+    static CompiledXPath create(String expression, XPathVersion version, List<String> variableNames) {
+        if (version == XPathVersion.XPATH_1_0) {
+            return new JaxenXPath(expression);
+        }
+        return new SaxonXPath(expression, version, variableNames);
+    }
+
+    /** Returns the source of the expression. */
+    public String getExpression() {
+        return expression;
+    }
+
+    /** Returns the XPath version of the expression. */
+    public XPathVersion getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the nodes selected by the expression, evaluated with the
+     * given node as context node. Results that are not nodes, like
+     * attributes, are ignored.
+     *
+     * @param context The context node
+     */
+    public List<Node> select(Node context) {
+        return select(context, Collections.<String, Object>emptyMap());
+    }
+
+    /**
+     * Returns the nodes selected by the expression, evaluated with the
+     * given node as context node and the given values for the variables.
+     * Results that are not nodes, like attributes, are ignored.
+     *
+     * @param context   The context node
+     * @param variables Values of the variables, by name. The values may be strings,
+     *                  numbers, booleans, or lists of those for XPath 2.0.
+     */
+    public abstract List<Node> select(Node context, Map<String, ?> variables);
+
+    /**
+     * Returns true if the expression selects at least one node.
+     *
+     * @param context The context node
+     */
+    public boolean matches(Node context) {
+        return !select(context).isEmpty();
+    }
+
+    /**
+     * Returns true if the expression selects at least one node.
+     *
+     * @param context   The context node
+     * @param variables Values of the variables, by name
+     */
+    public boolean matches(Node context, Map<String, ?> variables) {
+        return !select(context, variables).isEmpty();
+    }
+
+    /**
+     * Returns the underlying Jaxen expression, for {@link Node#findChildNodesWithXPath(String)}.
+     * Returns null if this is not an XPath 1.0 expression.
+     */
+    BaseXPath getJaxenXPath() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    RuntimeException evaluationFailed(Exception e) {
+        return new RuntimeException("XPath expression " + expression + " failed: " + e.getLocalizedMessage(), e);
+    }
+
+    private static final class JaxenXPath extends CompiledXPath {
+
+        private final JaxenExpression xpath;
+
+        JaxenXPath(String expression) {
+            super(expression, XPathVersion.XPATH_1_0);
+            try {
+                xpath = new JaxenExpression(expression);
+            } catch (JaxenException e) {
+                throw new IllegalArgumentException("Invalid XPath expression " + expression + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public List<Node> select(Node context, Map<String, ?> variables) {
+            try {
+                List<?> results = xpath.select(context, variables);
+                List<Node> nodes = new ArrayList<>(results.size());
+                for (Object result : results) {
+                    if (result instanceof Node) {
+                        nodes.add((Node) result);
+                    }
+                }
+                return nodes;
+            } catch (JaxenException e) {
+                throw evaluationFailed(e);
+            }
+        }
+
+        @Override
+        BaseXPath getJaxenXPath() {
+            return xpath;
+        }
+    }
+
+    /**
+     * Exposes the evaluation with a fresh context, so that the variables
+     * don't need to be set on the shared expression.
+     */
+    private static final class JaxenExpression extends BaseXPath {
+
+        private static final long serialVersionUID = 1L;
+
+        JaxenExpression(String expression) throws JaxenException {
+            super(expression, new ContextualizedNavigator(DeprecatedAttrLogger.createAdHocLogger()));
+        }
+
+        List<?> select(Node node, Map<String, ?> variables) throws JaxenException {
+            if (variables.isEmpty()) {
+                return selectNodes(node);
+            }
+            SimpleVariableContext variableContext = new SimpleVariableContext();
+            for (Map.Entry<String, ?> variable : variables.entrySet()) {
+                variableContext.setVariableValue(variable.getKey(), variable.getValue());
+            }
+            Context context = new Context(new ContextSupport(getNamespaceContext(), getFunctionContext(),
+                                                             variableContext, getNavigator()));
+            context.setNodeSet(Collections.singletonList(node));
+            return selectNodesForContext(context);
+        }
+    }
+
+    private static final class SaxonXPath extends CompiledXPath {
+
+        private final XPathExpression xpathExpression;
+        private final List<XPathVariable> variables = new ArrayList<>();
+
+        SaxonXPath(String expression, XPathVersion version, List<String> variableNames) {
+            super(expression, version);
+            try {
+                XPathEvaluator xpathEvaluator = new XPathEvaluator();
+                XPathStaticContext staticContext = xpathEvaluator.getStaticContext();
+                staticContext.getConfiguration().setNamePool(SaxonXPathRuleQuery.getNamePool());
+                if (version == XPathVersion.XPATH_1_0_COMPATIBILITY) {
+                    ((AbstractStaticContext) staticContext).setBackwardsCompatibilityMode(true);
+                }
+                ((IndependentContext) staticContext).declareNamespace("fn", NamespaceConstant.FN);
+                Initializer.initialize((IndependentContext) staticContext);
+
+                for (String name : variableNames) {
+                    variables.add(staticContext.declareVariable(null, name));
+                }
+                xpathExpression = xpathEvaluator.createExpression(expression);
+            } catch (XPathException e) {
+                throw new IllegalArgumentException("Invalid XPath expression " + expression + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public List<Node> select(Node context, Map<String, ?> values) {
+            DocumentNode documentNode = SaxonXPathRuleQuery.getDocumentNodeForRootNode(context);
+            ElementNode contextElement = documentNode.nodeToElementNode.get(context);
+            try {
+                XPathDynamicContext dynamicContext = xpathExpression.createDynamicContext(contextElement);
+                for (XPathVariable variable : variables) {
+                    Object value = values.get(variable.getVariableQName().getLocalName());
+                    dynamicContext.setVariable(variable, value instanceof List
+                        ? SaxonXPathRuleQuery.getSequenceRepresentation((List<?>) value)
+                        : SaxonXPathRuleQuery.getAtomicRepresentation(value));
+                }
+
+                List<Node> nodes = new ArrayList<>();
+                SequenceIterator iterator = xpathExpression.iterate(dynamicContext);
+                for (Item current = iterator.next(); current != null; current = iterator.next()) {
+                    if (current instanceof ElementNode) {
+                        nodes.add((Node) ((ElementNode) current).getUnderlyingNode());
+                    }
+                }
+                return nodes;
+            } catch (XPathException e) {
+                throw evaluationFailed(e);
+            }
+        }
+    }
+}
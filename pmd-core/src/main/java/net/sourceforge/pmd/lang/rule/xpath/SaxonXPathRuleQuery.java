@@ -196,7 +196,7 @@ public class SaxonXPathRuleQuery extends AbstractXPathRuleQuery {
      * @param node the node from which the root node will be looked for.
      * @return the DocumentNode representing the whole AST
      */
-    private DocumentNode getDocumentNodeForRootNode(final Node node) {
+    static DocumentNode getDocumentNodeForRootNode(final Node node) {
         final Node root = getRootNode(node);
 
         DataMap<DataKey<?, ?>> userMap = root.getUserMap();
@@ -214,7 +214,7 @@ public class SaxonXPathRuleQuery extends AbstractXPathRuleQuery {
      * @param node the node from where to start traversing the tree
      * @return the root node
      */
-    private Node getRootNode(final Node node) {
+    private static Node getRootNode(final Node node) {
         Node root = node;
         while (root.getParent() != null) {
             root = root.getParent();
@@ -0,0 +1,143 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule.xpath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jaxen.BaseXPath;
+import org.jaxen.JaxenException;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.annotation.InternalApi;
+
+/**
+ * A bounded cache of {@linkplain CompiledXPath compiled XPath expressions},
+ * shared by all threads. When it's full, the least recently used expression
+ * is dropped. {@link CompiledXPath#compile(String, XPathVersion, String...)}
+ * and {@link net.sourceforge.pmd.lang.ast.Node#findChildNodesWithXPath(String)}
+ * go through the {@linkplain #getInstance() default instance}.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public final class XPathExpressionCache {
+
+    /** The maximum size of the default instance. */
+    public static final int DEFAULT_MAX_SIZE = 512;
+
+    private static final XPathExpressionCache INSTANCE = new XPathExpressionCache(DEFAULT_MAX_SIZE);
+
+    private final Map<List<Object>, CompiledXPath> expressions;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxSize Maximum number of expressions kept
+     */
+    public XPathExpressionCache(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive, got " + maxSize);
+        }
+        this.expressions = new LinkedHashMap<List<Object>, CompiledXPath>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, CompiledXPath> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache used by {@link CompiledXPath#compile(String, XPathVersion, String...)}.
+     */
+    public static XPathExpressionCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the compiled expression, compiling it if it's not in the
+     * cache.
+     *
+     * @param expression    The expression
+     * @param version       The XPath version of the expression
+     * @param variableNames Names of the variables the expression refers to
+     *
+     * @throws IllegalArgumentException If the expression is invalid
+     */
+    public CompiledXPath get(String expression, XPathVersion version, String... variableNames) {
+        List<Object> key = new ArrayList<>(variableNames.length + 2);
+        key.add(version);
+        key.add(expression);
+        key.addAll(Arrays.asList(variableNames));
+
+        CompiledXPath compiled;
+        synchronized (expressions) {
+            compiled = expressions.get(key);
+        }
+        if (compiled != null) {
+            hits.incrementAndGet();
+            return compiled;
+        }
+
+        misses.incrementAndGet();
+        // compiled outside of the lock, two threads may compile the same expression
+        compiled = CompiledXPath.create(expression, version, Arrays.asList(variableNames));
+        synchronized (expressions) {
+            expressions.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Returns the Jaxen expression used to implement {@link net.sourceforge.pmd.lang.ast.Node#findChildNodesWithXPath(String)}.
+     *
+     * @throws JaxenException If the expression is invalid
+     */
+    @InternalApi
+    public BaseXPath getJaxenXPath(String expression) throws JaxenException {
+        try {
+            return get(expression, XPathVersion.XPATH_1_0).getJaxenXPath();
+        } catch (IllegalArgumentException e) {
+            if (e.getCause() instanceof JaxenException) {
+                throw (JaxenException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /** Returns the number of lookups that found a compiled expression. */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /** Returns the number of lookups that had to compile the expression. */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /** Returns the number of expressions in the cache. */
+    public int size() {
+        synchronized (expressions) {
+            return expressions.size();
+        }
+    }
+
+    /** Removes all the expressions, and resets the counters. */
+    public void clear() {
+        synchronized (expressions) {
+            expressions.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+}
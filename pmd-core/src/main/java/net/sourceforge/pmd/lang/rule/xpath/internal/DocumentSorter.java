@@ -7,10 +7,13 @@ package net.sourceforge.pmd.lang.rule.xpath.internal;
 
 import java.util.Comparator;
 
+import net.sourceforge.pmd.lang.ast.AbstractNode;
 import net.sourceforge.pmd.lang.ast.Node;
 
 /**
- * Sorts nodes by document order.
+ * Sorts nodes by document order. Nodes of a numbered tree are compared
+ * by their {@linkplain AbstractNode#getPreorderIndex() preorder index}, other
+ * nodes by their position.
  */
 final class DocumentSorter implements Comparator<Node> {
 
@@ -29,6 +32,11 @@ final class DocumentSorter implements Comparator<Node> {
         } else if (node2 == null) {
             return 1;
         }
+        int index1 = AbstractNode.preorderIndexOf(node1);
+        int index2 = AbstractNode.preorderIndexOf(node2);
+        if (index1 >= 0 && index2 >= 0) {
+            return Integer.compare(index1, index2);
+        }
         int result = node1.getBeginLine() - node2.getBeginLine();
         if (result == 0) {
             result = node1.getBeginColumn() - node2.getBeginColumn();
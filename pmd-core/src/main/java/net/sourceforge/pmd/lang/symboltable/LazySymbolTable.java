@@ -0,0 +1,68 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.symboltable;
+
+import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.benchmark.TimedOperation;
+import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.lang.VisitorStarter;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+/**
+ * Defers the construction of the symbol table of a file until some
+ * node actually needs it. Files processed only by rules that never look
+ * at scopes or name declarations (eg most XPath rules) then skip the
+ * symbol table phase entirely.
+ *
+ * <p>The pending symbol facade is stored on the root node. This is only
+ * used for languages whose handler {@linkplain net.sourceforge.pmd.lang.AbstractLanguageVersionHandler#supportsLazySymbolTable() supports it}.
+ *
+ * @since 6.27.0
+ */
+@InternalApi
+public final class LazySymbolTable {
+
+    private static final SimpleDataKey<VisitorStarter> PENDING_FACADE = DataMap.simpleDataKey("pmd.lazySymbolFacade");
+
+    private LazySymbolTable() {
+        // utility class
+    }
+
+    /**
+     * Registers the symbol facade to run on the root node the first time
+     * {@link #ensureBuilt(Node)} is called.
+     *
+     * @param rootNode     Root of the file
+     * @param symbolFacade Symbol facade of the language
+     */
+    public static void defer(Node rootNode, VisitorStarter symbolFacade) {
+        rootNode.getUserMap().set(PENDING_FACADE, symbolFacade);
+    }
+
+    /**
+     * Builds the symbol table of the file if it has been deferred and
+     * not built yet. The time spent is accounted to the symbol table
+     * phase, not to the rule that triggered it.
+     *
+     * @param rootNode Root of the file
+     *
+     * @return True if the symbol table has been built by this call
+     */
+    public static boolean ensureBuilt(Node rootNode) {
+        VisitorStarter facade = rootNode.getUserMap().get(PENDING_FACADE);
+        if (facade == null) {
+            return false;
+        }
+        // clear it first, the facade itself queries the scopes it builds
+        rootNode.getUserMap().set(PENDING_FACADE, null);
+        try (TimedOperation to = TimeTracker.startOperation(TimedOperationCategory.SYMBOL_TABLE)) {
+            facade.start(rootNode);
+        }
+        return true;
+    }
+}
@@ -4,7 +4,10 @@
 
 package net.sourceforge.pmd.processor;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -24,6 +27,8 @@ import net.sourceforge.pmd.SourceCodeProcessor;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.cache.ChangedFiles;
+import net.sourceforge.pmd.cache.NoopAnalysisCache;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.util.datasource.DataSource;
 
@@ -105,37 +110,120 @@ public abstract class AbstractPMDProcessor {
         return brokenRules;
     }
 
+    public void processFiles(RuleSetFactory ruleSetFactory, List<DataSource> files, RuleContext ctx,
+            List<Renderer> renderers) {
+        processFiles(ruleSetFactory, files, Collections.<DataSource>emptyList(), ctx, renderers);
+    }
+
+    /**
+     * Analyses the given files, then the streamed files. A streamed file
+     * is analysed as soon as the iterator returns it, so the analysis can
+     * start before all the files are available.
+     *
+     * @since 6.27.0
+     */
     @SuppressWarnings("PMD.CloseResource")
     // the data sources must only be closed after the threads are finished
     // this is done manually without a try-with-resources
-    public void processFiles(RuleSetFactory ruleSetFactory, List<DataSource> files, RuleContext ctx,
-            List<Renderer> renderers) {
+    public void processFiles(RuleSetFactory ruleSetFactory, List<DataSource> files, Iterable<DataSource> streamedFiles,
+            RuleContext ctx, List<Renderer> renderers) {
+        final List<DataSource> analysedFiles = new ArrayList<>(files);
         try {
             final RuleSets rs = createRuleSets(ruleSetFactory, ctx.getReport());
             configuration.getAnalysisCache().checkValidity(rs, configuration.getClassLoader());
-            final SourceCodeProcessor processor = new SourceCodeProcessor(configuration);
-
-            for (final DataSource dataSource : files) {
-                // this is the real, canonical and absolute filename (not shortened)
-                String realFileName = dataSource.getNiceFileName(false, null);
-
-                runAnalysis(new PmdRunnable(dataSource, realFileName, renderers, ctx, rs, processor));
+            if (configuration.getChangedFilesPath() != null) {
+                configuration.getAnalysisCache().setChangedFiles(readChangedFiles(files));
             }
 
-            // render base report first - general errors
-            renderReports(renderers, ctx.getReport());
+            List<DataSource> listedFiles = files;
+            Iterable<DataSource> remainingFiles = streamedFiles;
+            final boolean multifilePrepass = configuration.isMultifilePrepass() && MultifilePrepass.isNeeded(rs);
+            if (multifilePrepass) {
+                // the first pass needs all the files, they can't be streamed
+                for (final DataSource dataSource : streamedFiles) {
+                    analysedFiles.add(dataSource);
+                }
+                listedFiles = new ArrayList<>(analysedFiles);
+                remainingFiles = Collections.emptyList();
+            }
 
-            // then add analysis results per file
-            collectReports(renderers);
+            // the state the languages keep for this analysis is dropped once all files are processed
+            try (LanguageSessions sessions = LanguageSessions.open(configuration, rs, listedFiles)) {
+                final SourceCodeProcessor processor = new SourceCodeProcessor(configuration, sessions.asMap());
+                if (multifilePrepass) {
+                    MultifilePrepass.run(configuration, listedFiles, rs, ctx, processor);
+                }
+
+                for (final DataSource dataSource : listedFiles) {
+                    runAnalysis(dataSource, renderers, ctx, rs, processor);
+                }
+                for (final DataSource dataSource : remainingFiles) {
+                    analysedFiles.add(dataSource);
+                    runAnalysis(dataSource, renderers, ctx, rs, processor);
+                }
+
+                // render base report first - general errors
+                renderReports(renderers, ctx.getReport());
+
+                // then add analysis results per file
+                collectReports(renderers);
+            }
         } finally {
             // in case we analyzed files within Zip Files/Jars, we need to close them after
             // the analysis is finished
-            for (DataSource dataSource : files) {
+            for (DataSource dataSource : analysedFiles) {
                 IOUtils.closeQuietly(dataSource);
             }
         }
     }
 
+    private void runAnalysis(DataSource dataSource, List<Renderer> renderers, RuleContext ctx, RuleSets rs,
+            SourceCodeProcessor processor) {
+        // this is the real, canonical and absolute filename (not shortened)
+        String realFileName = dataSource.getNiceFileName(false, null);
+
+        runAnalysis(new PmdRunnable(dataSource, realFileName, renderers, ctx, rs, processor));
+    }
+
+    private Set<File> readChangedFiles(List<DataSource> files) {
+        final String changedFilesPath = configuration.getChangedFilesPath();
+        if (configuration.getAnalysisCache() instanceof NoopAnalysisCache) {
+            LOG.warning("The list of changed files is ignored without an analysis cache, all files are analysed");
+        }
+        final File baseDir = configuration.getChangedFilesBaseDir() != null
+                ? new File(configuration.getChangedFilesBaseDir()).getAbsoluteFile()
+                : ChangedFiles.findWorkingTreeRoot(new File("").getAbsoluteFile());
+        final Set<File> changedFiles;
+        try {
+            changedFiles = ChangedFiles.read(new File(changedFilesPath), baseDir);
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Problem with Changed Files Path", e);
+            throw new RuntimeException("Problem with Changed Files Path: " + changedFilesPath, e);
+        }
+
+        if (!changedFiles.isEmpty() && !files.isEmpty() && !isAnyInputFile(changedFiles, files)) {
+            // most likely the paths are relative to another directory
+            LOG.warning("None of the " + changedFiles.size() + " files listed in " + changedFilesPath
+                            + " is analysed, the paths were resolved against " + baseDir
+                            + " (see -changedfiles-basedir)");
+        }
+        return changedFiles;
+    }
+
+    private static boolean isAnyInputFile(Set<File> changedFiles, List<DataSource> files) {
+        final Set<String> changedPaths = new HashSet<>();
+        for (File file : changedFiles) {
+            changedPaths.add(file.getPath());
+        }
+        for (DataSource dataSource : files) {
+            // the same name as the analysis cache uses
+            if (changedPaths.contains(new File(dataSource.getNiceFileName(false, null)).getPath())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected abstract void runAnalysis(PmdRunnable runnable);
 
     protected abstract void collectReports(List<Renderer> renderers);
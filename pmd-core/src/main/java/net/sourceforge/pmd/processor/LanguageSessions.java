@@ -0,0 +1,105 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.processor;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.lang.AbstractLanguageVersionHandler;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageSession;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.LanguageVersionHandler;
+import net.sourceforge.pmd.util.datasource.DataSource;
+import net.sourceforge.pmd.util.datasource.ReaderDataSource;
+
+/**
+ * The sessions of the languages of the rules, for one analysis.
+ */
+final class LanguageSessions implements Closeable {
+
+    private final Map<Language, LanguageSession> sessions;
+
+    private LanguageSessions(Map<Language, LanguageSession> sessions) {
+        this.sessions = Collections.unmodifiableMap(sessions);
+    }
+
+    /**
+     * Opens the sessions of the languages of the rules, and prepares each
+     * of them with the given files of its language. The files that can
+     * only be read once are left out.
+     */
+    static LanguageSessions open(PMDConfiguration configuration, RuleSets ruleSets, List<DataSource> files) {
+        Set<Language> languages = new HashSet<>();
+        for (Rule rule : ruleSets.getAllRules()) {
+            languages.add(rule.getLanguage());
+        }
+
+        Map<Language, LanguageSession> sessions = new HashMap<>();
+        for (Language language : languages) {
+            LanguageVersion version = configuration.getLanguageVersionDiscoverer().getDefaultLanguageVersion(language);
+            LanguageVersionHandler handler = version.getLanguageVersionHandler();
+            LanguageSession session = handler instanceof AbstractLanguageVersionHandler
+                ? ((AbstractLanguageVersionHandler) handler).openSession(configuration)
+                : null;
+            if (session != null) {
+                sessions.put(language, session);
+            }
+        }
+        if (sessions.isEmpty()) {
+            return new LanguageSessions(sessions);
+        }
+
+        Map<Language, List<DataSource>> filesByLanguage = new HashMap<>();
+        for (DataSource file : files) {
+            if (file instanceof ReaderDataSource) {
+                // can only be read once
+                continue;
+            }
+            String fileName = file.getNiceFileName(false, null);
+            LanguageVersion version = configuration.getLanguageVersionOfFile(fileName);
+            if (version != null && sessions.containsKey(version.getLanguage())
+                && ruleSets.applies(new File(fileName))) {
+                List<DataSource> languageFiles = filesByLanguage.get(version.getLanguage());
+                if (languageFiles == null) {
+                    languageFiles = new ArrayList<>();
+                    filesByLanguage.put(version.getLanguage(), languageFiles);
+                }
+                languageFiles.add(file);
+            }
+        }
+        LanguageSessions result = new LanguageSessions(sessions);
+        try {
+            for (Map.Entry<Language, List<DataSource>> entry : filesByLanguage.entrySet()) {
+                sessions.get(entry.getKey()).prepare(entry.getValue());
+            }
+        } catch (RuntimeException e) {
+            result.close();
+            throw e;
+        }
+        return result;
+    }
+
+    Map<Language, LanguageSession> asMap() {
+        return sessions;
+    }
+
+    @Override
+    public void close() {
+        for (LanguageSession session : sessions.values()) {
+            session.close();
+        }
+    }
+}
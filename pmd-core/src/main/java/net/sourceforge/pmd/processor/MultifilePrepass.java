@@ -0,0 +1,134 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.processor;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.SourceCodeProcessor;
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.lang.AnalysisPhase;
+import net.sourceforge.pmd.util.datasource.DataSource;
+
+/**
+ * First pass of the analysis when {@link PMDConfiguration#isMultifilePrepass()}
+ * is set: gathers the project-wide data of the multifile rules from all
+ * the files, before the rules are applied. Each file is parsed and dropped
+ * on its own, with as many threads as the analysis.
+ */
+final class MultifilePrepass {
+
+    private static final Logger LOG = Logger.getLogger(MultifilePrepass.class.getName());
+
+    private MultifilePrepass() {
+    }
+
+    /**
+     * Returns true if some rule needs the multifile data.
+     */
+    static boolean isNeeded(RuleSets ruleSets) {
+        for (Rule rule : ruleSets.getAllRules()) {
+            if (AnalysisPhase.MULTIFILE.isRequiredBy(rule)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indexes the files. Files that can't be read or parsed are skipped,
+     * the errors are reported by the second pass.
+     */
+    static void run(PMDConfiguration configuration, List<DataSource> files, RuleSets ruleSets,
+                    RuleContext ctx, SourceCodeProcessor processor) {
+        List<Callable<Void>> tasks = new ArrayList<>(files.size());
+        for (DataSource dataSource : files) {
+            tasks.add(new IndexTask(configuration, dataSource, ruleSets, ctx, processor));
+        }
+
+        if (configuration.getThreads() == 0) {
+            for (Callable<Void> task : tasks) {
+                call(task);
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(configuration.getThreads(), new PmdThreadFactory());
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Multifile prepass failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void call(Callable<Void> task) {
+        try {
+            task.call();
+        } catch (Exception e) {
+            throw new IllegalStateException("Multifile prepass failed", e);
+        }
+    }
+
+    private static final class IndexTask implements Callable<Void> {
+
+        private final PMDConfiguration configuration;
+        private final DataSource dataSource;
+        private final RuleSets ruleSets;
+        private final RuleContext ruleContext;
+        private final SourceCodeProcessor processor;
+
+        IndexTask(PMDConfiguration configuration, DataSource dataSource, RuleSets ruleSets,
+                  RuleContext ruleContext, SourceCodeProcessor processor) {
+            this.configuration = configuration;
+            this.dataSource = dataSource;
+            this.ruleSets = ruleSets;
+            this.ruleContext = ruleContext;
+            this.processor = processor;
+        }
+
+        @Override
+        public Void call() {
+            TimeTracker.initThread();
+            String fileName = dataSource.getNiceFileName(false, null);
+            RuleContext ctx = new RuleContext(ruleContext);
+            ctx.setReport(new Report());
+            ctx.setSourceCodeFile(new File(fileName));
+            ctx.setLanguageVersion(null);
+
+            try (InputStream stream = new BufferedInputStream(dataSource.getInputStream());
+                 Reader reader = new InputStreamReader(stream, configuration.getSourceEncoding())) {
+                processor.indexSourceCode(reader, ruleSets, ctx);
+            } catch (Exception e) {
+                LOG.log(Level.FINE, "Skipping " + fileName + " in the multifile prepass", e);
+            } finally {
+                TimeTracker.finishThread();
+            }
+            return null;
+        }
+    }
+}
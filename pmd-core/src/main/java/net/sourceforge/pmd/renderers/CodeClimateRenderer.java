@@ -35,7 +35,7 @@ public class CodeClimateRenderer extends AbstractIncrementingRenderer {
 
     // Note: required by https://github.com/codeclimate/platform/blob/master/spec/analyzers/SPEC.md
     protected static final String NULL_CHARACTER = "\u0000";
-    protected static final List<String> INTERNAL_DEV_PROPERTIES = Arrays.asList("version", "xpath");
+    protected static final List<String> INTERNAL_DEV_PROPERTIES = Arrays.asList("version", "xpath", "analysisPhases");
     private static final String PMD_PROPERTIES_URL = getPmdPropertiesURL();
     private Rule rule;
 
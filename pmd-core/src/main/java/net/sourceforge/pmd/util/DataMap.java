@@ -17,7 +17,8 @@ import java.util.Map;
  */
 public final class DataMap<K> {
 
-    private final Map<DataKey<? extends K, ?>, Object> map = new IdentityHashMap<>();
+    // allocated on the first write, most maps (eg of AST nodes) are never used
+    private Map<DataKey<? extends K, ?>, Object> map;
 
     private DataMap() {
 
@@ -34,6 +35,9 @@ public final class DataMap<K> {
      */
     @SuppressWarnings("unchecked")
     public <T> T set(DataKey<? extends K, ? super T> key, T data) {
+        if (map == null) {
+            map = new IdentityHashMap<>(4);
+        }
         return (T) map.put(key, data);
     }
 
@@ -47,7 +51,7 @@ public final class DataMap<K> {
      */
     @SuppressWarnings("unchecked")
     public <T> T get(DataKey<? extends K, ? super T> key) {
-        return (T) map.get(key);
+        return map == null ? null : (T) map.get(key);
     }
 
     /**
@@ -58,7 +62,7 @@ public final class DataMap<K> {
      * @return True if some value is set
      */
     public boolean isSet(DataKey<? extends K, ?> key) {
-        return map.containsKey(key);
+        return map != null && map.containsKey(key);
     }
 
     public static <K> DataMap<K> newDataMap() {
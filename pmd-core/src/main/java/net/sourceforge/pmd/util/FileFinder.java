@@ -6,9 +6,18 @@ package net.sourceforge.pmd.util;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.commons.io.comparator.PathFileComparator;
 
@@ -22,10 +31,12 @@ import net.sourceforge.pmd.annotation.InternalApi;
 @InternalApi
 public class FileFinder {
 
-    private FilenameFilter filter;
-
     /**
-     * Searches for files in a given directory.
+     * Searches for files in a given directory. The subdirectories are
+     * listed in parallel, the files are returned in the same order as
+     * a sequential depth-first walk of the sorted directory entries.
+     * The filter is also applied to the subdirectories, those it rejects
+     * are not walked.
      *
      * @param dir     the directory to search files
      * @param filter  the filename filter that can optionally be passed to get files that match this filter
@@ -33,32 +44,72 @@ public class FileFinder {
      * @return list of files from the given directory
      */
     public List<File> findFilesFrom(File dir, FilenameFilter filter, boolean recurse) {
-        this.filter = filter;
-        List<File> files = new ArrayList<>();
-        scanDirectory(dir, files, recurse);
+        if (!recurse) {
+            return new DirectoryScan(dir, filter, false).compute();
+        }
 
-        return files;
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            return pool.invoke(new DirectoryScan(dir, filter, true));
+        } finally {
+            pool.shutdown();
+        }
     }
 
     /**
-     * Implements a tail recursive file scanner
+     * Lists one directory, and forks a scan for each of its subdirectories.
      */
-    private void scanDirectory(File dir, List<File> list, boolean recurse) {
-        File[] candidates = dir.listFiles(filter);
-        if (candidates == null) {
-            return;
+    private static final class DirectoryScan extends RecursiveTask<List<File>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final File dir;
+        private final transient FilenameFilter filter;
+        private final boolean recurse;
+
+        DirectoryScan(File dir, FilenameFilter filter, boolean recurse) {
+            this.dir = dir;
+            this.filter = filter;
+            this.recurse = recurse;
         }
 
-        Arrays.sort(candidates, PathFileComparator.PATH_INSENSITIVE_COMPARATOR);
+        @Override
+        protected List<File> compute() {
+            List<File> candidates = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir.toPath())) {
+                for (Path entry : entries) {
+                    String name = entry.getFileName().toString();
+                    if (filter == null || filter.accept(dir, name)) {
+                        candidates.add(new File(dir, name));
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException | InvalidPathException e) {
+                // same as File#listFiles, an unreadable directory has no files
+                return new ArrayList<>();
+            }
+
+            Collections.sort(candidates, PathFileComparator.PATH_INSENSITIVE_COMPARATOR);
+
+            boolean[] directories = new boolean[candidates.size()];
+            List<DirectoryScan> subdirectories = new ArrayList<>();
+            for (int i = 0; i < directories.length; i++) {
+                directories[i] = candidates.get(i).isDirectory();
+                if (directories[i] && recurse) {
+                    subdirectories.add(new DirectoryScan(candidates.get(i), filter, true));
+                }
+            }
+            invokeAll(subdirectories);
 
-        for (File tmp : candidates) {
-            if (tmp.isDirectory()) {
-                if (recurse) {
-                    scanDirectory(tmp, list, true);
+            List<File> files = new ArrayList<>();
+            Iterator<DirectoryScan> scans = subdirectories.iterator();
+            for (int i = 0; i < directories.length; i++) {
+                if (!directories[i]) {
+                    files.add(candidates.get(i));
+                } else if (recurse) {
+                    files.addAll(scans.next().join());
                 }
-            } else {
-                list.add(tmp);
             }
+            return files;
         }
     }
 }
@@ -5,6 +5,7 @@
 package net.sourceforge.pmd.util;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.io.FileNotFoundException;
 import java.io.FilenameFilter;
 import java.io.IOException;
@@ -92,15 +93,33 @@ public final class FileUtil {
      * @return A list of DataSources, one for each file collected.
      */
     public static List<DataSource> collectFiles(String fileLocations, FilenameFilter filenameFilter) {
+        return collectFiles(fileLocations, filenameFilter, null);
+    }
+
+    /**
+     * Collects a list of DataSources like {@link #collectFiles(String, FilenameFilter)},
+     * but doesn't walk the directories rejected by the directory filter.
+     *
+     * @param fileLocations
+     *            A comma-separated list of file locations.
+     * @param filenameFilter
+     *            The FilenameFilter to apply to files.
+     * @param directoryFilter
+     *            The FileFilter to apply to the directories found while walking
+     *            the file locations, may be null.
+     * @return A list of DataSources, one for each file collected.
+     */
+    public static List<DataSource> collectFiles(String fileLocations, FilenameFilter filenameFilter,
+            FileFilter directoryFilter) {
         List<DataSource> dataSources = new ArrayList<>();
         for (String fileLocation : fileLocations.split(",")) {
-            collect(dataSources, fileLocation, filenameFilter);
+            collect(dataSources, fileLocation, filenameFilter, directoryFilter);
         }
         return dataSources;
     }
 
     private static List<DataSource> collect(List<DataSource> dataSources, String fileLocation,
-            FilenameFilter filenameFilter) {
+            FilenameFilter filenameFilter, final FileFilter directoryFilter) {
         File file = new File(fileLocation);
         if (!file.exists()) {
             throw new RuntimeException("File " + file.getName() + " doesn't exist");
@@ -116,12 +135,12 @@ public final class FileUtil {
                     Enumeration<? extends ZipEntry> e = zipFile.entries();
                     while (e.hasMoreElements()) {
                         ZipEntry zipEntry = e.nextElement();
-                        if (filenameFilter.accept(null, zipEntry.getName())) {
+                        if (!zipEntry.isDirectory() && filenameFilter.accept(null, zipEntry.getName())) {
                             dataSources.add(new ZipDataSource(zipFile, zipEntry));
                         }
                     }
                 } catch (IOException ze) {
-                    throw new RuntimeException("Archive file " + file.getName() + " can't be opened");
+                    throw new RuntimeException("Archive file " + file.getName() + " can't be opened", ze);
                 }
             } else {
                 dataSources.add(new FileDataSource(file));
@@ -129,9 +148,17 @@ public final class FileUtil {
         } else {
             // Match files, or directories which are not excluded.
             // FUTURE Make the excluded directories be some configurable option
-            Filter<File> filter = new OrFilter<>(Filters.toFileFilter(filenameFilter),
-                    new AndFilter<>(Filters.getDirectoryFilter(), Filters.toNormalizedFileFilter(
-                            Filters.buildRegexFilterExcludeOverInclude(null, Collections.singletonList("SCCS")))));
+            Filter<File> directories = new AndFilter<>(Filters.getDirectoryFilter(), Filters.toNormalizedFileFilter(
+                    Filters.buildRegexFilterExcludeOverInclude(null, Collections.singletonList("SCCS"))));
+            if (directoryFilter != null) {
+                directories = new AndFilter<>(directories, new Filter<File>() {
+                    @Override
+                    public boolean filter(File dir) {
+                        return directoryFilter.accept(dir);
+                    }
+                });
+            }
+            Filter<File> filter = new OrFilter<>(Filters.toFileFilter(filenameFilter), directories);
             FileFinder finder = new FileFinder();
             List<File> files = finder.findFilesFrom(file, Filters.toFilenameFilter(filter), true);
             for (File f : files) {
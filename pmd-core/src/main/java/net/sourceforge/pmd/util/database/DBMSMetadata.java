@@ -15,6 +15,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -61,6 +62,20 @@ public class DBMSMetadata {
      */
     private static final String GET_SOURCE_CODE_STATEMENT = "getSourceCodeStatement";
 
+    /**
+     * Optional DBType property specifying a query to retrieve the code of
+     * several Source Objects of the same schema and type at once.
+     *
+     * <p>
+     * The query takes the schema and the type as parameters, followed by
+     * the names, which replace the {@value #NAMES_PLACEHOLDER} placeholder.
+     * It returns the columns NAME and TEXT, ordered by name and line.
+     * </p>
+     */
+    private static final String GET_BULK_SOURCE_CODE_STATEMENT = "getBulkSourceCodeStatement";
+
+    private static final String NAMES_PLACEHOLDER = ":names";
+
     /**
      * DBURI
      */
@@ -81,6 +96,11 @@ public class DBMSMetadata {
      */
     protected String returnSourceCodeStatement = null;
 
+    /**
+     * Query to return the source code of several objects.
+     */
+    protected String returnBulkSourceCodeStatement = null;
+
     /**
      * CallableStatement to return source code.
      */
@@ -107,6 +127,19 @@ public class DBMSMetadata {
         connection = c;
     }
 
+    /**
+     * Wrap an existing connection to the database of the given DBURI.
+     *
+     * @param c
+     *            JDBC Connection
+     * @param dbURI
+     *            {@link DBURI } specifying the source code to retrieve
+     */
+    public DBMSMetadata(Connection c, DBURI dbURI) {
+        connection = c;
+        initStatements(dbURI);
+    }
+
     /**
      * Define database connection and source code to retrieve with explicit
      * database username and password.
@@ -217,15 +250,21 @@ public class DBMSMetadata {
         return connection;
     }
 
-    private String init(DBURI dbURI) throws ClassNotFoundException {
+    private void initStatements(DBURI dbURI) {
         this.dburi = dbURI;
         this.returnSourceCodeObjectsStatement = dbURI.getDbType().getProperties()
                 .getProperty(GET_SOURCE_OBJECTS_STATEMENT);
         this.returnSourceCodeStatement = dbURI.getDbType().getProperties().getProperty(GET_SOURCE_CODE_STATEMENT);
+        this.returnBulkSourceCodeStatement = dbURI.getDbType().getProperties()
+                .getProperty(GET_BULK_SOURCE_CODE_STATEMENT);
         this.returnType = dbURI.getSourceCodeType();
         if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.fine("returnSourceCodeStatement=" + returnSourceCodeStatement + ", returnType=" + returnType);
         }
+    }
+
+    private String init(DBURI dbURI) throws ClassNotFoundException {
+        initStatements(dbURI);
 
         String driverClass = dbURI.getDriverClass();
         String urlString = dbURI.getURL().toString();
@@ -293,6 +332,72 @@ public class DBMSMetadata {
                 : new java.io.StringReader(result.toString());
     }
 
+    /**
+     * Return true if the source code of several objects can be retrieved
+     * with a single query, see {@link #getSourceCode(String, List, String)}.
+     */
+    public boolean hasBulkSourceCodeStatement() {
+        return returnBulkSourceCodeStatement != null;
+    }
+
+    /**
+     * Return the source code text of several objects of the same type
+     * and schema, with a single query.
+     *
+     * @param objectType
+     *            Source Code type
+     * @param names
+     *            Source Code names
+     * @param schema
+     *            Owner of the code
+     * @return Source code text by name, for the objects found
+     * @throws SQLException
+     *             on failing to retrieve the source Code text
+     */
+    public Map<String, String> getSourceCode(String objectType, List<String> names, String schema)
+            throws SQLException {
+        StringBuilder placeholders = new StringBuilder(names.size() * 3);
+        for (int i = 0; i < names.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        String query = returnBulkSourceCodeStatement.replace(NAMES_PLACEHOLDER, placeholders);
+        if (LOGGER.isLoggable(Level.FINEST)) {
+            LOGGER.finest("getSourceCode: bulk query=\"" + query + "\"");
+        }
+
+        Map<String, String> sources = new LinkedHashMap<>();
+        try (PreparedStatement statement = getConnection().prepareStatement(query)) {
+            statement.setString(1, schema);
+            statement.setString(2, objectType);
+            for (int i = 0; i < names.size(); i++) {
+                statement.setString(3 + i, names.get(i));
+            }
+
+            try (ResultSet lines = statement.executeQuery()) {
+                String currentName = null;
+                StringBuilder currentSource = new StringBuilder();
+                while (lines.next()) {
+                    String name = lines.getString("NAME");
+                    if (!name.equals(currentName)) {
+                        if (currentName != null) {
+                            sources.put(currentName, currentSource.toString());
+                        }
+                        currentName = name;
+                        currentSource.setLength(0);
+                    }
+                    String text = lines.getString("TEXT");
+                    if (text != null) {
+                        currentSource.append(text);
+                    }
+                }
+                if (currentName != null) {
+                    sources.put(currentName, currentSource.toString());
+                }
+            }
+        }
+        return sources;
+    }
+
     /**
      * Return all source code objects associated with any associated DBURI.
      *
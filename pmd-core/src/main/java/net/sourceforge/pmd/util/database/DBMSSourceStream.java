@@ -0,0 +1,318 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.util.database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.util.datasource.DataSource;
+import net.sourceforge.pmd.util.datasource.ReaderDataSource;
+
+/**
+ * Retrieves the source code of database objects in the background, and
+ * returns each object as soon as its code has arrived.
+ *
+ * <p>The objects are grouped by schema and type, and split into batches.
+ * The batches are fetched in parallel over a small pool of connections.
+ * If the {@link DBType} defines a bulk query (see {@link DBMSMetadata#hasBulkSourceCodeStatement()}),
+ * the code of each batch is retrieved with a single query, otherwise object
+ * by object.
+ *
+ * <p>The stream can be iterated only once. Iteration blocks until the
+ * next object is available.
+ *
+ * @since 6.27.0
+ */
+@Experimental
+public class DBMSSourceStream implements Iterable<DataSource>, Closeable {
+
+    public static final int DEFAULT_CONNECTIONS = 4;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static final Logger LOG = Logger.getLogger(DBMSSourceStream.class.getName());
+
+    /** Marks the end of the stream. */
+    private static final DataSource END = new ReaderDataSource(new StringReader(""), "");
+
+    private final BlockingQueue<DataSource> sources = new LinkedBlockingQueue<>();
+    private final BlockingQueue<DBMSMetadata> pool = new LinkedBlockingQueue<>();
+    private final List<DBMSMetadata> connections = new ArrayList<>();
+    private final ExecutorService executor;
+    private final AtomicInteger remainingBatches;
+    private final int sourceObjectCount;
+    private boolean iterated;
+
+    /**
+     * Opens connections to the database, but doesn't wait for them to
+     * retrieve any code.
+     *
+     * @param sourceObjects  Objects whose code to retrieve
+     * @param maxConnections Maximum number of connections to open
+     * @param batchSize      Maximum number of objects retrieved at once
+     * @param factory        Opens the connections
+     */
+    DBMSSourceStream(List<SourceObject> sourceObjects, int maxConnections, int batchSize,
+                     MetadataFactory factory) throws SQLException, ClassNotFoundException {
+        this(null, sourceObjects, maxConnections, batchSize, factory);
+    }
+
+    private DBMSSourceStream(DBMSMetadata first, List<SourceObject> sourceObjects, int maxConnections,
+                             int batchSize, MetadataFactory factory) throws SQLException, ClassNotFoundException {
+        List<List<SourceObject>> batches = split(sourceObjects, Math.max(1, batchSize));
+        int connectionCount = Math.max(1, Math.min(maxConnections, batches.size()));
+
+        if (first != null) {
+            connections.add(first);
+        }
+        try {
+            while (connections.size() < connectionCount) {
+                connections.add(factory.create());
+            }
+        } catch (SQLException | ClassNotFoundException | RuntimeException e) {
+            closeConnections();
+            throw e;
+        }
+        pool.addAll(connections);
+
+        sourceObjectCount = sourceObjects.size();
+        remainingBatches = new AtomicInteger(batches.size());
+        executor = Executors.newFixedThreadPool(connectionCount, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "PmdDBMSSource " + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        if (batches.isEmpty()) {
+            sources.add(END);
+        }
+        for (final List<SourceObject> batch : batches) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    fetch(batch);
+                }
+            });
+        }
+    }
+
+    /**
+     * Lists the source objects specified by the DBURI, and starts
+     * retrieving their code.
+     *
+     * @param dbURI          DBURI specifying the objects
+     * @param maxConnections Maximum number of connections to open
+     * @param batchSize      Maximum number of objects retrieved at once
+     *
+     * @throws SQLException           on failing to connect to the database
+     * @throws ClassNotFoundException on failing to locate the JDBC driver class
+     */
+    public static DBMSSourceStream open(final DBURI dbURI, int maxConnections, int batchSize)
+            throws SQLException, ClassNotFoundException {
+        DBMSMetadata first = new DBMSMetadata(dbURI);
+        try {
+            List<SourceObject> sourceObjects = first.getSourceObjectList();
+            LOG.log(Level.FINE, "Located {0} database source objects", sourceObjects.size());
+            return new DBMSSourceStream(first, sourceObjects, maxConnections, batchSize, new MetadataFactory() {
+                @Override
+                public DBMSMetadata create() throws SQLException, ClassNotFoundException {
+                    return new DBMSMetadata(dbURI);
+                }
+            });
+        } catch (SQLException | ClassNotFoundException | RuntimeException e) {
+            first.getConnection().close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of source objects whose code is retrieved.
+     */
+    public int getSourceObjectCount() {
+        return sourceObjectCount;
+    }
+
+    private static List<List<SourceObject>> split(List<SourceObject> sourceObjects, int batchSize) {
+        Map<String, List<SourceObject>> bySchemaAndType = new LinkedHashMap<>();
+        for (SourceObject sourceObject : sourceObjects) {
+            String key = sourceObject.getSchema() + '\u0000' + sourceObject.getType();
+            List<SourceObject> group = bySchemaAndType.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                bySchemaAndType.put(key, group);
+            }
+            group.add(sourceObject);
+        }
+
+        List<List<SourceObject>> batches = new ArrayList<>();
+        for (List<SourceObject> group : bySchemaAndType.values()) {
+            for (int i = 0; i < group.size(); i += batchSize) {
+                batches.add(group.subList(i, Math.min(group.size(), i + batchSize)));
+            }
+        }
+        return batches;
+    }
+
+    private void fetch(List<SourceObject> batch) {
+        DBMSMetadata metadata = null;
+        try {
+            metadata = pool.take();
+            if (metadata.hasBulkSourceCodeStatement()) {
+                fetchBulk(metadata, batch);
+            } else {
+                fetchOneByOne(metadata, batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (metadata != null) {
+                pool.add(metadata);
+            }
+            if (remainingBatches.decrementAndGet() == 0) {
+                sources.add(END);
+            }
+        }
+    }
+
+    private void fetchBulk(DBMSMetadata metadata, List<SourceObject> batch) {
+        SourceObject first = batch.get(0);
+        List<String> names = new ArrayList<>(batch.size());
+        for (SourceObject sourceObject : batch) {
+            names.add(sourceObject.getName());
+        }
+
+        Map<String, String> code;
+        try {
+            code = metadata.getSourceCode(first.getType(), names, first.getSchema());
+        } catch (SQLException ex) {
+            LOG.log(Level.WARNING, "Cannot get SourceCode of " + batch.size() + " " + first.getType()
+                + " objects of " + first.getSchema() + " at once - retrying one by one ...", ex);
+            fetchOneByOne(metadata, batch);
+            return;
+        }
+
+        for (SourceObject sourceObject : batch) {
+            String source = code.get(sourceObject.getName());
+            if (source == null) {
+                LOG.log(Level.WARNING, "Cannot get SourceCode for {0}  - skipping ...",
+                        sourceObject.getPseudoFileName());
+            } else {
+                add(sourceObject, source);
+            }
+        }
+    }
+
+    private void fetchOneByOne(DBMSMetadata metadata, List<SourceObject> batch) {
+        for (SourceObject sourceObject : batch) {
+            String falseFilePath = sourceObject.getPseudoFileName();
+            try {
+                // read it now, as the connection is used for the next object
+                add(sourceObject, IOUtils.toString(metadata.getSourceCode(sourceObject)));
+            } catch (SQLException | IOException ex) {
+                LOG.log(Level.WARNING, "Cannot get SourceCode for " + falseFilePath + "  - skipping ...", ex);
+            }
+        }
+    }
+
+    private void add(SourceObject sourceObject, String source) {
+        String falseFilePath = sourceObject.getPseudoFileName();
+        LOG.log(Level.FINEST, "Adding database source object {0}", falseFilePath);
+        sources.add(new ReaderDataSource(new StringReader(source), falseFilePath));
+    }
+
+    @Override
+    public synchronized Iterator<DataSource> iterator() {
+        if (iterated) {
+            throw new IllegalStateException("The database sources can be iterated only once");
+        }
+        iterated = true;
+
+        return new Iterator<DataSource>() {
+            private DataSource next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = sources.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        next = END;
+                    }
+                }
+                if (next == END) {
+                    // the end may be seen several times
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public DataSource next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                DataSource current = next;
+                next = null;
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Stops retrieving code and closes the connections.
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        closeConnections();
+    }
+
+    private void closeConnections() {
+        for (DBMSMetadata metadata : connections) {
+            try {
+                metadata.getConnection().close();
+            } catch (SQLException e) {
+                LOG.log(Level.FINE, "Cannot close the connection", e);
+            }
+        }
+    }
+
+    /**
+     * Opens a connection to the database.
+     */
+    interface MetadataFactory {
+
+        DBMSMetadata create() throws SQLException, ClassNotFoundException;
+    }
+}
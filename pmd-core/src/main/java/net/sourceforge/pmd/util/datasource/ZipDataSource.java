@@ -13,6 +13,9 @@ import net.sourceforge.pmd.util.datasource.internal.AbstractDataSource;
 
 /**
  * DataSource implementation to read data from an entry in a zip or jar file.
+ * The data sources of the entries of an archive share the same {@link ZipFile},
+ * which supports reading several entries concurrently. The entry is named
+ * {@code archive!/path}, like in a jar URL.
  */
 public class ZipDataSource extends AbstractDataSource {
     private final ZipFile zipFile;
@@ -36,8 +39,7 @@ public class ZipDataSource extends AbstractDataSource {
 
     @Override
     public String getNiceFileName(boolean shortNames, String inputFileName) {
-        // FIXME: this could probably be done better
-        return zipFile.getName() + ":" + zipEntry.getName();
+        return zipFile.getName() + "!/" + zipEntry.getName();
     }
 
     @Override
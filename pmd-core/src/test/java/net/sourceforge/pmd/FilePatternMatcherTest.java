@@ -0,0 +1,87 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.util.filter.Filter;
+import net.sourceforge.pmd.util.filter.Filters;
+
+public class FilePatternMatcherTest {
+
+    private static final List<String> PATHS = Arrays.asList("/src/Foo.java", "/src/generated/Bar.java",
+        "/src/generated/deep/Baz.java", "/src/test/FooTest.java", "/other/Foo.java", "C:\\src\\generated\\Win.java",
+        "/src/a.b/Dotted.java", "/src/aa/Twice.java");
+
+    @Test
+    public void testSameResultsAsTheFilters() {
+        List<List<String>> excludes = Arrays.asList(
+            Arrays.asList(".*/generated/.*"),
+            Arrays.asList(".*Test.java", ".*/generated/.*"),
+            Arrays.asList(".*/(a)\\1/.*", "(?i).*/FOO.java", ".*/a\\.b/.*"),
+            Arrays.asList(".*/\\Q.\\E.*", "^.*Bar\\.java$"),
+            Collections.<String>emptyList());
+        List<List<String>> includes = Arrays.asList(
+            Collections.<String>emptyList(),
+            Arrays.asList(".*/deep/.*"),
+            Arrays.asList(".*Foo.*", "# not a comment"));
+
+        for (List<String> exclude : excludes) {
+            for (List<String> include : includes) {
+                @SuppressWarnings("deprecation")
+                Filter<File> filter = Filters.toNormalizedFileFilter(
+                    Filters.buildRegexFilterIncludeOverExclude(include, exclude));
+                FilePatternMatcher matcher = new FilePatternMatcher(compile(include), compile(exclude));
+                for (String path : PATHS) {
+                    String message = path + " include " + include + " exclude " + exclude;
+                    assertEquals(message, filter.filter(new File(path)), matcher.applies(new File(path)));
+                    // the second time comes from the cache
+                    assertEquals(message, filter.filter(new File(path)), matcher.applies(new File(path)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testExcludedDirectories() {
+        FilePatternMatcher matcher = new FilePatternMatcher(Collections.<Pattern>emptyList(),
+                                                            compile(Arrays.asList(".*/generated/.*", ".*Test.java")));
+        assertTrue(matcher.canExcludeDirectories());
+        assertTrue(matcher.excludesDirectory("/src/generated/"));
+        assertTrue(matcher.excludesDirectory("/src/deep/generated/"));
+        assertFalse(matcher.excludesDirectory("/src/"));
+        assertFalse(matcher.excludesDirectory("/src/generated-sources/"));
+    }
+
+    @Test
+    public void testNoDirectoryExclusionWithIncludesOrAlternatives() {
+        assertFalse(new FilePatternMatcher(compile(Arrays.asList(".*/deep/.*")),
+                                           compile(Arrays.asList(".*/generated/.*"))).canExcludeDirectories());
+        // the .* only applies to the second alternative
+        assertFalse(new FilePatternMatcher(Collections.<Pattern>emptyList(),
+                                           compile(Arrays.asList("/src/|.*/generated/.*"))).canExcludeDirectories());
+        assertFalse(new FilePatternMatcher(Collections.<Pattern>emptyList(),
+                                           compile(Arrays.asList(".*Foo\\.*"))).canExcludeDirectories());
+    }
+
+    private static List<Pattern> compile(List<String> regexes) {
+        List<Pattern> patterns = new ArrayList<>();
+        for (String regex : regexes) {
+            patterns.add(Pattern.compile(regex));
+        }
+        return patterns;
+    }
+}
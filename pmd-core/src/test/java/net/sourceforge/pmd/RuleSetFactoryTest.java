@@ -29,6 +29,7 @@ import net.sourceforge.pmd.lang.DummyLanguageModule;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.rule.MockRule;
 import net.sourceforge.pmd.lang.rule.RuleReference;
+import net.sourceforge.pmd.lang.rule.XPathRule;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
 import net.sourceforge.pmd.util.ResourceLoader;
 
@@ -1255,6 +1256,37 @@ public class RuleSetFactoryTest {
         return rs.getRules().iterator().next();
     }
 
+    @Test
+    public void testReferencedRuleSetIsSharedWithoutSharingOverrides() throws RuleSetNotFoundException {
+        RuleSetFactory rsf = RulesetsFactoryUtils.defaultFactory();
+        RuleSet overriding = rsf.createRuleSet(createRuleSetReferenceId("<?xml version=\"1.0\"?>\n"
+                + "<ruleset name=\"test\">\n"
+                + "  <description>ruleset desc</description>\n"
+                + "  <rule ref=\"rulesets/dummy/basic.xml/SampleXPathRule\">\n"
+                + "    <priority>1</priority>\n"
+                + "    <properties><property name=\"xpath\" value=\"//overridden\"/></properties>\n"
+                + "  </rule>\n"
+                + "  <rule ref=\"rulesets/dummy/basic.xml\"><priority>2</priority></rule>\n"
+                + "</ruleset>"));
+        RuleSet plain = rsf.createRuleSet(createRuleSetReferenceId("<?xml version=\"1.0\"?>\n"
+                + "<ruleset name=\"test\">\n"
+                + "  <description>ruleset desc</description>\n"
+                + "  <rule ref=\"rulesets/dummy/basic.xml/SampleXPathRule\"/>\n"
+                + "  <rule ref=\"rulesets/dummy/basic.xml/DummyBasicMockRule\"/>\n"
+                + "</ruleset>"));
+
+        Rule overridden = overriding.getRuleByName("SampleXPathRule");
+        assertEquals(RulePriority.HIGH, overridden.getPriority());
+        assertEquals("//overridden", overridden.getProperty(XPathRule.XPATH_DESCRIPTOR));
+        assertEquals(RulePriority.MEDIUM_HIGH, overriding.getRuleByName("DummyBasicMockRule").getPriority());
+
+        Rule rule = plain.getRuleByName("SampleXPathRule");
+        assertEquals(RulePriority.MEDIUM, rule.getPriority());
+        assertEquals("//dummyNode", rule.getProperty(XPathRule.XPATH_DESCRIPTOR).trim());
+        assertEquals(RulePriority.MEDIUM, plain.getRuleByName("DummyBasicMockRule").getPriority());
+        assertNotSame(((RuleReference) overridden).getRule(), ((RuleReference) rule).getRule());
+    }
+
     private RuleSet loadRuleSet(String ruleSetXml) throws RuleSetNotFoundException {
         RuleSetFactory rsf = RulesetsFactoryUtils.defaultFactory();
         return rsf.createRuleSet(createRuleSetReferenceId(ruleSetXml));
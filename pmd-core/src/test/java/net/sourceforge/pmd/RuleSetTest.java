@@ -9,6 +9,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -33,6 +34,7 @@ import net.sourceforge.pmd.lang.ast.DummyNode;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.rule.MockRule;
 import net.sourceforge.pmd.lang.rule.RuleReference;
+import net.sourceforge.pmd.lang.rule.ThreadSafeRule;
 import net.sourceforge.pmd.util.CollectionUtil;
 
 public class RuleSetTest {
@@ -72,6 +74,29 @@ public class RuleSetTest {
         assertTrue(rs.usesDFA(LanguageRegistry.getLanguage(DummyLanguageModule.NAME)));
     }
 
+    @Test
+    public void testCopySharesThreadSafeRules() {
+        Rule threadSafe = new ThreadSafeMockRule();
+        threadSafe.setName("threadSafe");
+        Rule reference = new RuleReference(new ThreadSafeMockRule(), new RuleSetReference("somefile.xml"));
+        Rule stateful = new MockRule("stateful", "desc", "msg", "rulesetname");
+        RuleSet rs = new RuleSetBuilder(new Random().nextLong())
+                .withName("foo")
+                .withDescription("bar")
+                .addRule(threadSafe)
+                .addRule(reference)
+                .addRule(stateful)
+                .build();
+
+        RuleSet copy = new RuleSets(new RuleSets(rs)).getAllRuleSets()[0];
+        assertSame(threadSafe, copy.getRuleByName("threadSafe"));
+        assertSame(reference, copy.getRuleByName(reference.getName()));
+        assertNotSame(stateful, copy.getRuleByName("stateful"));
+    }
+
+    public static class ThreadSafeMockRule extends MockRule implements ThreadSafeRule {
+    }
+
     @Test
     public void testAccessors() {
         RuleSet rs = new RuleSetBuilder(new Random().nextLong())
@@ -321,6 +346,26 @@ public class RuleSetTest {
         assertEquals("Invalid number of patterns", 1, ruleSet2.getFileExclusions().size());
     }
 
+    @Test
+    public void testExcludedDirectories() {
+        RuleSet generated = createRuleSetBuilder("ruleset1")
+                .withFileExclusions(Pattern.compile(".*/generated/.*"))
+                .build();
+        RuleSet tests = createRuleSetBuilder("ruleset2")
+                .withFileExclusions(Pattern.compile(".*/generated/.*"), Pattern.compile(".*/test/.*"))
+                .build();
+        RuleSets ruleSets = new RuleSets(generated);
+        ruleSets.addRuleSet(tests);
+        File dir = new File("src/generated");
+
+        assertTrue(ruleSets.excludesDirectory(dir));
+        assertFalse(ruleSets.excludesDirectory(new File("src/test")));
+        assertTrue(new RuleSets(tests).excludesDirectory(new File("src/test")));
+        // a ruleset without exclusions checks all the files
+        ruleSets.addRuleSet(createRuleSetBuilder("ruleset3").build());
+        assertFalse(ruleSets.excludesDirectory(dir));
+    }
+
     @Test
     public void testSetExcludePatterns() {
         List<Pattern> excludePatterns = new ArrayList<>();
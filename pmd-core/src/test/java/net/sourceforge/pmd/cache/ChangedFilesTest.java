@@ -0,0 +1,77 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cache;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ChangedFilesTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private List<String> read(String list) throws IOException {
+        Set<File> files = ChangedFiles.read(new StringReader(list), tempFolder.getRoot());
+        List<String> paths = new ArrayList<>();
+        String root = tempFolder.getRoot().getCanonicalPath() + File.separator;
+        for (File file : files) {
+            paths.add(file.getPath().substring(root.length()).replace(File.separatorChar, '/'));
+        }
+        return paths;
+    }
+
+    @Test
+    public void testNameOnly() throws IOException {
+        assertEquals(Arrays.asList("src/A.java", "src/B.java"),
+                     read("src/A.java\nsrc/B.java\n\n"));
+    }
+
+    @Test
+    public void testNameStatus() throws IOException {
+        assertEquals(Arrays.asList("src/A.java", "src/Old.java", "src/New.java"),
+                     read("M\tsrc/A.java\nR100\tsrc/Old.java\tsrc/New.java\n"));
+    }
+
+    @Test
+    public void testUnifiedDiff() throws IOException {
+        assertEquals(Arrays.asList("src/A.java", "src/Gone.java", "src/Added.java"),
+                     read("diff --git a/src/A.java b/src/A.java\n"
+                              + "index 1234567..89abcde 100644\n"
+                              + "--- a/src/A.java\n"
+                              + "+++ b/src/A.java\n"
+                              + "@@ -1,2 +1,2 @@\n"
+                              + "-class A {}\n"
+                              + "+class A { }\n"
+                              + " src/NotAPath.java\n"
+                              + "diff --git a/src/Gone.java b/src/Gone.java\n"
+                              + "--- a/src/Gone.java\n"
+                              + "+++ /dev/null\n"
+                              + "diff --git a/src/Added.java b/src/Added.java\n"
+                              + "--- /dev/null\n"
+                              + "+++ b/src/Added.java\n"));
+    }
+
+    @Test
+    public void testWorkingTreeRoot() throws IOException {
+        File root = tempFolder.newFolder("repo");
+        File sub = new File(root, "src/main");
+        sub.mkdirs();
+        new File(root, ".git").mkdir();
+
+        assertEquals(root, ChangedFiles.findWorkingTreeRoot(sub));
+        assertEquals(root, ChangedFiles.findWorkingTreeRoot(root));
+    }
+}
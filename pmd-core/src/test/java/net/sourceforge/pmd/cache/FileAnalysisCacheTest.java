@@ -20,8 +20,11 @@ import java.net.URLClassLoader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -349,6 +352,85 @@ public class FileAnalysisCacheTest {
                 cache.isUpToDate(sourceFile));
     }
 
+    @Test
+    public void testArchiveEntryChecksum() throws IOException {
+        final File archive = new File(tempFolder.getRoot(), "sources.jar");
+        writeArchive(archive, "class Source {}");
+        final File entry = new File(archive.getPath() + "!/foo/Source.java");
+        setupCacheWithFiles(newCacheFile, mock(RuleSets.class), mock(ClassLoader.class), entry);
+
+        assertTrue("Cache believes an unmodified archive entry is not up to date",
+                new FileAnalysisCache(newCacheFile).isUpToDate(entry));
+
+        writeArchive(archive, "class Source { int edited; }");
+        assertFalse("Cache believes a changed archive entry is up to date",
+                new FileAnalysisCache(newCacheFile).isUpToDate(entry));
+    }
+
+    private static void writeArchive(final File archive, final String source) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive.toPath()))) {
+            zip.putNextEntry(new ZipEntry("foo/Source.java"));
+            zip.write(source.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    @Test
+    public void testDependenciesArePersisted() throws IOException {
+        final FileAnalysisCache cache = new FileAnalysisCache(newCacheFile);
+        cache.isUpToDate(sourceFile);
+        cache.recordDependencies(sourceFile, new FileDependencies(Collections.singleton("foo.Source"),
+                                                                  Collections.singleton("foo.bar.*")));
+        cache.persist();
+
+        final FileAnalysisCache reloadedCache = new FileAnalysisCache(newCacheFile);
+        final FileDependencies dependencies = reloadedCache.fileResultsCache.get(sourceFile.getPath()).getDependencies();
+        assertEquals(Collections.singleton("foo.Source"), dependencies.getDeclaredTypes());
+        assertEquals(Collections.singleton("foo.bar.*"), dependencies.getReferencedTypes());
+    }
+
+    @Test
+    public void testChangedFilesAndDependentsAreNotUpToDate() throws IOException {
+        final RuleSets rs = mock(RuleSets.class);
+        final ClassLoader cl = mock(ClassLoader.class);
+        final File dependent = tempFolder.newFile("Dependent.java");
+        final File unrelated = tempFolder.newFile("Unrelated.java");
+        final File unlisted = tempFolder.newFile("Unlisted.java");
+
+        final FileAnalysisCache cache = new FileAnalysisCache(newCacheFile);
+        cache.checkValidity(rs, cl);
+        cache.isUpToDate(sourceFile);
+        cache.recordDependencies(sourceFile, new FileDependencies(Collections.singleton("foo.Source"),
+                                                                  Collections.<String>emptySet()));
+        cache.isUpToDate(dependent);
+        cache.recordDependencies(dependent, new FileDependencies(Collections.singleton("bar.Dependent"),
+                                                                 Collections.singleton("foo.Source.Inner")));
+        cache.isUpToDate(unrelated);
+        cache.isUpToDate(unlisted);
+        cache.persist();
+
+        // a change missing from the list is still found by the checksum
+        Files.write(unlisted.toPath(), "some text".getBytes(StandardCharsets.UTF_8));
+
+        final FileAnalysisCache reloadedCache = new FileAnalysisCache(newCacheFile);
+        reloadedCache.checkValidity(rs, cl);
+        reloadedCache.setChangedFiles(Collections.singleton(sourceFile));
+        assertFalse(reloadedCache.isUpToDate(sourceFile));
+        assertFalse(reloadedCache.isUpToDate(dependent));
+        assertTrue(reloadedCache.isUpToDate(unrelated));
+        assertFalse(reloadedCache.isUpToDate(unlisted));
+    }
+
+    @Test
+    public void testDependencyMatching() {
+        final FileDependencies dependencies = new FileDependencies(Collections.<String>emptySet(),
+                                                                   Arrays.asList("a.b.C.Inner", "d.*"));
+        assertTrue(dependencies.refersToAny(Collections.singleton("a.b.C")));
+        assertTrue(dependencies.refersToAny(Collections.singleton("d.E")));
+        assertFalse(dependencies.refersToAny(Collections.singleton("a.b.D")));
+        assertFalse(dependencies.refersToAny(Collections.singleton("d.e.F")));
+    }
+
     private void setupCacheWithFiles(final File cacheFile, final RuleSets ruleSets,
             final ClassLoader classLoader, final File... files) {
         // Setup a cache file with an entry for an empty Source.java with no violations
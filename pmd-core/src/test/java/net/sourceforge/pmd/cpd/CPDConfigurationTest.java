@@ -12,6 +12,9 @@ import org.junit.Test;
 
 import net.sourceforge.pmd.cpd.renderer.CPDRenderer;
 
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+
 public class CPDConfigurationTest {
 
     @Test
@@ -45,4 +48,18 @@ public class CPDConfigurationTest {
             Assert.assertSame(entry.getValue(), r.getClass());
         }
     }
+
+    @Test
+    public void testNearDuplicateSimilarityIsValidated() {
+        CPDConfiguration configuration = new CPDConfiguration();
+        new JCommander(configuration).parse("--minimum-tokens", "10", "--near-duplicates", "0.8");
+        Assert.assertEquals(0.8, configuration.getNearDuplicateSimilarity(), 0);
+
+        try {
+            new JCommander(new CPDConfiguration()).parse("--minimum-tokens", "10", "--near-duplicates", "80");
+            Assert.fail("Expected a ParameterException");
+        } catch (ParameterException expected) {
+            Assert.assertTrue(expected.getMessage().contains("between 0 and 1"));
+        }
+    }
 }
@@ -5,7 +5,10 @@
 package net.sourceforge.pmd.cpd;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.commons.lang3.SystemUtils;
 import org.junit.Assert;
@@ -130,6 +133,42 @@ public class CPDTest {
         }
     }
 
+    @Test
+    public void testStreamedMatchesAreTheSortedMatches() throws Exception {
+        final List<String> streamed = new ArrayList<>();
+        cpd.add(new File("./" + BASE_TEST_RESOURCE_PATH, "dup1.java"));
+        cpd.add(new File("./" + BASE_TEST_RESOURCE_PATH, "dup2.java"));
+        cpd.go(new CPDMatchListener() {
+            @Override
+            public void matchFound(Match match) {
+                streamed.add(describe(match));
+            }
+        });
+        Assert.assertFalse(cpd.getMatches().hasNext());
+
+        setup();
+        cpd.add(new File("./" + BASE_TEST_RESOURCE_PATH, "dup1.java"));
+        cpd.add(new File("./" + BASE_TEST_RESOURCE_PATH, "dup2.java"));
+        cpd.go();
+        List<String> sorted = new ArrayList<>();
+        for (Iterator<Match> matches = cpd.getMatches(); matches.hasNext();) {
+            sorted.add(describe(matches.next()));
+        }
+
+        Assert.assertFalse(sorted.isEmpty());
+        Assert.assertEquals(new HashSet<>(sorted), new HashSet<>(streamed));
+        Assert.assertEquals(sorted.size(), streamed.size());
+    }
+
+    private static String describe(Match match) {
+        StringBuilder sb = new StringBuilder().append(match.getTokenCount()).append(':').append(match.getLineCount());
+        for (Mark mark : match) {
+            sb.append(' ').append(mark.getFilename()).append(':').append(mark.getBeginLine())
+                .append('-').append(mark.getEndLine());
+        }
+        return sb.append(' ').append(match.getSourceCodeSlice()).toString();
+    }
+
     /**
      * Simple listener that fails, if too many files were added and not skipped.
      */
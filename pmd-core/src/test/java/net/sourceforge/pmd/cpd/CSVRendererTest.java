@@ -9,6 +9,7 @@ import static org.junit.Assert.assertEquals;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Test;
@@ -54,6 +55,23 @@ public class CSVRendererTest {
         assertEquals(expectedReport, report);
     }
 
+    @Test
+    public void testStreamedReport() throws IOException {
+        Mark mark1 = createMark("public", "/var,with,commas/Foo.java", 48, 10, "code\nfragment");
+        Mark mark2 = createMark("stuff", "/var/Bar.java", 73, 20, "code\nfragment");
+        Match match = new Match(75, mark1, mark2);
+
+        StringWriter expected = new StringWriter();
+        new CSVRenderer().render(Collections.singletonList(match).iterator(), expected);
+
+        CSVRenderer renderer = new CSVRenderer();
+        StringWriter sw = new StringWriter();
+        renderer.start(sw);
+        renderer.matchFound(match);
+        renderer.end();
+        assertEquals(expected.toString(), sw.toString());
+    }
+
     private Mark createMark(String image, String tokenSrcID, int beginLine, int lineCount, String code) {
         Mark result = new Mark(new TokenEntry(image, tokenSrcID, beginLine));
 
@@ -0,0 +1,144 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FingerprintStoreTest {
+
+    private static final String DUPLICATED = "public void foo() { int a = 1; int b = 2; return a + b; }\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> tokenizedFiles = new ArrayList<>();
+    private final List<File> addedFiles = new ArrayList<>();
+    private double nearDuplicateSimilarity;
+
+    @Test
+    public void testUnchangedUniqueFilesAreNotTokenized() throws IOException {
+        File a = write("A.txt", DUPLICATED);
+        File b = write("B.txt", "// b\n" + DUPLICATED);
+        File c = write("C.txt", "something completely different\n");
+        File store = new File(folder.getRoot(), "cpd.cache");
+
+        assertEquals(1, run(store, 10, a, b, c));
+        assertEquals(3, tokenizedFiles.size());
+
+        // nothing changed: the duplicated files are tokenized to report the match
+        tokenizedFiles.clear();
+        assertEquals(1, run(store, 10, a, b, c));
+        assertEquals(new HashSet<>(Arrays.asList(a.getAbsolutePath(), b.getAbsolutePath())),
+                     new HashSet<>(tokenizedFiles));
+        // each file is reported once, even if it is tokenized again
+        assertEquals(3, addedFiles.size());
+        assertEquals(3, new HashSet<>(addedFiles).size());
+
+        // the changed file now duplicates the other files
+        FileUtils.write(c, "// c\n" + DUPLICATED, StandardCharsets.UTF_8);
+        tokenizedFiles.clear();
+        assertEquals(1, run(store, 10, a, b, c));
+        assertEquals(3, tokenizedFiles.size());
+    }
+
+    @Test
+    public void testChangedConfigurationInvalidatesTheStore() throws IOException {
+        File a = write("A.txt", DUPLICATED);
+        File c = write("C.txt", "something completely different\n");
+        File store = new File(folder.getRoot(), "cpd.cache");
+
+        assertEquals(0, run(store, 10, a, c));
+        tokenizedFiles.clear();
+        assertEquals(0, run(store, 10, a, c));
+        assertEquals(0, tokenizedFiles.size());
+
+        assertEquals(0, run(store, 5, a, c));
+        assertEquals(2, tokenizedFiles.size());
+    }
+
+    @Test
+    public void testDuplicationInASingleFile() throws IOException {
+        File a = write("A.txt", DUPLICATED + "// again\n" + DUPLICATED);
+        File store = new File(folder.getRoot(), "cpd.cache");
+
+        assertEquals(1, run(store, 10, a));
+        tokenizedFiles.clear();
+        assertEquals(1, run(store, 10, a));
+        assertEquals(1, tokenizedFiles.size());
+    }
+
+    @Test
+    public void testNearDuplicatesNeedAllTheFiles() throws IOException {
+        File a = write("A.txt", DUPLICATED);
+        File c = write("C.txt", "something completely different\n");
+        File store = new File(folder.getRoot(), "cpd.cache");
+        nearDuplicateSimilarity = 0.5;
+
+        run(store, 10, a, c);
+        tokenizedFiles.clear();
+        run(store, 10, a, c);
+        assertEquals(2, tokenizedFiles.size());
+    }
+
+    private File write(String name, String code) throws IOException {
+        File file = folder.newFile(name);
+        FileUtils.write(file, code, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private int run(File store, int minimumTileSize, File... files) throws IOException {
+        CPDConfiguration configuration = new CPDConfiguration();
+        configuration.setLanguage(new CountingLanguage());
+        configuration.setMinimumTileSize(minimumTileSize);
+        configuration.setCacheLocation(store.getPath());
+        configuration.setNearDuplicateSimilarity(nearDuplicateSimilarity);
+        configuration.postContruct();
+
+        CPD cpd = new CPD(configuration);
+        addedFiles.clear();
+        cpd.setCpdListener(new CPDNullListener() {
+            @Override
+            public void addedFile(int fileCount, File file) {
+                addedFiles.add(file);
+            }
+        });
+        cpd.add(Arrays.asList(files));
+        cpd.go();
+        assertFalse(store.length() == 0);
+
+        int matches = 0;
+        for (Iterator<Match> it = cpd.getMatches(); it.hasNext(); it.next()) {
+            matches++;
+        }
+        return matches;
+    }
+
+    private class CountingLanguage extends AbstractLanguage {
+        CountingLanguage() {
+            super("Counting", "counting", new Tokenizer() {
+                @Override
+                public void tokenize(SourceCode sourceCode, Tokens tokenEntries) throws IOException {
+                    tokenizedFiles.add(sourceCode.getFileName());
+                    new AnyTokenizer().tokenize(sourceCode, tokenEntries);
+                }
+            }, "txt");
+        }
+    }
+}
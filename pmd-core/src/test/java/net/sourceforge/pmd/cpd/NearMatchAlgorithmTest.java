@@ -0,0 +1,112 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+public class NearMatchAlgorithmTest {
+
+    private static final String ORIGINAL = "void compute(int[] values) {\n"
+        + "    int total = 0;\n"
+        + "    for (int i = 0; i < values.length; i++) {\n"
+        + "        total = total + values[i] * 2;\n"
+        + "    }\n"
+        + "    log(\"total\", total);\n"
+        + "    store(total, values.length);\n"
+        + "}\n";
+
+    private static final String MODIFIED = "void compute(int[] values) {\n"
+        + "    int total = 0;\n"
+        + "    for (int i = 0; i < values.length; i++) {\n"
+        + "        total = total + values[i] * 3;\n"
+        + "    }\n"
+        + "    log(\"total\", total);\n"
+        + "    check(total);\n"
+        + "    store(total, values.length);\n"
+        + "}\n";
+
+    private static final String UNRELATED = "class Foo {\n"
+        + "    String name() { return \"foo\" + bar + baz; }\n"
+        + "    boolean isEmpty() { return size == 0 && other == null; }\n"
+        + "}\n";
+
+    @Test
+    public void testModifiedCopyIsReported() throws IOException {
+        List<Match> matches = findMatches(0.6, ORIGINAL, MODIFIED);
+
+        // the loop is reported along with its method
+        assertEquals(1, matches.size());
+        Match match = matches.get(0);
+        assertEquals("A.txt", match.getFirstMark().getFilename());
+        assertEquals(1, match.getFirstMark().getBeginLine());
+        assertEquals(8, match.getFirstMark().getEndLine());
+        assertEquals("B.txt", match.getSecondMark().getFilename());
+        assertEquals(1, match.getSecondMark().getBeginLine());
+        assertEquals(9, match.getSecondMark().getEndLine());
+    }
+
+    @Test
+    public void testThreshold() throws IOException {
+        assertEquals(0, findMatches(0.95, ORIGINAL, MODIFIED).size());
+    }
+
+    @Test
+    public void testUnrelatedCodeIsNotReported() throws IOException {
+        assertEquals(0, findMatches(0.5, ORIGINAL, UNRELATED).size());
+    }
+
+    @Test
+    public void testCodeWithoutBlocks() throws IOException {
+        String original = ORIGINAL.replace('{', ' ').replace('}', ' ');
+        String modified = MODIFIED.replace('{', ' ').replace('}', ' ');
+        assertFalse(findMatches(0.5, original, modified).isEmpty());
+    }
+
+    @Test
+    public void testExactDuplicatesAreReportedOnce() throws IOException {
+        List<Match> matches = findAllMatches(0.6, ORIGINAL, "\n" + ORIGINAL);
+
+        // the whole method is an exact duplicate, its blocks aren't reported again
+        assertEquals(1, matches.size());
+        Match exactMatch = findAllMatches(0, ORIGINAL, "\n" + ORIGINAL).get(0);
+        assertEquals(exactMatch.getTokenCount(), matches.get(0).getTokenCount());
+        assertEquals(2, matches.get(0).getSecondMark().getBeginLine());
+    }
+
+    /**
+     * Returns the near matches, which follow the exact matches.
+     */
+    private List<Match> findMatches(double similarity, String first, String second) throws IOException {
+        List<Match> matches = findAllMatches(similarity, first, second);
+        return matches.subList(findAllMatches(0, first, second).size(), matches.size());
+    }
+
+    private List<Match> findAllMatches(double similarity, String first, String second) throws IOException {
+        CPDConfiguration configuration = new CPDConfiguration();
+        configuration.setLanguage(new AnyLanguage("any"));
+        configuration.setMinimumTileSize(30);
+        configuration.setNearDuplicateSimilarity(similarity);
+        configuration.postContruct();
+
+        CPD cpd = new CPD(configuration);
+        cpd.add(new SourceCode(new SourceCode.StringCodeLoader(first, "A.txt")));
+        cpd.add(new SourceCode(new SourceCode.StringCodeLoader(second, "B.txt")));
+        cpd.go();
+
+        List<Match> matches = new ArrayList<>();
+        for (Iterator<Match> it = cpd.getMatches(); it.hasNext();) {
+            matches.add(it.next());
+        }
+        return matches;
+    }
+}
@@ -7,7 +7,9 @@ package net.sourceforge.pmd.cpd;
 import static org.junit.Assert.assertEquals;
 
 import java.io.File;
+import java.util.Arrays;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
 import net.sourceforge.pmd.cpd.SourceCode.FileCodeLoader;
@@ -30,6 +32,24 @@ public class SourceCodeTest {
         assertEquals("Line 1\nLine 2", sourceCode.getSlice(1, 2));
     }
 
+    @Test
+    public void testLineTerminatorsAreNormalized() throws Exception {
+        SourceCode sourceCode = new SourceCode(new SourceCode.StringCodeLoader("a\r\nb\rc\n\nd", "Foo.java"));
+
+        assertEquals("a\nb\nc\n\nd\n", sourceCode.getCodeBuffer().toString());
+        assertEquals("a\nb\nc\n\nd\n", IOUtils.toString(sourceCode.getCodeReader()));
+        assertEquals(Arrays.asList("a", "b", "c", "", "d"), sourceCode.getCode());
+        assertEquals("c\n\nd", sourceCode.getSlice(3, 5));
+    }
+
+    @Test
+    public void testEmptyCode() {
+        SourceCode sourceCode = new SourceCode(new SourceCode.StringCodeLoader("", "Foo.java"));
+
+        assertEquals("", sourceCode.getCodeBuffer().toString());
+        assertEquals(0, sourceCode.getCode().size());
+    }
+
     @Test
     public void testEncodingDetectionFromBOM() throws Exception {
         FileCodeLoader loader = new SourceCode.FileCodeLoader(new File(BASE_RESOURCE_PATH + "file_with_utf8_bom.java"),
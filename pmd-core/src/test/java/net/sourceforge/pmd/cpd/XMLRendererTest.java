@@ -18,6 +18,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.junit.Test;
 import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
@@ -222,6 +223,70 @@ public class XMLRendererTest {
         assertTrue(report.contains("x=\"]]]]><![CDATA[>\";"));
     }
 
+    @Test
+    public void testStreamedReportHasTheSameContent() throws Exception {
+        String codefragment = "code fragment" + FORM_FEED + "\nline2\nno & escaping necessary in CDATA\nx=\"]]>\";";
+        List<Match> list = new ArrayList<>();
+        list.add(new Match(75, createMark("public", "/var/A<oo.java" + FORM_FEED, 1, 5, codefragment),
+                           createMark("public", "/var/B&\"oo.java", 5, 5, codefragment)));
+        list.add(new Match(80, createMark("void", "/var/Foo.java", 1, 6, "code", 2, 3),
+                           createMark("void", "/var/Foo.java", 73, 6, "code", 4, 5)));
+
+        StringWriter expected = new StringWriter();
+        new XMLRenderer().render(list.iterator(), expected);
+
+        XMLRenderer renderer = new XMLRenderer();
+        StringWriter sw = new StringWriter();
+        renderer.start(sw);
+        for (Match match : list) {
+            renderer.matchFound(match);
+        }
+        renderer.end();
+
+        assertEquals(dump(parse(expected.toString())), dump(parse(sw.toString())));
+        assertTrue(sw.toString().contains("x=\"]]]]><![CDATA[>\";"));
+    }
+
+    @Test
+    public void testStreamedReportWithNoDuplication() throws Exception {
+        XMLRenderer renderer = new XMLRenderer("UTF-8");
+        StringWriter sw = new StringWriter();
+        renderer.start(sw);
+        renderer.end();
+        assertTrue(sw.toString().startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\""));
+        assertEquals("pmd-cpd", parse(sw.toString()).getDocumentElement().getNodeName());
+        assertEquals(0, parse(sw.toString()).getElementsByTagName("duplication").getLength());
+    }
+
+    private Document parse(String report) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(report.getBytes(ENCODING)));
+    }
+
+    /**
+     * Dumps the elements, their attributes and the text of the code
+     * fragments, ignoring the whitespace between the elements.
+     */
+    private String dump(Node node) {
+        StringBuilder sb = new StringBuilder();
+        if (node.getNodeType() == Node.ELEMENT_NODE) {
+            sb.append('<').append(node.getNodeName());
+            NamedNodeMap attributes = node.getAttributes();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                sb.append(' ').append(attributes.item(i).getNodeName())
+                    .append('=').append(attributes.item(i).getNodeValue());
+            }
+            sb.append('>');
+            if ("codefragment".equals(node.getNodeName())) {
+                sb.append(node.getTextContent());
+            }
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            sb.append(dump(child));
+        }
+        return sb.toString();
+    }
+
     private Mark createMark(String image, String tokenSrcID, int beginLine, int lineCount, String code) {
         Mark result = new Mark(new TokenEntry(image, tokenSrcID, beginLine));
 
@@ -0,0 +1,151 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.daemon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+
+public class PmdDaemonTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File violation;
+    private File clean;
+    private PMDConfiguration configuration;
+
+    @Before
+    public void setUp() throws IOException {
+        violation = write("file1-violation.dummy", "ABC");
+        clean = write("file2-foo.dummy", "DEF");
+        write("ignored.txt", "GHI");
+        write("excluded-violation.dummy", "JKL");
+
+        configuration = new PMDConfiguration();
+        configuration.setRuleSets("rulesets/PmdDaemonTest/counting.xml");
+        configuration.setInputPaths(tempFolder.getRoot().getPath());
+        CountingRule.count.set(0);
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(tempFolder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testUnchangedFilesAreNotAnalysedAgain() throws IOException {
+        try (PmdDaemon daemon = new PmdDaemon(configuration)) {
+            Report report = daemon.analyzeAll();
+            assertEquals(1, report.getViolations().size());
+            assertEquals(2, CountingRule.count.get());
+
+            report = daemon.analyzeAll();
+            assertEquals(1, report.getViolations().size());
+            assertEquals(2, CountingRule.count.get());
+
+            write(clean.getName(), "DEF, changed");
+            report = daemon.analyze(Collections.singletonList(clean));
+            assertTrue(report.getViolations().isEmpty());
+            assertEquals(3, CountingRule.count.get());
+        }
+    }
+
+    @Test
+    public void testDeletedFilesAreForgotten() throws IOException {
+        try (PmdDaemon daemon = new PmdDaemon(configuration)) {
+            assertEquals(1, daemon.analyzeAll().getViolations().size());
+            assertTrue(violation.delete());
+            assertTrue(daemon.analyzeAll().getViolations().isEmpty());
+        }
+    }
+
+    @Test
+    public void testServe() throws IOException {
+        StringWriter out = new StringWriter();
+        try (PmdDaemon daemon = new PmdDaemon(configuration)) {
+            daemon.serve(new StringReader("check\n"
+                                              + "check " + clean.getPath() + "\n"
+                                              + "frobnicate\n"
+                                              + "quit\n"
+                                              + "check\n"), out);
+        }
+
+        List<String> responses = splitResponses(out.toString());
+        assertEquals(3, responses.size());
+        assertTrue(responses.get(0).contains(violation.getName()));
+        assertEquals("", responses.get(1));
+        assertEquals("error: unknown command frobnicate", responses.get(2));
+        assertEquals(2, CountingRule.count.get());
+    }
+
+    @Test
+    public void testServeChecksOnlyFilesTheRulesetsApplyTo() throws IOException {
+        StringWriter out = new StringWriter();
+        try (PmdDaemon daemon = new PmdDaemon(configuration)) {
+            daemon.serve(new StringReader("check " + new File(tempFolder.getRoot(), "ignored.txt").getPath()
+                                              + "," + new File(tempFolder.getRoot(), "excluded-violation.dummy").getPath()
+                                              + "," + violation.getPath() + "\n"), out);
+        }
+
+        List<String> responses = splitResponses(out.toString());
+        assertEquals(1, responses.size());
+        assertTrue(responses.get(0).contains(violation.getName()));
+        assertFalse(responses.get(0).contains("excluded"));
+        assertEquals(1, CountingRule.count.get());
+    }
+
+    private static List<String> splitResponses(String output) {
+        String[] lines = output.split("\\R", -1);
+        List<String> responses = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : lines) {
+            if (PmdDaemon.END_OF_RESPONSE.equals(line)) {
+                responses.add(StringUtils.chomp(current.toString()));
+                current.setLength(0);
+            } else if (!line.isEmpty()) {
+                current.append(line).append('\n');
+            }
+        }
+        return responses;
+    }
+
+    public static class CountingRule extends AbstractRule {
+
+        static final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void apply(List<? extends Node> nodes, RuleContext ctx) {
+            count.incrementAndGet();
+            if (ctx.getSourceCodeFilename().contains("violation")) {
+                addViolation(ctx, nodes.get(0));
+            }
+        }
+    }
+}
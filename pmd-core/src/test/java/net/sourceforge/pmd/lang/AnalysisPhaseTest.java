@@ -0,0 +1,126 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PMDException;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSetFactory;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.RulesetsFactoryUtils;
+import net.sourceforge.pmd.SourceCodeProcessor;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.XPathRule;
+import net.sourceforge.pmd.lang.rule.xpath.XPathVersion;
+
+public class AnalysisPhaseTest {
+
+    @Test
+    public void testClosure() {
+        assertEquals(EnumSet.of(AnalysisPhase.QUALIFIED_NAMES, AnalysisPhase.SYMBOL_TABLE, AnalysisPhase.DFA),
+                     AnalysisPhase.closure(EnumSet.of(AnalysisPhase.DFA)));
+        assertEquals(EnumSet.of(AnalysisPhase.QUALIFIED_NAMES, AnalysisPhase.SYMBOL_TABLE,
+                                AnalysisPhase.TYPE_RESOLUTION, AnalysisPhase.METRICS),
+                     AnalysisPhase.closure(EnumSet.of(AnalysisPhase.METRICS)));
+    }
+
+    @Test
+    public void testDependenciesAreDeclaredFirst() {
+        for (AnalysisPhase phase : AnalysisPhase.values()) {
+            for (AnalysisPhase dep : phase.getDependencies()) {
+                assertTrue(dep + " must be declared before " + phase, dep.compareTo(phase) < 0);
+            }
+        }
+    }
+
+    @Test
+    public void testLegacyRuleDependencies() {
+        MockRule rule = new MockRule();
+        assertTrue(rule.dependsOn(AnalysisPhase.QUALIFIED_NAMES));
+        assertTrue(rule.dependsOn(AnalysisPhase.SYMBOL_TABLE));
+        assertFalse(rule.dependsOn(AnalysisPhase.TYPE_RESOLUTION));
+
+        rule.setTypeResolution(true);
+        assertTrue(rule.dependsOn(AnalysisPhase.TYPE_RESOLUTION));
+    }
+
+    @Test
+    public void testDeclaredDependencies() {
+        RuleSetFactory factory = RulesetsFactoryUtils.defaultFactory();
+        RuleSets ruleSets = new RuleSets(factory.createSingleRuleRuleSet(new LexicalRule()));
+        Language dummy = LanguageRegistry.getLanguage(DummyLanguageModule.NAME);
+
+        assertTrue(ruleSets.getAnalysisPhases(dummy).isEmpty());
+
+        ruleSets.addRuleSet(factory.createSingleRuleRuleSet(new MetricsRule()));
+
+        assertEquals(AnalysisPhase.closure(EnumSet.of(AnalysisPhase.METRICS)), ruleSets.getAnalysisPhases(dummy));
+    }
+
+    @Test
+    public void testXPathRuleDependencies() {
+        XPathRule rule = new XPathRule(XPathVersion.XPATH_2_0, "//dummyNode");
+        // legacy defaults
+        assertTrue(AnalysisPhase.SYMBOL_TABLE.isRequiredBy(rule));
+        assertTrue(AnalysisPhase.TYPE_RESOLUTION.isRequiredBy(rule));
+
+        rule.setProperty(XPathRule.ANALYSIS_PHASES_DESCRIPTOR, Collections.<AnalysisPhase>emptyList());
+        for (AnalysisPhase phase : AnalysisPhase.values()) {
+            assertFalse(phase.isRequiredBy(rule));
+        }
+
+        rule.setProperty(XPathRule.ANALYSIS_PHASES_DESCRIPTOR, Collections.singletonList(AnalysisPhase.SYMBOL_TABLE));
+        assertTrue(AnalysisPhase.SYMBOL_TABLE.isRequiredBy(rule));
+        assertFalse(AnalysisPhase.TYPE_RESOLUTION.isRequiredBy(rule));
+    }
+
+    @Test
+    public void testSymbolTableIsSkippedIfNotNeeded() throws PMDException {
+        DummyLanguageModule.Handler.SYMBOL_TABLE_RUNS.set(0);
+        process(new LexicalRule());
+        assertEquals(0, DummyLanguageModule.Handler.SYMBOL_TABLE_RUNS.get());
+
+        process(new MockRule("LegacyRule", "", "", ""));
+        assertEquals(1, DummyLanguageModule.Handler.SYMBOL_TABLE_RUNS.get());
+    }
+
+    private void process(Rule rule) throws PMDException {
+        Language dummy = LanguageRegistry.getLanguage(DummyLanguageModule.NAME);
+        rule.setLanguage(dummy);
+        RuleSets ruleSets = new RuleSets(RulesetsFactoryUtils.defaultFactory().createSingleRuleRuleSet(rule));
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFile(new File("test.dummy"));
+        ctx.setLanguageVersion(dummy.getDefaultVersion());
+        new SourceCodeProcessor(new PMDConfiguration()).processSourceCode(new StringReader("foo"), ruleSets, ctx);
+    }
+
+    private static class LexicalRule extends MockRule {
+
+        LexicalRule() {
+            setName("LexicalRule");
+            declareDependencies();
+        }
+    }
+
+    private static class MetricsRule extends MockRule {
+
+        MetricsRule() {
+            setName("MetricsRule");
+            declareDependencies(AnalysisPhase.METRICS);
+        }
+    }
+}
@@ -10,9 +10,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jaxen.Navigator;
 
+import net.sourceforge.pmd.PMDConfiguration;
 import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.RuleViolation;
@@ -25,6 +27,7 @@ import net.sourceforge.pmd.lang.rule.AbstractRuleChainVisitor;
 import net.sourceforge.pmd.lang.rule.AbstractRuleViolationFactory;
 import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
 import net.sourceforge.pmd.lang.rule.RuleChainVisitor;
+import net.sourceforge.pmd.util.datasource.DataSource;
 
 import net.sf.saxon.expr.XPathContext;
 import net.sf.saxon.sxpath.IndependentContext;
@@ -75,6 +78,9 @@ public class DummyLanguageModule extends BaseLanguageModule {
     }
 
     public static class Handler extends AbstractLanguageVersionHandler {
+        /** Counts the files the symbol facade ran on. */
+        public static final AtomicInteger SYMBOL_TABLE_RUNS = new AtomicInteger();
+
         public static class TestFunctions {
             public static boolean typeIs(final XPathContext context, final String fullTypeName) {
                 return false;
@@ -105,6 +111,21 @@ public class DummyLanguageModule extends BaseLanguageModule {
             return new RuleViolationFactory();
         }
 
+        @Override
+        public VisitorStarter getSymbolFacade() {
+            return new VisitorStarter() {
+                @Override
+                public void start(Node rootNode) {
+                    SYMBOL_TABLE_RUNS.incrementAndGet();
+                }
+            };
+        }
+
+        @Override
+        public LanguageSession openSession(PMDConfiguration configuration) {
+            return new Session();
+        }
+
         @Override
         public Parser getParser(ParserOptions parserOptions) {
             return new AbstractParser(parserOptions) {
@@ -135,6 +156,28 @@ public class DummyLanguageModule extends BaseLanguageModule {
         }
     }
 
+    /**
+     * Counts the open sessions and the files they were prepared with.
+     */
+    public static class Session extends LanguageSession {
+        public static final AtomicInteger OPEN = new AtomicInteger();
+        public static final AtomicInteger PREPARED_FILES = new AtomicInteger();
+
+        Session() {
+            OPEN.incrementAndGet();
+        }
+
+        @Override
+        public void prepare(List<DataSource> files) {
+            PREPARED_FILES.addAndGet(files.size());
+        }
+
+        @Override
+        public void close() {
+            OPEN.decrementAndGet();
+        }
+    }
+
     public static class RuleViolationFactory extends AbstractRuleViolationFactory {
         @Override
         protected RuleViolation createRuleViolation(Rule rule, RuleContext ruleContext, Node node, String message) {
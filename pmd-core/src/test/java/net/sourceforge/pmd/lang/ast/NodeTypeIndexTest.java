@@ -0,0 +1,171 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PMDException;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.RulesetsFactoryUtils;
+import net.sourceforge.pmd.SourceCodeProcessor;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.rule.MockRule;
+
+public class NodeTypeIndexTest {
+
+    @Test
+    public void testSameResultsAsTheWalk() {
+        List<DummyNode> nodes = new ArrayList<>();
+        DummyNode root = randomTree(new Random(42), 400, nodes);
+
+        List<List<Object>> expected = queryAll(nodes);
+        assertNotNull(NodeTypeIndex.build(root));
+        assertEquals(expected, queryAll(nodes));
+    }
+
+    @Test
+    public void testModificationDropsTheIndex() {
+        List<DummyNode> nodes = new ArrayList<>();
+        DummyNode root = randomTree(new Random(1), 100, nodes);
+        NodeTypeIndex.build(root);
+        assertNotNull(NodeTypeIndex.get(root));
+
+        Node removed = root.getChild(0);
+        removed.remove();
+
+        assertNull(NodeTypeIndex.get(root));
+        assertEquals(countDescendants(root), root.findDescendantsOfType(Node.class, true).size());
+    }
+
+    @Test
+    public void testFirstDescendant() {
+        List<DummyNode> nodes = new ArrayList<>();
+        DummyNode root = randomTree(new Random(7), 200, nodes);
+        Other expected = root.getFirstDescendantOfType(Other.class);
+        NodeTypeIndex.build(root);
+        assertSame(expected, root.getFirstDescendantOfType(Other.class));
+    }
+
+    @Test
+    public void testNumbering() {
+        List<DummyNode> nodes = new ArrayList<>();
+        DummyNode root = randomTree(new Random(3), 60, nodes);
+        DummyNode leaf = nodes.get(nodes.size() - 1);
+        assertEquals(-1, leaf.getPreorderIndex());
+
+        NodeTypeIndex.build(root);
+        assertEquals(0, root.getPreorderIndex());
+        assertEquals(nodes.size() - 1, root.getPostorderIndex());
+        for (DummyNode node : nodes) {
+            for (DummyNode other : nodes) {
+                boolean ancestor = false;
+                for (Node parent = other.getParent(); parent != null; parent = parent.getParent()) {
+                    ancestor |= parent == node;
+                }
+                assertEquals(ancestor, node.isAncestorOf(other));
+            }
+        }
+
+        leaf.remove();
+        assertEquals(-1, root.getPreorderIndex());
+        assertEquals(-1, leaf.getPostorderIndex());
+        assertTrue(root.isAncestorOf(nodes.get(1)));
+    }
+
+    @Test
+    public void testProcessorIndexesOnlyIfConfigured() throws PMDException {
+        PMDConfiguration configuration = new PMDConfiguration();
+        assertEquals(-1, processedRoot(configuration).getPreorderIndex());
+
+        configuration.setIndexNodeTypes(true);
+        AbstractNode root = processedRoot(configuration);
+        assertEquals(0, root.getPreorderIndex());
+        assertNotNull(NodeTypeIndex.get(root));
+    }
+
+    private static AbstractNode processedRoot(PMDConfiguration configuration) throws PMDException {
+        Language dummy = LanguageRegistry.getLanguage(DummyLanguageModule.NAME);
+        RootCapturingRule rule = new RootCapturingRule();
+        rule.setLanguage(dummy);
+        RuleSets ruleSets = new RuleSets(RulesetsFactoryUtils.defaultFactory().createSingleRuleRuleSet(rule));
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFile(new File("test.dummy"));
+        ctx.setLanguageVersion(dummy.getDefaultVersion());
+        new SourceCodeProcessor(configuration).processSourceCode(new StringReader("foo"), ruleSets, ctx);
+        return (AbstractNode) rule.root;
+    }
+
+    private static List<List<Object>> queryAll(List<DummyNode> nodes) {
+        List<List<Object>> results = new ArrayList<>();
+        for (DummyNode node : nodes) {
+            results.add(new ArrayList<Object>(node.findDescendantsOfType(Node.class, true)));
+            results.add(new ArrayList<Object>(node.findDescendantsOfType(DummyNode.class)));
+            results.add(new ArrayList<Object>(node.findDescendantsOfType(Other.class)));
+            List<Object> first = new ArrayList<>();
+            first.add(node.getFirstDescendantOfType(Other.class));
+            first.add(node.getFirstDescendantOfType(DummyNode.class));
+            results.add(first);
+        }
+        return results;
+    }
+
+    private static int countDescendants(Node node) {
+        int count = 0;
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            count += 1 + countDescendants(node.getChild(i));
+        }
+        return count;
+    }
+
+    private static DummyNode randomTree(Random random, int size, List<DummyNode> nodes) {
+        DummyNode root = new DummyNode();
+        nodes.add(root);
+        while (nodes.size() < size) {
+            DummyNode parent = nodes.get(random.nextInt(nodes.size()));
+            boolean boundary = random.nextInt(8) == 0;
+            DummyNode child = random.nextBoolean() ? new DummyNode(0, boundary) : new Other(boundary);
+            parent.jjtAddChild(child, parent.getNumChildren());
+            child.jjtSetParent(parent);
+            nodes.add(child);
+        }
+        return root;
+    }
+
+    private static class RootCapturingRule extends MockRule {
+
+        private Node root;
+
+        RootCapturingRule() {
+            super("RootCapturingRule", "", "", "");
+        }
+
+        @Override
+        public void apply(List<? extends Node> nodes, RuleContext ctx) {
+            root = nodes.get(0);
+        }
+    }
+
+    private static class Other extends DummyNode {
+        Other(boolean findBoundary) {
+            super(1, findBoundary);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.dfa;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.lang.dfa.ReachingDefinitions.AccessHandler;
+import net.sourceforge.pmd.lang.dfa.ReachingDefinitions.Definition;
+
+public class ReachingDefinitionsTest {
+
+    /**
+     * <pre>
+     * 1: start
+     * 2: x = 1
+     * 3: if (c)
+     * 4:   x = 2
+     * 5: use(x)
+     * 6: end
+     * </pre>
+     */
+    private List<DataFlowNode> ifFlow() {
+        List<DataFlowNode> flow = new ArrayList<>();
+        new TestNode(flow, 1);
+        new TestNode(flow, 2, new VariableAccess(VariableAccess.DEFINITION, "x"));
+        DataFlowNode cond = new TestNode(flow, 3);
+        new TestNode(flow, 4, new VariableAccess(VariableAccess.DEFINITION, "x"));
+        DataFlowNode use = new TestNode(flow, 5, new VariableAccess(VariableAccess.REFERENCING, "x"));
+        new TestNode(flow, 6, new VariableAccess(VariableAccess.UNDEFINITION, "x"));
+        cond.addPathToChild(use);
+        return flow;
+    }
+
+    @Test
+    public void testBasicBlocks() {
+        List<DataFlowNode> flow = ifFlow();
+        ControlFlowGraph cfg = ControlFlowGraph.build(flow);
+
+        assertEquals(3, cfg.getBlocks().size());
+        assertEquals(6, cfg.getNodeCount());
+        assertSame(cfg.getEntry(), cfg.getBlock(flow.get(2)));
+        assertEquals(3, cfg.getEntry().getNodes().size());
+        assertEquals(2, cfg.getEntry().getSuccessors().size());
+        assertEquals(2, cfg.getBlock(flow.get(4)).getPredecessors().size());
+    }
+
+    @Test
+    public void testReachingDefinitions() {
+        List<DataFlowNode> flow = ifFlow();
+        ReachingDefinitions rd = ReachingDefinitions.of(ControlFlowGraph.build(flow));
+
+        final List<String> seen = new ArrayList<>();
+        rd.scan(new AccessHandler() {
+            @Override
+            public void handle(DataFlowNode node, VariableAccess access, List<Definition> reaching) {
+                List<Integer> lines = new ArrayList<>();
+                for (Definition def : reaching) {
+                    lines.add(def.getNode().getLine());
+                }
+                seen.add(access + "@" + node.getLine() + "<-" + lines);
+            }
+        });
+
+        assertEquals(2, rd.getDefinitions().size());
+        assertEquals("[Definition(x)@2<-[], Definition(x)@4<-[2], Reference(x)@5<-[2, 4], Undefinition(x)@6<-[2, 4]]",
+                     seen.toString());
+    }
+
+    @Test
+    public void testLoopReachesFixedPoint() {
+        // 1: start, 2: x = 0, 3: while (c), 4: x = x + 1, 5: end
+        List<DataFlowNode> flow = new ArrayList<>();
+        new TestNode(flow, 1);
+        new TestNode(flow, 2, new VariableAccess(VariableAccess.DEFINITION, "x"));
+        DataFlowNode loop = new TestNode(flow, 3);
+        DataFlowNode body = new TestNode(flow, 4, new VariableAccess(VariableAccess.REFERENCING, "x"),
+                                         new VariableAccess(VariableAccess.DEFINITION, "x"));
+        body.removePathToChild(new TestNode(flow, 5));
+        body.addPathToChild(loop);
+        loop.addPathToChild(flow.get(4));
+
+        ReachingDefinitions rd = ReachingDefinitions.ofAllAccesses(ControlFlowGraph.build(flow));
+
+        BitSet atLoop = rd.getReachingIn(rd.getGraph().getBlock(loop));
+        // x = 0 from the entry, and x = x + 1 from the back edge
+        assertEquals(2, atLoop.cardinality());
+        assertTrue(atLoop.get(0));
+    }
+
+    @Test
+    public void testBackwardProblem() {
+        final List<DataFlowNode> flow = ifFlow();
+        final ControlFlowGraph cfg = ControlFlowGraph.build(flow);
+
+        // liveness of x, as a single fact
+        DataFlowResult result = DataFlowSolver.solve(cfg, new DataFlowProblem(DataFlowProblem.Direction.BACKWARD, true) {
+            @Override
+            public int getUniverseSize() {
+                return 1;
+            }
+
+            @Override
+            public BitSet gen(BasicBlock block) {
+                BitSet set = new BitSet();
+                set.set(0, block == cfg.getBlock(flow.get(4)));
+                return set;
+            }
+
+            @Override
+            public BitSet kill(BasicBlock block) {
+                BitSet set = new BitSet();
+                set.set(0, block != cfg.getBlock(flow.get(4)));
+                return set;
+            }
+        });
+
+        assertTrue(result.getOut(cfg.getEntry()).get(0));
+        assertTrue(result.getIn(cfg.getBlock(flow.get(4))).get(0));
+        assertTrue(result.getIn(cfg.getEntry()).isEmpty());
+    }
+
+    private static class TestNode extends AbstractDataFlowNode {
+
+        TestNode(List<DataFlowNode> dataFlow, int line, VariableAccess... accesses) {
+            super(dataFlow);
+            this.line = line;
+            List<VariableAccess> list = new ArrayList<>();
+            Collections.addAll(list, accesses);
+            setVariableAccess(list);
+        }
+
+        @Override
+        public String toString() {
+            return "Node " + line;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule.xpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.ast.Node;
+
+public class XPathExpressionCacheTest {
+
+    @Test
+    public void testHitsAndEviction() {
+        XPathExpressionCache cache = new XPathExpressionCache(2);
+
+        CompiledXPath first = cache.get("./foo", XPathVersion.XPATH_1_0);
+        assertSame(first, cache.get("./foo", XPathVersion.XPATH_1_0));
+        assertNotSame(first, cache.get("./foo", XPathVersion.XPATH_2_0));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+
+        // ./foo in XPath 1.0 was used last, the 2.0 version is evicted
+        cache.get("./foo", XPathVersion.XPATH_1_0);
+        cache.get("./bar", XPathVersion.XPATH_1_0);
+        assertEquals(2, cache.size());
+        assertSame(first, cache.get("./foo", XPathVersion.XPATH_1_0));
+        assertEquals(3, cache.getHitCount());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidExpression() {
+        new XPathExpressionCache(1).get("./foo[", XPathVersion.XPATH_1_0);
+    }
+
+    @Test
+    public void testJaxenWithVariables() {
+        DummyNode root = tree();
+        CompiledXPath xpath = new XPathExpressionCache(1).get("./dummyNode[@Image = $name]", XPathVersion.XPATH_1_0);
+
+        List<Node> result = xpath.select(root, Collections.singletonMap("name", "b"));
+        assertEquals(1, result.size());
+        assertSame(root.getChild(1), result.get(0));
+        assertFalse(xpath.matches(root, Collections.singletonMap("name", "c")));
+    }
+
+    @Test
+    public void testSaxonWithVariables() {
+        DummyNode root = tree();
+        CompiledXPath xpath = new XPathExpressionCache(1).get("./dummyNode[@Image = $names]", XPathVersion.XPATH_2_0,
+                                                              "names");
+
+        List<Node> result = xpath.select(root, Collections.singletonMap("names", (Object) Arrays.asList("a", "b")));
+        assertEquals(2, result.size());
+        assertSame(root.getChild(0), result.get(0));
+        // evaluated relative to the context node
+        assertTrue(xpath.matches(root, Collections.singletonMap("names", "a")));
+        assertFalse(xpath.matches(root.getChild(0), Collections.singletonMap("names", "a")));
+    }
+
+    private static DummyNode tree() {
+        DummyNode root = new DummyNode();
+        DummyNode a = new DummyNode();
+        a.setImage("a");
+        DummyNode b = new DummyNode();
+        b.setImage("b");
+        root.jjtAddChild(a, 0);
+        a.jjtSetParent(root);
+        root.jjtAddChild(b, 1);
+        b.jjtSetParent(root);
+        return root;
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.symboltable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.lang.VisitorStarter;
+import net.sourceforge.pmd.lang.ast.DummyNode;
+import net.sourceforge.pmd.lang.ast.Node;
+
+public class LazySymbolTableTest {
+
+    private int starts;
+
+    @Test
+    public void testFacadeRunsOnlyOnce() {
+        final DummyNode root = new DummyNode();
+        LazySymbolTable.defer(root, new VisitorStarter() {
+            @Override
+            public void start(Node rootNode) {
+                starts++;
+                // reentrant calls from the facade itself are no-ops
+                assertFalse(LazySymbolTable.ensureBuilt(rootNode));
+            }
+        });
+
+        assertEquals(0, starts);
+        assertTrue(LazySymbolTable.ensureBuilt(root));
+        assertFalse(LazySymbolTable.ensureBuilt(root));
+        assertEquals(1, starts);
+    }
+
+    @Test
+    public void testNothingDeferred() {
+        assertFalse(LazySymbolTable.ensureBuilt(new DummyNode()));
+    }
+}
@@ -24,6 +24,7 @@ import net.sourceforge.pmd.RuleSetFactory;
 import net.sourceforge.pmd.RuleViolation;
 import net.sourceforge.pmd.RulesetsFactoryUtils;
 import net.sourceforge.pmd.ThreadSafeReportListener;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.rule.AbstractRule;
 import net.sourceforge.pmd.renderers.AbstractAccumulatingRenderer;
@@ -87,6 +88,16 @@ public class MultiThreadProcessorTest {
         Assert.assertEquals("Missing violation", 1, reportListener.violations.get());
     }
 
+    @Test
+    public void testLanguageSessionIsClosedAfterTheRun() {
+        setUpForTest("rulesets/MultiThreadProcessorTest/basic.xml");
+        DummyLanguageModule.Session.PREPARED_FILES.set(0);
+        processor.processFiles(ruleSetFactory, files, ctx, Collections.<Renderer>emptyList());
+
+        Assert.assertEquals("Session not prepared with the files", 2, DummyLanguageModule.Session.PREPARED_FILES.get());
+        Assert.assertEquals("Session not closed", 0, DummyLanguageModule.Session.OPEN.get());
+    }
+
     private static class StringDataSource extends AbstractDataSource {
         private final String data;
         private final String name;
@@ -0,0 +1,91 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.comparator.PathFileComparator;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileFinderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void createTree() throws IOException {
+        for (String path : new String[] {"A.java", "b.java", "z.txt", "a/A.java", "a/b/B.java", "a/b/c/C.java",
+            "B/x.java", "B/generated/G.java", "B/generated/deep/D.java", "c/d/e/f/F.java", "empty/"}) {
+            File file = new File(folder.getRoot(), path);
+            if (path.endsWith("/")) {
+                file.mkdirs();
+            } else {
+                file.getParentFile().mkdirs();
+                file.createNewFile();
+            }
+        }
+    }
+
+    @Test
+    public void testSameOrderAsSequentialWalk() {
+        FilenameFilter filter = new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".java") || new File(dir, name).isDirectory();
+            }
+        };
+        List<File> expected = new ArrayList<>();
+        walk(folder.getRoot(), filter, expected);
+
+        assertEquals(9, expected.size());
+        assertEquals(expected, new FileFinder().findFilesFrom(folder.getRoot(), filter, true));
+    }
+
+    @Test
+    public void testRejectedDirectoriesAreSkipped() {
+        FilenameFilter filter = new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return !"generated".equals(name);
+            }
+        };
+        List<File> files = new FileFinder().findFilesFrom(new File(folder.getRoot(), "B"), filter, true);
+        assertEquals(Arrays.asList(new File(folder.getRoot(), "B/x.java")), files);
+    }
+
+    @Test
+    public void testNoRecursion() {
+        List<File> files = new FileFinder().findFilesFrom(folder.getRoot(), null, false);
+        assertEquals(Arrays.asList(new File(folder.getRoot(), "A.java"), new File(folder.getRoot(), "b.java"),
+                                   new File(folder.getRoot(), "z.txt")), files);
+    }
+
+    @Test
+    public void testMissingDirectory() {
+        assertEquals(0, new FileFinder().findFilesFrom(new File(folder.getRoot(), "missing"), null, true).size());
+    }
+
+    private static void walk(File dir, FilenameFilter filter, List<File> result) {
+        File[] candidates = dir.listFiles(filter);
+        Arrays.sort(candidates, PathFileComparator.PATH_INSENSITIVE_COMPARATOR);
+        for (File candidate : candidates) {
+            if (candidate.isDirectory()) {
+                walk(candidate, filter, result);
+            } else {
+                result.add(candidate);
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.util.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import net.sourceforge.pmd.util.datasource.DataSource;
+
+public class DBMSSourceStreamTest {
+
+    private static final String THIN_URI = "jdbc:oracle:thin:scott/tiger@//localhost:1521/orcl";
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Test
+    public void testBulkRetrieval() throws Exception {
+        List<SourceObject> objects = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            objects.add(new SourceObject("SCOTT", "PACKAGE_SPEC", "PKG_" + i, null));
+        }
+        objects.add(new SourceObject("SCOTT", "PROCEDURE", "PRC_1", null));
+        objects.add(new SourceObject("HR", "PACKAGE_SPEC", "PKG_0", null));
+
+        Map<String, String> sources = new TreeMap<>();
+        try (DBMSSourceStream stream = new DBMSSourceStream(objects, 2, 2, factory(new DBURI(THIN_URI)))) {
+            assertEquals(7, stream.getSourceObjectCount());
+            for (DataSource dataSource : stream) {
+                sources.put(dataSource.getNiceFileName(false, null),
+                            IOUtils.toString(dataSource.getInputStream(), "UTF-8"));
+            }
+        }
+
+        assertEquals(7, sources.size());
+        assertEquals("PACKAGE PKG_3 AS\nEND PKG_3;\n", sources.get("/Database/SCOTT/PACKAGE_SPEC/PKG_3.pks"));
+        assertTrue(sources.containsKey("/Database/SCOTT/PROCEDURE/PRC_1.prc"));
+        assertTrue(sources.containsKey("/Database/HR/PACKAGE_SPEC/PKG_0.pks"));
+        // 3 batches for the package specs of scott, one for the procedure and one for hr
+        assertEquals(5, queries.get());
+        assertEquals(2, connections.get());
+    }
+
+    @Test
+    public void testMissingObjectsAreSkipped() throws Exception {
+        List<SourceObject> objects = Arrays.asList(new SourceObject("SCOTT", "PACKAGE_SPEC", "PKG_1", null),
+                                                   new SourceObject("SCOTT", "PACKAGE_SPEC", "MISSING", null));
+
+        List<String> names = new ArrayList<>();
+        try (DBMSSourceStream stream = new DBMSSourceStream(objects, 4, 10, factory(new DBURI(THIN_URI)))) {
+            for (DataSource dataSource : stream) {
+                names.add(dataSource.getNiceFileName(false, null));
+            }
+        }
+
+        assertEquals(Collections.singletonList("/Database/SCOTT/PACKAGE_SPEC/PKG_1.pks"), names);
+        assertEquals(1, connections.get());
+    }
+
+    @Test
+    public void testNoObjects() throws Exception {
+        try (DBMSSourceStream stream = new DBMSSourceStream(Collections.<SourceObject>emptyList(), 4, 10,
+                                                            factory(new DBURI(THIN_URI)))) {
+            assertFalse(stream.iterator().hasNext());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testIteratedOnlyOnce() throws Exception {
+        try (DBMSSourceStream stream = new DBMSSourceStream(Collections.<SourceObject>emptyList(), 1, 1,
+                                                            factory(new DBURI(THIN_URI)))) {
+            stream.iterator();
+            stream.iterator();
+        }
+    }
+
+    private DBMSSourceStream.MetadataFactory factory(final DBURI dbUri) {
+        return new DBMSSourceStream.MetadataFactory() {
+            @Override
+            public DBMSMetadata create() throws SQLException {
+                connections.incrementAndGet();
+                return new DBMSMetadata(mockConnection(), dbUri);
+            }
+        };
+    }
+
+    /**
+     * A connection returning two lines per name, except for the name "MISSING".
+     */
+    private Connection mockConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(new Answer<PreparedStatement>() {
+            @Override
+            public PreparedStatement answer(InvocationOnMock invocation) throws SQLException {
+                return mockStatement();
+            }
+        });
+        return connection;
+    }
+
+    private PreparedStatement mockStatement() throws SQLException {
+        final List<String> names = new ArrayList<>();
+        PreparedStatement statement = mock(PreparedStatement.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                int index = invocation.getArgument(0);
+                if (index > 2) {
+                    names.add(invocation.<String>getArgument(1));
+                }
+                return null;
+            }
+        }).when(statement).setString(anyInt(), anyString());
+        when(statement.executeQuery()).thenAnswer(new Answer<ResultSet>() {
+            @Override
+            public ResultSet answer(InvocationOnMock invocation) throws SQLException {
+                queries.incrementAndGet();
+                return mockResultSet(names);
+            }
+        });
+        return statement;
+    }
+
+    private ResultSet mockResultSet(List<String> names) throws SQLException {
+        final List<String[]> rows = new ArrayList<>();
+        for (String name : names) {
+            if (!"MISSING".equals(name)) {
+                rows.add(new String[] {name, "PACKAGE " + name + " AS\n"});
+                rows.add(new String[] {name, "END " + name + ";\n"});
+            }
+        }
+        final AtomicInteger row = new AtomicInteger(-1);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                return row.incrementAndGet() < rows.size();
+            }
+        });
+        when(resultSet.getString(anyString())).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock invocation) {
+                String column = invocation.getArgument(0);
+                return rows.get(row.get())["NAME".equals(column) ? 0 : 1];
+            }
+        });
+        return resultSet;
+    }
+}
@@ -6,6 +6,7 @@ package net.sourceforge.pmd.cpd;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.util.Properties;
 
@@ -46,13 +47,13 @@ public class CPPTokenizer extends JavaCCTokenizer {
         }
     }
 
-    private String maybeSkipBlocks(String test) throws IOException {
+    private Reader maybeSkipBlocks(SourceCode sourceCode) throws IOException {
         if (!skipBlocks) {
-            return test;
+            return sourceCode.getCodeReader();
         }
 
-        try (BufferedReader reader = new BufferedReader(new StringReader(test))) {
-            StringBuilder filtered = new StringBuilder(test.length());
+        try (BufferedReader reader = new BufferedReader(sourceCode.getCodeReader())) {
+            StringBuilder filtered = new StringBuilder();
             String line;
             boolean skip = false;
             while ((line = reader.readLine()) != null) {
@@ -67,15 +68,14 @@ public class CPPTokenizer extends JavaCCTokenizer {
                 // always add a new line to keep the line-numbering
                 filtered.append(PMD.EOL);
             }
-            return filtered.toString();
+            return new StringReader(filtered.toString());
         }
     }
 
     @Override
     protected TokenManager getLexerForSource(SourceCode sourceCode) {
         try {
-            StringBuilder buffer = sourceCode.getCodeBuffer();
-            return new CppTokenManager(IOUtil.skipBOM(new StringReader(maybeSkipBlocks(buffer.toString()))));
+            return new CppTokenManager(IOUtil.skipBOM(maybeSkipBlocks(sourceCode)));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -4,7 +4,6 @@
 
 package net.sourceforge.pmd.cpd;
 
-import java.io.StringReader;
 
 import org.codehaus.groovy.antlr.SourceInfo;
 import org.codehaus.groovy.antlr.parser.GroovyLexer;
@@ -22,9 +21,7 @@ public class GroovyTokenizer implements Tokenizer {
 
     @Override
     public void tokenize(SourceCode sourceCode, Tokens tokenEntries) {
-        StringBuilder buffer = sourceCode.getCodeBuffer();
-
-        GroovyLexer lexer = new GroovyLexer(new StringReader(buffer.toString()));
+        GroovyLexer lexer = new GroovyLexer(sourceCode.getCodeReader());
         TokenStream tokenStream = lexer.plumb();
 
         try {
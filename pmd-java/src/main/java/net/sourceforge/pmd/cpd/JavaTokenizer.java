@@ -4,8 +4,6 @@
 
 package net.sourceforge.pmd.cpd;
 
-import java.io.IOException;
-import java.io.StringReader;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.Properties;
@@ -37,15 +35,14 @@ public class JavaTokenizer extends JavaCCTokenizer {
     }
 
     @Override
-    public void tokenize(SourceCode sourceCode, Tokens tokenEntries) throws IOException {
+    protected void tokenize(TokenManager tokenManager, String fileName, Tokens tokenEntries) {
         constructorDetector = new ConstructorDetector(ignoreIdentifiers);
-        super.tokenize(sourceCode, tokenEntries);
+        super.tokenize(tokenManager, fileName, tokenEntries);
     }
 
     @Override
     protected TokenManager getLexerForSource(SourceCode sourceCode) {
-        final StringBuilder stringBuilder = sourceCode.getCodeBuffer();
-        return new JavaTokenManager(new StringReader(stringBuilder.toString()));
+        return new JavaTokenManager(sourceCode.getCodeReader());
     }
 
     @Override
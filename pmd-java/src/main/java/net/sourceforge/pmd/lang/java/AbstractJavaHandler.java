@@ -111,6 +111,11 @@ public abstract class AbstractJavaHandler extends AbstractLanguageVersionHandler
         };
     }
 
+    @Override
+    public boolean supportsLazySymbolTable() {
+        return true;
+    }
+
     @Override
     public VisitorStarter getTypeResolutionFacade(final ClassLoader classLoader) {
         return new VisitorStarter() {
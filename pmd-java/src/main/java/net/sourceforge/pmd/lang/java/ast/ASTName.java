@@ -30,6 +30,7 @@ public class ASTName extends AbstractJavaTypeNode {
     }
 
     public NameDeclaration getNameDeclaration() {
+        ensureSymbolTable();
         return this.nd;
     }
 
@@ -63,6 +63,7 @@ public class ASTVariableDeclaratorId extends AbstractJavaTypeNode implements Dim
      * Note: this might be <code>null</code> in certain cases.
      */
     public VariableNameDeclaration getNameDeclaration() {
+        ensureSymbolTable();
         return nameDeclaration;
     }
 
@@ -5,7 +5,9 @@
 package net.sourceforge.pmd.lang.java.ast;
 
 import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.impl.javacc.AbstractJjtreeNode;
+import net.sourceforge.pmd.lang.symboltable.LazySymbolTable;
 import net.sourceforge.pmd.lang.symboltable.Scope;
 
 @Deprecated
@@ -50,6 +52,13 @@ public abstract class AbstractJavaNode extends AbstractJjtreeNode<JavaNode> impl
         endColumn = parser.token.endColumn;
     }
 
+    @Override
+    protected void compact(int firstTokenIndex, int lastTokenIndex) {
+        super.compact(firstTokenIndex, lastTokenIndex);
+        // the parser holds the input buffer and the last token
+        parser = null;
+    }
+
     @Override
     public Object jjtAccept(JavaParserVisitor visitor, Object data) {
         return visitor.visit(this, data);
@@ -76,11 +85,36 @@ public abstract class AbstractJavaNode extends AbstractJjtreeNode<JavaNode> impl
     @Override
     public Scope getScope() {
         if (scope == null) {
+            if (ensureSymbolTable() && scope != null) {
+                return scope;
+            }
             return ((JavaNode) parent).getScope();
         }
         return scope;
     }
 
+    /**
+     * Builds the symbol table of the file if it has been deferred.
+     *
+     * @return True if the symbol table has been built by this call
+     *
+     * @see LazySymbolTable
+     */
+    boolean ensureSymbolTable() {
+        if (root == null) {
+            Node top = this;
+            while (top.getParent() != null) {
+                top = top.getParent();
+            }
+            if (!(top instanceof ASTCompilationUnit)) {
+                // detached subtree, there's no symbol table
+                return false;
+            }
+            root = (ASTCompilationUnit) top;
+        }
+        return LazySymbolTable.ensureBuilt(root);
+    }
+
     @InternalApi
     @Deprecated
     @Override
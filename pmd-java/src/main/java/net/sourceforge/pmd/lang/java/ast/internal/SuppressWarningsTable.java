@@ -0,0 +1,95 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.ast.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.lang.ast.AbstractNode;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTAnnotation;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.CanSuppressWarnings;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+/**
+ * The declarations of a file annotated with {@link SuppressWarnings}.
+ * It's computed once per file, the first time a violation is reported,
+ * so that checking whether a violation is suppressed doesn't need to
+ * look for annotations on all the ancestors of the node. Most files
+ * have no such declaration, then the check is immediate.
+ */
+@InternalApi
+public final class SuppressWarningsTable {
+
+    private static final SimpleDataKey<SuppressWarningsTable> KEY = DataMap.simpleDataKey("java.suppressWarnings");
+
+    /** The annotated declarations, in document order. */
+    private final List<JavaNode> declarations;
+
+    private SuppressWarningsTable(List<JavaNode> declarations) {
+        this.declarations = declarations;
+    }
+
+    /**
+     * Returns the table of the file, computing it the first time.
+     */
+    public static SuppressWarningsTable get(ASTCompilationUnit root) {
+        SuppressWarningsTable table = root.getUserMap().get(KEY);
+        if (table == null) {
+            table = new SuppressWarningsTable(findDeclarations(root));
+            root.getUserMap().set(KEY, table);
+        }
+        return table;
+    }
+
+    private static List<JavaNode> findDeclarations(ASTCompilationUnit root) {
+        List<JavaNode> declarations = new ArrayList<>();
+        for (ASTAnnotation annotation : root.findDescendantsOfType(ASTAnnotation.class, true)) {
+            Node parent = annotation.getParent();
+            String name = annotation.getAnnotationName();
+            if (parent instanceof CanSuppressWarnings
+                && ("SuppressWarnings".equals(name) || "java.lang.SuppressWarnings".equals(name))
+                && (declarations.isEmpty() || declarations.get(declarations.size() - 1) != parent)) {
+                declarations.add((JavaNode) parent);
+            }
+        }
+        return declarations.isEmpty() ? Collections.<JavaNode>emptyList() : declarations;
+    }
+
+    /**
+     * Returns true if the node, one of its ancestors, or for the
+     * compilation unit one of the type declarations, suppresses the rule.
+     */
+    public boolean isSuppressed(Node node, Rule rule) {
+        for (JavaNode declaration : declarations) {
+            Node parent = declaration.getParent();
+            boolean applies = node instanceof ASTCompilationUnit ? parent == node : encloses(declaration, node);
+            if (applies && ((CanSuppressWarnings) declaration).hasSuppressWarningsAnnotationFor(rule)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean encloses(Node declaration, Node node) {
+        if (declaration == node) {
+            return true;
+        } else if (declaration instanceof AbstractNode) {
+            return ((AbstractNode) declaration).isAncestorOf(node);
+        }
+        for (Node parent = node.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent == declaration) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
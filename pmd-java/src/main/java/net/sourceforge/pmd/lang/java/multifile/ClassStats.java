@@ -4,11 +4,11 @@
 
 package net.sourceforge.pmd.lang.java.multifile;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.Collections;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.sourceforge.pmd.lang.java.ast.JavaQualifiedName;
 import net.sourceforge.pmd.lang.java.multifile.signature.JavaFieldSigMask;
@@ -23,16 +23,16 @@ import net.sourceforge.pmd.lang.java.multifile.signature.JavaOperationSignature;
  * <p>This class does not provide methods to operate directly on its nested classes, but only on itself. To operate on a
  * nested class, retrieve the correct ClassStats with {@link PackageStats#getClassStats(JavaQualifiedName, boolean)}
  * then use the methods of ClassStats. Note that at this level, entities of the data structure do not manipulate
- * QualifiedNames anymore, only Strings.
+ * QualifiedNames anymore, only Strings. Members may be added concurrently.
  *
  * @author Clément Fournier
  * @since 6.0.0
  */
 final class ClassStats implements ClassMirror {
 
-    private Map<JavaOperationSignature, Set<String>> operations = new HashMap<>();
-    private Map<JavaFieldSignature, Set<String>> fields = new HashMap<>();
-    private Map<String, ClassStats> nestedClasses = new HashMap<>();
+    private final ConcurrentMap<JavaOperationSignature, Set<String>> operations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<JavaFieldSignature, Set<String>> fields = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ClassStats> nestedClasses = new ConcurrentHashMap<>();
 
     // References to the hierarchy
     // TODO:cf useful?
@@ -61,7 +61,7 @@ final class ClassStats implements ClassMirror {
      */
     ClassStats getNestedClassStats(String className, boolean createIfNotFound) {
         if (createIfNotFound && !nestedClasses.containsKey(className)) {
-            nestedClasses.put(className, new ClassStats());
+            nestedClasses.putIfAbsent(className, new ClassStats());
         }
         return nestedClasses.get(className);
     }
@@ -75,7 +75,7 @@ final class ClassStats implements ClassMirror {
      */
     void addOperation(String name, JavaOperationSignature sig) {
         if (!operations.containsKey(sig)) {
-            operations.put(sig, new HashSet<String>());
+            operations.putIfAbsent(sig, newNameSet());
         }
         operations.get(sig).add(name);
     }
@@ -89,12 +89,17 @@ final class ClassStats implements ClassMirror {
      */
     void addField(String name, JavaFieldSignature sig) {
         if (!fields.containsKey(sig)) {
-            fields.put(sig, new HashSet<String>());
+            fields.putIfAbsent(sig, newNameSet());
         }
         fields.get(sig).add(name);
     }
 
 
+    private static Set<String> newNameSet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    }
+
+
     @Override
     public boolean hasMatchingOpSig(String name, JavaOperationSigMask mask) {
         // Indexing on signatures optimises this type of request
@@ -4,10 +4,10 @@
 
 package net.sourceforge.pmd.lang.java.multifile;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.sourceforge.pmd.lang.java.multifile.signature.JavaFieldSigMask;
 import net.sourceforge.pmd.lang.java.multifile.signature.JavaOperationSigMask;
@@ -21,6 +21,8 @@ import net.sourceforge.pmd.lang.java.qname.JavaTypeQualifiedName;
  * to metrics.
  *
  * @author Clément Fournier
+ * <p>Files may be indexed concurrently.
+ *
  * @see ClassStats
  * @since 6.0.0
  */
@@ -28,8 +30,8 @@ final class PackageStats implements ProjectMirror {
 
     static final PackageStats INSTANCE = new PackageStats();
 
-    private final Map<String, PackageStats> subPackages = new HashMap<>();
-    private final Map<String, ClassStats> classes = new HashMap<>();
+    private final ConcurrentMap<String, PackageStats> subPackages = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ClassStats> classes = new ConcurrentHashMap<>();
 
 
     /**
@@ -59,7 +61,7 @@ final class PackageStats implements ProjectMirror {
 
         String topClassName = qname.getClassList().get(0);
         if (createIfNotFound && container.classes.get(topClassName) == null) {
-            container.classes.put(topClassName, new ClassStats());
+            container.classes.putIfAbsent(topClassName, new ClassStats());
         }
 
         ClassStats next = container.classes.get(topClassName);
@@ -102,7 +104,7 @@ final class PackageStats implements ProjectMirror {
         for (Iterator<String> it = packagePath.iterator(); it.hasNext() && next != null;) {
             String currentPackage = it.next();
             if (createIfNotFound && next.subPackages.get(currentPackage) == null) {
-                next.subPackages.put(currentPackage, new PackageStats());
+                next.subPackages.putIfAbsent(currentPackage, new PackageStats());
             }
 
             next = next.subPackages.get(currentPackage);
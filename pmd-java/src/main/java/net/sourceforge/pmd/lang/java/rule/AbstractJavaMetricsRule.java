@@ -5,6 +5,7 @@
 package net.sourceforge.pmd.lang.java.rule;
 
 import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.lang.AnalysisPhase;
 import net.sourceforge.pmd.lang.java.ast.ASTAnnotationTypeDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTAnyTypeDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
@@ -27,6 +28,10 @@ import net.sourceforge.pmd.lang.java.ast.MethodLikeNode;
 @InternalApi
 public abstract class AbstractJavaMetricsRule extends AbstractJavaRule {
 
+    protected AbstractJavaMetricsRule() {
+        declareDependencies(AnalysisPhase.METRICS);
+    }
+
     @Override
     public final Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
         return visit((ASTAnyTypeDeclaration) node, data);
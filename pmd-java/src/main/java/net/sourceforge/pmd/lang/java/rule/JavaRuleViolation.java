@@ -5,28 +5,21 @@
 package net.sourceforge.pmd.lang.java.rule;
 
 import java.util.Iterator;
-import java.util.Set;
 
 import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.RuleViolation;
 import net.sourceforge.pmd.lang.ast.Node;
-import net.sourceforge.pmd.lang.java.ast.ASTAnyTypeDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTFormalParameter;
 import net.sourceforge.pmd.lang.java.ast.ASTLocalVariableDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclarator;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
-import net.sourceforge.pmd.lang.java.ast.AccessNode;
 import net.sourceforge.pmd.lang.java.ast.CanSuppressWarnings;
 import net.sourceforge.pmd.lang.java.ast.JavaNode;
-import net.sourceforge.pmd.lang.java.symboltable.ClassNameDeclaration;
-import net.sourceforge.pmd.lang.java.symboltable.ClassScope;
-import net.sourceforge.pmd.lang.java.symboltable.MethodScope;
-import net.sourceforge.pmd.lang.java.symboltable.SourceFileScope;
+import net.sourceforge.pmd.lang.java.ast.internal.SuppressWarningsTable;
 import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
-import net.sourceforge.pmd.lang.symboltable.Scope;
 
 /**
  * This is a Java RuleViolation. It knows how to try to extract the following
@@ -53,18 +46,19 @@ public class JavaRuleViolation extends ParametricRuleViolation<JavaNode> {
         super(rule, ctx, node, message);
 
         if (node != null) {
-            final Scope scope = node.getScope();
-            final SourceFileScope sourceFileScope = scope.getEnclosingScope(SourceFileScope.class);
-
-            // Package name is on SourceFileScope
-            packageName = sourceFileScope.getPackageName() == null ? "" : sourceFileScope.getPackageName();
-
-            // Class name is built from enclosing ClassScopes
-            setClassNameFrom(node);
+            // the names shared by the violations of the file are computed once,
+            // the violation only keeps the strings, not the tree
+            ViolationContextTable table = ViolationContextTable.get(node.getRoot());
+            packageName = table.getPackageName();
+
+            String qualifiedName = table.getClassName(node);
+            if (qualifiedName != null) {
+                className = qualifiedName;
+            }
 
-            // Method name comes from 1st enclosing MethodScope
-            if (scope.getEnclosingScope(MethodScope.class) != null) {
-                methodName = scope.getEnclosingScope(MethodScope.class).getName();
+            String enclosingMethodName = table.getMethodName(node);
+            if (enclosingMethodName != null) {
+                methodName = enclosingMethodName;
             }
             // Variable name node specific
             setVariableNameIfExists(node);
@@ -85,69 +79,18 @@ public class JavaRuleViolation extends ParametricRuleViolation<JavaNode> {
      */
     @Deprecated
     public static boolean isSupressed(Node node, Rule rule) {
-        boolean result = suppresses(node, rule);
-
-        if (!result && node instanceof ASTCompilationUnit) {
-            for (int i = 0; !result && i < node.getNumChildren(); i++) {
-                result = suppresses(node.getChild(i), rule);
-            }
+        if (node instanceof ASTCompilationUnit || node instanceof JavaNode && node.getParent() != null) {
+            // the annotated declarations of the file are looked up once
+            return SuppressWarningsTable.get(((JavaNode) node).getRoot()).isSuppressed(node, rule);
         }
-        if (!result) {
-            Node parent = node.getParent();
-            while (!result && parent != null) {
-                result = suppresses(parent, rule);
-                parent = parent.getParent();
-            }
-        }
-        return result;
-    }
-
-    private void setClassNameFrom(JavaNode node) {
-        String qualifiedName = null;
 
-        if (node instanceof ASTAnyTypeDeclaration && node.getScope() instanceof ClassScope) {
-            qualifiedName = ((ClassScope) node.getScope()).getClassName();
-        }
-
-        for (ASTAnyTypeDeclaration parent : node.getParentsOfType(ASTAnyTypeDeclaration.class)) {
-            String clsName = parent.getScope().getEnclosingScope(ClassScope.class).getClassName();
-            if (qualifiedName == null) {
-                qualifiedName = clsName;
-            } else {
-                qualifiedName = clsName + '$' + qualifiedName;
-            }
-        }
-
-        if (qualifiedName == null) {
-            Set<ClassNameDeclaration> classes = node.getScope().getEnclosingScope(SourceFileScope.class)
-                    .getClassDeclarations().keySet();
-            for (ClassNameDeclaration c : classes) {
-                // find the first public class/enum declaration
-                if (c.getAccessNodeParent() instanceof AccessNode) {
-                    if (((AccessNode) c.getAccessNodeParent()).isPublic()) {
-                        qualifiedName = c.getImage();
-                        break;
-                    }
-                }
-            }
-
-            // Still not found?
-            if (qualifiedName == null) {
-                for (ClassNameDeclaration c : classes) {
-                    // find the first package-private class/enum declaration
-                    if (c.getAccessNodeParent() instanceof AccessNode) {
-                        if (((AccessNode) c.getAccessNodeParent()).isPackagePrivate()) {
-                            qualifiedName = c.getImage();
-                            break;
-                        }
-                    }
-                }
-            }
-        }
-
-        if (qualifiedName != null) {
-            className = qualifiedName;
+        boolean result = suppresses(node, rule);
+        Node parent = node.getParent();
+        while (!result && parent != null) {
+            result = suppresses(parent, rule);
+            parent = parent.getParent();
         }
+        return result;
     }
 
     private static boolean suppresses(final Node node, Rule rule) {
@@ -0,0 +1,116 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.rule;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.java.ast.ASTAnyTypeDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTConstructorDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodOrConstructorDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTTypeDeclaration;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+/**
+ * The names shared by all the violations of a file: the package name,
+ * the name of each type declaration, and the name of the main type of
+ * the file. They're computed at most once per file, when a violation
+ * needs them.
+ *
+ * <p>The names are built from the AST, and not taken from the qualified
+ * names or from the scopes, because those are only resolved if a rule
+ * needs them.
+ */
+final class ViolationContextTable {
+
+    private static final SimpleDataKey<ViolationContextTable> KEY = DataMap.simpleDataKey("java.violationContext");
+
+    private final ASTCompilationUnit root;
+    private final Map<ASTAnyTypeDeclaration, String> classNames = new IdentityHashMap<>();
+    private String packageName;
+    private String mainClassName;
+
+    private ViolationContextTable(ASTCompilationUnit root) {
+        this.root = root;
+    }
+
+    static ViolationContextTable get(ASTCompilationUnit root) {
+        ViolationContextTable table = root.getUserMap().get(KEY);
+        if (table == null) {
+            table = new ViolationContextTable(root);
+            root.getUserMap().set(KEY, table);
+        }
+        return table;
+    }
+
+    String getPackageName() {
+        if (packageName == null) {
+            packageName = root.getPackageName();
+        }
+        return packageName;
+    }
+
+    /**
+     * Returns the name of the innermost type declaring the node, with
+     * {@code $} between the names of nested types. For nodes outside of
+     * any type, returns the name of the first public type of the file,
+     * or else of the first package-private type, or else null.
+     */
+    String getClassName(Node node) {
+        ASTAnyTypeDeclaration type = node instanceof ASTAnyTypeDeclaration
+            ? (ASTAnyTypeDeclaration) node
+            : node.getFirstParentOfType(ASTAnyTypeDeclaration.class);
+        return type == null ? getMainClassName() : getClassName(type);
+    }
+
+    /**
+     * Returns the name of the innermost method or constructor declaring
+     * the node, or null if there's none. This is the name of the enclosing
+     * {@link net.sourceforge.pmd.lang.java.symboltable.MethodScope}.
+     */
+    String getMethodName(Node node) {
+        ASTMethodOrConstructorDeclaration method = node instanceof ASTMethodOrConstructorDeclaration
+            ? (ASTMethodOrConstructorDeclaration) node
+            : node.getFirstParentOfType(ASTMethodOrConstructorDeclaration.class);
+        if (method instanceof ASTMethodDeclaration) {
+            return ((ASTMethodDeclaration) method).getName();
+        } else if (method instanceof ASTConstructorDeclaration) {
+            return method.getFirstParentOfType(ASTAnyTypeDeclaration.class).getImage();
+        }
+        return null;
+    }
+
+    private String getClassName(ASTAnyTypeDeclaration type) {
+        String name = classNames.get(type);
+        if (name == null) {
+            ASTAnyTypeDeclaration enclosing = type.getFirstParentOfType(ASTAnyTypeDeclaration.class);
+            name = enclosing == null ? type.getImage() : getClassName(enclosing) + '$' + type.getImage();
+            classNames.put(type, name);
+        }
+        return name;
+    }
+
+    private String getMainClassName() {
+        if (mainClassName == null) {
+            ASTAnyTypeDeclaration packagePrivate = null;
+            for (ASTTypeDeclaration declaration : root.findChildrenOfType(ASTTypeDeclaration.class)) {
+                ASTAnyTypeDeclaration type = declaration.getFirstChildOfType(ASTAnyTypeDeclaration.class);
+                if (type != null && type.isPublic()) {
+                    mainClassName = type.getImage();
+                    return mainClassName;
+                } else if (type != null && packagePrivate == null && type.isPackagePrivate()) {
+                    packagePrivate = type;
+                }
+            }
+            // the empty string stands for "none"
+            mainClassName = packagePrivate == null ? "" : packagePrivate.getImage();
+        }
+        return mainClassName.isEmpty() ? null : mainClassName;
+    }
+}
@@ -59,6 +59,7 @@ public class AvoidUsingHardCodedIPRule extends AbstractJavaRule {
     protected boolean checkIPv4MappedIPv6;
 
     public AvoidUsingHardCodedIPRule() {
+        declareDependencies();
         definePropertyDescriptor(CHECK_ADDRESS_TYPES_DESCRIPTOR);
 
         addRuleChainVisit(ASTCompilationUnit.class);
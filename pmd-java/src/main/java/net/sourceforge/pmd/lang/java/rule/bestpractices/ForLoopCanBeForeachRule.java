@@ -4,14 +4,13 @@
 
 package net.sourceforge.pmd.lang.java.rule.bestpractices;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 
-import org.jaxen.JaxenException;
-
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTForInit;
@@ -28,6 +27,8 @@ import net.sourceforge.pmd.lang.java.ast.ASTVariableInitializer;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
 import net.sourceforge.pmd.lang.java.symboltable.VariableNameDeclaration;
 import net.sourceforge.pmd.lang.java.typeresolution.TypeHelper;
+import net.sourceforge.pmd.lang.rule.xpath.CompiledXPath;
+import net.sourceforge.pmd.lang.rule.xpath.XPathVersion;
 import net.sourceforge.pmd.lang.symboltable.NameOccurrence;
 import net.sourceforge.pmd.lang.symboltable.Scope;
 import net.sourceforge.pmd.lang.symboltable.ScopedNode;
@@ -38,6 +39,45 @@ import net.sourceforge.pmd.lang.symboltable.ScopedNode;
  */
 public class ForLoopCanBeForeachRule extends AbstractJavaRule {
 
+    private static final String SIMPLE_FOR_UPDATE = "./StatementExpressionList[count(*)=1]"
+        + "/StatementExpression"
+        + "/*[self::PostfixExpression and @Image='++' or self::PreIncrementExpression]"
+        + "/PrimaryExpression"
+        + "/PrimaryPrefix"
+        + "/Name";
+
+    private static final CompiledXPath SIMPLE_FOR_UPDATE_XPATH = CompiledXPath.compile(SIMPLE_FOR_UPDATE);
+
+    private static final CompiledXPath SIMPLE_FOR_UPDATE_OF_XPATH =
+        CompiledXPath.compile(SIMPLE_FOR_UPDATE + "[@Image=$itName]", XPathVersion.XPATH_1_0, "itName");
+
+    private static final CompiledXPath ZERO_INITIALIZER_XPATH = CompiledXPath.compile(
+        "./VariableInitializer/Expression/PrimaryExpression/PrimaryPrefix/Literal[@Image='0' and "
+            + "@StringLiteral='false']");
+
+    private static final CompiledXPath GUARD_LEFT_XPATH = CompiledXPath.compile(
+        "./RelationalExpression/PrimaryExpression/PrimaryPrefix/Name[@Image=$itName]", XPathVersion.XPATH_1_0, "itName");
+
+    private static final CompiledXPath GUARD_RIGHT_XPATH = CompiledXPath.compile(
+        "./RelationalExpression[@Image='<']/PrimaryExpression/PrimaryPrefix"
+            + "/Name[matches(@Image,'\\w+\\.(size|length)')]"
+            + "|"
+            + "./RelationalExpression[@Image='<=']/AdditiveExpression[count(*)=2 and "
+            + "@Operator='-' and PrimaryExpression/PrimaryPrefix/Literal[@Image='1']]"
+            + "/PrimaryExpression/PrimaryPrefix/Name[matches(@Image,'\\w+\\.(size|length)')]");
+
+    private static final CompiledXPath ARRAY_INDEX_XPATH = CompiledXPath.compile(
+        "./Expression/PrimaryExpression[count(*)=1]/PrimaryPrefix/Name[@Image=$index]", XPathVersion.XPATH_1_0, "index");
+
+    private static final CompiledXPath ARRAY_NAME_XPATH = CompiledXPath.compile(
+        "../PrimaryPrefix/Name[@Image=$arrayName]", XPathVersion.XPATH_1_0, "arrayName");
+
+    private static final CompiledXPath ASSIGNMENT_XPATH = CompiledXPath.compile("../../AssignmentOperator");
+
+    private static final CompiledXPath HAS_NEXT_XPATH = CompiledXPath.compile(
+        "./PrimaryExpression/PrimaryPrefix/Name[@Image=concat($indexName, '.hasNext')]",
+        XPathVersion.XPATH_1_0, "indexName");
+
     public ForLoopCanBeForeachRule() {
         addRuleChainVisit(ASTForStatement.class);
     }
@@ -142,13 +182,9 @@ public class ForLoopCanBeForeachRule extends AbstractJavaRule {
     private Entry<VariableNameDeclaration, List<NameOccurrence>> guessIndexVarFromUpdate(ASTForUpdate update) {
 
         Node name = null;
-        try {
-            List<Node> match = update.findChildNodesWithXPath(getSimpleForUpdateXpath(null));
-            if (!match.isEmpty()) {
-                name = match.get(0);
-            }
-        } catch (JaxenException je) {
-            throw new RuntimeException(je);
+        List<Node> match = SIMPLE_FOR_UPDATE_XPATH.select(update);
+        if (!match.isEmpty()) {
+            name = match.get(0);
         }
 
         if (name == null || name.getImage() == null) {
@@ -163,18 +199,7 @@ public class ForLoopCanBeForeachRule extends AbstractJavaRule {
      * @return true if there's only one update statement of the form i++ or ++i.
      */
     private boolean isForUpdateSimpleEnough(ASTForUpdate update, String itName) {
-        return update != null && update.hasDescendantMatchingXPath(getSimpleForUpdateXpath(itName));
-    }
-
-
-    private String getSimpleForUpdateXpath(String itName) {
-        return "./StatementExpressionList[count(*)=1]"
-            + "/StatementExpression"
-            + "/*[self::PostfixExpression and @Image='++' or self::PreIncrementExpression]"
-            + "/PrimaryExpression"
-            + "/PrimaryPrefix"
-            + "/Name"
-            + (itName == null ? "" : "[@Image='" + itName + "']");
+        return update != null && SIMPLE_FOR_UPDATE_OF_XPATH.matches(update, Collections.singletonMap("itName", itName));
     }
 
 
@@ -187,19 +212,7 @@ public class ForLoopCanBeForeachRule extends AbstractJavaRule {
             return false;
         }
 
-        try {
-            List<Node> zeroLiteral = declarator.findChildNodesWithXPath(
-                "./VariableInitializer/Expression/PrimaryExpression/PrimaryPrefix/Literal[@Image='0' and "
-                    + "@StringLiteral='false']");
-            if (!zeroLiteral.isEmpty()) {
-                return true;
-            }
-        } catch (JaxenException je) {
-            throw new RuntimeException(je);
-        }
-
-        return false;
-
+        return ZERO_INITIALIZER_XPATH.matches(declarator);
     }
 
 
@@ -220,29 +233,12 @@ public class ForLoopCanBeForeachRule extends AbstractJavaRule {
 
             if (relationalExpression.hasImageEqualTo("<") || relationalExpression.hasImageEqualTo("<=")) {
 
-                try {
-                    List<Node> left = guardCondition.findChildNodesWithXPath(
-                        "./RelationalExpression/PrimaryExpression/PrimaryPrefix/Name[@Image='" + itName + "']");
-
-                    List<Node> right = guardCondition.findChildNodesWithXPath(
-                        "./RelationalExpression[@Image='<']/PrimaryExpression/PrimaryPrefix"
-                            + "/Name[matches(@Image,'\\w+\\.(size|length)')]"
-                            + "|"
-                            + "./RelationalExpression[@Image='<=']/AdditiveExpression[count(*)=2 and "
-                            + "@Operator='-' and PrimaryExpression/PrimaryPrefix/Literal[@Image='1']]"
-                            + "/PrimaryExpression/PrimaryPrefix/Name[matches(@Image,'\\w+\\.(size|length)')]");
-
-                    if (left.isEmpty()) {
-                        return null;
-                    } else if (!right.isEmpty()) {
-                        return right.get(0).getImage().split("\\.")[0];
-                    } else {
-                        return null;
-                    }
-
-                } catch (JaxenException je) {
-                    throw new RuntimeException(je);
+                if (!GUARD_LEFT_XPATH.matches(guardCondition, Collections.singletonMap("itName", itName))) {
+                    return null;
                 }
+
+                List<Node> right = GUARD_RIGHT_XPATH.select(guardCondition);
+                return right.isEmpty() ? null : right.get(0).getImage().split("\\.")[0];
             }
         }
         return null;
@@ -300,10 +296,9 @@ public class ForLoopCanBeForeachRule extends AbstractJavaRule {
                 return false;
             }
 
-            return suffix.hasDescendantMatchingXPath("./Expression/PrimaryExpression[count(*)"
-                                                         + "=1]/PrimaryPrefix/Name[@Image='" + occ.getImage() + "']")
-                && suffix.hasDescendantMatchingXPath("../PrimaryPrefix/Name[@Image='" + arrayName + "']")
-                && !suffix.hasDescendantMatchingXPath("../../AssignmentOperator");
+            return ARRAY_INDEX_XPATH.matches(suffix, Collections.singletonMap("index", occ.getImage()))
+                && ARRAY_NAME_XPATH.matches(suffix, Collections.singletonMap("arrayName", arrayName))
+                && !ASSIGNMENT_XPATH.matches(suffix);
         }
         return false;
     }
@@ -388,8 +383,7 @@ public class ForLoopCanBeForeachRule extends AbstractJavaRule {
             return false;
         }
 
-        if (!guardCondition.hasDescendantMatchingXPath(
-            "./PrimaryExpression/PrimaryPrefix/Name[@Image='" + indexName + ".hasNext']")) {
+        if (!HAS_NEXT_XPATH.matches(guardCondition, Collections.singletonMap("indexName", indexName))) {
             return false;
         }
 
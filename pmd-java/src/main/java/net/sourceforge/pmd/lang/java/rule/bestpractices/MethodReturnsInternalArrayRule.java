@@ -6,8 +6,6 @@ package net.sourceforge.pmd.lang.java.rule.bestpractices;
 
 import java.util.List;
 
-import org.jaxen.JaxenException;
-
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTAllocationExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTAnyTypeDeclaration;
@@ -23,6 +21,7 @@ import net.sourceforge.pmd.lang.java.ast.ASTPrimarySuffix;
 import net.sourceforge.pmd.lang.java.ast.ASTReturnStatement;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableInitializer;
+import net.sourceforge.pmd.lang.rule.xpath.CompiledXPath;
 
 /**
  * Implementation note: this rule currently ignores return types of y.x.z,
@@ -32,6 +31,10 @@ import net.sourceforge.pmd.lang.java.ast.ASTVariableInitializer;
  */
 public class MethodReturnsInternalArrayRule extends AbstractSunSecureRule {
 
+    private static final CompiledXPath ZERO_LENGTH_ARRAY_ALLOCATION = CompiledXPath.compile(
+        "./PrimaryExpression/PrimaryPrefix/AllocationExpression/ArrayDimsAndInits/Expression/PrimaryExpression"
+            + "/PrimaryPrefix/Literal[@IntLiteral=\"true\"][@Image=\"0\"]");
+
     @Override
     public Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
         if (node.isInterface()) {
@@ -123,14 +126,9 @@ public class MethodReturnsInternalArrayRule extends AbstractSunSecureRule {
                         if (child instanceof ASTArrayInitializer && child.getNumChildren() == 0) {
                             return true;
                         } else if (child instanceof ASTExpression) {
-                            try {
-                                List<? extends Node> arrayAllocation = child.findChildNodesWithXPath(
-                                        "./PrimaryExpression/PrimaryPrefix/AllocationExpression/ArrayDimsAndInits/Expression/PrimaryExpression/PrimaryPrefix/Literal[@IntLiteral=\"true\"][@Image=\"0\"]");
-                                if (arrayAllocation != null && arrayAllocation.size() == 1) {
-                                    return true;
-                                }
-                            } catch (JaxenException e) {
-                                return false;
+                            List<Node> arrayAllocation = ZERO_LENGTH_ARRAY_ALLOCATION.select(child);
+                            if (arrayAllocation.size() == 1) {
+                                return true;
                             }
                         }
                     }
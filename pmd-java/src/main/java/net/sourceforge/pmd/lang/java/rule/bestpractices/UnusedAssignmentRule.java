@@ -99,6 +99,14 @@ public class UnusedAssignmentRule extends AbstractJavaRule {
         fall-through, which could be useful to improve accuracy of other
         rules.
 
+        This rule doesn't use the ControlFlowGraph and ReachingDefinitions
+        of net.sourceforge.pmd.lang.dfa, like DataflowAnomalyAnalysis
+        does. These are built from the DFA graph of a single method, which
+        models neither constructors and initializers (needed for fields),
+        nor lambdas, anonymous classes, the control flow of shortcut
+        conditionals or the exceptional edges of try/catch/finally. The
+        rule can be migrated once the DFA graph covers those.
+
         TODO
            * labels on arbitrary statements (currently only loops)
            * explicit ctor call (hard to impossible without type res,
@@ -8,8 +8,14 @@ import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclarator;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.rule.ThreadSafeRule;
 
-public class AvoidDollarSignsRule extends AbstractJavaRule {
+public class AvoidDollarSignsRule extends AbstractJavaRule implements ThreadSafeRule {
+
+    public AvoidDollarSignsRule() {
+        // only looks at the syntax
+        declareDependencies();
+    }
 
     @Override
     public Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
@@ -19,6 +19,11 @@ public class DuplicateImportsRule extends AbstractJavaRule {
     private Set<ImportWrapper> singleTypeImports;
     private Set<ImportWrapper> importOnDemandImports;
 
+    public DuplicateImportsRule() {
+        // only looks at the syntax
+        declareDependencies();
+    }
+
     @Override
     public Object visit(ASTCompilationUnit node, Object data) {
         singleTypeImports = new HashSet<>();
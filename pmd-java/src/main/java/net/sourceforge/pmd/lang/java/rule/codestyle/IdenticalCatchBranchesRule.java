@@ -85,6 +85,11 @@ public class IdenticalCatchBranchesRule extends AbstractJavaRule {
     }
 
 
+    public IdenticalCatchBranchesRule() {
+        // only looks at the syntax
+        declareDependencies();
+    }
+
     @Override
     public Object visit(ASTTryStatement node, Object data) {
 
@@ -15,6 +15,11 @@ import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
 
 public class OnlyOneReturnRule extends AbstractJavaRule {
 
+    public OnlyOneReturnRule() {
+        // only looks at the syntax
+        declareDependencies();
+    }
+
     @Override
     public Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
         if (node.isInterface()) {
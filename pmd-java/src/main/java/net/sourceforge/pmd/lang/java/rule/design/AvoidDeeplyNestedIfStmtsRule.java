@@ -24,6 +24,7 @@ public class AvoidDeeplyNestedIfStmtsRule extends AbstractJavaRule {
                              .require(positive()).defaultValue(3).build();
 
     public AvoidDeeplyNestedIfStmtsRule() {
+        declareDependencies();
         definePropertyDescriptor(PROBLEM_DEPTH_DESCRIPTOR);
     }
 
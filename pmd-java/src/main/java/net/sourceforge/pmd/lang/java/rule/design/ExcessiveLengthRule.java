@@ -20,6 +20,7 @@ public class ExcessiveLengthRule extends AbstractStatisticalJavaRule {
     private Class<?> nodeClass;
 
     public ExcessiveLengthRule(Class<?> nodeClass) {
+        declareDependencies();
         this.nodeClass = nodeClass;
     }
 
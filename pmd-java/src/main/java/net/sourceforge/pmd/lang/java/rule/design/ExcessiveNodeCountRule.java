@@ -25,6 +25,7 @@ public class ExcessiveNodeCountRule extends AbstractStatisticalJavaRule {
     private Class<?> nodeClass;
 
     public ExcessiveNodeCountRule(Class<?> nodeClass) {
+        declareDependencies();
         this.nodeClass = nodeClass;
     }
 
@@ -5,6 +5,7 @@
 package net.sourceforge.pmd.lang.java.rule.design;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
@@ -16,6 +17,8 @@ import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTImportDeclaration;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
 import net.sourceforge.pmd.lang.java.rule.regex.RegexHelper;
+import net.sourceforge.pmd.lang.rule.xpath.CompiledXPath;
+import net.sourceforge.pmd.lang.rule.xpath.XPathVersion;
 import net.sourceforge.pmd.properties.StringMultiProperty;
 import net.sourceforge.pmd.properties.StringProperty;
 
@@ -66,6 +69,10 @@ public class GenericClassCounterRule extends AbstractJavaRule {
     private static final StringProperty THRESHOLD_DESCRIPTOR = new StringProperty("threshold",
             "Defines how many occurences are legal", new String(), 4.0f);
 
+    private static final CompiledXPath EXTENDS_OR_IMPLEMENTS = CompiledXPath.compile(
+            "//ClassOrInterfaceDeclaration[(./ExtendsList/ClassOrInterfaceType[@Image = $matchType])"
+            + " or (./ImplementsList/ClassOrInterfaceType[@Image = $matchType])]", XPathVersion.XPATH_1_0, "matchType");
+
     private List<Pattern> namesMatch = new ArrayList<>(0);
     private List<Pattern> typesMatch = new ArrayList<>(0);
     private List<Node> matches = new ArrayList<>(0);
@@ -156,10 +163,7 @@ public class GenericClassCounterRule extends AbstractJavaRule {
     }
 
     private boolean searchForAMatch(String matchType, Node node) {
-        String xpathQuery = "//ClassOrInterfaceDeclaration[(./ExtendsList/ClassOrInterfaceType[@Image = '" + matchType
-                + "']) or (./ImplementsList/ClassOrInterfaceType[@Image = '" + matchType + "'])]";
-
-        return node.hasDescendantMatchingXPath(xpathQuery);
+        return EXTENDS_OR_IMPLEMENTS.matches(node, Collections.singletonMap("matchType", matchType));
     }
 
     @Override
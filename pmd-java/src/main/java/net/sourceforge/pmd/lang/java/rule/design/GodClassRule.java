@@ -9,6 +9,7 @@ import static net.sourceforge.pmd.lang.java.metrics.api.JavaClassMetricKey.ATFD;
 import static net.sourceforge.pmd.lang.java.metrics.api.JavaClassMetricKey.TCC;
 import static net.sourceforge.pmd.lang.java.metrics.api.JavaClassMetricKey.WMC;
 
+import net.sourceforge.pmd.lang.AnalysisPhase;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
 import net.sourceforge.pmd.lang.metrics.MetricsUtil;
@@ -41,6 +42,9 @@ public class GodClassRule extends AbstractJavaRule {
      */
     private static final double TCC_THRESHOLD = 1.0 / 3.0;
 
+    public GodClassRule() {
+        declareDependencies(AnalysisPhase.METRICS);
+    }
 
     @Override
     public Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
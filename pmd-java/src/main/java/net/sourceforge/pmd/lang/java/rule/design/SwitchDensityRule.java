@@ -52,6 +52,7 @@ public class SwitchDensityRule extends AbstractStatisticalJavaRule {
 
     public SwitchDensityRule() {
         super();
+        declareDependencies();
         setProperty(MINIMUM_DESCRIPTOR, 10d);
     }
 
@@ -47,6 +47,7 @@ public class AssignmentInOperandRule extends AbstractJavaRule {
 
 
     public AssignmentInOperandRule() {
+        declareDependencies();
         definePropertyDescriptor(ALLOW_IF_DESCRIPTOR);
         definePropertyDescriptor(ALLOW_FOR_DESCRIPTOR);
         definePropertyDescriptor(ALLOW_WHILE_DESCRIPTOR);
@@ -53,6 +53,7 @@ public class AvoidBranchingStatementAsLastInLoopRule extends AbstractJavaRule {
 
 
     public AvoidBranchingStatementAsLastInLoopRule() {
+        declareDependencies();
         definePropertyDescriptor(CHECK_BREAK_LOOP_TYPES);
         definePropertyDescriptor(CHECK_CONTINUE_LOOP_TYPES);
         definePropertyDescriptor(CHECK_RETURN_LOOP_TYPES);
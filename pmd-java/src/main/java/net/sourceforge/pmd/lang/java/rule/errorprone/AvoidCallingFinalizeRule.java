@@ -13,8 +13,9 @@ import net.sourceforge.pmd.lang.java.ast.ASTPrimaryPrefix;
 import net.sourceforge.pmd.lang.java.ast.ASTPrimarySuffix;
 import net.sourceforge.pmd.lang.java.ast.JavaNode;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.rule.ThreadSafeRule;
 
-public class AvoidCallingFinalizeRule extends AbstractJavaRule {
+public class AvoidCallingFinalizeRule extends AbstractJavaRule implements ThreadSafeRule {
 
     private static final Pattern FINALIZE_METHOD_PATTERN = Pattern.compile("^(.+\\.)?finalize$");
 
@@ -6,6 +6,7 @@ package net.sourceforge.pmd.lang.java.rule.errorprone;
 
 import net.sourceforge.pmd.lang.java.ast.ASTCatchStatement;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.rule.ThreadSafeRule;
 
 /**
  * Finds <code>catch</code> statements containing <code>throwable</code> as the
@@ -13,7 +14,7 @@ import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
  *
  * @author <a href="mailto:trondandersen@c2i.net">Trond Andersen</a>
  */
-public class AvoidCatchingThrowableRule extends AbstractJavaRule {
+public class AvoidCatchingThrowableRule extends AbstractJavaRule implements ThreadSafeRule {
 
     @Override
     public Object visit(ASTCatchStatement catchStatement, Object data) {
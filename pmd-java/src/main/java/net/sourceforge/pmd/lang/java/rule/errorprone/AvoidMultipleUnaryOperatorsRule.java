@@ -11,10 +11,12 @@ import net.sourceforge.pmd.lang.java.ast.ASTPrimaryPrefix;
 import net.sourceforge.pmd.lang.java.ast.ASTUnaryExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTUnaryExpressionNotPlusMinus;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.rule.ThreadSafeRule;
 
-public class AvoidMultipleUnaryOperatorsRule extends AbstractJavaRule {
+public class AvoidMultipleUnaryOperatorsRule extends AbstractJavaRule implements ThreadSafeRule {
 
     public AvoidMultipleUnaryOperatorsRule() {
+        declareDependencies();
         super.addRuleChainVisit(ASTUnaryExpression.class);
         super.addRuleChainVisit(ASTUnaryExpressionNotPlusMinus.class);
     }
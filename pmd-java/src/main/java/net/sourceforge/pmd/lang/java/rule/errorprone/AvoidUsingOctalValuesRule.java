@@ -10,10 +10,11 @@ import java.util.regex.Pattern;
 
 import net.sourceforge.pmd.lang.java.ast.ASTLiteral;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.rule.ThreadSafeRule;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
 
 
-public class AvoidUsingOctalValuesRule extends AbstractJavaRule {
+public class AvoidUsingOctalValuesRule extends AbstractJavaRule implements ThreadSafeRule {
 
     public static final Pattern OCTAL_PATTERN = Pattern.compile("0[0-7]{2,}[lL]?");
 
@@ -26,6 +27,7 @@ public class AvoidUsingOctalValuesRule extends AbstractJavaRule {
 
 
     public AvoidUsingOctalValuesRule() {
+        declareDependencies();
         definePropertyDescriptor(STRICT_METHODS_DESCRIPTOR);
     }
 
@@ -8,14 +8,13 @@ import static net.sourceforge.pmd.properties.PropertyFactory.booleanProperty;
 import static net.sourceforge.pmd.properties.PropertyFactory.stringListProperty;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.jaxen.JaxenException;
-
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.ast.ASTAllocationExpression;
@@ -48,6 +47,8 @@ import net.sourceforge.pmd.lang.java.ast.TypeNode;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
 import net.sourceforge.pmd.lang.java.symboltable.VariableNameDeclaration;
 import net.sourceforge.pmd.lang.java.typeresolution.TypeHelper;
+import net.sourceforge.pmd.lang.rule.xpath.CompiledXPath;
+import net.sourceforge.pmd.lang.rule.xpath.XPathVersion;
 import net.sourceforge.pmd.lang.symboltable.NameOccurrence;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
 
@@ -97,6 +98,14 @@ public class CloseResourceRule extends AbstractJavaRule {
                     "java.util.stream.DoubleStream")
             .build();
 
+    private static final CompiledXPath NULL_INITIALIZER =
+            CompiledXPath.compile("Expression/PrimaryExpression/PrimaryPrefix/Literal/NullLiteral");
+
+    // find expressions like: varName != null or null != varName
+    private static final CompiledXPath NULL_CHECK = CompiledXPath.compile("Expression/EqualityExpression[@Image='!=']"
+            + "  [PrimaryExpression/PrimaryPrefix/Name[@Image=$varName]]"
+            + "  [PrimaryExpression/PrimaryPrefix/Literal/NullLiteral]", XPathVersion.XPATH_1_0, "varName");
+
 
     public CloseResourceRule() {
         definePropertyDescriptor(CLOSE_TARGETS_DESCRIPTOR);
@@ -299,13 +308,7 @@ public class CloseResourceRule extends AbstractJavaRule {
     private boolean hasNullInitializer(ASTLocalVariableDeclaration var) {
         ASTVariableInitializer init = var.getFirstDescendantOfType(ASTVariableInitializer.class);
         if (init != null) {
-            try {
-                List<?> nulls = init
-                        .findChildNodesWithXPath("Expression/PrimaryExpression/PrimaryPrefix/Literal/NullLiteral");
-                return !nulls.isEmpty();
-            } catch (JaxenException e) {
-                return false;
-            }
+            return NULL_INITIALIZER.matches(init);
         }
         return false;
     }
@@ -527,15 +530,7 @@ public class CloseResourceRule extends AbstractJavaRule {
     private boolean nullCheckIfCondition(ASTBlock enclosingBlock, Node node, String varName) {
         ASTIfStatement ifStatement = findIfStatement(enclosingBlock, node);
         if (ifStatement != null) {
-            try {
-                // find expressions like: varName != null or null != varName
-                List<?> nodes = ifStatement.findChildNodesWithXPath("Expression/EqualityExpression[@Image='!=']"
-                        + "  [PrimaryExpression/PrimaryPrefix/Name[@Image='" + varName + "']]"
-                        + "  [PrimaryExpression/PrimaryPrefix/Literal/NullLiteral]");
-                return !nodes.isEmpty();
-            } catch (JaxenException e) {
-                throw new RuntimeException(e);
-            }
+            return NULL_CHECK.matches(ifStatement, Collections.singletonMap("varName", varName));
         }
         return true;
     }
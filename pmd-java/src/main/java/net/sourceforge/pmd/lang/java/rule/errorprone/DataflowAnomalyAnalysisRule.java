@@ -8,19 +8,22 @@ import static net.sourceforge.pmd.properties.constraints.NumericConstraints.inRa
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.logging.Logger;
 
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.dfa.ControlFlowGraph;
 import net.sourceforge.pmd.lang.dfa.DataFlowNode;
+import net.sourceforge.pmd.lang.dfa.ReachingDefinitions;
+import net.sourceforge.pmd.lang.dfa.ReachingDefinitions.AccessHandler;
+import net.sourceforge.pmd.lang.dfa.ReachingDefinitions.Definition;
 import net.sourceforge.pmd.lang.dfa.VariableAccess;
-import net.sourceforge.pmd.lang.dfa.pathfinder.CurrentPath;
-import net.sourceforge.pmd.lang.dfa.pathfinder.DAAPathFinder;
-import net.sourceforge.pmd.lang.dfa.pathfinder.Executable;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclarator;
+import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
 import net.sourceforge.pmd.lang.java.rule.bestpractices.UnusedAssignmentRule;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
@@ -28,7 +31,10 @@ import net.sourceforge.pmd.properties.PropertyFactory;
 
 
 /**
- * Starts path search for each method and runs code if found.
+ * Looks for DD and DU anomalies in each method. The previous accesses of each
+ * variable access are computed with a {@link ReachingDefinitions} analysis on
+ * the control flow graph of the method, so that all paths are covered without
+ * enumerating them.
  *
  * @author raik
  * @author Sven Jacob
@@ -36,10 +42,13 @@ import net.sourceforge.pmd.properties.PropertyFactory;
  * @deprecated Replaced by {@link UnusedAssignmentRule}
  */
 @Deprecated
-public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Executable {
+public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements AccessHandler {
+    private static final Logger LOG = Logger.getLogger(DataflowAnomalyAnalysisRule.class.getName());
+
+    // Not used anymore since paths are not enumerated, kept for compatibility with existing rulesets
     private static final PropertyDescriptor<Integer> MAX_PATH_DESCRIPTOR
             = PropertyFactory.intProperty("maxPaths")
-                             .desc("Maximum number of checked paths per method. A lower value will increase the performance of the rule but may decrease anomalies found.")
+                             .desc("Deprecated! Not used anymore, all the paths are checked")
                              .require(inRange(100, 8000))
                              .defaultValue(1000)
                              .build();
@@ -55,26 +64,21 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
     private int currentRuleViolationCount;
 
 
-    private static class Usage {
-        public int accessType;
-        public DataFlowNode node;
-
-        Usage(int accessType, DataFlowNode node) {
-            this.accessType = accessType;
-            this.node = node;
-        }
-
-        @Override
-        public String toString() {
-            return "accessType = " + accessType + ", line = " + node.getLine();
-        }
-    }
-
     public DataflowAnomalyAnalysisRule() {
         definePropertyDescriptor(MAX_PATH_DESCRIPTOR);
         definePropertyDescriptor(MAX_VIOLATIONS_DESCRIPTOR);
     }
 
+    @Override
+    public Object visit(ASTCompilationUnit node, Object data) {
+        if (isPropertyOverridden(MAX_PATH_DESCRIPTOR)) {
+            LOG.warning("Rule DataflowAnomalyAnalysis uses deprecated property 'maxPaths'. "
+                                + "Future versions of PMD will remove support for this property. "
+                                + "The property is ignored, all the paths are checked.");
+        }
+        return super.visit(node, data);
+    }
+
     @Override
     public Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
         maxRuleViolations = getProperty(MAX_VIOLATIONS_DESCRIPTOR);
@@ -87,59 +91,55 @@ public class DataflowAnomalyAnalysisRule extends AbstractJavaRule implements Exe
         rc = (RuleContext) data;
         daaRuleViolations = new ArrayList<>();
 
-        final DataFlowNode node = methodDeclaration.getDataFlowNode().getFlow().get(0);
-
-        final DAAPathFinder pathFinder = new DAAPathFinder(node, this, getProperty(MAX_PATH_DESCRIPTOR));
-        pathFinder.run();
+        final ControlFlowGraph cfg = ControlFlowGraph.of(methodDeclaration);
+        if (cfg != null) {
+            ReachingDefinitions.ofAllAccesses(cfg).scan(this);
+        }
 
         super.visit(methodDeclaration, data);
         return data;
     }
 
     @Override
-    public void execute(CurrentPath path) {
-
-        if (maxNumberOfViolationsReached()) {
+    public void handle(DataFlowNode inode, VariableAccess va, List<Definition> reaching) {
+        if (va.isDefinition() && isDeclaration(inode.getNode(), va.getVariableName())) {
+            // a declaration starts a new variable, the accesses reaching it
+            // are those of a previous loop iteration or of another variable
+            // with the same name
             return;
         }
-
-        Map<String, Usage> usagesByVarName = new HashMap<>();
-
-        for (DataFlowNode inode : path) {
-            if (inode.getVariableAccess() != null) {
-                // iterate all variables of this node
-                for (VariableAccess va : inode.getVariableAccess()) {
-
-                    // get the last usage of the current variable
-                    Usage lastUsage = usagesByVarName.get(va.getVariableName());
-                    if (lastUsage != null) {
-                        // there was a usage to this variable before
-                        checkVariableAccess(inode, va, lastUsage);
-                    }
-
-                    Usage newUsage = new Usage(va.getAccessType(), inode);
-                    // put the new usage for the variable
-                    usagesByVarName.put(va.getVariableName(), newUsage);
-                }
+        for (Definition previous : reaching) {
+            if (maxNumberOfViolationsReached()) {
+                return;
             }
+            checkVariableAccess(inode, va, previous.getNode(), previous.getAccess());
         }
     }
 
-    private void checkVariableAccess(DataFlowNode inode, VariableAccess va, final Usage u) {
+    private void checkVariableAccess(DataFlowNode inode, VariableAccess va, DataFlowNode lastNode, VariableAccess last) {
         // get the start and end line
-        int startLine = u.node.getLine();
+        int startLine = lastNode.getLine();
         int endLine = inode.getLine();
 
-        Node lastNode = inode.getNode();
-        Node firstNode = u.node.getNode();
+        Node currentNode = inode.getNode();
+        Node firstNode = lastNode.getNode();
 
-        if (va.accessTypeMatches(u.accessType) && va.isDefinition()) { // DD
-            addDaaViolation(rc, lastNode, "DD", va.getVariableName(), startLine, endLine);
-        } else if (u.accessType == VariableAccess.DEFINITION && va.isUndefinition()) { // DU
+        if (va.accessTypeMatches(last.getAccessType()) && va.isDefinition()) { // DD
+            addDaaViolation(rc, currentNode, "DD", va.getVariableName(), startLine, endLine);
+        } else if (last.isDefinition() && va.isUndefinition()) { // DU
             addDaaViolation(rc, firstNode, "DU", va.getVariableName(), startLine, endLine);
         }
     }
 
+    private static boolean isDeclaration(Node node, String varName) {
+        for (ASTVariableDeclaratorId id : node.findDescendantsOfType(ASTVariableDeclaratorId.class)) {
+            if (id.getName().equals(varName) && id.getParent() instanceof ASTVariableDeclarator) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Adds a daa violation to the report.
      */
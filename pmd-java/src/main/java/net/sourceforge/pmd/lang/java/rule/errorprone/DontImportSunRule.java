@@ -6,8 +6,14 @@ package net.sourceforge.pmd.lang.java.rule.errorprone;
 
 import net.sourceforge.pmd.lang.java.ast.ASTImportDeclaration;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.rule.ThreadSafeRule;
 
-public class DontImportSunRule extends AbstractJavaRule {
+public class DontImportSunRule extends AbstractJavaRule implements ThreadSafeRule {
+
+    public DontImportSunRule() {
+        // only looks at the syntax
+        declareDependencies();
+    }
 
     @Override
     public Object visit(ASTImportDeclaration node, Object data) {
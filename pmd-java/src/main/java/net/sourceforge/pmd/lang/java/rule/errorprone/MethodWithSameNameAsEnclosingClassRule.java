@@ -9,8 +9,9 @@ import java.util.List;
 import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclarator;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.rule.ThreadSafeRule;
 
-public class MethodWithSameNameAsEnclosingClassRule extends AbstractJavaRule {
+public class MethodWithSameNameAsEnclosingClassRule extends AbstractJavaRule implements ThreadSafeRule {
 
     @Override
     public Object visit(ASTClassOrInterfaceDeclaration node, Object data) {
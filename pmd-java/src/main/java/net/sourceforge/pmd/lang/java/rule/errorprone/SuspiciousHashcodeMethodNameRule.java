@@ -13,6 +13,11 @@ import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
 
 public class SuspiciousHashcodeMethodNameRule extends AbstractJavaRule {
 
+    public SuspiciousHashcodeMethodNameRule() {
+        // only looks at the syntax
+        declareDependencies();
+    }
+
     @Override
     public Object visit(ASTMethodDeclaration node, Object data) {
         /*
@@ -6,8 +6,14 @@ package net.sourceforge.pmd.lang.java.rule.errorprone;
 
 import net.sourceforge.pmd.lang.java.ast.ASTLiteral;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.rule.ThreadSafeRule;
 
-public class SuspiciousOctalEscapeRule extends AbstractJavaRule {
+public class SuspiciousOctalEscapeRule extends AbstractJavaRule implements ThreadSafeRule {
+
+    public SuspiciousOctalEscapeRule() {
+        // only looks at the syntax
+        declareDependencies();
+    }
 
     @Override
     public Object visit(ASTLiteral node, Object data) {
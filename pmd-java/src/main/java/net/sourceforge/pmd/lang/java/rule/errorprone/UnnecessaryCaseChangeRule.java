@@ -10,8 +10,9 @@ import net.sourceforge.pmd.lang.java.ast.ASTPrimaryExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTPrimaryPrefix;
 import net.sourceforge.pmd.lang.java.ast.ASTPrimarySuffix;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.rule.ThreadSafeRule;
 
-public class UnnecessaryCaseChangeRule extends AbstractJavaRule {
+public class UnnecessaryCaseChangeRule extends AbstractJavaRule implements ThreadSafeRule {
 
     @Override
     public Object visit(ASTPrimaryExpression exp, Object data) {
@@ -28,6 +28,7 @@ import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
 public class AppendCharacterWithCharRule extends AbstractJavaRule {
 
     public AppendCharacterWithCharRule() {
+        declareDependencies();
         addRuleChainVisit(ASTLiteral.class);
     }
 
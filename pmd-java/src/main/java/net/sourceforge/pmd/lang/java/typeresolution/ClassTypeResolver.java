@@ -16,12 +16,15 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.cache.FileDependencies;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.QualifiableNode;
 import net.sourceforge.pmd.lang.java.ast.ASTAdditiveExpression;
@@ -221,7 +224,73 @@ public class ClassTypeResolver extends JavaParserVisitorAdapter implements Nulla
         } finally {
             populateImports(node);
         }
-        return super.visit(node, data);
+        Object result = super.visit(node, data);
+        recordDependencies(node);
+        return result;
+    }
+
+    /**
+     * Records the types declared and referenced by the file, for the
+     * analysis cache. The referenced types are the imported types and
+     * packages, the package of the file, the resolved types used by the
+     * file, and the fully qualified names used in the file, even if they
+     * couldn't be resolved.
+     */
+    private void recordDependencies(ASTCompilationUnit node) {
+        String packagePrefix = node.getPackageName().isEmpty() ? "" : node.getPackageName() + '.';
+        List<String> declared = new ArrayList<>();
+        for (ASTTypeDeclaration typeDecl : node.findChildrenOfType(ASTTypeDeclaration.class)) {
+            ASTAnyTypeDeclaration anyTypeDecl = typeDecl.getFirstChildOfType(ASTAnyTypeDeclaration.class);
+            if (anyTypeDecl != null) {
+                declared.add(packagePrefix + anyTypeDecl.getSimpleName());
+            }
+        }
+
+        Set<String> referenced = new HashSet<>();
+        for (String importedClass : importedClasses.values()) {
+            referenced.add(importedClass.replace('$', '.'));
+        }
+        for (String pack : importedOnDemand) {
+            referenced.add(pack + ".*");
+        }
+        for (ASTImportDeclaration importDecl : node.findChildrenOfType(ASTImportDeclaration.class)) {
+            if (importDecl.isStatic()) {
+                referenced.add(importDecl.getPackageName());
+            }
+        }
+        for (ASTClassOrInterfaceType type : node.findDescendantsOfType(ASTClassOrInterfaceType.class)) {
+            if (type.getType() != null) {
+                referenced.add(type.getType().getName().replace('$', '.'));
+            } else if (type.getImage().indexOf('.') > 0) {
+                referenced.add(type.getImage());
+            }
+        }
+        for (ASTName name : node.findDescendantsOfType(ASTName.class)) {
+            addQualifiedTypeName(referenced, name.getImage());
+        }
+        referenced.removeAll(JAVA_LANG.values());
+
+        FileDependencies.set(node, new FileDependencies(declared, referenced));
+    }
+
+    /**
+     * Adds the type a name like {@code a.b.C.d} starts with, ie the name
+     * up to the first segment starting with an upper case letter, if it's
+     * preceded by a package name.
+     */
+    private static void addQualifiedTypeName(Set<String> referenced, String name) {
+        if (name == null || name.isEmpty() || !Character.isLowerCase(name.charAt(0))) {
+            return;
+        }
+        int start = 0;
+        for (int dot = name.indexOf('.'); dot > 0; dot = name.indexOf('.', start)) {
+            start = dot + 1;
+            if (start < name.length() && Character.isUpperCase(name.charAt(start))) {
+                int end = name.indexOf('.', start);
+                referenced.add(end < 0 ? name : name.substring(0, end));
+                return;
+            }
+        }
     }
 
     @Override
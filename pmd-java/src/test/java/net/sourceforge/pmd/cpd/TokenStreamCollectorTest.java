@@ -0,0 +1,106 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cpd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.RulesetsFactoryUtils;
+import net.sourceforge.pmd.SourceCodeProcessor;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.JavaParsingHelper;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+
+public class TokenStreamCollectorTest {
+
+    private static final String CODE = "package foo;\n"
+        + "import java.util.List;\n"
+        + "public class Foo {\n"
+        + "    @SuppressWarnings(\"unchecked\")\n"
+        + "    public Foo(List<List<String>> list) {\n"
+        + "        // CPD-OFF\n"
+        + "        int ignored = 1 >> 2;\n"
+        + "        // CPD-ON\n"
+        + "        String s = \"literal\" + 'c' + 1.5;\n"
+        + "    }\n"
+        + "    @SuppressWarnings(\"CPD-START\")\n"
+        + "    void suppressed() { int x = 1; }\n"
+        + "}\n";
+
+    @Test
+    public void testSameTokensAsTheLexer() throws Exception {
+        JavaTokenizer tokenizer = new JavaTokenizer();
+        tokenizer.setIgnoreLiterals(true);
+
+        Tokens lexed = new Tokens();
+        tokenizer.tokenize(new SourceCode(new SourceCode.StringCodeLoader(CODE, "Foo.java")), lexed);
+        Tokens parsed = new Tokens();
+        ASTCompilationUnit acu = JavaParsingHelper.JUST_PARSE.parse(CODE);
+        tokenizer.tokenize(acu.jjtGetFirstToken(), "Foo.java", parsed);
+
+        assertEquals(describe(lexed), describe(parsed));
+    }
+
+    @Test
+    public void testCombinedRun() throws Exception {
+        CPDConfiguration cpdConfiguration = new CPDConfiguration();
+        cpdConfiguration.setLanguage(LanguageFactory.createLanguage("java"));
+        cpdConfiguration.setMinimumTileSize(10);
+        TokenStreamCollector collector = new TokenStreamCollector(cpdConfiguration);
+
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setCpdTokenCollector(collector);
+        configuration.setCompactAst(true);
+        SourceCodeProcessor processor = new SourceCodeProcessor(configuration);
+        RuleSets ruleSets = new RuleSets(RulesetsFactoryUtils.defaultFactory()
+                                             .createRuleSet("category/java/bestpractices.xml/UnusedLocalVariable"));
+        for (String name : new String[] {"Foo.java", "Bar.java"}) {
+            RuleContext ctx = new RuleContext();
+            ctx.setReport(new Report());
+            ctx.setSourceCodeFile(new File(name));
+            ctx.setLanguageVersion(LanguageRegistry.getLanguage(JavaLanguageModule.NAME).getDefaultVersion());
+            processor.processSourceCode(new StringReader(CODE.replace("Foo", name.substring(0, 3))), ruleSets, ctx);
+            assertEquals(3, ctx.getReport().size());
+        }
+        assertTrue(collector.isCollected("Foo.java"));
+        assertFalse(collector.isCollected("Baz.java"));
+
+        CPD cpd = new CPD(cpdConfiguration);
+        // the collected tokens are used, the text is only read by the renderers
+        collector.addTo(cpd, new SourceCode(new SourceCode.StringCodeLoader("", "Foo.java")));
+        collector.addTo(cpd, new SourceCode(new SourceCode.StringCodeLoader("", "Bar.java")));
+        assertFalse(collector.isCollected("Foo.java"));
+        cpd.go();
+
+        Iterator<Match> matches = cpd.getMatches();
+        assertTrue(matches.hasNext());
+        Match match = matches.next();
+        assertEquals(2, match.getMarkCount());
+        assertEquals(5, match.getFirstMark().getBeginLine());
+        assertFalse(matches.hasNext());
+    }
+
+    private static List<String> describe(Tokens tokens) {
+        List<String> result = new ArrayList<>();
+        for (TokenEntry entry : tokens.getTokens()) {
+            result.add(entry + "@" + entry.getBeginLine() + ":" + entry.getBeginColumn() + "-" + entry.getEndColumn());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.sourceforge.pmd.lang.ast.GenericToken;
+import net.sourceforge.pmd.lang.ast.impl.javacc.AstCompactionStats;
+import net.sourceforge.pmd.lang.ast.impl.javacc.TokenTable;
+
+public class CompactAstTest extends BaseParserTest {
+
+    private static final String CODE = "// header\n"
+        + "class Foo {\n"
+        + "    /* a field */ java.util.List<? extends Number> list;\n"
+        + "}";
+
+    @Test
+    public void testTokensAreKeptInTheTable() {
+        ASTCompilationUnit acu = parseCode(CODE);
+        ASTFieldDeclaration field = acu.getFirstDescendantOfType(ASTFieldDeclaration.class);
+        GenericToken first = field.jjtGetFirstToken();
+
+        AstCompactionStats stats = TokenTable.compact(acu);
+
+        assertNotNull(TokenTable.get(field));
+        assertEquals(acu.findDescendantsOfType(JavaNode.class, true).size() + 1, stats.getNodeCount());
+        // the comments, and the whitespace
+        assertTrue(stats.getReleasedSpecialTokenCount() > 2);
+        assertTrue(stats.getTokenBytesAfter() < stats.getTokenBytesBefore());
+
+        GenericToken compactFirst = field.jjtGetFirstToken();
+        assertEquals(first.getImage(), compactFirst.getImage());
+        assertEquals(first.getBeginLine(), compactFirst.getBeginLine());
+        assertEquals(first.getBeginColumn(), compactFirst.getBeginColumn());
+        assertEquals(first.getNext().getImage(), compactFirst.getNext().getImage());
+        // the views are created once per token
+        assertSame(compactFirst, field.jjtGetFirstToken());
+        assertSame(compactFirst.getNext(), compactFirst.getNext());
+        assertNull(compactFirst.getPreviousComment());
+        assertEquals(";", field.jjtGetLastToken().getImage());
+        assertNull(acu.jjtGetLastToken().getNext());
+    }
+
+    @Test
+    public void testNodesUsingTokens() {
+        ASTCompilationUnit acu = parseCode(CODE);
+        TokenTable.compact(acu);
+
+        assertTrue(acu.getFirstDescendantOfType(ASTWildcardBounds.class).isUpperBound());
+    }
+
+    @Test
+    public void testCompactTwice() {
+        ASTCompilationUnit acu = parseCode(CODE);
+        long tokens = TokenTable.compact(acu).getTokenCount();
+
+        assertTrue(tokens > 0);
+        assertEquals(0, TokenTable.compact(acu).getTokenCount());
+        assertEquals(tokens, TokenTable.get(acu).size());
+        assertFalse(acu.getComments().isEmpty());
+    }
+}
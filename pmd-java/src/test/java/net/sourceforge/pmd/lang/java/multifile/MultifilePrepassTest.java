@@ -0,0 +1,103 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.multifile;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.sourceforge.pmd.PMD;
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RulesetsFactoryUtils;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.qname.JavaTypeQualifiedName;
+import net.sourceforge.pmd.lang.java.qname.QualifiedNameFactory;
+import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.util.datasource.DataSource;
+import net.sourceforge.pmd.util.datasource.FileDataSource;
+
+public class MultifilePrepassTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void resetMultifile() {
+        PackageStats.INSTANCE.reset();
+        SeesOtherClassRule.SEEN.set(0);
+    }
+
+    @Test
+    public void testWithoutPrepass() throws IOException {
+        // only the second file sees the first
+        assertEquals(1, run(false, 0));
+    }
+
+    @Test
+    public void testPrepass() throws IOException {
+        assertEquals(2, run(true, 0));
+    }
+
+    @Test
+    public void testPrepassMultiThreaded() throws IOException {
+        assertEquals(2, run(true, 2));
+    }
+
+    private int run(boolean prepass, int threads) throws IOException {
+        List<DataSource> files = new ArrayList<>();
+        files.add(new FileDataSource(write("First.java", "package foo; class First { void second() { } }")));
+        files.add(new FileDataSource(write("Second.java", "package foo; class Second { int first; }")));
+
+        PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setRuleSets("net/sourceforge/pmd/lang/java/multifile/prepass.xml");
+        configuration.setMultifilePrepass(prepass);
+        configuration.setThreads(threads);
+        configuration.setIgnoreIncrementalAnalysis(true);
+
+        PMD.processFiles(configuration, RulesetsFactoryUtils.defaultFactory(), files, new RuleContext(),
+                         Collections.<Renderer>emptyList());
+        return SeesOtherClassRule.SEEN.get();
+    }
+
+    private File write(String name, String code) throws IOException {
+        File file = folder.newFile(name);
+        FileUtils.writeStringToFile(file, code, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    public static class SeesOtherClassRule extends AbstractJavaRule {
+
+        static final AtomicInteger SEEN = new AtomicInteger();
+
+        public SeesOtherClassRule() {
+            setMultifile(true);
+        }
+
+        @Override
+        public Object visit(ASTCompilationUnit node, Object data) {
+            String name = node.getFirstDescendantOfType(ASTClassOrInterfaceDeclaration.class).getSimpleName();
+            String other = "First".equals(name) ? "foo.Second" : "foo.First";
+            if (PackageStats.INSTANCE.getClassMirror((JavaTypeQualifiedName) QualifiedNameFactory.ofString(other)) != null) {
+                SEEN.incrementAndGet();
+            }
+            return data;
+        }
+    }
+}
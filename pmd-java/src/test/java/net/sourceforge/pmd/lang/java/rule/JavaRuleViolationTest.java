@@ -5,6 +5,8 @@
 package net.sourceforge.pmd.lang.java.rule;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.StringReader;
 import java.util.List;
@@ -21,8 +23,10 @@ import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTFormalParameter;
 import net.sourceforge.pmd.lang.java.ast.ASTImportDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTLocalVariableDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
 import net.sourceforge.pmd.lang.java.symboltable.ScopeAndDeclarationFinder;
+import net.sourceforge.pmd.lang.rule.MockRule;
 
 /**
  * @author Philip Graf
@@ -175,4 +179,49 @@ public class JavaRuleViolationTest {
         JavaRuleViolation innerFieldViolation = new JavaRuleViolation(null, new RuleContext(), fields.get(1), null);
         assertEquals("Foo$Bar", innerFieldViolation.getClassName());
     }
+
+    @Test
+    public void testSuppressedByEnclosingDeclaration() {
+        ASTCompilationUnit ast = parse("class Foo { @SuppressWarnings(\"PMD.Foo\") void bar(int x) {} void baz(int y) {} }");
+        List<ASTFormalParameter> parameters = ast.findDescendantsOfType(ASTFormalParameter.class);
+        MockRule fooRule = new MockRule("Foo", "", "", "");
+        MockRule otherRule = new MockRule("Other", "", "", "");
+
+        assertTrue(new JavaRuleViolation(fooRule, new RuleContext(), parameters.get(0), null).isSuppressed());
+        assertFalse(new JavaRuleViolation(otherRule, new RuleContext(), parameters.get(0), null).isSuppressed());
+        assertFalse(new JavaRuleViolation(fooRule, new RuleContext(), parameters.get(1), null).isSuppressed());
+        assertFalse(new JavaRuleViolation(fooRule, new RuleContext(), ast, null).isSuppressed());
+    }
+
+    @Test
+    public void testCompilationUnitSuppressedByTypeDeclaration() {
+        ASTCompilationUnit ast = parse("import java.util.List; @SuppressWarnings(\"PMD\") class Foo { }");
+
+        MockRule rule = new MockRule("Foo", "", "", "");
+        assertTrue(new JavaRuleViolation(rule, new RuleContext(), ast, null).isSuppressed());
+        ASTImportDeclaration importNode = ast.getFirstDescendantOfType(ASTImportDeclaration.class);
+        assertFalse(new JavaRuleViolation(rule, new RuleContext(), importNode, null).isSuppressed());
+    }
+
+    @Test
+    public void testMessageVariablesUseTheContext() {
+        ASTCompilationUnit ast = parse("package pkg; class Foo { class Bar { void bar(int x) {} } }");
+        ASTFormalParameter node = ast.findDescendantsOfType(ASTFormalParameter.class, true).get(0);
+        MockRule rule = new MockRule("Foo", "", "", "");
+
+        JavaRuleViolation violation = new JavaRuleViolation(rule, new RuleContext(), node,
+                                                            "${packageName} ${className} ${methodName} ${variableName}");
+        assertEquals("pkg Foo$Bar bar x", violation.getDescription());
+        assertEquals("Foo$Bar", violation.getClassName());
+    }
+
+    @Test
+    public void testMethodNameOfConstructorsAndFields() {
+        ASTCompilationUnit ast = parse("class Foo { int x; Foo() { int y; } }");
+        ASTFieldDeclaration field = ast.getFirstDescendantOfType(ASTFieldDeclaration.class);
+        ASTLocalVariableDeclaration local = ast.getFirstDescendantOfType(ASTLocalVariableDeclaration.class);
+
+        assertEquals("", new JavaRuleViolation(null, new RuleContext(), field, null).getMethodName());
+        assertEquals("Foo", new JavaRuleViolation(null, new RuleContext(), local, null).getMethodName());
+    }
 }
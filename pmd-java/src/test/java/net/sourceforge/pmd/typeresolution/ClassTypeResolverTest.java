@@ -20,6 +20,7 @@ import static org.junit.Assert.assertSame;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
@@ -31,6 +32,7 @@ import org.jaxen.JaxenException;
 import org.junit.Assert;
 import org.junit.Test;
 
+import net.sourceforge.pmd.cache.FileDependencies;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.java.JavaParsingHelper;
 import net.sourceforge.pmd.lang.java.ast.ASTAllocationExpression;
@@ -253,6 +255,27 @@ public class ClassTypeResolverTest {
         Assert.assertTrue(statement.isReferenceToClassSameCompilationUnit());
     }
 
+    @Test
+    public void testDependenciesIncludeQualifiedNames() {
+        Node acu = java8.parse("package foo;\n"
+                                   + "import java.util.List;\n"
+                                   + "public class Bar {\n"
+                                   + "    a.b.C field;\n"
+                                   + "    List<java.util.Set<String>> list;\n"
+                                   + "    void m() { x.y.Z.call(); field.toString(); }\n"
+                                   + "}");
+        FileDependencies dependencies = FileDependencies.get(acu);
+
+        Assert.assertEquals(Collections.singleton("foo.Bar"), dependencies.getDeclaredTypes());
+        Set<String> referenced = dependencies.getReferencedTypes();
+        Assert.assertTrue(referenced.contains("foo.*"));
+        Assert.assertTrue(referenced.contains("java.util.List"));
+        Assert.assertTrue(referenced.contains("java.util.Set"));
+        Assert.assertTrue(referenced.contains("a.b.C"));
+        Assert.assertTrue(referenced.contains("x.y.Z"));
+        Assert.assertFalse(referenced.contains("java.lang.String"));
+    }
+
     @Test
     public void testAnonymousClassFromInterface() throws Exception {
         Node acu = java8.parseClass(AnonymousClassFromInterface.class);
@@ -4,7 +4,6 @@
 
 package net.sourceforge.pmd.cpd;
 
-import java.io.StringReader;
 
 import net.sourceforge.pmd.cpd.internal.JavaCCTokenizer;
 import net.sourceforge.pmd.lang.TokenManager;
@@ -21,8 +20,7 @@ public class EcmascriptTokenizer extends JavaCCTokenizer {
 
     @Override
     protected TokenManager getLexerForSource(SourceCode sourceCode) {
-        StringBuilder buffer = sourceCode.getCodeBuffer();
-        return new Ecmascript5TokenManager(IOUtil.skipBOM(new StringReader(buffer.toString())));
+        return new Ecmascript5TokenManager(IOUtil.skipBOM(sourceCode.getCodeReader()));
     }
 
     @Override
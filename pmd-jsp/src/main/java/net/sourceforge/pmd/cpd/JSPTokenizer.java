@@ -4,7 +4,6 @@
 
 package net.sourceforge.pmd.cpd;
 
-import java.io.StringReader;
 
 import net.sourceforge.pmd.cpd.internal.JavaCCTokenizer;
 import net.sourceforge.pmd.lang.TokenManager;
@@ -14,6 +13,6 @@ public class JSPTokenizer extends JavaCCTokenizer {
 
     @Override
     protected TokenManager getLexerForSource(SourceCode sourceCode) {
-        return new JspTokenManager(new StringReader(sourceCode.getCodeBuffer().toString()));
+        return new JspTokenManager(sourceCode.getCodeReader());
     }
 }
@@ -4,7 +4,6 @@
 
 package net.sourceforge.pmd.cpd;
 
-import java.io.StringReader;
 
 import net.sourceforge.pmd.cpd.internal.JavaCCTokenizer;
 import net.sourceforge.pmd.cpd.token.JavaCCTokenFilter;
@@ -18,8 +17,7 @@ import net.sourceforge.pmd.lang.modelica.ast.Token;
 public class ModelicaTokenizer extends JavaCCTokenizer {
     @Override
     protected TokenManager getLexerForSource(SourceCode sourceCode) {
-        final StringBuilder stringBuilder = sourceCode.getCodeBuffer();
-        return new ModelicaTokenManager(new StringReader(stringBuilder.toString()));
+        return new ModelicaTokenManager(sourceCode.getCodeReader());
     }
 
     @Override
@@ -4,7 +4,6 @@
 
 package net.sourceforge.pmd.cpd;
 
-import java.io.StringReader;
 
 import net.sourceforge.pmd.cpd.internal.JavaCCTokenizer;
 import net.sourceforge.pmd.lang.TokenManager;
@@ -18,7 +17,6 @@ public class ObjectiveCTokenizer extends JavaCCTokenizer {
 
     @Override
     protected TokenManager getLexerForSource(SourceCode sourceCode) {
-        StringBuilder buffer = sourceCode.getCodeBuffer();
-        return new ObjectiveCTokenManager(IOUtil.skipBOM(new StringReader(buffer.toString())));
+        return new ObjectiveCTokenManager(IOUtil.skipBOM(sourceCode.getCodeReader()));
     }
 }
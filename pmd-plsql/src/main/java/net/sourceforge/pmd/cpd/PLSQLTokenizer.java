@@ -4,7 +4,6 @@
 
 package net.sourceforge.pmd.cpd;
 
-import java.io.StringReader;
 import java.util.Properties;
 
 import net.sourceforge.pmd.cpd.internal.JavaCCTokenizer;
@@ -74,7 +73,6 @@ public class PLSQLTokenizer extends JavaCCTokenizer {
 
     @Override
     protected TokenManager getLexerForSource(SourceCode sourceCode) {
-        StringBuilder stringBuilder = sourceCode.getCodeBuffer();
-        return new PLSQLTokenManager(IOUtil.skipBOM(new StringReader(stringBuilder.toString())));
+        return new PLSQLTokenManager(IOUtil.skipBOM(sourceCode.getCodeReader()));
     }
 }
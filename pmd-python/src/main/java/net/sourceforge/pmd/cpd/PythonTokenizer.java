@@ -4,7 +4,6 @@
 
 package net.sourceforge.pmd.cpd;
 
-import java.io.StringReader;
 
 import net.sourceforge.pmd.cpd.internal.JavaCCTokenizer;
 import net.sourceforge.pmd.lang.TokenManager;
@@ -18,7 +17,6 @@ public class PythonTokenizer extends JavaCCTokenizer {
 
     @Override
     protected TokenManager getLexerForSource(SourceCode sourceCode) {
-        StringBuilder buffer = sourceCode.getCodeBuffer();
-        return new PythonTokenManager(IOUtil.skipBOM(new StringReader(buffer.toString())));
+        return new PythonTokenManager(IOUtil.skipBOM(sourceCode.getCodeReader()));
     }
 }
@@ -48,7 +48,7 @@ public class RuleTstTest {
 
         verify(rule).start(any(RuleContext.class));
         verify(rule).end(any(RuleContext.class));
-        verify(rule, times(5)).getLanguage();
+        verify(rule, times(3)).getLanguage();
         verify(rule).isDfa();
         verify(rule).isTypeResolution();
         verify(rule).isMultifile();
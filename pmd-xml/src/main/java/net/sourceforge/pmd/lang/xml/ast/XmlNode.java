@@ -20,7 +20,8 @@ public interface XmlNode extends Node, AttributeNode {
     /**
      * Provide access to the underlying DOM node.
      *
-     * @return The DOM node.
+     * @return The DOM node, or null for large documents, which are not
+     *     parsed into a DOM (see {@link XmlStreamNode}).
      */
     org.w3c.dom.Node getNode();
 }
@@ -5,6 +5,7 @@
 package net.sourceforge.pmd.lang.xml.ast;
 
 import java.io.IOException;
+import java.io.PushbackReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.HashMap;
@@ -25,6 +26,14 @@ import net.sourceforge.pmd.lang.xml.XmlParserOptions;
 
 
 public class XmlParser {
+
+    /**
+     * Documents with more characters than this are not parsed into a DOM,
+     * see {@link XmlStreamNode}. Can be changed with the system property
+     * {@code net.sourceforge.pmd.xml.maxDomSize}.
+     */
+    static final int MAX_DOM_SIZE = Integer.getInteger("net.sourceforge.pmd.xml.maxDomSize", 10 * 1024 * 1024);
+
     protected final XmlParserOptions parserOptions;
     protected Map<org.w3c.dom.Node, XmlNode> nodeCache = new HashMap<>();
 
@@ -35,10 +44,17 @@ public class XmlParser {
 
 
     protected Document parseDocument(Reader reader) throws ParseException {
-        nodeCache.clear();
         try {
-            String xmlData = IOUtils.toString(reader);
+            return parseDocument(IOUtils.toString(reader));
+        } catch (IOException e) {
+            throw new ParseException(e);
+        }
+    }
+
 
+    private Document parseDocument(String xmlData) throws ParseException {
+        nodeCache.clear();
+        try {
             DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
             dbf.setNamespaceAware(parserOptions.isNamespaceAware());
             dbf.setValidating(parserOptions.isValidating());
@@ -62,7 +78,51 @@ public class XmlParser {
 
 
     public XmlNode parse(Reader reader) {
-        Document document = parseDocument(reader);
+        return parse(reader, MAX_DOM_SIZE);
+    }
+
+
+    /**
+     * Parses the document into a DOM, unless it has more than the given
+     * number of characters. Larger documents are parsed in a single pass
+     * into {@link XmlStreamNode}s, which have no DOM node.
+     */
+    XmlNode parse(Reader reader, int maxDomSize) {
+        if (!canStream()) {
+            return parseDom(parseDocument(reader));
+        }
+        try {
+            char[] prefix = new char[Math.min(maxDomSize, 8192) + 1];
+            StringBuilder xmlData = new StringBuilder();
+            int read;
+            while (xmlData.length() <= maxDomSize && (read = reader.read(prefix)) >= 0) {
+                xmlData.append(prefix, 0, read);
+            }
+            if (xmlData.length() <= maxDomSize) {
+                return parseDom(parseDocument(xmlData.toString()));
+            }
+            char[] start = new char[xmlData.length()];
+            xmlData.getChars(0, start.length, start, 0);
+            PushbackReader rest = new PushbackReader(reader, start.length);
+            rest.unread(start);
+            return new XmlStreamTreeBuilder(parserOptions).build(rest);
+        } catch (IOException e) {
+            throw new ParseException(e);
+        }
+    }
+
+
+    /**
+     * The options the stream builder doesn't support need a DOM.
+     */
+    private boolean canStream() {
+        return !parserOptions.isValidating()
+            && !parserOptions.isXincludeAware()
+            && !parserOptions.isIgnoringElementContentWhitespace();
+    }
+
+
+    private XmlNode parseDom(Document document) {
         XmlNode root = new RootXmlNode(this, document);
         nodeCache.put(document, root);
         return root;
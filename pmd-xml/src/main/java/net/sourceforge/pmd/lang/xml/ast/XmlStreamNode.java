@@ -0,0 +1,143 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.xml.ast;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.sourceforge.pmd.lang.ast.AbstractNode;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.ast.xpath.Attribute;
+
+/**
+ * An XML node built directly from the parser events, without a DOM. It
+ * has the same XPath name, image and attributes as the {@link XmlNodeWrapper}
+ * of the corresponding DOM node, but {@link #getNode()} returns null.
+ *
+ * <p>The attributes are stored in a single array, alternating names and
+ * values.
+ *
+ * @since 6.27.0
+ */
+public class XmlStreamNode extends AbstractNode implements XmlNode {
+
+    private static final String[] NO_ATTRIBUTES = new String[0];
+
+    private final String name;
+    private final String text;
+    private final String[] attributes;
+
+    XmlStreamNode(String name, String text, String[] attributes) {
+        super(0);
+        this.name = name;
+        this.text = text;
+        this.attributes = attributes == null ? NO_ATTRIBUTES : attributes;
+    }
+
+    void setBeginPosition(int line, int column) {
+        this.beginLine = line;
+        this.beginColumn = column;
+    }
+
+    void setEndPosition(int line, int column) {
+        this.endLine = line;
+        this.endColumn = column;
+    }
+
+    /**
+     * Returns the text of a text or CDATA node, null otherwise.
+     */
+    @Override
+    public String getImage() {
+        return text;
+    }
+
+    @Override
+    public void setImage(String image) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the value of the given attribute, or null if there's none.
+     *
+     * @param attributeName Qualified name of the attribute
+     */
+    public String getAttribute(String attributeName) {
+        for (int i = 0; i < attributes.length; i += 2) {
+            if (attributes[i].equals(attributeName)) {
+                return attributes[i + 1];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getXPathNodeName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    @Override
+    public Iterator<Attribute> getXPathAttributesIterator() {
+        if (text != null) {
+            // Expose Text/CDATA nodes to have an 'Image' attribute like AST Nodes
+            return Collections.singletonList(new Attribute(this, "Image", text)).iterator();
+        }
+        return new Iterator<Attribute>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < attributes.length;
+            }
+
+            @Override
+            public Attribute next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Attribute attribute = new Attribute(XmlStreamNode.this, attributes[index], attributes[index + 1]);
+                index += 2;
+                return attribute;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * @deprecated use {@link #getXPathAttributesIterator()}
+     */
+    @Override
+    @Deprecated
+    public Iterator<Attribute> getAttributeIterator() {
+        return getXPathAttributesIterator();
+    }
+
+    /**
+     * Returns null, as there's no DOM.
+     */
+    @Override
+    public org.w3c.dom.Node getNode() {
+        return null;
+    }
+
+    /**
+     * The root of a tree built without DOM.
+     */
+    public static class RootXmlStreamNode extends XmlStreamNode implements RootNode {
+        RootXmlStreamNode() {
+            super("document", null, null);
+        }
+    }
+}
@@ -0,0 +1,451 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.xml.ast;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import net.sourceforge.pmd.lang.ast.ParseException;
+import net.sourceforge.pmd.lang.xml.XmlParserOptions;
+import net.sourceforge.pmd.lang.xml.ast.XmlStreamNode.RootXmlStreamNode;
+
+/**
+ * Builds a tree of {@link XmlStreamNode}s in a single pass over the
+ * StAX events, without building a DOM. The positions of the nodes are
+ * computed from the source text, which is only kept in a window around
+ * the current event.
+ *
+ * <p>The StAX locations are not reliable (e.g. after a DTD), so the
+ * markup is delimited by scanning the source text, and text nodes are
+ * delimited by the surrounding markup.
+ */
+class XmlStreamTreeBuilder {
+
+    private static final Pattern DOCTYPE_NAME = Pattern.compile("<!DOCTYPE\\s+([^\\s\\[>]+)");
+
+    private static final XMLResolver SILENT_RESOLVER = new XMLResolver() {
+        @Override
+        public Object resolveEntity(String publicID, String systemID, String baseURI, String namespace) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+    };
+
+    private final XmlParserOptions parserOptions;
+
+    private PositionTrackingReader source;
+    private XMLStreamReader reader;
+
+    /** Children of the open nodes, the last one is the innermost. */
+    private final List<List<XmlStreamNode>> openChildren = new ArrayList<>();
+    private final List<XmlStreamNode> openNodes = new ArrayList<>();
+
+    /** Offset after the last markup. */
+    private int markupEnd;
+    private StringBuilder pendingText;
+    private int pendingTextStart;
+    /** Whether the last event is the start of an empty element tag. */
+    private boolean emptyElementTag;
+
+    XmlStreamTreeBuilder(XmlParserOptions parserOptions) {
+        this.parserOptions = parserOptions;
+    }
+
+    RootXmlStreamNode build(Reader xml) {
+        source = new PositionTrackingReader(xml);
+        try {
+            reader = createFactory().createXMLStreamReader(source);
+            try {
+                return buildTree();
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new ParseException(e);
+        }
+    }
+
+    private XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, parserOptions.isNamespaceAware());
+        factory.setProperty(XMLInputFactory.IS_COALESCING, parserOptions.isCoalescing());
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, parserOptions.isExpandEntityReferences());
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+        if (parserOptions.getEntityResolver() != null) {
+            factory.setXMLResolver(SILENT_RESOLVER);
+        }
+        // otherwise CDATA sections are reported as characters by the JDK parser
+        String reportCdata = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+        if (!parserOptions.isCoalescing() && factory.isPropertySupported(reportCdata)) {
+            factory.setProperty(reportCdata, true);
+        }
+        return factory;
+    }
+
+    private RootXmlStreamNode buildTree() throws XMLStreamException {
+        RootXmlStreamNode root = new RootXmlStreamNode();
+        root.setBeginPosition(1, 1);
+        open(root);
+
+        if (reader.getVersion() != null) {
+            // skip the XML declaration, which is not a node
+            markupEnd = source.indexOf("?>", 0) + 2;
+        }
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            boolean afterEmptyElementTag = emptyElementTag;
+            emptyElementTag = false;
+            switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+                XmlStreamNode element = new XmlStreamNode(qualifiedName(reader.getPrefix(), reader.getLocalName()),
+                                                          null, attributes());
+                startMarkup(element, '<');
+                markupEnd = endOfStartTag(markupEnd);
+                emptyElementTag = source.charAt(markupEnd - 2) == '/';
+                open(element);
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                if (afterEmptyElementTag) {
+                    // there's no end tag
+                    close(markupEnd);
+                } else {
+                    int begin = source.indexOf('<', markupEnd);
+                    flushText(begin);
+                    close(source.indexOf('>', begin) + 1);
+                }
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.SPACE:
+                appendText(reader.getText());
+                break;
+            case XMLStreamConstants.CDATA:
+                addMarkup(new XmlStreamNode("cdata-section", reader.getText(), null), '<', "]]>");
+                break;
+            case XMLStreamConstants.COMMENT:
+                if (!parserOptions.isIgnoringComments()) {
+                    addMarkup(new XmlStreamNode("comment", null, null), '<', "-->");
+                } else {
+                    // the text around the comment is a single node
+                    markupEnd = source.indexOf("-->", source.indexOf('<', markupEnd)) + 3;
+                }
+                break;
+            case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                addMarkup(new XmlStreamNode(reader.getPITarget(), null, null), '<', "?>");
+                break;
+            case XMLStreamConstants.ENTITY_REFERENCE:
+                addMarkup(new XmlStreamNode(reader.getLocalName(), null, null), '&', ";");
+                break;
+            case XMLStreamConstants.DTD:
+                Matcher matcher = DOCTYPE_NAME.matcher(reader.getText());
+                XmlStreamNode doctype = new XmlStreamNode(matcher.find() ? matcher.group(1) : "doctype", null, null);
+                startMarkup(doctype, '<');
+                endMarkup(doctype, endOfDoctype(markupEnd));
+                break;
+            default:
+                break;
+            }
+        }
+
+        // like the DOM, the document ends with its last node
+        List<XmlStreamNode> children = openChildren.get(0);
+        if (!children.isEmpty()) {
+            XmlStreamNode last = children.get(children.size() - 1);
+            root.setEndPosition(last.getEndLine(), last.getEndColumn());
+        }
+        setChildren(root, children);
+        return root;
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ':' + localName;
+    }
+
+    private String[] attributes() {
+        int namespaceCount = parserOptions.isNamespaceAware() ? reader.getNamespaceCount() : 0;
+        int attributeCount = reader.getAttributeCount();
+        if (namespaceCount + attributeCount == 0) {
+            return null;
+        }
+        String[] attributes = new String[2 * (namespaceCount + attributeCount)];
+        int i = 0;
+        for (int n = 0; n < namespaceCount; n++) {
+            attributes[i++] = qualifiedName("xmlns", reader.getNamespacePrefix(n));
+            attributes[i++] = reader.getNamespaceURI(n);
+        }
+        for (int a = 0; a < attributeCount; a++) {
+            attributes[i++] = qualifiedName(reader.getAttributePrefix(a), reader.getAttributeLocalName(a));
+            attributes[i++] = reader.getAttributeValue(a);
+        }
+        return attributes;
+    }
+
+    private void appendText(String text) {
+        if (pendingText == null) {
+            pendingText = new StringBuilder(text.length());
+            pendingTextStart = markupEnd;
+        }
+        pendingText.append(text);
+    }
+
+    /**
+     * Adds the pending text node, which ends before the given offset.
+     */
+    private void flushText(int end) {
+        if (pendingText == null) {
+            return;
+        }
+        XmlStreamNode text = new XmlStreamNode("text", pendingText.toString(), null);
+        pendingText = null;
+        // the DOM has no text outside of the root element
+        if (openNodes.size() > 1) {
+            source.advanceTo(pendingTextStart);
+            text.setBeginPosition(source.line, source.column);
+            source.advanceTo(end - 1);
+            text.setEndPosition(source.line, source.column);
+            currentChildren().add(text);
+        }
+    }
+
+    /**
+     * Flushes the pending text, and positions the beginning of the node,
+     * which starts with the given character. The end of the markup is
+     * then the offset of that character.
+     */
+    private void startMarkup(XmlStreamNode node, char firstChar) {
+        int begin = source.indexOf(firstChar, markupEnd);
+        flushText(begin);
+        source.advanceTo(begin);
+        node.setBeginPosition(source.line, source.column);
+        markupEnd = begin;
+    }
+
+    private void endMarkup(XmlStreamNode node, int end) {
+        markupEnd = end;
+        source.advanceTo(end - 1);
+        node.setEndPosition(source.line, source.column);
+        currentChildren().add(node);
+        source.discardBefore(end);
+    }
+
+    private void addMarkup(XmlStreamNode node, char firstChar, String last) {
+        startMarkup(node, firstChar);
+        endMarkup(node, source.indexOf(last, markupEnd + 1) + last.length());
+    }
+
+    /**
+     * Returns the offset after the start tag beginning at the given offset.
+     * The attribute values may contain '>'.
+     */
+    private int endOfStartTag(int begin) {
+        char quote = 0;
+        for (int i = begin + 1; i < source.end(); i++) {
+            char c = source.charAt(i);
+            if (quote != 0) {
+                quote = c == quote ? 0 : quote;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i + 1;
+            }
+        }
+        return source.end();
+    }
+
+    /**
+     * Returns the offset after the document type declaration beginning at
+     * the given offset. Its internal subset may contain '>'.
+     */
+    private int endOfDoctype(int begin) {
+        char quote = 0;
+        boolean internalSubset = false;
+        for (int i = begin + 1; i < source.end(); i++) {
+            char c = source.charAt(i);
+            if (quote != 0) {
+                quote = c == quote ? 0 : quote;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (internalSubset && c == '<' && source.startsWith("<!--", i)) {
+                i = source.indexOf("-->", i) + 2;
+            } else if (c == '[') {
+                internalSubset = true;
+            } else if (c == ']') {
+                internalSubset = false;
+            } else if (c == '>' && !internalSubset) {
+                return i + 1;
+            }
+        }
+        return source.end();
+    }
+
+    private List<XmlStreamNode> currentChildren() {
+        return openChildren.get(openChildren.size() - 1);
+    }
+
+    private void open(XmlStreamNode node) {
+        if (!openNodes.isEmpty()) {
+            currentChildren().add(node);
+        }
+        openNodes.add(node);
+        openChildren.add(new ArrayList<XmlStreamNode>());
+    }
+
+    private void close(int end) {
+        XmlStreamNode node = openNodes.remove(openNodes.size() - 1);
+        setChildren(node, openChildren.remove(openChildren.size() - 1));
+        markupEnd = end;
+        source.advanceTo(end - 1);
+        node.setEndPosition(source.line, source.column);
+        source.discardBefore(end);
+    }
+
+    private static void setChildren(XmlStreamNode node, List<XmlStreamNode> children) {
+        // backwards, so that the array of children is allocated once
+        for (int i = children.size() - 1; i >= 0; i--) {
+            XmlStreamNode child = children.get(i);
+            node.jjtAddChild(child, i);
+            child.jjtSetParent(node);
+        }
+    }
+
+    /**
+     * Keeps the characters read by the parser that are not positioned
+     * yet, and computes the line and column of offsets in the source.
+     */
+    private static final class PositionTrackingReader extends FilterReader {
+
+        private char[] window = new char[8192];
+        /** Offset of the first character of the window. */
+        private int windowStart;
+        private int windowLength;
+        /** Characters before this offset may be dropped from the window. */
+        private int discardable;
+
+        /** Offset, line and column of the position. */
+        private int offset;
+        private int line = 1;
+        private int column = 1;
+
+        PositionTrackingReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c >= 0) {
+                append(new char[] {(char) c}, 0, 1);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int read = super.read(cbuf, off, len);
+            if (read > 0) {
+                append(cbuf, off, read);
+            }
+            return read;
+        }
+
+        private void append(char[] chars, int off, int len) {
+            if (windowLength + len > window.length) {
+                compact();
+            }
+            if (windowLength + len > window.length) {
+                char[] newWindow = new char[Math.max(2 * window.length, windowLength + len)];
+                System.arraycopy(window, 0, newWindow, 0, windowLength);
+                window = newWindow;
+            }
+            System.arraycopy(chars, off, window, windowLength, len);
+            windowLength += len;
+        }
+
+        /** Returns the offset after the characters read. */
+        int end() {
+            return windowStart + windowLength;
+        }
+
+        char charAt(int offset) {
+            return window[offset - windowStart];
+        }
+
+        /**
+         * Returns the offset of the first occurrence of the character at
+         * or after the given offset, or the end of the characters read.
+         */
+        int indexOf(char c, int from) {
+            for (int i = Math.max(from, windowStart) - windowStart; i < windowLength; i++) {
+                if (window[i] == c) {
+                    return windowStart + i;
+                }
+            }
+            return end();
+        }
+
+        /**
+         * Returns the offset of the first occurrence of the string at or
+         * after the given offset, or the end of the characters read.
+         */
+        int indexOf(String s, int from) {
+            for (int i = indexOf(s.charAt(0), from); i < end(); i = indexOf(s.charAt(0), i + 1)) {
+                if (startsWith(s, i)) {
+                    return i;
+                }
+            }
+            return end();
+        }
+
+        boolean startsWith(String s, int offset) {
+            if (offset + s.length() > end()) {
+                return false;
+            }
+            for (int i = 0; i < s.length(); i++) {
+                if (charAt(offset + i) != s.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Moves the position forward to the given offset. */
+        void advanceTo(int target) {
+            int end = Math.min(target, windowStart + windowLength);
+            for (; offset < end; offset++) {
+                if (window[offset - windowStart] == '\n') {
+                    line++;
+                    column = 1;
+                } else {
+                    column++;
+                }
+            }
+        }
+
+        /** Allows forgetting the characters before the given offset, and before the position. */
+        void discardBefore(int target) {
+            discardable = Math.max(discardable, target);
+        }
+
+        private void compact() {
+            int discarded = Math.min(discardable, offset) - windowStart;
+            if (discarded > 0) {
+                System.arraycopy(window, discarded, window, 0, windowLength - discarded);
+                windowLength -= discarded;
+                windowStart += discarded;
+            }
+        }
+    }
+}
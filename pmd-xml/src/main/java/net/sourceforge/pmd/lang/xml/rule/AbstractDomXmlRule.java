@@ -18,6 +18,7 @@ import org.w3c.dom.Notation;
 import org.w3c.dom.ProcessingInstruction;
 import org.w3c.dom.Text;
 
+import net.sourceforge.pmd.Report;
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.lang.xml.ast.XmlNode;
 
@@ -25,12 +26,23 @@ import net.sourceforge.pmd.lang.xml.ast.XmlNode;
  * This is a base class for XML Java bases rules that which to visit the nodes
  * using the DOM. Subclasses should override the DOM appropriate method and can
  * call <code>super</code> to visit children.
+ *
+ * <p>Documents larger than the system property {@code net.sourceforge.pmd.xml.maxDomSize}
+ * are not parsed into a DOM. Such rules can't check them, and report a
+ * processing error for them instead.
  */
 public class AbstractDomXmlRule extends AbstractXmlRule {
 
     @Override
     protected void visit(XmlNode node, RuleContext ctx) {
         final Node domNode = node.getNode();
+        if (domNode == null) {
+            // large documents have no DOM, none of their nodes has one
+            if (node.getParent() == null) {
+                reportMissingDom(ctx);
+            }
+            return;
+        }
 
         // Visit the node
         visitDomNode(node, domNode, ctx);
@@ -39,6 +51,14 @@ public class AbstractDomXmlRule extends AbstractXmlRule {
         visitAttributeNodes(node, domNode, ctx);
     }
 
+    private void reportMissingDom(RuleContext ctx) {
+        String message = "Rule " + getName() + " needs a DOM, but " + ctx.getSourceCodeFilename()
+            + " is too large to be parsed into one. Raise the system property"
+            + " net.sourceforge.pmd.xml.maxDomSize to check it.";
+        ctx.getReport().addError(new Report.ProcessingError(new IllegalStateException(message),
+                                                            ctx.getSourceCodeFilename()));
+    }
+
     protected void visitDomNode(XmlNode node, Node domNode, RuleContext ctx) {
         switch (domNode.getNodeType()) {
         case Node.CDATA_SECTION_NODE:
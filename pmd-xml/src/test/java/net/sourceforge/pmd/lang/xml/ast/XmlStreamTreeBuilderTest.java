@@ -0,0 +1,191 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.xml.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.xpath.Attribute;
+import net.sourceforge.pmd.lang.xml.XmlParserOptions;
+import net.sourceforge.pmd.lang.xml.rule.AbstractDomXmlRule;
+
+/**
+ * Checks that the trees built without DOM are the same as the DOM trees.
+ */
+public class XmlStreamTreeBuilderTest {
+
+    private static final String XML_TEST = "<?xml version=\"1.0\"?>\n" + "<!DOCTYPE rootElement\n" + "[\n"
+            + "<!ELEMENT rootElement (child1,child2)>\n" + "<!ELEMENT child1 (#PCDATA)>\n"
+            + "<!ATTLIST child1 test CDATA #REQUIRED>\n" + "<!ELEMENT child2 (#PCDATA)>\n" + "\n"
+            + "<!ENTITY pmd \"Copyright: PMD\">\n" + "]\n" + ">\n" + "<rootElement>\n"
+            + "    <!-- that's a comment -->\n" + "    <child1 test=\"1\">entity: &pmd;\n" + "    </child1>\n"
+            + "    <child2>\n" + "      <![CDATA[ cdata section ]]>\n" + "    </child2>\n" + "</rootElement>";
+
+    private static final String XML_NAMESPACE_TEST = "<?xml version=\"1.0\"?>\n"
+            + "<pmd:rootElement xmlns:pmd=\"http://pmd.sf.net\">\n" + "    <!-- that's a comment -->\n"
+            + "    <pmd:child1 test=\"1\">entity: &amp;\n" + "    </pmd:child1>\n" + "    <pmd:child2>\n"
+            + "      <![CDATA[ cdata section ]]>\n" + "    </pmd:child2>\n" + "</pmd:rootElement>";
+
+    private static final String XML_PI_TEST = "<?xml version=\"1.0\"?><?mypi?><!DOCTYPE testDoc [<!ENTITY myentity \"e\">]>"
+            + "<!--Comment--><foo abc=\"abc\"><bar>TEXT</bar><![CDATA[cdata!]]>&gt;&myentity;&lt;</foo>";
+
+    @Test
+    public void testDefaultOptions() {
+        XmlParserOptions options = new XmlParserOptions();
+        assertSameTrees(options, XML_TEST);
+        assertSameTrees(options, XML_NAMESPACE_TEST);
+        assertSameTrees(options, XML_PI_TEST);
+        assertSameTrees(options, "<elementName att1='foo' att2='bar' att3='other' />");
+    }
+
+    @Test
+    public void testCoalescing() {
+        XmlParserOptions options = new XmlParserOptions();
+        options.setCoalescing(true);
+        assertSameStructure(options, XML_TEST);
+        assertSameStructure(options, XML_PI_TEST);
+    }
+
+    @Test
+    public void testEntityReferencesNotExpanded() {
+        XmlParserOptions options = new XmlParserOptions();
+        options.setExpandEntityReferences(false);
+        assertSameStructure(options, XML_TEST);
+        assertSameStructure(options, XML_PI_TEST);
+    }
+
+    @Test
+    public void testIgnoringComments() {
+        XmlParserOptions options = new XmlParserOptions();
+        options.setIgnoringComments(true);
+        assertSameStructure(options, XML_TEST);
+        assertSameStructure(options, XML_PI_TEST);
+    }
+
+    @Test
+    public void testNotNamespaceAware() {
+        XmlParserOptions options = new XmlParserOptions();
+        options.setNamespaceAware(false);
+        assertSameTrees(options, XML_NAMESPACE_TEST);
+    }
+
+    @Test
+    public void testLargeDocument() {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?>\n<project>\n");
+        for (int i = 0; i < 5000; i++) {
+            xml.append("  <dependency id=\"").append(i).append("\">\n")
+               .append("    <!-- dependency ").append(i).append(" -->\n")
+               .append("    <version>1.").append(i).append("</version>\n")
+               .append("  </dependency>\n");
+        }
+        xml.append("</project>\n");
+        assertSameTrees(new XmlParserOptions(), xml.toString());
+    }
+
+    @Test
+    public void testThreshold() {
+        XmlParser parser = new XmlParser(new XmlParserOptions());
+        assertNotNull(parser.parse(new StringReader(XML_TEST), XML_TEST.length()).getNode());
+        assertNull(parser.parse(new StringReader(XML_TEST), XML_TEST.length() - 1).getNode());
+    }
+
+    @Test
+    public void testValidationNeedsDom() {
+        XmlParserOptions options = new XmlParserOptions();
+        options.setValidating(true);
+        assertNotNull(new XmlParser(options).parse(new StringReader(XML_TEST), 0).getNode());
+    }
+
+    @Test
+    public void testDomRulesReportLargeDocuments() {
+        ElementCountingRule rule = new ElementCountingRule();
+        RuleContext ctx = new RuleContext();
+        ctx.setSourceCodeFile(new File("large.xml"));
+
+        rule.apply(Collections.singletonList(new XmlParser(new XmlParserOptions()).parse(new StringReader(XML_TEST), 0)), ctx);
+
+        assertEquals(0, rule.elements);
+        Iterator<Report.ProcessingError> errors = ctx.getReport().errors();
+        assertTrue(errors.hasNext());
+        assertTrue(errors.next().getMsg().contains("large.xml"));
+
+        ctx.setReport(new Report());
+        rule.apply(Collections.singletonList(new XmlParser(new XmlParserOptions()).parse(new StringReader(XML_TEST))), ctx);
+        assertEquals(3, rule.elements);
+        assertFalse(ctx.getReport().errors().hasNext());
+    }
+
+    private static class ElementCountingRule extends AbstractDomXmlRule {
+        int elements;
+
+        @Override
+        protected void visit(XmlNode node, Element element, RuleContext ctx) {
+            elements++;
+            super.visit(node, element, ctx);
+        }
+    }
+
+    private static void assertSameTrees(XmlParserOptions options, String xml) {
+        assertSameTrees(options, xml, true);
+    }
+
+    /**
+     * The DOM positions are approximate with these options, e.g. for
+     * coalesced text, so only the nodes are compared.
+     */
+    private static void assertSameStructure(XmlParserOptions options, String xml) {
+        assertSameTrees(options, xml, false);
+    }
+
+    private static void assertSameTrees(XmlParserOptions options, String xml, boolean positions) {
+        Node dom = new XmlParser(options).parse(new StringReader(xml), Integer.MAX_VALUE);
+        Node streamed = new XmlParser(options).parse(new StringReader(xml), 0);
+        assertTrue(streamed instanceof XmlStreamNode.RootXmlStreamNode);
+        assertSameNodes(dom, streamed, positions);
+    }
+
+    private static void assertSameNodes(Node expected, Node actual, boolean positions) {
+        String path = actual.getXPathNodeName() + " at " + actual.getBeginLine() + ":" + actual.getBeginColumn();
+        assertEquals(path, expected.getXPathNodeName(), actual.getXPathNodeName());
+        assertEquals(path, expected.getImage(), actual.getImage());
+        if (positions) {
+            assertEquals(path, expected.getBeginLine(), actual.getBeginLine());
+            assertEquals(path, expected.getBeginColumn(), actual.getBeginColumn());
+            assertEquals(path, expected.getEndLine(), actual.getEndLine());
+            assertEquals(path, expected.getEndColumn(), actual.getEndColumn());
+        }
+
+        Iterator<Attribute> expectedAttributes = expected.getXPathAttributesIterator();
+        Iterator<Attribute> actualAttributes = actual.getXPathAttributesIterator();
+        while (expectedAttributes.hasNext()) {
+            assertTrue(path, actualAttributes.hasNext());
+            Attribute expectedAttribute = expectedAttributes.next();
+            Attribute actualAttribute = actualAttributes.next();
+            assertEquals(path, expectedAttribute.getName(), actualAttribute.getName());
+            assertEquals(path, expectedAttribute.getValue(), actualAttribute.getValue());
+        }
+        assertFalse(path, actualAttributes.hasNext());
+
+        assertEquals(path, expected.getNumChildren(), actual.getNumChildren());
+        for (int i = 0; i < expected.getNumChildren(); i++) {
+            assertEquals(actual, actual.getChild(i).getParent());
+            assertSameNodes(expected.getChild(i), actual.getChild(i), positions);
+        }
+    }
+}